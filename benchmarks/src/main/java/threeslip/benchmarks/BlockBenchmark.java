@@ -0,0 +1,128 @@
+package threeslip.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost per round of scoring a strategy, one round at a time through
+ * Player.chooseIndexFrom against scoring a whole block of rounds through
+ * Player.tallyBlock. Both score the same pre-dealt rounds. Run with
+ * -jvmArgsAppend "--add-modules jdk.incubator.vector" on an engine built
+ * with the vector profile to measure the Vector API kernel.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockBenchmark {
+
+    /** The number of rounds in the block. */
+    private static final int BLOCK_ROUNDS = 1 << 10;
+    /** The seed of the deal generator's stream. */
+    private static final long SEED = 20161003L;
+
+    /** The strategy of the player under test. */
+    @Param({"KEEP_ORIGINAL", "INFORMED_STRATEGY"})
+    private String strategy;
+
+    /** The number of slips in each round. */
+    @Param({"3", "10"})
+    private int slips;
+
+    /** The Player under test. */
+    private Object player;
+    /** The rounds as a DealBlock. */
+    private Object block;
+    /** The scalar BlockKernel. */
+    private Object scalar;
+    /** The default BlockKernel. */
+    private Object vector;
+    /** The rounds as values. */
+    private int[][] deals;
+
+    /**
+     * Create the player, the kernels and the rounds.
+     * @throws Throwable if the engine throws
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        Object tester = Engine.newTester(this.slips, SEED);
+        this.player = Engine.newPlayer(tester, this.strategy);
+        this.scalar = Engine.newKernel(false);
+        this.vector = Engine.newKernel(true);
+        this.block = Engine.newBlock(BLOCK_ROUNDS, this.slips);
+        Engine.fillBlock(this.block, Engine.newDealGenerator(tester, SEED,
+                SlipRange.UNBOUNDED, 0), BLOCK_ROUNDS);
+        Object generator = Engine.newDealGenerator(tester, SEED,
+                SlipRange.UNBOUNDED, 0);
+        this.deals = new int[BLOCK_ROUNDS][this.slips];
+        for (int[] deal : this.deals) {
+            Engine.fill(generator, deal);
+        }
+    }
+
+    /**
+     * Player.chooseIndexFrom and a search for the winner, round by round.
+     * @return the number of wins
+     * @throws Throwable if the player throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_ROUNDS)
+    public long perRound() throws Throwable {
+        long wins = 0;
+        for (int[] deal : this.deals) {
+            int choice = Engine.chooseIndexFrom(this.player, deal);
+            int winner = 0;
+            for (int i = 1; i < deal.length; i++) {
+                if (deal[i] > deal[winner]) {
+                    winner = i;
+                }
+            }
+            if (choice == winner) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * Player.tallyBlock with the scalar kernel.
+     * @return the player's running win count
+     * @throws Throwable if the player throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_ROUNDS)
+    public long scalarBlock() throws Throwable {
+        Engine.tallyBlock(this.player, this.block, this.scalar);
+        return Engine.getWinCount(this.player);
+    }
+
+    /**
+     * Player.tallyBlock with the default kernel.
+     * @return the player's running win count
+     * @throws Throwable if the player throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_ROUNDS)
+    public long defaultBlock() throws Throwable {
+        Engine.tallyBlock(this.player, this.block, this.vector);
+        return Engine.getWinCount(this.player);
+    }
+}
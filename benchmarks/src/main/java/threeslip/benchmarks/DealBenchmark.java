@@ -0,0 +1,94 @@
+package threeslip.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of dealing a single round and finding its winner.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DealBenchmark {
+
+    /** The seed of the deal generator's stream. */
+    private static final long SEED = 20161003L;
+
+    /** The number of slips in each round. */
+    @Param({"3", "5", "10"})
+    private int numberOfSlips;
+    /** The range of slip values. */
+    @Param({"UNBOUNDED", "WIDE", "NARROW"})
+    private SlipRange range;
+
+    /** The SlipHypoTester whose private methods are measured. */
+    private Object tester;
+    /** The DealGenerator under test. */
+    private Object generator;
+    /** The deal buffer. */
+    private int[] deal;
+    /** A Slip[] from which to find the winner. */
+    private Object slips;
+
+    /**
+     * Create the generator and a round of slips.
+     * @throws Throwable if the generator cannot be created
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        this.tester = Engine.newTester(this.numberOfSlips, SEED);
+        this.generator = Engine.newDealGenerator(this.tester, SEED,
+                this.range, this.range.maximum(this.numberOfSlips));
+        this.deal = new int[this.numberOfSlips];
+        this.slips = Engine.generateSlips(this.tester, this.generator,
+                this.deal);
+    }
+
+    /**
+     * DealGenerator.fill, the primitive path.
+     * @return the deal buffer
+     * @throws Throwable if generation throws
+     */
+    @Benchmark
+    public int[] fill() throws Throwable {
+        Engine.fill(this.generator, this.deal);
+        return this.deal;
+    }
+
+    /**
+     * SlipHypoTester.generateSlips, the primitive path wrapped in Slip views.
+     * @return the Slip[]
+     * @throws Throwable if generation throws
+     */
+    @Benchmark
+    public Object generateSlips() throws Throwable {
+        return Engine.generateSlips(this.tester, this.generator, this.deal);
+    }
+
+    /**
+     * SlipHypoTester.findWinningSlip.
+     * @return the winning slip
+     * @throws Throwable if the search throws
+     */
+    @Benchmark
+    public Object findWinningSlip() throws Throwable {
+        return Engine.findWinningSlip(this.tester, this.slips);
+    }
+}
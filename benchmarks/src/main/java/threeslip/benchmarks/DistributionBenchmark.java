@@ -0,0 +1,70 @@
+package threeslip.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of dealing a single round from each distribution of slip values,
+ * against the uniform integers of DealGenerator.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributionBenchmark {
+
+    /** The seed of the deal generator's stream. */
+    private static final long SEED = 20161003L;
+
+    /** The number of slips in each round. */
+    @Param({"3", "10", "40"})
+    private int numberOfSlips;
+    /** The distribution of slip values. */
+    @Param({"UNIFORM", "NORMAL", "EXPONENTIAL", "PARETO", "EMPIRICAL"})
+    private SlipDistribution distribution;
+
+    /** The deal source under test. */
+    private Object generator;
+    /** The deal buffer. */
+    private int[] deal;
+
+    /**
+     * Create the generator.
+     * @throws Throwable if the generator cannot be created
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        Object tester = Engine.newTester(this.numberOfSlips, SEED,
+                this.distribution.create());
+        this.generator = Engine.newDealGenerator(tester, SEED,
+                SlipRange.UNBOUNDED, 0);
+        this.deal = new int[this.numberOfSlips];
+    }
+
+    /**
+     * DealSource.fill.
+     * @return the deal buffer
+     * @throws Throwable if generation throws
+     */
+    @Benchmark
+    public int[] fill() throws Throwable {
+        Engine.fillSource(this.generator, this.deal);
+        return this.deal;
+    }
+}
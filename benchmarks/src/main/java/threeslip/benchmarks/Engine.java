@@ -0,0 +1,562 @@
+package threeslip.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+
+/**
+ * Bridge from the benchmarks to the simulation engine. The engine's classes
+ * live in the unnamed package, which cannot be referenced from the named
+ * package that JMH requires of benchmark classes, so the entry points are
+ * looked up once as constant method handles that the JIT inlines.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+final class Engine {
+
+    /** SlipHypoTester(int, RandomAlgorithm, long). */
+    private static final MethodHandle NEW_TESTER;
+    /** SlipHypoTester(int, RandomAlgorithm, long, ValueDistribution). */
+    private static final MethodHandle NEW_DISTRIBUTION_TESTER;
+    /** SlipHypoTester.simulateSharedPlay(long). */
+    private static final MethodHandle SHARED_PLAY;
+    /** SlipHypoTester.simulateSharedPlay(long, int, int). */
+    private static final MethodHandle SHARED_PLAY_BOUNDED;
+    /** SlipHypoTester.simulatePlay(long). */
+    private static final MethodHandle PLAY;
+    /** SlipHypoTester.simulatePlay(long, int, int). */
+    private static final MethodHandle PLAY_BOUNDED;
+    /** SlipHypoTester.simulatePermutationPlay(long, int). */
+    private static final MethodHandle PERMUTATION_PLAY;
+    /** SlipHypoTester.optimizeThresholdPolicy(long, int, int, int). */
+    private static final MethodHandle OPTIMIZE_THRESHOLD;
+    /** SlipHypoTester.newDealGenerator(RandomSource, boolean, int, int). */
+    private static final MethodHandle NEW_DEAL_GENERATOR;
+    /** SlipHypoTester.generateSlips(DealSource, int[]). */
+    private static final MethodHandle GENERATE_SLIPS;
+    /** SlipHypoTester.findWinningSlip(Slip[]). */
+    private static final MethodHandle FIND_WINNING_SLIP;
+    /** SlipHypoTester.getNewPlayerWith(ThreeSlipStrategy). */
+    private static final MethodHandle NEW_PLAYER;
+    /** RandomAlgorithm.create(long). */
+    private static final MethodHandle CREATE_SOURCE;
+    /** DealGenerator.fill(int[]). */
+    private static final MethodHandle FILL;
+    /** DealSource.fill(int[]). */
+    private static final MethodHandle FILL_SOURCE;
+    /** Player.chooseSlipFrom(Slip[]). */
+    private static final MethodHandle CHOOSE_SLIP_FROM;
+    /** Player.chooseIndexFrom(int[]). */
+    private static final MethodHandle CHOOSE_INDEX_FROM;
+    /** Player.getChoice(). */
+    private static final MethodHandle GET_CHOICE;
+    /** Player.tallyBlock(DealBlock, BlockKernel). */
+    private static final MethodHandle TALLY_BLOCK;
+    /** Player.getWinCount(). */
+    private static final MethodHandle GET_WIN_COUNT;
+    /** DealBlock(int, int). */
+    private static final MethodHandle NEW_BLOCK;
+    /** DealBlock.fill(DealSource, int). */
+    private static final MethodHandle FILL_BLOCK;
+    /** BlockKernel.getDefault(). */
+    private static final MethodHandle DEFAULT_KERNEL;
+    /** ScalarBlockKernel(). */
+    private static final MethodHandle NEW_SCALAR_KERNEL;
+    /** StrategyRule.compile(String, String). */
+    private static final MethodHandle COMPILE_RULE;
+    /** StrategyRule.newPlayer(). */
+    private static final MethodHandle NEW_RULE_PLAYER;
+    /** CompiledPlayer.tallyDeals(int[], int[], int, int). */
+    private static final MethodHandle TALLY_DEALS;
+    /** CompiledPlayer.getWinCount(). */
+    private static final MethodHandle RULE_WIN_COUNT;
+
+    static {
+        try {
+            Class<?> tester = Class.forName("SlipHypoTester");
+            Class<?> algorithm = Class.forName("RandomAlgorithm");
+            Class<?> source = Class.forName("RandomSource");
+            Class<?> generator = Class.forName("DealGenerator");
+            Class<?> dealSource = Class.forName("DealSource");
+            Class<?> slips = Class.forName("Slip").arrayType();
+            Class<?> strategy = Class.forName("ThreeSlipStrategy");
+            Class<?> player = Class.forName("Player");
+            Class<?> block = Class.forName("DealBlock");
+            Class<?> kernel = Class.forName("BlockKernel");
+            NEW_TESTER = constructor(tester, int.class, algorithm, long.class);
+            NEW_DISTRIBUTION_TESTER = constructor(tester, int.class,
+                    algorithm, long.class,
+                    Class.forName("ValueDistribution"));
+            SHARED_PLAY = method(tester, "simulateSharedPlay", long.class);
+            SHARED_PLAY_BOUNDED = method(tester, "simulateSharedPlay",
+                    long.class, int.class, int.class);
+            PLAY = method(tester, "simulatePlay", long.class);
+            PLAY_BOUNDED = method(tester, "simulatePlay",
+                    long.class, int.class, int.class);
+            PERMUTATION_PLAY = method(tester, "simulatePermutationPlay",
+                    long.class, int.class);
+            OPTIMIZE_THRESHOLD = method(tester, "optimizeThresholdPolicy",
+                    long.class, int.class, int.class, int.class);
+            NEW_DEAL_GENERATOR = method(tester, "newDealGenerator",
+                    source, boolean.class, int.class, int.class);
+            GENERATE_SLIPS = method(tester, "generateSlips",
+                    dealSource, int[].class);
+            FIND_WINNING_SLIP = method(tester, "findWinningSlip", slips);
+            NEW_PLAYER = method(tester, "getNewPlayerWith", strategy);
+            CREATE_SOURCE = method(algorithm, "create", long.class);
+            FILL = method(generator, "fill", int[].class);
+            FILL_SOURCE = method(dealSource, "fill", int[].class);
+            CHOOSE_SLIP_FROM = method(player, "chooseSlipFrom", slips);
+            CHOOSE_INDEX_FROM = method(player, "chooseIndexFrom", int[].class);
+            GET_CHOICE = method(player, "getChoice");
+            TALLY_BLOCK = method(player, "tallyBlock", block, kernel);
+            GET_WIN_COUNT = method(player, "getWinCount");
+            NEW_BLOCK = constructor(block, int.class, int.class);
+            FILL_BLOCK = method(block, "fill", dealSource, int.class);
+            DEFAULT_KERNEL = method(kernel, "getDefault");
+            NEW_SCALAR_KERNEL = constructor(
+                    Class.forName("ScalarBlockKernel"));
+            Class<?> rule = Class.forName("StrategyRule");
+            COMPILE_RULE = method(rule, "compile", String.class,
+                    String.class);
+            NEW_RULE_PLAYER = method(rule, "newPlayer");
+            Class<?> compiled = Class.forName("CompiledPlayer");
+            TALLY_DEALS = method(compiled, "tallyDeals", int[].class,
+                    int[].class, int.class, int.class);
+            RULE_WIN_COUNT = method(compiled, "getWinCount");
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Not instantiable.
+     */
+    private Engine() {
+    }
+
+    /**
+     * Look up a constructor, erasing the engine's types to Object.
+     * @param owner      the class declaring the constructor
+     * @param parameters the parameter types of the constructor
+     * @return a handle to the constructor
+     * @throws ReflectiveOperationException if the constructor is missing
+     */
+    private static MethodHandle constructor(final Class<?> owner,
+                                            final Class<?>... parameters)
+            throws ReflectiveOperationException {
+        Constructor<?> c = owner.getDeclaredConstructor(parameters);
+        c.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflectConstructor(c);
+        return handle.asType(erase(handle.type()));
+    }
+
+    /**
+     * Look up a method, including a private one, erasing the engine's types
+     * to Object.
+     * @param owner      the class declaring the method
+     * @param name       the name of the method
+     * @param parameters the parameter types of the method
+     * @return a handle to the method taking the receiver first
+     * @throws ReflectiveOperationException if the method is missing
+     */
+    private static MethodHandle method(final Class<?> owner, final String name,
+                                       final Class<?>... parameters)
+            throws ReflectiveOperationException {
+        Method m = owner.getDeclaredMethod(name, parameters);
+        m.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(m);
+        return handle.asType(erase(handle.type()));
+    }
+
+    /**
+     * Replace the engine's types in a method type with Object, keeping
+     * primitive and JDK types so that no values are boxed. A reference
+     * return type is always Object, so that callers can cast any result
+     * to Object.
+     * @param type the method type to erase
+     * @return the erased method type
+     */
+    private static MethodType erase(final MethodType type) {
+        Class<?> result = type.returnType();
+        if (!result.isPrimitive()) {
+            result = Object.class;
+        }
+        MethodType erased = type.changeReturnType(result);
+        for (int i = 0; i < type.parameterCount(); i++) {
+            erased = erased.changeParameterType(i,
+                    erase(type.parameterType(i)));
+        }
+        return erased;
+    }
+
+    /**
+     * Replace a type from the unnamed package, or an array of one, with
+     * Object.
+     * @param type the type to erase
+     * @return Object if type belongs to the engine, otherwise type
+     */
+    private static Class<?> erase(final Class<?> type) {
+        Class<?> element = type;
+        while (element.isArray()) {
+            element = element.getComponentType();
+        }
+        if (element.isPrimitive() || !element.getPackageName().isEmpty()) {
+            return type;
+        }
+        return Object.class;
+    }
+
+    /**
+     * Look up a constant of one of the engine's enums.
+     * @param enumName     the name of the enum
+     * @param constantName the name of the constant
+     * @return the constant
+     */
+    static Object constant(final String enumName, final String constantName) {
+        try {
+            return Class.forName(enumName).getField(constantName).get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Returns the jar or directory from which the engine's classes were
+     * loaded, for benchmarks that start the engine in a new JVM.
+     * @return the class path of the engine
+     */
+    static String classPath() {
+        try {
+            return Paths.get(Class.forName("SimulationCommand")
+                    .getProtectionDomain().getCodeSource().getLocation()
+                    .toURI()).toString();
+        } catch (ClassNotFoundException | URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Create a tester dealing with SplittableRandom.
+     * @param numberOfSlips the number of slips in each round
+     * @param seed          the master seed of the tester
+     * @return a new SlipHypoTester
+     * @throws Throwable if the constructor throws
+     */
+    static Object newTester(final int numberOfSlips, final long seed)
+            throws Throwable {
+        return (Object) NEW_TESTER.invokeExact(numberOfSlips,
+                constant("RandomAlgorithm", "SPLITTABLE_RANDOM"), seed);
+    }
+
+    /**
+     * Create a tester dealing with SplittableRandom from a distribution of
+     * slip values.
+     * @param numberOfSlips the number of slips in each round
+     * @param seed          the master seed of the tester
+     * @param distribution  the ValueDistribution, or null for uniform
+     *                      integers
+     * @return a new SlipHypoTester
+     * @throws Throwable if the constructor throws
+     */
+    static Object newTester(final int numberOfSlips, final long seed,
+                            final Object distribution) throws Throwable {
+        return (Object) NEW_DISTRIBUTION_TESTER.invokeExact(numberOfSlips,
+                constant("RandomAlgorithm", "SPLITTABLE_RANDOM"), seed,
+                distribution);
+    }
+
+    /**
+     * Create an object of one of the engine's classes. Meant for setup
+     * only, as the constructor is not looked up as a constant.
+     * @param className  the name of the class
+     * @param types      the parameter types of the constructor
+     * @param parameters the parameters of the constructor
+     * @return the new object
+     */
+    static Object construct(final String className, final Class<?>[] types,
+                            final Object... parameters) {
+        try {
+            return Class.forName(className).getConstructor(types)
+                    .newInstance(parameters);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Run SlipHypoTester.simulateSharedPlay.
+     * @param tester         the tester
+     * @param numberOfRounds the number of rounds to simulate
+     * @param range          the range of slip values
+     * @param maximum        the largest slip value, if bounded
+     * @return the win map
+     * @throws Throwable if the simulation throws
+     */
+    static Object simulateSharedPlay(final Object tester,
+                                     final long numberOfRounds,
+                                     final SlipRange range, final int maximum)
+            throws Throwable {
+        if (range.hasBounds()) {
+            return (Object) SHARED_PLAY_BOUNDED.invokeExact(tester,
+                    numberOfRounds, SlipRange.MINIMUM, maximum);
+        }
+        return (Object) SHARED_PLAY.invokeExact(tester, numberOfRounds);
+    }
+
+    /**
+     * Run SlipHypoTester.simulatePlay.
+     * @param tester         the tester
+     * @param numberOfRounds the number of rounds to simulate
+     * @param range          the range of slip values
+     * @param maximum        the largest slip value, if bounded
+     * @return the win map
+     * @throws Throwable if the simulation throws
+     */
+    static Object simulatePlay(final Object tester, final long numberOfRounds,
+                               final SlipRange range, final int maximum)
+            throws Throwable {
+        if (range.hasBounds()) {
+            return (Object) PLAY_BOUNDED.invokeExact(tester, numberOfRounds,
+                    SlipRange.MINIMUM, maximum);
+        }
+        return (Object) PLAY.invokeExact(tester, numberOfRounds);
+    }
+
+    /**
+     * Run SlipHypoTester.simulatePermutationPlay on one thread.
+     * @param tester         the tester
+     * @param numberOfRounds the number of rounds to simulate
+     * @return the win map
+     * @throws Throwable if the simulation throws
+     */
+    static Object simulatePermutationPlay(final Object tester,
+                                          final long numberOfRounds)
+            throws Throwable {
+        return (Object) PERMUTATION_PLAY.invokeExact(tester, numberOfRounds,
+                1);
+    }
+
+    /**
+     * Run SlipHypoTester.optimizeThresholdPolicy on one thread.
+     * @param tester         the tester
+     * @param numberOfRounds the number of rounds to search over
+     * @param maximum        the largest slip value
+     * @return the ThresholdResult
+     * @throws Throwable if the search throws
+     */
+    static Object optimizeThresholdPolicy(final Object tester,
+                                          final long numberOfRounds,
+                                          final int maximum)
+            throws Throwable {
+        return (Object) OPTIMIZE_THRESHOLD.invokeExact(tester, numberOfRounds,
+                SlipRange.MINIMUM, maximum, 1);
+    }
+
+    /**
+     * Create a deal generator with its own seeded stream.
+     * @param tester  the tester whose number of slips to deal
+     * @param seed    the seed of the generator's stream
+     * @param range   the range of slip values
+     * @param maximum the largest slip value, if bounded
+     * @return a new DealGenerator
+     * @throws Throwable if the generator cannot be created
+     */
+    static Object newDealGenerator(final Object tester, final long seed,
+                                   final SlipRange range, final int maximum)
+            throws Throwable {
+        Object source = (Object) CREATE_SOURCE.invokeExact(
+                constant("RandomAlgorithm", "SPLITTABLE_RANDOM"), seed);
+        return (Object) NEW_DEAL_GENERATOR.invokeExact(tester, source,
+                range.hasBounds(), SlipRange.MINIMUM, maximum);
+    }
+
+    /**
+     * Run SlipHypoTester.generateSlips.
+     * @param tester    the tester
+     * @param generator the deal generator
+     * @param deal      the deal buffer
+     * @return the generated Slip[]
+     * @throws Throwable if generation throws
+     */
+    static Object generateSlips(final Object tester, final Object generator,
+                                final int[] deal) throws Throwable {
+        return (Object) GENERATE_SLIPS.invokeExact(tester, generator, deal);
+    }
+
+    /**
+     * Run SlipHypoTester.findWinningSlip.
+     * @param tester the tester
+     * @param slips  the Slip[] to search
+     * @return the winning slip
+     * @throws Throwable if the search throws
+     */
+    static Object findWinningSlip(final Object tester, final Object slips)
+            throws Throwable {
+        return (Object) FIND_WINNING_SLIP.invokeExact(tester, slips);
+    }
+
+    /**
+     * Run DealGenerator.fill.
+     * @param generator the deal generator
+     * @param deal      the deal buffer
+     * @throws Throwable if generation throws
+     */
+    static void fill(final Object generator, final int[] deal)
+            throws Throwable {
+        FILL.invokeExact(generator, deal);
+    }
+
+    /**
+     * Run DealSource.fill, on any source.
+     * @param source the deal source
+     * @param deal   the deal buffer
+     * @throws Throwable if generation throws
+     */
+    static void fillSource(final Object source, final int[] deal)
+            throws Throwable {
+        FILL_SOURCE.invokeExact(source, deal);
+    }
+
+    /**
+     * Create a player for the named strategy.
+     * @param tester   the tester
+     * @param strategy the name of the ThreeSlipStrategy constant
+     * @return a new Player
+     * @throws Throwable if the player cannot be created
+     */
+    static Object newPlayer(final Object tester, final String strategy)
+            throws Throwable {
+        return (Object) NEW_PLAYER.invokeExact(tester,
+                constant("ThreeSlipStrategy", strategy));
+    }
+
+    /**
+     * Run Player.chooseSlipFrom followed by Player.getChoice.
+     * @param player the player
+     * @param slips  the Slip[] to choose from
+     * @return the chosen slip
+     * @throws Throwable if the player throws
+     */
+    static Object chooseSlipFrom(final Object player, final Object slips)
+            throws Throwable {
+        CHOOSE_SLIP_FROM.invokeExact(player, slips);
+        return (Object) GET_CHOICE.invokeExact(player);
+    }
+
+    /**
+     * Run Player.chooseIndexFrom.
+     * @param player the player
+     * @param values the deal to choose from
+     * @return the chosen index
+     * @throws Throwable if the player throws
+     */
+    static int chooseIndexFrom(final Object player, final int[] values)
+            throws Throwable {
+        return (int) CHOOSE_INDEX_FROM.invokeExact(player, values);
+    }
+
+    /**
+     * Create a block of dealt rounds.
+     * @param capacity      the largest number of rounds the block holds
+     * @param numberOfSlips the number of slips in each round
+     * @return a new DealBlock
+     * @throws Throwable if the block cannot be created
+     */
+    static Object newBlock(final int capacity, final int numberOfSlips)
+            throws Throwable {
+        return (Object) NEW_BLOCK.invokeExact(capacity, numberOfSlips);
+    }
+
+    /**
+     * Run DealBlock.fill.
+     * @param block     the block
+     * @param generator the deal generator
+     * @param rounds    the number of rounds to deal
+     * @throws Throwable if generation throws
+     */
+    static void fillBlock(final Object block, final Object generator,
+                          final int rounds) throws Throwable {
+        FILL_BLOCK.invokeExact(block, generator, rounds);
+    }
+
+    /**
+     * Create a block kernel.
+     * @param vector whether to use BlockKernel.getDefault, which picks the
+     *               Vector API kernel when it is available
+     * @return a BlockKernel
+     * @throws Throwable if the kernel cannot be created
+     */
+    static Object newKernel(final boolean vector) throws Throwable {
+        if (vector) {
+            return (Object) DEFAULT_KERNEL.invokeExact();
+        }
+        return (Object) NEW_SCALAR_KERNEL.invokeExact();
+    }
+
+    /**
+     * Run Player.tallyBlock.
+     * @param player the player
+     * @param block  the block to score against
+     * @param kernel the kernel counting wins
+     * @throws Throwable if the player throws
+     */
+    static void tallyBlock(final Object player, final Object block,
+                           final Object kernel) throws Throwable {
+        TALLY_BLOCK.invokeExact(player, block, kernel);
+    }
+
+    /**
+     * Run Player.getWinCount.
+     * @param player the player
+     * @return the player's win count
+     * @throws Throwable if the player throws
+     */
+    static long getWinCount(final Object player) throws Throwable {
+        return (long) GET_WIN_COUNT.invokeExact(player);
+    }
+
+    /**
+     * Compile a StrategyRule and create a player following it.
+     * @param name the name of the rule
+     * @param rule the text of the rule
+     * @return a new CompiledPlayer
+     * @throws Throwable if the rule cannot be compiled
+     */
+    static Object newRulePlayer(final String name, final String rule)
+            throws Throwable {
+        Object compiled = (Object) COMPILE_RULE.invokeExact(name, rule);
+        return (Object) NEW_RULE_PLAYER.invokeExact(compiled);
+    }
+
+    /**
+     * Run CompiledPlayer.tallyDeals.
+     * @param player        the player
+     * @param deals         the deals, numberOfSlips values each
+     * @param winners       the index of the largest slip of each deal
+     * @param rounds        the number of deals
+     * @param numberOfSlips the number of slips in each deal
+     * @throws Throwable if the player throws
+     */
+    static void tallyDeals(final Object player, final int[] deals,
+                           final int[] winners, final int rounds,
+                           final int numberOfSlips) throws Throwable {
+        TALLY_DEALS.invokeExact(player, deals, winners, rounds,
+                numberOfSlips);
+    }
+
+    /**
+     * Run CompiledPlayer.getWinCount.
+     * @param player the player
+     * @return the player's win count
+     * @throws Throwable if the player throws
+     */
+    static long getRuleWinCount(final Object player) throws Throwable {
+        return (long) RULE_WIN_COUNT.invokeExact(player);
+    }
+}
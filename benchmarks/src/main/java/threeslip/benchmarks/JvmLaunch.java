@@ -0,0 +1,44 @@
+package threeslip.benchmarks;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The ways StartupBenchmark starts a JVM running the command-line front end.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public enum JvmLaunch {
+    /** No options, so classes are loaded from the class path. */
+    PLAIN,
+    /** Classes loaded from an AppCDS archive of a training run. */
+    APP_CDS,
+    /** The AppCDS archive, with only the client compiler. */
+    APP_CDS_C1;
+
+    /**
+     * Predicate to check if this launch needs an archive.
+     * @return true unless PLAIN
+     */
+    boolean usesArchive() {
+        return this != PLAIN;
+    }
+
+    /**
+     * The JVM options of this launch.
+     * @param archive the AppCDS archive, if used
+     * @return the options
+     */
+    List<String> options(final Path archive) {
+        switch (this) {
+            case APP_CDS:
+                return List.of("-XX:SharedArchiveFile=" + archive);
+            case APP_CDS_C1:
+                return List.of("-XX:SharedArchiveFile=" + archive,
+                        "-XX:TieredStopAtLevel=1");
+            default:
+                return List.of();
+        }
+    }
+}
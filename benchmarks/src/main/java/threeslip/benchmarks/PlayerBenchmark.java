@@ -0,0 +1,92 @@
+package threeslip.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a player's choice for each strategy. Choices are made from a ring
+ * of pre-dealt rounds so that the informed strategy's branch is not
+ * predicted perfectly.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+    /** The number of pre-dealt rounds, a power of two. */
+    private static final int RING_SIZE = 1 << 10;
+    /** The seed of the deal generator's stream. */
+    private static final long SEED = 20161003L;
+
+    /** The strategy of the player under test. */
+    @Param({"KEEP_ORIGINAL", "SWITCH_TO_REVEALED", "SWITCH_TO_UNKNOWN",
+            "INFORMED_STRATEGY"})
+    private String strategy;
+
+    /** The Player under test. */
+    private Object player;
+    /** The pre-dealt rounds as Slip[]. */
+    private Object[] slips;
+    /** The pre-dealt rounds as values. */
+    private int[][] deals;
+    /** The position in the ring of the next round. */
+    private int next;
+
+    /**
+     * Create the player and deal the rounds.
+     * @throws Throwable if the player cannot be created
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        Object tester = Engine.newTester(3, SEED);
+        this.player = Engine.newPlayer(tester, this.strategy);
+        Object generator = Engine.newDealGenerator(tester, SEED,
+                SlipRange.UNBOUNDED, 0);
+        this.slips = new Object[RING_SIZE];
+        this.deals = new int[RING_SIZE][];
+        for (int i = 0; i < RING_SIZE; i++) {
+            this.deals[i] = new int[3];
+            this.slips[i] = Engine.generateSlips(tester, generator,
+                    this.deals[i]);
+        }
+    }
+
+    /**
+     * Player.chooseSlipFrom on Slip objects.
+     * @return the chosen slip
+     * @throws Throwable if the player throws
+     */
+    @Benchmark
+    public Object chooseSlipFrom() throws Throwable {
+        this.next = (this.next + 1) & (RING_SIZE - 1);
+        return Engine.chooseSlipFrom(this.player, this.slips[this.next]);
+    }
+
+    /**
+     * Player.chooseIndexFrom on primitive values.
+     * @return the chosen index
+     * @throws Throwable if the player throws
+     */
+    @Benchmark
+    public int chooseIndexFrom() throws Throwable {
+        this.next = (this.next + 1) & (RING_SIZE - 1);
+        return Engine.chooseIndexFrom(this.player, this.deals[this.next]);
+    }
+}
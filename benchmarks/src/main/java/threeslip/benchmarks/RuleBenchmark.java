@@ -0,0 +1,194 @@
+package threeslip.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost per round of scoring compiled StrategyRules against a block of
+ * pre-dealt rounds, next to the same rules written as Java scans over the
+ * same deals, and the hand-written informed strategy scored with
+ * chooseIndexFrom. With several rules, the others are different thresholds
+ * of one rule, each compiled into its own class, and one operation is one
+ * round scored by every rule.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleBenchmark {
+
+    /** The number of pre-dealt rounds. */
+    private static final int ROUNDS = 1 << 10;
+    /** The seed of the deal generator's stream. */
+    private static final long SEED = 20161003L;
+    /** The informed strategy as a rule. */
+    private static final String INFORMED =
+            "take slip i if i == 1 and value > max or i == 2, else none";
+
+    /** The number of slips in each round. */
+    @Param({"3", "10"})
+    private int numberOfSlips;
+    /** The number of different rules scored against each block. */
+    @Param({"1", "8"})
+    private int numberOfRules;
+
+    /** The hand-written informed Player. */
+    private Object informed;
+    /** The CompiledPlayers of the rules, the first informed. */
+    private Object[] rules;
+    /** The pre-dealt rounds, one after another. */
+    private int[] deals;
+    /** The pre-dealt rounds, one array each. */
+    private int[][] rounds;
+    /** The index of the largest slip of each round. */
+    private int[] winners;
+
+    /**
+     * Compile the rules and deal the rounds.
+     * @throws Throwable if a rule cannot be compiled
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        Object tester = Engine.newTester(this.numberOfSlips, SEED);
+        this.informed = Engine.newPlayer(tester, "INFORMED_STRATEGY");
+        this.rules = new Object[this.numberOfRules];
+        this.rules[0] = Engine.newRulePlayer("informed", INFORMED);
+        for (int k = 1; k < this.numberOfRules; k++) {
+            this.rules[k] = Engine.newRulePlayer("threshold" + k,
+                    "take slip i if value > max and i >= " + k
+                            + ", else last");
+        }
+        Object generator = Engine.newDealGenerator(tester, SEED,
+                SlipRange.UNBOUNDED, 0);
+        this.deals = new int[ROUNDS * this.numberOfSlips];
+        this.rounds = new int[ROUNDS][];
+        this.winners = new int[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            this.rounds[r] = new int[this.numberOfSlips];
+            Engine.fill(generator, this.rounds[r]);
+            System.arraycopy(this.rounds[r], 0, this.deals,
+                    r * this.numberOfSlips, this.numberOfSlips);
+            for (int i = 1; i < this.numberOfSlips; i++) {
+                if (this.rounds[r][i] > this.rounds[r][this.winners[r]]) {
+                    this.winners[r] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * CompiledPlayer.tallyDeals for every rule over the block.
+     * @return the win count of the last rule
+     * @throws Throwable if a player throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public long compiledRules() throws Throwable {
+        for (Object rule : this.rules) {
+            Engine.tallyDeals(rule, this.deals, this.winners, ROUNDS,
+                    this.numberOfSlips);
+        }
+        return Engine.getRuleWinCount(this.rules[this.rules.length - 1]);
+    }
+
+    /**
+     * The rules of compiledRules written as Java scans over the block: the
+     * informed rule, then a threshold rule for each k from 1.
+     * @return the number of wins of the last rule
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public long handWrittenScan() {
+        int n = this.numberOfSlips;
+        long wins = 0;
+        for (int k = 0; k < this.numberOfRules; k++) {
+            wins = 0;
+            for (int r = 0; r < ROUNDS; r++) {
+                int choice = k == 0 ? scanInformed(this.deals, r * n, n)
+                        : scanThreshold(this.deals, r * n, n, k);
+                if (choice == this.winners[r]) {
+                    wins++;
+                }
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * The hand-written informed strategy's chooseIndexFrom over the block.
+     * @return the number of wins
+     * @throws Throwable if the player throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public long handWrittenInformed() throws Throwable {
+        long wins = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            if (Engine.chooseIndexFrom(this.informed, this.rounds[r])
+                    == this.winners[r]) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * The informed rule as a scan: take slip i if i == 1 and value &gt; max
+     * or i == 2, else none.
+     * @param deals  the deals
+     * @param offset the index of the first slip of the deal
+     * @param n      the number of slips in the deal
+     * @return the index of the chosen slip, or -1
+     */
+    private static int scanInformed(final int[] deals, final int offset,
+                                    final int n) {
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int value = deals[offset + i];
+            if (i == 1 && value > max || i == 2) {
+                return i;
+            }
+            max = Math.max(max, value);
+        }
+        return -1;
+    }
+
+    /**
+     * A threshold rule as a scan: take slip i if value &gt; max and i &gt;=
+     * k, else last.
+     * @param deals  the deals
+     * @param offset the index of the first slip of the deal
+     * @param n      the number of slips in the deal
+     * @param k      the first index that may be taken
+     * @return the index of the chosen slip
+     */
+    private static int scanThreshold(final int[] deals, final int offset,
+                                     final int n, final int k) {
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int value = deals[offset + i];
+            if (value > max && i >= k) {
+                return i;
+            }
+            max = Math.max(max, value);
+        }
+        return n - 1;
+    }
+}
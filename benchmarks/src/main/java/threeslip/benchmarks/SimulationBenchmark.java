@@ -0,0 +1,103 @@
+package threeslip.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rounds per second of whole simulations. One operation is one round, so
+ * with the GC profiler (<code>-prof gc</code>) gc.alloc.rate.norm is the
+ * number of bytes allocated per round. Build and run with
+ * <pre>
+ * mvn -B package
+ * java -jar benchmarks/target/benchmarks.jar -prof gc
+ * </pre>
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+
+    /** The number of rounds simulated per invocation. */
+    private static final int ROUNDS = 1 << 16;
+    /** The number of rounds simulated per invocation by rank permutation. */
+    private static final int PERMUTATION_ROUNDS = 1 << 24;
+    /** The master seed of the tester. */
+    private static final long SEED = 20161003L;
+
+    /** The number of slips in each round. */
+    @Param({"3", "5", "10"})
+    private int numberOfSlips;
+    /** The range of slip values. */
+    @Param({"UNBOUNDED", "WIDE", "NARROW"})
+    private SlipRange range;
+
+    /** The SlipHypoTester under test. */
+    private Object tester;
+    /** The largest slip value, if bounded. */
+    private int maximum;
+
+    /**
+     * Create the tester.
+     * @throws Throwable if the tester cannot be created
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        this.tester = Engine.newTester(this.numberOfSlips, SEED);
+        this.maximum = this.range.maximum(this.numberOfSlips);
+    }
+
+    /**
+     * Every strategy scored against each round in a single pass.
+     * @return the win map
+     * @throws Throwable if the simulation throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public Object sharedPlay() throws Throwable {
+        return Engine.simulateSharedPlay(this.tester, ROUNDS, this.range,
+                this.maximum);
+    }
+
+    /**
+     * Each strategy simulated against its own rounds.
+     * @return the win map
+     * @throws Throwable if the simulation throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public Object perStrategyPlay() throws Throwable {
+        return Engine.simulatePlay(this.tester, ROUNDS, this.range,
+                this.maximum);
+    }
+
+    /**
+     * Every strategy scored against rounds dealt as rank permutations, which
+     * do not depend on the range of slip values.
+     * @return the win map
+     * @throws Throwable if the simulation throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(PERMUTATION_ROUNDS)
+    public Object permutationPlay() throws Throwable {
+        return Engine.simulatePermutationPlay(this.tester,
+                PERMUTATION_ROUNDS);
+    }
+}
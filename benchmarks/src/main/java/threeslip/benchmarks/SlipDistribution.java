@@ -0,0 +1,44 @@
+package threeslip.benchmarks;
+
+/**
+ * The distributions of slip values the benchmarks are run over.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public enum SlipDistribution {
+    /** Uniform integers, dealt by DealGenerator as without a distribution. */
+    UNIFORM,
+    /** The standard normal distribution. */
+    NORMAL,
+    /** The exponential distribution with unit rate. */
+    EXPONENTIAL,
+    /** The Pareto distribution with unit scale and shape 2. */
+    PARETO,
+    /** A histogram of eight bins of unequal weight. */
+    EMPIRICAL;
+
+    /**
+     * Create the engine's ValueDistribution for this distribution.
+     * @return the ValueDistribution, or null for UNIFORM
+     */
+    Object create() {
+        switch (this) {
+            case NORMAL:
+                return Engine.construct("NormalDistribution", new Class<?>[0]);
+            case EXPONENTIAL:
+                return Engine.construct("ExponentialDistribution",
+                        new Class<?>[0]);
+            case PARETO:
+                return Engine.construct("ParetoDistribution",
+                        new Class<?>[] {double.class, double.class}, 1.0, 2.0);
+            case EMPIRICAL:
+                return Engine.construct("EmpiricalDistribution",
+                        new Class<?>[] {double[].class, double[].class},
+                        new double[] {0, 1, 2, 3, 4, 5, 6, 7, 8},
+                        new double[] {1, 4, 9, 16, 9, 4, 2, 1});
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package threeslip.benchmarks;
+
+/**
+ * The ranges of slip values the benchmarks are run over.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public enum SlipRange {
+    /** Values drawn as by the empty constructor for Slip. */
+    UNBOUNDED,
+    /** Values in 1..1000000, where duplicates are rare. */
+    WIDE,
+    /**
+     * Values in 1..numberOfSlips, where every deal is a permutation and
+     * duplicate rejection is as frequent as it can be.
+     */
+    NARROW;
+
+    /** The smallest slip value of the bounded ranges. */
+    static final int MINIMUM = 1;
+    /** The largest slip value of the wide range. */
+    private static final int WIDE_MAXIMUM = 1000000;
+
+    /**
+     * Predicate to check if this range bounds the slip values.
+     * @return false for UNBOUNDED, true otherwise
+     */
+    boolean hasBounds() {
+        return this != UNBOUNDED;
+    }
+
+    /**
+     * The largest slip value of this range.
+     * @param numberOfSlips the number of slips in each round
+     * @return the largest slip value, or 0 if unbounded
+     */
+    int maximum(final int numberOfSlips) {
+        switch (this) {
+            case WIDE:
+                return WIDE_MAXIMUM;
+            case NARROW:
+                return MINIMUM + numberOfSlips - 1;
+            default:
+                return 0;
+        }
+    }
+}
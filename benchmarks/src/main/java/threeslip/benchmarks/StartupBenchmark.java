@@ -0,0 +1,125 @@
+package threeslip.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Wall-clock time of a whole command-line run in a new JVM, from starting
+ * the process to its exit, as a script calling the front end sees it. The
+ * AppCDS archive is built by a training run in setup, as the cds profile of
+ * the engine module builds it. Archives need the engine's classes in a jar,
+ * so run from benchmarks.jar:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar StartupBenchmark
+ * </pre>
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+    /** The number of rounds of the training run. */
+    private static final String TRAINING_ROUNDS = "100000";
+
+    /** How the JVM is started. */
+    @Param({"PLAIN", "APP_CDS", "APP_CDS_C1"})
+    private JvmLaunch launch;
+    /** The number of rounds of each run. */
+    @Param({"10000", "1000000"})
+    private String rounds;
+
+    /** The class path of the engine. */
+    private String classPath;
+    /** The AppCDS archive, if used. */
+    private Path archive;
+
+    /**
+     * Build the archive if the launch uses one.
+     * @throws IOException if the training run cannot be started or fails
+     * @throws InterruptedException if interrupted during the training run
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        this.classPath = Engine.classPath();
+        if (this.launch.usesArchive()) {
+            this.archive = Files.createTempFile("threeslip", ".jsa");
+            Files.delete(this.archive);
+            run(List.of("-XX:ArchiveClassesAtExit=" + this.archive),
+                    TRAINING_ROUNDS);
+        }
+    }
+
+    /**
+     * Delete the archive.
+     * @throws IOException if the archive cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (this.archive != null) {
+            Files.deleteIfExists(this.archive);
+        }
+    }
+
+    /**
+     * One run of the front end in a new JVM.
+     * @return the exit status
+     * @throws IOException if the JVM cannot be started or the run fails
+     * @throws InterruptedException if interrupted during the run
+     */
+    @Benchmark
+    public int commandLineRun() throws IOException, InterruptedException {
+        return run(this.launch.options(this.archive), this.rounds);
+    }
+
+    /**
+     * Run the front end in a new JVM with its output discarded.
+     * @param options        the JVM options
+     * @param numberOfRounds the number of rounds to simulate
+     * @return the exit status, 0
+     * @throws IOException if the JVM cannot be started or the run fails
+     * @throws InterruptedException if interrupted during the run
+     */
+    private int run(final List<String> options, final String numberOfRounds)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java")
+                .toString());
+        command.addAll(options);
+        command.addAll(List.of("-cp", this.classPath, "SimulationCommand",
+                "--rounds", numberOfRounds, "--seed", "1", "--format", "csv"));
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        int status = process.waitFor();
+        if (status != 0) {
+            throw new IOException("Exit status " + status + " of " + command);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,87 @@
+package threeslip.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rounds per second of a search for the best value-threshold policy, next to
+ * a single simulation of every strategy over the same number of rounds. One
+ * operation is one round searched over; the search deals as many rounds
+ * again to check its result, so it is expected to run at about half the
+ * rate of the single simulation however many candidates it scores. A
+ * policy only looks at the first three slips, so the search is only made
+ * for the three-slip game.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThresholdBenchmark {
+
+    /** The number of rounds searched over per invocation. */
+    private static final int ROUNDS = 1 << 20;
+    /** The master seed of the tester. */
+    private static final long SEED = 20161003L;
+    /** The number of slips in each round. */
+    private static final int SLIPS = 3;
+
+    /** The range of slip values, which must be bounded. */
+    @Param({"WIDE", "NARROW"})
+    private SlipRange range;
+
+    /** The SlipHypoTester under test. */
+    private Object tester;
+    /** The largest slip value. */
+    private int maximum;
+
+    /**
+     * Create the tester.
+     * @throws Throwable if the tester cannot be created
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        this.tester = Engine.newTester(SLIPS, SEED);
+        this.maximum = this.range.maximum(SLIPS);
+    }
+
+    /**
+     * The search over every stage, with its check against fresh rounds.
+     * @return the ThresholdResult
+     * @throws Throwable if the search throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public Object thresholdSearch() throws Throwable {
+        return Engine.optimizeThresholdPolicy(this.tester, ROUNDS,
+                this.maximum);
+    }
+
+    /**
+     * Every strategy scored against each round in a single pass.
+     * @return the win map
+     * @throws Throwable if the simulation throws
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public Object sharedPlay() throws Throwable {
+        return Engine.simulateSharedPlay(this.tester, ROUNDS, this.range,
+                this.maximum);
+    }
+}
@@ -0,0 +1,99 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A BlockKernel over the incubating Vector API, comparing as many rounds at
+ * once as the widest vectors of the machine hold. It is compiled only by the
+ * vector profile, and is used only if the JVM is started with
+ * --add-modules jdk.incubator.vector.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class VectorBlockKernel implements BlockKernel {
+
+    /** The widest vectors of int the machine supports. */
+    private static final VectorSpecies<Integer> SPECIES =
+            IntVector.SPECIES_PREFERRED;
+
+    /**
+     * Count the rounds in which x is larger than y, z and w.
+     *
+     * @param x    the column of the chosen slips
+     * @param y    a column of other slips
+     * @param z    a column of other slips
+     * @param w    a column of other slips
+     * @param size the number of rounds to count over
+     * @return the number of rounds won by x
+     */
+    public int countWins(final int[] x, final int[] y, final int[] z,
+                         final int[] w, final int size) {
+        int wins = 0;
+        int i = 0;
+        for (int bound = SPECIES.loopBound(size); i < bound;
+             i += SPECIES.length()) {
+            wins += beats(x, y, z, w, i).trueCount();
+        }
+        for (; i < size; i++) {
+            if (Math.max(Math.max(y[i], z[i]), w[i]) < x[i]) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * Count the rounds in which x is larger than y, z and w, and u is
+     * larger than v.
+     *
+     * @param x    the column of the chosen slips
+     * @param y    a column of other slips
+     * @param z    a column of other slips
+     * @param w    a column of other slips
+     * @param u    the column whose value must be the larger
+     * @param v    the column whose value must be the smaller
+     * @param size the number of rounds to count over
+     * @return the number of rounds won by x in which u beats v
+     */
+    public int countWinsWhere(final int[] x, final int[] y, final int[] z,
+                              final int[] w, final int[] u, final int[] v,
+                              final int size) {
+        int wins = 0;
+        int i = 0;
+        for (int bound = SPECIES.loopBound(size); i < bound;
+             i += SPECIES.length()) {
+            VectorMask<Integer> condition = IntVector.fromArray(SPECIES, v, i)
+                    .compare(VectorOperators.LT,
+                            IntVector.fromArray(SPECIES, u, i));
+            wins += beats(x, y, z, w, i).and(condition).trueCount();
+        }
+        for (; i < size; i++) {
+            if (Math.max(Math.max(y[i], z[i]), w[i]) < x[i] && v[i] < u[i]) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * Compare one vector of rounds.
+     *
+     * @param x      the column of the chosen slips
+     * @param y      a column of other slips
+     * @param z      a column of other slips
+     * @param w      a column of other slips
+     * @param offset the first round of the vector
+     * @return the mask of rounds in which x is larger than y, z and w
+     */
+    private static VectorMask<Integer> beats(final int[] x, final int[] y,
+                                             final int[] z, final int[] w,
+                                             final int offset) {
+        IntVector others = IntVector.fromArray(SPECIES, y, offset)
+                .max(IntVector.fromArray(SPECIES, z, offset))
+                .max(IntVector.fromArray(SPECIES, w, offset));
+        return others.compare(VectorOperators.LT,
+                IntVector.fromArray(SPECIES, x, offset));
+    }
+}
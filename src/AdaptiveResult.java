@@ -0,0 +1,138 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The win counts and confidence intervals of an adaptive simulation, along
+ * with the number of rounds it actually used.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class AdaptiveResult {
+
+    /** The number of rounds simulated. */
+    private final long numberOfRounds;
+    /** The number of wins of each strategy. */
+    private final Map<ThreeSlipStrategy, Long> winMap;
+    /** The interval around the win rate of each strategy. */
+    private final Map<ThreeSlipStrategy, ConfidenceInterval> winRates;
+    /** The uninformed strategy with the most wins. */
+    private final ThreeSlipStrategy bestUninformedStrategy;
+    /** The interval around the informed strategy's advantage. */
+    private final Map<ThreeSlipStrategy, ConfidenceInterval> advantages;
+    /** Whether every win rate is known to the target precision. */
+    private final boolean precise;
+    /** Whether the informed strategy differs from the best uninformed. */
+    private final boolean significant;
+    /** Whether the stopping rule was satisfied. */
+    private final boolean settled;
+
+    /**
+     * Create a result.
+     *
+     * @param rounds       the number of rounds simulated
+     * @param wins         map from ThreeSlipStrategy object to number of
+     *                     wins associated with that strategy
+     * @param rates        map from ThreeSlipStrategy object to the interval
+     *                     around its win rate
+     * @param best         the uninformed strategy with the most wins
+     * @param advantage    map from uninformed ThreeSlipStrategy object to
+     *                     the interval around the informed strategy's win
+     *                     rate minus its own
+     * @param isPrecise    whether every win rate is known to the target
+     *                     precision
+     * @param isSignificant whether the informed strategy differs
+     *                     significantly from the best uninformed strategy
+     * @param isSettled    whether the stopping rule was satisfied
+     */
+    public AdaptiveResult(final long rounds,
+                          final Map<ThreeSlipStrategy, Long> wins,
+                          final Map<ThreeSlipStrategy, ConfidenceInterval>
+                                  rates,
+                          final ThreeSlipStrategy best,
+                          final Map<ThreeSlipStrategy, ConfidenceInterval>
+                                  advantage,
+                          final boolean isPrecise,
+                          final boolean isSignificant,
+                          final boolean isSettled) {
+        this.numberOfRounds = rounds;
+        this.winMap = new HashMap<>(wins);
+        this.winRates = new HashMap<>(rates);
+        this.bestUninformedStrategy = best;
+        this.advantages = new HashMap<>(advantage);
+        this.precise = isPrecise;
+        this.significant = isSignificant;
+        this.settled = isSettled;
+    }
+
+    /**
+     * Returns the number of rounds actually simulated.
+     * @return the number of rounds simulated
+     */
+    public long getNumberOfRounds() {
+        return this.numberOfRounds;
+    }
+
+    /**
+     * Returns the number of wins of each strategy.
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> getWinMap() {
+        return new HashMap<>(this.winMap);
+    }
+
+    /**
+     * Returns the interval around the win rate of a strategy.
+     * @param strategy the strategy
+     * @return the Wilson interval around the strategy's win rate
+     */
+    public ConfidenceInterval getWinRate(final ThreeSlipStrategy strategy) {
+        return this.winRates.get(strategy);
+    }
+
+    /**
+     * Returns the uninformed strategy with the most wins.
+     * @return the best uninformed strategy
+     */
+    public ThreeSlipStrategy getBestUninformedStrategy() {
+        return this.bestUninformedStrategy;
+    }
+
+    /**
+     * Returns the interval around the informed strategy's win rate minus the
+     * win rate of an uninformed strategy, from rounds scored in pairs.
+     * @param strategy the uninformed strategy
+     * @return the paired-difference interval
+     */
+    public ConfidenceInterval getAdvantageOver(
+            final ThreeSlipStrategy strategy) {
+        return this.advantages.get(strategy);
+    }
+
+    /**
+     * Predicate to check if every win rate is known to the target precision.
+     * @return true if every interval is narrow enough
+     */
+    public boolean isPrecise() {
+        return this.precise;
+    }
+
+    /**
+     * Predicate to check if the informed strategy differs significantly from
+     * the best uninformed strategy.
+     * @return true if the advantage interval excludes zero
+     */
+    public boolean isSignificant() {
+        return this.significant;
+    }
+
+    /**
+     * Predicate to check if the simulation stopped because the stopping rule
+     * was satisfied rather than because it ran out of rounds.
+     * @return true if the stopping rule was satisfied
+     */
+    public boolean isSettled() {
+        return this.settled;
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes the exact win probabilities of the strategies of the three-slip
+ * game. Slip values in a round are distinct and dealt independently of their
+ * position, so every ordering of the slips is equally likely whether or not
+ * the values are bounded. Every player looks only at the first three slips,
+ * and the largest slip of a round is among those three with probability
+ * 3/numslips, so a strategy's win probability is the fraction of the six
+ * orderings of the first three slips it wins, times 3/numslips.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class AnalyticSolver {
+
+    /** The number of slips a player looks at. */
+    private static final int OBSERVED_SLIPS = 3;
+    /** The ranks of the first three slips in each of their orderings. */
+    private static final int[][] ORDERINGS = {
+            {0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}
+    };
+
+    /** The number of slips in each round. */
+    private final int numslips;
+    /** The win probability of each strategy. */
+    private final Map<ThreeSlipStrategy, Rational> probabilities;
+
+    /**
+     * Create a solver for the strategies of the given players. The players
+     * are scored while solving, so they must not be used elsewhere.
+     *
+     * @param numberOfSlips the number of slips in each round, at least three
+     * @param players       the players whose strategies to solve, with no
+     *                      wins yet
+     */
+    public AnalyticSolver(final int numberOfSlips, final Player[] players) {
+        if (numberOfSlips < OBSERVED_SLIPS) {
+            throw new IllegalArgumentException("The three-slip game needs at"
+                    + " least " + OBSERVED_SLIPS + " slips, not "
+                    + numberOfSlips);
+        }
+        this.numslips = numberOfSlips;
+        this.probabilities = solve(players);
+    }
+
+    /**
+     * Returns the exact win probability of each strategy, including the two
+     * cases of the informed strategy.
+     *
+     * @return map from ThreeSlipStrategy object to the probability of a win
+     * associated with that strategy
+     */
+    public Map<ThreeSlipStrategy, Rational> probabilities() {
+        return new HashMap<>(this.probabilities);
+    }
+
+    /**
+     * Compute the exact win probability of each strategy by scoring the
+     * players once against each ordering of the first three slips, with the
+     * largest slip of the round among them.
+     *
+     * @param players the players whose strategies to solve
+     * @return map from ThreeSlipStrategy object to the probability of a win
+     * associated with that strategy
+     */
+    private Map<ThreeSlipStrategy, Rational> solve(final Player[] players) {
+        long[] counts = new long[ThreeSlipStrategy.values().length];
+        for (long[] wins : scoreOrderings(this.numslips, players)) {
+            SimulationWorker.addTo(counts, wins);
+        }
+        HashMap<ThreeSlipStrategy, Rational> solved = new HashMap<>();
+        for (ThreeSlipStrategy strategy : ThreeSlipStrategy.values()) {
+            solved.put(strategy,
+                    Rational.of(counts[strategy.ordinal()] * OBSERVED_SLIPS,
+                            (long) ORDERINGS.length * this.numslips));
+        }
+        return solved;
+    }
+
+    /**
+     * Score the players once against each ordering of the first three slips,
+     * with the largest slip of the round among them. The players keep the
+     * wins of every ordering.
+     *
+     * @param numberOfSlips the number of slips in each round
+     * @param players       the players to score, with no wins yet
+     * @return the wins of each ordering, indexed by ordering and then by the
+     * ordinal of the ThreeSlipStrategy they are associated with
+     */
+    static long[][] scoreOrderings(final int numberOfSlips,
+                                   final Player[] players) {
+        int[] deal = new int[numberOfSlips];
+        for (int i = OBSERVED_SLIPS; i < numberOfSlips; i++) {
+            deal[i] = i - OBSERVED_SLIPS;
+        }
+        long[][] wins = new long[ORDERINGS.length][];
+        long[] before = SimulationWorker.getWinCounts(players);
+        for (int o = 0; o < ORDERINGS.length; o++) {
+            int winner = 0;
+            for (int i = 0; i < OBSERVED_SLIPS; i++) {
+                deal[i] = numberOfSlips - OBSERVED_SLIPS + ORDERINGS[o][i];
+                if (deal[i] > deal[winner]) {
+                    winner = i;
+                }
+            }
+            for (Player player : players) {
+                SimulationWorker.tally(player, player.chooseIndexFrom(deal),
+                        winner);
+            }
+            long[] after = SimulationWorker.getWinCounts(players);
+            wins[o] = new long[after.length];
+            for (int s = 0; s < after.length; s++) {
+                wins[o][s] = after[s] - before[s];
+            }
+            before = after;
+        }
+        return wins;
+    }
+
+    /**
+     * Compute the expected number of wins of each strategy over a given
+     * number of rounds, rounded to the nearest win.
+     *
+     * @param numberOfRounds the number of rounds played
+     * @return map from ThreeSlipStrategy object to expected number of wins
+     * associated with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> expectedWins(
+            final long numberOfRounds) {
+        HashMap<ThreeSlipStrategy, Long> winMap = new HashMap<>();
+        for (Map.Entry<ThreeSlipStrategy, Rational> entry
+                : this.probabilities.entrySet()) {
+            winMap.put(entry.getKey(),
+                    entry.getValue().timesRounded(numberOfRounds));
+        }
+        return winMap;
+    }
+}
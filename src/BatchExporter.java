@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Exports the snapshots of a simulation as a time series of batches, each
+ * the rounds completed since the snapshot before. Subscribe an exporter to
+ * a SimulationRun and ask the run for snapshots every so many rounds or
+ * milliseconds; the records are written on the publisher's thread, never on
+ * the threads simulating. A run drops snapshots rather than wait for a
+ * subscriber that falls behind, so a slow writer merges the rounds of the
+ * snapshots it missed into its next batch, whose counts stay exact.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class BatchExporter implements Flow.Subscriber<SimulationSnapshot> {
+
+    /** The destination of the records. */
+    private final BatchWriter writer;
+    /** The number of standard errors spanned by the intervals. */
+    private final double z;
+    /** Completed once the writer is closed. */
+    private final CompletableFuture<Long> done = new CompletableFuture<>();
+    /** The subscription to the simulation, once subscribed. */
+    private Flow.Subscription subscription;
+    /** The index of the next batch. */
+    private long batch;
+    /** The rounds completed at the last batch. */
+    private long rounds;
+    /** The wins at the last batch, indexed by ThreeSlipStrategy ordinal. */
+    private long[] wins = new long[ThreeSlipStrategy.values().length];
+
+    /**
+     * Create an exporter.
+     *
+     * @param destination the writer of the records, which the exporter
+     *                    closes when the simulation ends
+     * @param confidence  the confidence level of the intervals, strictly
+     *                    between 0 and 1
+     */
+    public BatchExporter(final BatchWriter destination,
+                         final double confidence) {
+        this.writer = destination;
+        this.z = ConfidenceInterval.zScore(confidence);
+    }
+
+    /**
+     * Returns a future completed with the number of batches written once
+     * the writer is closed, or completed exceptionally if the simulation or
+     * a write failed.
+     *
+     * @return the future
+     */
+    public CompletableFuture<Long> getCompletion() {
+        return this.done;
+    }
+
+    /**
+     * Request every snapshot.
+     *
+     * @param s the subscription to the simulation
+     */
+    public void onSubscribe(final Flow.Subscription s) {
+        this.subscription = s;
+        s.request(Long.MAX_VALUE);
+    }
+
+    /**
+     * Write the batch ending at a snapshot, unless no rounds were completed
+     * since the last one. A failed write cancels the subscription.
+     *
+     * @param snapshot the snapshot
+     */
+    public void onNext(final SimulationSnapshot snapshot) {
+        long completed = snapshot.getRoundsCompleted();
+        if (completed <= this.rounds || this.done.isDone()) {
+            return;
+        }
+        long[] total = new long[this.wins.length];
+        long[] inBatch = new long[this.wins.length];
+        for (ThreeSlipStrategy strategy : ThreeSlipStrategy.values()) {
+            int i = strategy.ordinal();
+            total[i] = snapshot.getWinMap().get(strategy);
+            inBatch[i] = total[i] - this.wins[i];
+        }
+        BatchRecord record = new BatchRecord(this.batch, completed,
+                completed - this.rounds, snapshot.getElapsedNanos(), total,
+                inBatch, this.z);
+        try {
+            this.writer.write(record);
+        } catch (IOException e) {
+            this.subscription.cancel();
+            close(e);
+            return;
+        }
+        this.batch++;
+        this.rounds = completed;
+        this.wins = total;
+    }
+
+    /**
+     * Close the writer after the simulation failed.
+     *
+     * @param error the failure
+     */
+    public void onError(final Throwable error) {
+        close(error);
+    }
+
+    /**
+     * Close the writer after the simulation finished.
+     */
+    public void onComplete() {
+        close(null);
+    }
+
+    /**
+     * Close the writer once, completing the future.
+     *
+     * @param error the failure that ended the export, or null
+     */
+    private void close(final Throwable error) {
+        if (this.done.isDone()) {
+            return;
+        }
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            if (error == null) {
+                this.done.completeExceptionally(e);
+                return;
+            }
+            error.addSuppressed(e);
+        }
+        if (error == null) {
+            this.done.complete(this.batch);
+        } else {
+            this.done.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * The results of one batch of a simulation: the rounds completed between
+ * two snapshots, with the win counts of the batch and of the simulation so
+ * far, the exact win rates so far and their confidence intervals.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class BatchRecord {
+
+    /** The index of the batch, from 0. */
+    private final long batch;
+    /** The number of rounds completed by the end of the batch. */
+    private final long roundsCompleted;
+    /** The number of rounds completed in the batch. */
+    private final long batchRounds;
+    /** The nanoseconds from the start of the simulation to the batch end. */
+    private final long elapsedNanos;
+    /** The wins so far, indexed by ThreeSlipStrategy ordinal. */
+    private final long[] wins;
+    /** The wins in the batch, indexed by ThreeSlipStrategy ordinal. */
+    private final long[] batchWins;
+    /** The number of standard errors spanned by the intervals. */
+    private final double z;
+
+    /**
+     * Create the record of a batch.
+     *
+     * @param index     the index of the batch, from 0
+     * @param completed the number of rounds completed by the end of the
+     *                  batch, which must be positive
+     * @param rounds    the number of rounds completed in the batch
+     * @param elapsed   the nanoseconds from the start of the simulation to
+     *                  the end of the batch
+     * @param total     the wins so far, indexed by the ordinal of the
+     *                  ThreeSlipStrategy they are associated with
+     * @param inBatch   the wins in the batch, indexed likewise
+     * @param zScore    the number of standard errors the confidence
+     *                  intervals span on each side
+     */
+    public BatchRecord(final long index, final long completed,
+                       final long rounds, final long elapsed,
+                       final long[] total, final long[] inBatch,
+                       final double zScore) {
+        this.batch = index;
+        this.roundsCompleted = completed;
+        this.batchRounds = rounds;
+        this.elapsedNanos = elapsed;
+        this.wins = total.clone();
+        this.batchWins = inBatch.clone();
+        this.z = zScore;
+    }
+
+    /**
+     * Access the index of the batch.
+     * @return the index, from 0
+     */
+    public long getBatch() {
+        return this.batch;
+    }
+
+    /**
+     * Access the number of rounds completed by the end of the batch.
+     * @return the number of rounds
+     */
+    public long getRoundsCompleted() {
+        return this.roundsCompleted;
+    }
+
+    /**
+     * Access the number of rounds completed in the batch.
+     * @return the number of rounds
+     */
+    public long getBatchRounds() {
+        return this.batchRounds;
+    }
+
+    /**
+     * Access the nanoseconds from the start of the simulation to the end of
+     * the batch.
+     * @return the elapsed nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Returns the wins of a strategy so far.
+     * @param strategy the strategy
+     * @return the number of wins
+     */
+    public long getWins(final ThreeSlipStrategy strategy) {
+        return this.wins[strategy.ordinal()];
+    }
+
+    /**
+     * Returns the wins of a strategy in the batch.
+     * @param strategy the strategy
+     * @return the number of wins
+     */
+    public long getBatchWins(final ThreeSlipStrategy strategy) {
+        return this.batchWins[strategy.ordinal()];
+    }
+
+    /**
+     * Returns the win rate of a strategy so far, as a fraction rather than
+     * a truncated percentage.
+     * @param strategy the strategy
+     * @return the wins over the rounds completed
+     */
+    public double getRate(final ThreeSlipStrategy strategy) {
+        return (double) getWins(strategy) / this.roundsCompleted;
+    }
+
+    /**
+     * Returns the Wilson score interval around the win rate of a strategy
+     * so far.
+     * @param strategy the strategy
+     * @return the interval
+     */
+    public ConfidenceInterval getInterval(final ThreeSlipStrategy strategy) {
+        return ConfidenceInterval.wilson(getWins(strategy),
+                this.roundsCompleted, this.z);
+    }
+}
@@ -0,0 +1,20 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes the batches of a simulation, one record per batch, as they are
+ * exported. Records are written from one thread at a time.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public interface BatchWriter extends Closeable {
+
+    /**
+     * Write the record of a batch.
+     *
+     * @param record the batch
+     * @throws IOException if the record cannot be written
+     */
+    void write(BatchRecord record) throws IOException;
+}
@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Writes the batches of a simulation in a compact columnar binary format,
+ * all little-endian. The header is the magic number 0x54534245 ("TSBE"), a
+ * 16-bit format version, the z-score of the confidence intervals as a
+ * double, the number of reported strategies as a byte and their ordinals as
+ * bytes. Batches follow in blocks of up to BLOCK_ROWS: a 32-bit row count
+ * n, then each column as n values in a row. The columns are the batch
+ * index, the rounds completed, the rounds in the batch and the elapsed
+ * nanoseconds as longs, then for each reported strategy its wins so far and
+ * its wins in the batch as longs and its win rate so far and the bounds of
+ * its interval as doubles.
+ *
+ * <p>Batches are held as columns in memory until a block fills, then
+ * encoded into one buffer and written to the channel in one go, so writing a
+ * batch costs a few array stores. The last, partial block is written when
+ * the writer is closed.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class BinaryBatchWriter implements BatchWriter {
+
+    /** The magic number at the start of the file. */
+    public static final int MAGIC = 0x54534245;
+    /** The version of the format. */
+    public static final short VERSION = 1;
+    /** The largest number of batches in a block. */
+    public static final int BLOCK_ROWS = 1 << 10;
+    /** The number of columns common to every batch. */
+    private static final int BATCH_COLUMNS = 4;
+    /** The number of columns of each strategy. */
+    private static final int STRATEGY_COLUMNS = 5;
+
+    /** The destination of the blocks. */
+    private final WritableByteChannel channel;
+    /** The strategies reported, in column order. */
+    private final List<ThreeSlipStrategy> strategies;
+    /** The integer columns of the current block, by column then row. */
+    private final long[][] longs;
+    /** The real columns of the current block, by column then row. */
+    private final double[][] doubles;
+    /** The buffer into which a whole block is encoded. */
+    private final ByteBuffer buffer;
+    /** The number of batches in the current block. */
+    private int rows;
+
+    /**
+     * Create a writer and write the header.
+     *
+     * @param destination the channel to write the blocks to, which the
+     *                    writer closes
+     * @param reported    the strategies reported, in column order
+     * @param z           the z-score of the confidence intervals, recorded
+     *                    in the header
+     * @throws IOException if the header cannot be written
+     */
+    public BinaryBatchWriter(final WritableByteChannel destination,
+                             final List<ThreeSlipStrategy> reported,
+                             final double z) throws IOException {
+        this.channel = destination;
+        this.strategies = reported;
+        int strategyCount = reported.size();
+        this.longs = new long[BATCH_COLUMNS + 2 * strategyCount][BLOCK_ROWS];
+        this.doubles = new double[3 * strategyCount][BLOCK_ROWS];
+        this.buffer = ByteBuffer.allocateDirect(Integer.BYTES
+                + (BATCH_COLUMNS + STRATEGY_COLUMNS * strategyCount)
+                * BLOCK_ROWS * Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.putInt(MAGIC).putShort(VERSION).putDouble(z)
+                .put((byte) strategyCount);
+        for (ThreeSlipStrategy strategy : reported) {
+            this.buffer.put((byte) strategy.ordinal());
+        }
+        drain();
+    }
+
+    /**
+     * Add a batch to the current block, writing the block if it is full.
+     *
+     * @param record the batch
+     * @throws IOException if a full block cannot be written
+     */
+    public void write(final BatchRecord record) throws IOException {
+        int r = this.rows;
+        this.longs[0][r] = record.getBatch();
+        this.longs[1][r] = record.getRoundsCompleted();
+        this.longs[2][r] = record.getBatchRounds();
+        this.longs[3][r] = record.getElapsedNanos();
+        int i = 0;
+        for (ThreeSlipStrategy strategy : this.strategies) {
+            ConfidenceInterval interval = record.getInterval(strategy);
+            this.longs[BATCH_COLUMNS + 2 * i][r] = record.getWins(strategy);
+            this.longs[BATCH_COLUMNS + 2 * i + 1][r] =
+                    record.getBatchWins(strategy);
+            this.doubles[3 * i][r] = record.getRate(strategy);
+            this.doubles[3 * i + 1][r] = interval.lower();
+            this.doubles[3 * i + 2][r] = interval.upper();
+            i++;
+        }
+        this.rows++;
+        if (this.rows == BLOCK_ROWS) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Write the last block and close the channel.
+     *
+     * @throws IOException if the block cannot be written
+     */
+    public void close() throws IOException {
+        try {
+            if (this.rows > 0) {
+                writeBlock();
+            }
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Encode the current block column by column and write it.
+     *
+     * @throws IOException if the block cannot be written
+     */
+    private void writeBlock() throws IOException {
+        int n = this.rows;
+        this.buffer.putInt(n);
+        for (int c = 0; c < BATCH_COLUMNS; c++) {
+            putColumn(this.longs[c], n);
+        }
+        for (int i = 0; i < this.strategies.size(); i++) {
+            putColumn(this.longs[BATCH_COLUMNS + 2 * i], n);
+            putColumn(this.longs[BATCH_COLUMNS + 2 * i + 1], n);
+            for (int c = 3 * i; c < 3 * i + 3; c++) {
+                putColumn(this.doubles[c], n);
+            }
+        }
+        this.rows = 0;
+        drain();
+    }
+
+    /**
+     * Encode the first n values of an integer column.
+     *
+     * @param column the column
+     * @param n      the number of values
+     */
+    private void putColumn(final long[] column, final int n) {
+        this.buffer.asLongBuffer().put(column, 0, n);
+        this.buffer.position(this.buffer.position() + n * Long.BYTES);
+    }
+
+    /**
+     * Encode the first n values of a real column.
+     *
+     * @param column the column
+     * @param n      the number of values
+     */
+    private void putColumn(final double[] column, final int n) {
+        this.buffer.asDoubleBuffer().put(column, 0, n);
+        this.buffer.position(this.buffer.position() + n * Double.BYTES);
+    }
+
+    /**
+     * Write the whole buffer to the channel.
+     *
+     * @throws IOException if the buffer cannot be written
+     */
+    private void drain() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+}
@@ -0,0 +1,83 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the results of a parameter sweep in a compact binary format. The
+ * header is the magic number 0x54534C50 ("TSLP"), a format version, the
+ * number of reported strategies and their ordinals. Each row is then the
+ * number of slips, whether the range is bounded, its minimum and maximum,
+ * the number of rounds, and the wins of each reported strategy, all as
+ * fixed-width big-endian fields.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class BinarySweepWriter implements SweepWriter {
+
+    /** The magic number at the start of the file. */
+    public static final int MAGIC = 0x54534C50;
+    /** The version of the format. */
+    public static final int VERSION = 1;
+
+    /** The destination of the rows. */
+    private final DataOutputStream out;
+    /** The strategies reported, in column order. */
+    private final List<ThreeSlipStrategy> strategies;
+
+    /**
+     * Create a writer and write the header.
+     *
+     * @param destination where to write the rows
+     * @param reported    the strategies reported, in column order
+     * @throws IOException if the header cannot be written
+     */
+    public BinarySweepWriter(final OutputStream destination,
+                             final List<ThreeSlipStrategy> reported)
+            throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(destination));
+        this.strategies = reported;
+        this.out.writeInt(MAGIC);
+        this.out.writeShort(VERSION);
+        this.out.writeByte(reported.size());
+        for (ThreeSlipStrategy strategy : reported) {
+            this.out.writeByte(strategy.ordinal());
+        }
+    }
+
+    /**
+     * Write the row of a finished cell.
+     *
+     * @param cell           the cell
+     * @param numberOfRounds the number of rounds simulated in the cell
+     * @param winMap         map from ThreeSlipStrategy object to number of
+     *                       wins associated with that strategy
+     * @throws IOException if the row cannot be written
+     */
+    public synchronized void write(final SweepCell cell,
+                                   final long numberOfRounds,
+                                   final Map<ThreeSlipStrategy, Long> winMap)
+            throws IOException {
+        ValueRange range = cell.getRange();
+        this.out.writeInt(cell.getNumberOfSlips());
+        this.out.writeBoolean(range.hasBounds());
+        this.out.writeInt(range.getMinimum());
+        this.out.writeInt(range.getMaximum());
+        this.out.writeLong(numberOfRounds);
+        for (ThreeSlipStrategy strategy : this.strategies) {
+            this.out.writeLong(winMap.get(strategy));
+        }
+        this.out.flush();
+    }
+
+    /**
+     * Close the destination.
+     * @throws IOException if the destination cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        this.out.close();
+    }
+}
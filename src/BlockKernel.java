@@ -0,0 +1,60 @@
+/**
+ * Counts the wins of a choice over a block of rounds held as columns, such
+ * as those of a DealBlock. A choice wins a round when its slip is larger
+ * than every other slip. Values within a round are distinct except for
+ * -1, and lie in -1..Integer.MAX_VALUE, so that no difference of two values
+ * overflows.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public interface BlockKernel {
+
+    /**
+     * Count the rounds in which x is larger than y, z and w.
+     *
+     * @param x    the column of the chosen slips
+     * @param y    a column of other slips
+     * @param z    a column of other slips
+     * @param w    a column of other slips
+     * @param size the number of rounds to count over
+     * @return the number of rounds won by x
+     */
+    int countWins(int[] x, int[] y, int[] z, int[] w, int size);
+
+    /**
+     * Count the rounds in which x is larger than y, z and w, and u is
+     * larger than v.
+     *
+     * @param x    the column of the chosen slips
+     * @param y    a column of other slips
+     * @param z    a column of other slips
+     * @param w    a column of other slips
+     * @param u    the column whose value must be the larger
+     * @param v    the column whose value must be the smaller
+     * @param size the number of rounds to count over
+     * @return the number of rounds won by x in which u beats v
+     */
+    int countWinsWhere(int[] x, int[] y, int[] z, int[] w, int[] u, int[] v,
+                       int size);
+
+    /**
+     * Returns the fastest kernel available: the kernel over the incubating
+     * Vector API if it was compiled in and the module is present, otherwise
+     * the scalar kernel. The Vector API kernel is skipped if the system
+     * property threeslip.vector is false.
+     *
+     * @return a kernel
+     */
+    static BlockKernel getDefault() {
+        if (!"false".equals(System.getProperty("threeslip.vector"))) {
+            try {
+                return (BlockKernel) Class.forName("VectorBlockKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Not compiled in, or jdk.incubator.vector not resolved.
+            }
+        }
+        return new ScalarBlockKernel();
+    }
+}
@@ -0,0 +1,356 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * The state of a chunked simulation from which it can be resumed: its
+ * parameters, the chunks that have completed and their summed win counts.
+ * Each chunk is dealt from a stream split in order from the master source,
+ * so a chunk that has not completed can be simulated again from the start
+ * with the same result, and no random number generator state needs saving.
+ *
+ * <p>A checkpoint is written to a temporary file beside its destination,
+ * forced to the device and then renamed over the destination, so the
+ * destination always holds a complete checkpoint. The file ends with a
+ * CRC-32 of its contents, which is checked when it is read.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class Checkpoint {
+
+    /** The magic number at the start of the file, "TSCK". */
+    private static final int MAGIC = 0x5453434B;
+    /** The version of the format. */
+    private static final short VERSION = 1;
+
+    /** The number of slips in each round. */
+    private final int numslips;
+    /** The random number generator with which rounds are dealt. */
+    private final RandomAlgorithm algorithm;
+    /** The seed of the master source. */
+    private final long seed;
+    /** Whether or not bounds are specified for the slip values. */
+    private final boolean hasBounds;
+    /** The smallest value of the range for slips, if specified. */
+    private final int minimum;
+    /** The largest value of the range for slips, if specified. */
+    private final int maximum;
+    /** The number of rounds to simulate. */
+    private final long numberOfRounds;
+    /** The number of rounds in each chunk but the last. */
+    private final long chunkRounds;
+    /** The chunks that have completed. */
+    private final BitSet completed;
+    /** The summed win counts of the completed chunks. */
+    private final long[] counts;
+
+    /**
+     * Create a checkpoint of a simulation in which no chunk has completed.
+     *
+     * @param numberOfSlips  the number of slips in each round
+     * @param rng            the random number generator with which rounds
+     *                       are dealt
+     * @param masterSeed     the seed of the master source
+     * @param bounded        whether or not bounds are specified for the slip
+     *                       values
+     * @param min            the smallest value of the range, if specified
+     * @param max            the largest value of the range, if specified
+     * @param rounds         the number of rounds to simulate
+     * @param roundsPerChunk the number of rounds in each chunk but the last
+     */
+    public Checkpoint(final int numberOfSlips, final RandomAlgorithm rng,
+                      final long masterSeed, final boolean bounded,
+                      final int min, final int max, final long rounds,
+                      final long roundsPerChunk) {
+        this(numberOfSlips, rng, masterSeed, bounded, min, max, rounds,
+                roundsPerChunk, new BitSet(),
+                new long[ThreeSlipStrategy.values().length]);
+    }
+
+    /**
+     * Create a checkpoint.
+     *
+     * @param numberOfSlips  the number of slips in each round
+     * @param rng            the random number generator with which rounds
+     *                       are dealt
+     * @param masterSeed     the seed of the master source
+     * @param bounded        whether or not bounds are specified for the slip
+     *                       values
+     * @param min            the smallest value of the range, if specified
+     * @param max            the largest value of the range, if specified
+     * @param rounds         the number of rounds to simulate
+     * @param roundsPerChunk the number of rounds in each chunk but the last
+     * @param done           the chunks that have completed
+     * @param wins           the summed win counts of the completed chunks
+     */
+    private Checkpoint(final int numberOfSlips, final RandomAlgorithm rng,
+                       final long masterSeed, final boolean bounded,
+                       final int min, final int max, final long rounds,
+                       final long roundsPerChunk, final BitSet done,
+                       final long[] wins) {
+        this.numslips = numberOfSlips;
+        this.algorithm = rng;
+        this.seed = masterSeed;
+        this.hasBounds = bounded;
+        this.minimum = min;
+        this.maximum = max;
+        this.numberOfRounds = rounds;
+        this.chunkRounds = roundsPerChunk;
+        this.completed = done;
+        this.counts = wins;
+    }
+
+    /**
+     * Returns the number of slips in each round.
+     * @return the number of slips
+     */
+    public int getNumberOfSlips() {
+        return this.numslips;
+    }
+
+    /**
+     * Returns the random number generator with which rounds are dealt.
+     * @return the algorithm of the master source
+     */
+    public RandomAlgorithm getRandomAlgorithm() {
+        return this.algorithm;
+    }
+
+    /**
+     * Returns the seed of the master source.
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Predicate to check if bounds are specified for the slip values.
+     * @return true if the slip values are bounded
+     */
+    public boolean hasBounds() {
+        return this.hasBounds;
+    }
+
+    /**
+     * Returns the smallest value of the range for slips, if specified.
+     * @return the smallest slip value
+     */
+    public int getMinimum() {
+        return this.minimum;
+    }
+
+    /**
+     * Returns the largest value of the range for slips, if specified.
+     * @return the largest slip value
+     */
+    public int getMaximum() {
+        return this.maximum;
+    }
+
+    /**
+     * Returns the number of rounds to simulate.
+     * @return the number of rounds
+     */
+    public long getNumberOfRounds() {
+        return this.numberOfRounds;
+    }
+
+    /**
+     * Returns the number of rounds in each chunk but the last.
+     * @return the number of rounds per chunk
+     */
+    public long getChunkRounds() {
+        return this.chunkRounds;
+    }
+
+    /**
+     * Returns the number of chunks in the simulation.
+     * @return the number of chunks
+     */
+    public int getNumberOfChunks() {
+        return (int) ((this.numberOfRounds + this.chunkRounds - 1)
+                / this.chunkRounds);
+    }
+
+    /**
+     * Predicate to check if a chunk has completed.
+     * @param chunk the index of the chunk
+     * @return true if the chunk's counts are included in this checkpoint
+     */
+    public synchronized boolean isCompleted(final int chunk) {
+        return this.completed.get(chunk);
+    }
+
+    /**
+     * Returns the number of rounds in the completed chunks.
+     * @return the number of rounds completed
+     */
+    public synchronized long getRoundsCompleted() {
+        long rounds = 0;
+        for (int chunk = this.completed.nextSetBit(0); chunk >= 0;
+             chunk = this.completed.nextSetBit(chunk + 1)) {
+            rounds += Math.min(this.chunkRounds,
+                    this.numberOfRounds - chunk * this.chunkRounds);
+        }
+        return rounds;
+    }
+
+    /**
+     * Returns the summed win counts of the completed chunks.
+     * @return number of wins indexed by the ordinal of the ThreeSlipStrategy
+     * they are associated with
+     */
+    public synchronized long[] getCounts() {
+        return this.counts.clone();
+    }
+
+    /**
+     * Record that a chunk has completed with the given win counts.
+     * @param chunk       the index of the chunk
+     * @param chunkCounts the win counts of the chunk
+     */
+    public synchronized void record(final int chunk,
+                                    final long[] chunkCounts) {
+        if (this.completed.get(chunk)) {
+            throw new IllegalStateException("Chunk " + chunk
+                    + " already completed");
+        }
+        this.completed.set(chunk);
+        SimulationWorker.addTo(this.counts, chunkCounts);
+    }
+
+    /**
+     * Write this checkpoint atomically to a file, replacing any checkpoint
+     * already there.
+     *
+     * @param file the file to write
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void write(final Path file) throws IOException {
+        ByteBuffer buffer = encode();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read a checkpoint from a file.
+     *
+     * @param file the file to read
+     * @return the checkpoint
+     * @throws IOException if the file cannot be read or is not a complete
+     *                     checkpoint
+     */
+    public static Checkpoint read(final Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < Integer.BYTES * 2
+                || buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a checkpoint");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - Long.BYTES);
+        if (buffer.getLong(buffer.limit() - Long.BYTES) != crc.getValue()) {
+            throw new IOException(file + " is corrupt");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException(file + " has unknown version " + version);
+        }
+        int numberOfSlips = buffer.getInt();
+        RandomAlgorithm rng = RandomAlgorithm.valueOf(readName(buffer));
+        long masterSeed = buffer.getLong();
+        boolean bounded = buffer.get() != 0;
+        int min = buffer.getInt();
+        int max = buffer.getInt();
+        long rounds = buffer.getLong();
+        long roundsPerChunk = buffer.getLong();
+        long[] wins = new long[ThreeSlipStrategy.values().length];
+        int strategies = buffer.get();
+        for (int i = 0; i < strategies; i++) {
+            wins[ThreeSlipStrategy.valueOf(readName(buffer)).ordinal()] =
+                    buffer.getLong();
+        }
+        long[] words = new long[buffer.getInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.getLong();
+        }
+        return new Checkpoint(numberOfSlips, rng, masterSeed, bounded, min,
+                max, rounds, roundsPerChunk, BitSet.valueOf(words), wins);
+    }
+
+    /**
+     * Encode this checkpoint. Counts are keyed by strategy name so that a
+     * checkpoint survives reordering of ThreeSlipStrategy.
+     *
+     * @return a buffer holding the encoded checkpoint, ready to be written
+     */
+    private synchronized ByteBuffer encode() {
+        long[] words = this.completed.toLongArray();
+        ThreeSlipStrategy[] strategies = ThreeSlipStrategy.values();
+        ByteBuffer buffer = ByteBuffer.allocate(256 + strategies.length * 64
+                + words.length * Long.BYTES);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(this.numslips);
+        putName(buffer, this.algorithm.name());
+        buffer.putLong(this.seed);
+        buffer.put((byte) (this.hasBounds ? 1 : 0));
+        buffer.putInt(this.minimum);
+        buffer.putInt(this.maximum);
+        buffer.putLong(this.numberOfRounds);
+        buffer.putLong(this.chunkRounds);
+        buffer.put((byte) strategies.length);
+        for (ThreeSlipStrategy strategy : strategies) {
+            putName(buffer, strategy.name());
+            buffer.putLong(this.counts[strategy.ordinal()]);
+        }
+        buffer.putInt(words.length);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Write a short ASCII name preceded by its length.
+     * @param buffer the buffer to write to
+     * @param name   the name to write
+     */
+    private static void putName(final ByteBuffer buffer, final String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        buffer.put((byte) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Read a short ASCII name preceded by its length.
+     * @param buffer the buffer to read from
+     * @return the name
+     */
+    private static String readName(final ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.get()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Represents a player whose strategy is a StrategyRule compiled at runtime.
+ * Each rule is compiled into its own hidden class copied from RuleTemplate,
+ * so the rule is a constant of the class that scores it, and the scan over
+ * a deal inlines the whole rule. Rounds are scored a block at a time by
+ * tallyDeals, so the call that differs between rules is made once per block
+ * rather than once per round.
+ *
+ * <p>A rule may look at the value of every slip, so a compiled player is
+ * scored against whole deals rather than the ranks of a DealBlock, and is
+ * not a Player: it has no Slip to choose, no ThreeSlipStrategy, and no
+ * block of ranks it could be scored against. It counts only its wins.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public abstract class CompiledPlayer {
+
+    /** The rule this player follows. */
+    private final StrategyRule rule;
+    /** The number of times this player has won. */
+    private long winCount;
+
+    /**
+     * Create a player following the given rule.
+     * @param strategyRule the rule the player follows
+     */
+    protected CompiledPlayer(final StrategyRule strategyRule) {
+        this.rule = strategyRule;
+    }
+
+    /**
+     * Returns the rule this player follows.
+     * @return the rule this player follows
+     */
+    public StrategyRule getRule() {
+        return this.rule;
+    }
+
+    /**
+     * Returns this player's win count.
+     * @return the number of games this player has won
+     */
+    public long getWinCount() {
+        return this.winCount;
+    }
+
+    /**
+     * Add a number of wins to this player's win count.
+     * @param wins the number of wins to add
+     */
+    protected void addWins(final long wins) {
+        this.winCount += wins;
+    }
+
+    /**
+     * Choose a slip based on this player's rule from the values of a deal.
+     * @param values the values of the slips from which to choose
+     * @return the index of the chosen slip, or -1 if the rule makes no
+     * choice
+     */
+    public int chooseIndexFrom(final int[] values) {
+        return choose(values, 0, values.length);
+    }
+
+    /**
+     * Choose a slip based on this player's rule from a deal stored in a
+     * larger array.
+     * @param deals         the array holding the deal
+     * @param offset        the index of the first slip of the deal
+     * @param numberOfSlips the number of slips in the deal
+     * @return the index of the chosen slip within the deal, or -1 if the rule
+     * makes no choice
+     */
+    public abstract int choose(int[] deals, int offset, int numberOfSlips);
+
+    /**
+     * Score this player's rule against a block of deals stored one after
+     * another, adding its wins to this player's win count.
+     * @param deals         the deals, numberOfSlips values each
+     * @param winners       the index of the largest slip of each deal
+     * @param rounds        the number of deals in the block
+     * @param numberOfSlips the number of slips in each deal
+     */
+    public abstract void tallyDeals(int[] deals, int[] winners, int rounds,
+                                    int numberOfSlips);
+}
@@ -0,0 +1,216 @@
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A player that several threads can play as at once. Each thread has its
+ * own cell, created the first time the thread uses this player: an
+ * InformedPlayer or UninformedPlayer that makes the thread's choices, and
+ * the thread's counts. The counts sit in the middle of an array padded with
+ * 128 bytes on each side, so no other thread's counts, nor any other object,
+ * can share their cache line, wherever the arrays are allocated. The counts
+ * of this player are the sums over the cells, which are exact once the
+ * threads have finished and been joined.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class ConcurrentPlayer extends Player {
+
+    /** The number of longs of padding on each side of a cell's counts. */
+    private static final int PADDING = 16;
+    /** The index of the win count in a cell's counts. */
+    private static final int WINS = PADDING;
+    /** The index of the count of wins by keeping the second slip. */
+    private static final int KEEP_SECOND = PADDING + 1;
+    /** The index of the count of wins by discarding the second slip. */
+    private static final int DISCARD_SECOND = PADDING + 2;
+    /** The length of a cell's padded counts. */
+    private static final int CELL_LENGTH = DISCARD_SECOND + 1 + PADDING;
+
+    /** The strategy used by this player. */
+    private final ThreeSlipStrategy strategy;
+    /** The cell of every thread that has played as this player. */
+    private final Queue<Cell> cells = new ConcurrentLinkedQueue<>();
+    /** The cell of the current thread. */
+    private final ThreadLocal<Cell> local =
+            ThreadLocal.withInitial(this::newCell);
+
+    /**
+     * The choices and counts of one thread.
+     */
+    private static final class Cell {
+
+        /** The player making the thread's choices. */
+        private final Player chooser;
+        /** The thread's counts, padded on both sides. */
+        private final long[] counts = new long[CELL_LENGTH];
+
+        /**
+         * Create a cell.
+         * @param player the player making the thread's choices
+         */
+        private Cell(final Player player) {
+            this.chooser = player;
+        }
+    }
+
+    /**
+     * Create a new concurrent player.
+     * @param strtgy the strategy used by this player
+     */
+    public ConcurrentPlayer(final ThreeSlipStrategy strtgy) {
+        this.strategy = strtgy;
+    }
+
+    /**
+     * Create a single-threaded player using this player's strategy.
+     * @return a new player
+     */
+    private Player newPlayer() {
+        if (this.strategy == ThreeSlipStrategy.INFORMED_STRATEGY) {
+            return new InformedPlayer();
+        }
+        return new UninformedPlayer(this.strategy);
+    }
+
+    /**
+     * Create the cell of the current thread and register it to be summed.
+     * @return a new cell
+     */
+    private Cell newCell() {
+        Cell cell = new Cell(newPlayer());
+        this.cells.add(cell);
+        return cell;
+    }
+
+    /**
+     * Returns one count summed over all threads.
+     * @param index the index of the count in each cell
+     * @return the sum
+     */
+    private long sum(final int index) {
+        long sum = 0;
+        for (Cell cell : this.cells) {
+            sum += cell.counts[index];
+        }
+        return sum;
+    }
+
+    /**
+     * Predicate to check if the player is using the informed strategy.
+     * @return true if player is informed, false otherwise
+     */
+    public boolean isInformed() {
+        return this.strategy == ThreeSlipStrategy.INFORMED_STRATEGY;
+    }
+
+    /**
+     * Retrieves the choice of slip made by the current thread.
+     * @return the slip chosen by this player on the current thread
+     */
+    public Slip getChoice() {
+        return this.local.get().chooser.getChoice();
+    }
+
+    /**
+     * Returns this player's win count summed over all threads.
+     * @return the number of games this player has won
+     */
+    public long getWinCount() {
+        return sum(WINS);
+    }
+
+    /**
+     * Increments this player's win count on the current thread.
+     */
+    public void incrementWinCount() {
+        this.local.get().counts[WINS]++;
+    }
+
+    /**
+     * Returns the number of times won by keeping the second slip, summed over
+     * all threads.
+     * @return the number of times won by keeping the second slip
+     */
+    public long getKeepSecondCount() {
+        return sum(KEEP_SECOND);
+    }
+
+    /**
+     * Increment this player's count of times won by keeping the second slip
+     * on the current thread.
+     */
+    public void incrementKeepSecondCount() {
+        this.local.get().counts[KEEP_SECOND]++;
+    }
+
+    /**
+     * Returns the number of times won by discarding the second slip, summed
+     * over all threads.
+     * @return the number of times won by discarding the second slip
+     */
+    public long getDiscardSecondCount() {
+        return sum(DISCARD_SECOND);
+    }
+
+    /**
+     * Increment this player's count of times won by discarding the second
+     * slip on the current thread.
+     */
+    public void incrementDiscardSecondCount() {
+        this.local.get().counts[DISCARD_SECOND]++;
+    }
+
+    /**
+     * Return the strategy used by this player.
+     * @return ThreeSlipStrategy object representing this player's
+     * strategy
+     */
+    public ThreeSlipStrategy getStrategy() {
+        return this.strategy;
+    }
+
+    /**
+     * Choose a slip on the current thread based on the player's strategy.
+     * @param slips the slips from which to choose
+     */
+    public void chooseSlipFrom(final Slip[] slips) {
+        this.local.get().chooser.chooseSlipFrom(slips);
+    }
+
+    /**
+     * Choose a slip based on the player's strategy from the values of a deal,
+     * without recording the choice.
+     * @param values the values of the slips from which to choose
+     * @return the index of the chosen slip, or -1 if the strategy makes no
+     * choice
+     */
+    public int chooseIndexFrom(final int[] values) {
+        return this.local.get().chooser.chooseIndexFrom(values);
+    }
+
+    /**
+     * Whether tallyBlock needs the values of every slip of a block.
+     * @return false, since this player counts from the columns
+     */
+    public boolean needsDeals() {
+        return false;
+    }
+
+    /**
+     * Score this player's strategy against a whole block of rounds, adding
+     * its wins to the counts of the current thread. The block is scored by
+     * a fresh single-threaded player, whose counts are then added to the
+     * cell, so the cell's counts stay the only ones that outlive the call.
+     * @param block  the rounds to score against
+     * @param kernel the kernel counting wins over the block
+     */
+    public void tallyBlock(final DealBlock block, final BlockKernel kernel) {
+        Player scratch = newPlayer();
+        scratch.tallyBlock(block, kernel);
+        long[] counts = this.local.get().counts;
+        counts[WINS] += scratch.getWinCount();
+        counts[KEEP_SECOND] += scratch.getKeepSecondCount();
+        counts[DISCARD_SECOND] += scratch.getDiscardSecondCount();
+    }
+}
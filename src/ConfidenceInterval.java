@@ -0,0 +1,174 @@
+/**
+ * A two-sided confidence interval around an estimated rate.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class ConfidenceInterval {
+
+    /** Coefficients of Acklam's approximation to the normal quantile. */
+    private static final double[] A = {
+            -3.969683028665376e+01, 2.209460984245205e+02,
+            -2.759285104469687e+02, 1.383577518672690e+02,
+            -3.066479806614716e+01, 2.506628277459239e+00
+    };
+    /** Coefficients of Acklam's approximation to the normal quantile. */
+    private static final double[] B = {
+            -5.447609879822406e+01, 1.615858368580409e+02,
+            -1.556989798598866e+02, 6.680131188771972e+01,
+            -1.328068155288572e+01
+    };
+    /** Coefficients of Acklam's approximation to the normal quantile. */
+    private static final double[] C = {
+            -7.784894002430293e-03, -3.223964580411365e-01,
+            -2.400758277161838e+00, -2.549732539343734e+00,
+            4.374664141464968e+00, 2.938163982698783e+00
+    };
+    /** Coefficients of Acklam's approximation to the normal quantile. */
+    private static final double[] D = {
+            7.784695709041462e-03, 3.224671290700398e-01,
+            2.445134137142996e+00, 3.754408661907416e+00
+    };
+    /** The tail probability below which the tail approximation is used. */
+    private static final double TAIL = 0.02425;
+
+    /** The point estimate. */
+    private final double estimate;
+    /** The lower bound. */
+    private final double lower;
+    /** The upper bound. */
+    private final double upper;
+
+    /**
+     * Create an interval.
+     * @param pointEstimate the point estimate
+     * @param lowerBound    the lower bound
+     * @param upperBound    the upper bound
+     */
+    private ConfidenceInterval(final double pointEstimate,
+                               final double lowerBound,
+                               final double upperBound) {
+        this.estimate = pointEstimate;
+        this.lower = lowerBound;
+        this.upper = upperBound;
+    }
+
+    /**
+     * The Wilson score interval for a win rate.
+     * @param wins   the number of wins
+     * @param rounds the number of rounds, which must be positive
+     * @param z      the number of standard errors the interval spans on
+     *               each side
+     * @return the interval around wins/rounds
+     */
+    public static ConfidenceInterval wilson(final long wins, final long rounds,
+                                            final double z) {
+        double n = rounds;
+        double rate = wins / n;
+        double zz = z * z;
+        double scale = 1 + zz / n;
+        double center = (rate + zz / (2 * n)) / scale;
+        double half = z / scale
+                * Math.sqrt(rate * (1 - rate) / n + zz / (4 * n * n));
+        return new ConfidenceInterval(rate, center - half, center + half);
+    }
+
+    /**
+     * The normal interval for the difference between the win rates of two
+     * strategies scored against the same rounds. Each round contributes 1
+     * if only the first strategy won, -1 if only the second did, and 0
+     * otherwise.
+     * @param onlyFirst  the number of rounds only the first strategy won
+     * @param onlySecond the number of rounds only the second strategy won
+     * @param rounds     the number of rounds, which must be positive
+     * @param z          the number of standard errors the interval spans on
+     *                   each side
+     * @return the interval around the difference of the win rates
+     */
+    public static ConfidenceInterval pairedDifference(final long onlyFirst,
+                                                      final long onlySecond,
+                                                      final long rounds,
+                                                      final double z) {
+        double n = rounds;
+        double mean = (onlyFirst - onlySecond) / n;
+        double variance = (onlyFirst + onlySecond) / n - mean * mean;
+        double half = z * Math.sqrt(Math.max(variance, 0) / n);
+        return new ConfidenceInterval(mean, mean - half, mean + half);
+    }
+
+    /**
+     * The number of standard errors a two-sided normal interval spans on each
+     * side for a given confidence level, using Acklam's approximation to the
+     * normal quantile.
+     * @param confidence the confidence level, strictly between 0 and 1
+     * @return the z-score of the interval
+     */
+    public static double zScore(final double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException(
+                    "Confidence must be between 0 and 1, not " + confidence);
+        }
+        double p = 1 - (1 - confidence) / 2;
+        if (p > 1 - TAIL) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4])
+                    * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4])
+                * r + A[5]) * q
+                / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4])
+                * r + 1);
+    }
+
+    /**
+     * Access the point estimate.
+     * @return the point estimate
+     */
+    public double estimate() {
+        return this.estimate;
+    }
+
+    /**
+     * Access the lower bound.
+     * @return the lower bound
+     */
+    public double lower() {
+        return this.lower;
+    }
+
+    /**
+     * Access the upper bound.
+     * @return the upper bound
+     */
+    public double upper() {
+        return this.upper;
+    }
+
+    /**
+     * Returns half the width of this interval.
+     * @return half the distance between the bounds
+     */
+    public double halfWidth() {
+        return (this.upper - this.lower) / 2;
+    }
+
+    /**
+     * Predicate to check if a value lies outside this interval.
+     * @param value the value to check
+     * @return true if value is below the lower or above the upper bound
+     */
+    public boolean excludes(final double value) {
+        return value < this.lower || value > this.upper;
+    }
+
+    /**
+     * Returns this interval in the form estimate [lower, upper].
+     * @return the string form of this interval
+     */
+    public String toString() {
+        return this.estimate + " [" + this.lower + ", " + this.upper + "]";
+    }
+}
@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Writes the batches of a simulation as CSV: a header line, then a line
+ * per batch with its index, the rounds completed, the rounds in the batch
+ * and the elapsed nanoseconds, followed for each reported strategy by its
+ * wins so far, its wins in the batch, its exact win rate so far and the
+ * bounds of the confidence interval around it. Rows are encoded straight
+ * into a buffer, which is written to the channel only when it fills and
+ * when the writer is closed.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class CsvBatchWriter implements BatchWriter {
+
+    /** The size of the buffer. */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /** The destination of the rows. */
+    private final WritableByteChannel channel;
+    /** The rows not yet written to the channel. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    /** The strategies reported, in column order. */
+    private final List<ThreeSlipStrategy> strategies;
+    /** The row being formatted. */
+    private final StringBuilder row = new StringBuilder();
+
+    /**
+     * Create a writer and write the header.
+     *
+     * @param destination the channel to write the rows to, which the writer
+     *                    closes
+     * @param reported    the strategies reported, in column order
+     * @throws IOException if the header cannot be written
+     */
+    public CsvBatchWriter(final WritableByteChannel destination,
+                          final List<ThreeSlipStrategy> reported)
+            throws IOException {
+        this.channel = destination;
+        this.strategies = reported;
+        this.row.append("batch,rounds,batch_rounds,elapsed_nanos");
+        for (ThreeSlipStrategy strategy : reported) {
+            String name = strategy.name();
+            this.row.append(',').append(name).append("_wins,")
+                    .append(name).append("_batch_wins,")
+                    .append(name).append("_rate,")
+                    .append(name).append("_lower,")
+                    .append(name).append("_upper");
+        }
+        writeRow();
+    }
+
+    /**
+     * Write the row of a batch.
+     *
+     * @param record the batch
+     * @throws IOException if the row cannot be written
+     */
+    public void write(final BatchRecord record) throws IOException {
+        this.row.append(record.getBatch()).append(',')
+                .append(record.getRoundsCompleted()).append(',')
+                .append(record.getBatchRounds()).append(',')
+                .append(record.getElapsedNanos());
+        for (ThreeSlipStrategy strategy : this.strategies) {
+            ConfidenceInterval interval = record.getInterval(strategy);
+            this.row.append(',').append(record.getWins(strategy))
+                    .append(',').append(record.getBatchWins(strategy))
+                    .append(',').append(record.getRate(strategy))
+                    .append(',').append(interval.lower())
+                    .append(',').append(interval.upper());
+        }
+        writeRow();
+    }
+
+    /**
+     * Write the buffered rows to the channel and close it.
+     *
+     * @throws IOException if the rows cannot be written
+     */
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Encode the row being formatted into the buffer as a line, draining
+     * the buffer first if the line does not fit.
+     *
+     * @throws IOException if the buffer cannot be drained
+     */
+    private void writeRow() throws IOException {
+        this.row.append('\n');
+        int length = this.row.length();
+        int start = 0;
+        while (start < length) {
+            if (!this.buffer.hasRemaining()) {
+                drain();
+            }
+            int end = Math.min(length, start + this.buffer.remaining());
+            for (int i = start; i < end; i++) {
+                // Every character of a row is ASCII.
+                this.buffer.put((byte) this.row.charAt(i));
+            }
+            start = end;
+        }
+        this.row.setLength(0);
+    }
+
+    /**
+     * Write the whole buffer to the channel.
+     *
+     * @throws IOException if the buffer cannot be written
+     */
+    private void drain() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+}
@@ -0,0 +1,75 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the results of a parameter sweep as CSV with a header row, one row
+ * per cell and one column per reported strategy.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class CsvSweepWriter implements SweepWriter {
+
+    /** The destination of the rows. */
+    private final BufferedWriter out;
+    /** The strategies reported, in column order. */
+    private final List<ThreeSlipStrategy> strategies;
+
+    /**
+     * Create a writer and write the header row.
+     *
+     * @param destination where to write the CSV
+     * @param reported    the strategies reported, in column order
+     * @throws IOException if the header cannot be written
+     */
+    public CsvSweepWriter(final Writer destination,
+                          final List<ThreeSlipStrategy> reported)
+            throws IOException {
+        this.out = new BufferedWriter(destination);
+        this.strategies = reported;
+        this.out.write("slips,bounded,minimum,maximum,rounds");
+        for (ThreeSlipStrategy strategy : reported) {
+            this.out.write("," + strategy.name());
+        }
+        this.out.newLine();
+    }
+
+    /**
+     * Write the row of a finished cell.
+     *
+     * @param cell           the cell
+     * @param numberOfRounds the number of rounds simulated in the cell
+     * @param winMap         map from ThreeSlipStrategy object to number of
+     *                       wins associated with that strategy
+     * @throws IOException if the row cannot be written
+     */
+    public synchronized void write(final SweepCell cell,
+                                   final long numberOfRounds,
+                                   final Map<ThreeSlipStrategy, Long> winMap)
+            throws IOException {
+        ValueRange range = cell.getRange();
+        StringBuilder row = new StringBuilder();
+        row.append(cell.getNumberOfSlips()).append(',')
+                .append(range.hasBounds()).append(',')
+                .append(range.getMinimum()).append(',')
+                .append(range.getMaximum()).append(',')
+                .append(numberOfRounds);
+        for (ThreeSlipStrategy strategy : this.strategies) {
+            row.append(',').append(winMap.get(strategy));
+        }
+        this.out.write(row.toString());
+        this.out.newLine();
+        this.out.flush();
+    }
+
+    /**
+     * Close the destination.
+     * @throws IOException if the destination cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        this.out.close();
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * A block of dealt rounds laid out as columns: the first, second and third
+ * slips of every round, and the largest of the remaining slips. The slips
+ * after the third are never chosen, so they matter only through their
+ * maximum, and a block holds four columns whatever the number of slips.
+ * Strategies are scored against a whole block at once by a BlockKernel.
+ *
+ * <p>Only the order of the slips within a round decides it, so each column
+ * holds the rank of its slip among the four, from 0 for the smallest to 3
+ * for the largest, and the rest column holds -1 when there are only three
+ * slips. Differences of ranks cannot overflow, which lets the kernels
+ * compare by sign bits whatever the range of slip values.
+ *
+ * <p>A block can also keep the values of every slip of every round, for
+ * players that choose from whole deals rather than from the columns. It
+ * then holds numberOfSlips values per round as well as the four columns.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class DealBlock {
+
+    /** The rank in the rest column when there are only three slips. */
+    private static final int NO_REST = -1;
+
+    /** The first slip of each round. */
+    private final int[] first;
+    /** The second slip of each round. */
+    private final int[] second;
+    /** The third slip of each round. */
+    private final int[] third;
+    /** The largest of the remaining slips of each round. */
+    private final int[] rest;
+    /** The buffer into which each round is dealt before it is split. */
+    private final int[] deal;
+    /** The values of each round one after another, or null if not kept. */
+    private final int[] deals;
+    /** The number of rounds in the block. */
+    private int size;
+
+    /**
+     * Create an empty block that keeps only the columns.
+     *
+     * @param capacity      the largest number of rounds the block holds
+     * @param numberOfSlips the number of slips in each round
+     */
+    public DealBlock(final int capacity, final int numberOfSlips) {
+        this(capacity, numberOfSlips, false);
+    }
+
+    /**
+     * Create an empty block.
+     *
+     * @param capacity      the largest number of rounds the block holds
+     * @param numberOfSlips the number of slips in each round
+     * @param keepDeals     whether to keep the values of every slip as well
+     *                      as the columns
+     * @throws ArithmeticException if the deals kept would not fit in an
+     *                             array
+     */
+    public DealBlock(final int capacity, final int numberOfSlips,
+                     final boolean keepDeals) {
+        this.first = new int[capacity];
+        this.second = new int[capacity];
+        this.third = new int[capacity];
+        this.rest = new int[capacity];
+        this.deal = new int[numberOfSlips];
+        this.deals = keepDeals
+                ? new int[Math.multiplyExact(capacity, numberOfSlips)] : null;
+    }
+
+    /**
+     * Replace the rounds of this block with new rounds from a source. The
+     * rounds are dealt in the same order as by repeated calls to
+     * DealSource.fill.
+     *
+     * @param source the source to deal from
+     * @param rounds the number of rounds to deal, at most the capacity
+     */
+    public void fill(final DealSource source, final int rounds) {
+        int[] values = this.deal;
+        for (int r = 0; r < rounds; r++) {
+            source.fill(values);
+            if (this.deals != null) {
+                System.arraycopy(values, 0, this.deals, r * values.length,
+                        values.length);
+            }
+            int a = values[0];
+            int b = values[1];
+            int c = values[2];
+            if (values.length > 3) {
+                int d = values[3];
+                for (int i = 4; i < values.length; i++) {
+                    d = Math.max(d, values[i]);
+                }
+                this.first[r] = less(b, a) + less(c, a) + less(d, a);
+                this.second[r] = less(a, b) + less(c, b) + less(d, b);
+                this.third[r] = less(a, c) + less(b, c) + less(d, c);
+                this.rest[r] = less(a, d) + less(b, d) + less(c, d);
+            } else {
+                this.first[r] = less(b, a) + less(c, a);
+                this.second[r] = less(a, b) + less(c, b);
+                this.third[r] = less(a, c) + less(b, c);
+                this.rest[r] = NO_REST;
+            }
+        }
+        this.size = rounds;
+    }
+
+    /**
+     * Compare two slip values without branching.
+     *
+     * @param x the value on the left
+     * @param y the value on the right
+     * @return 1 if x is less than y, otherwise 0
+     */
+    private static int less(final int x, final int y) {
+        return Integer.compare(x, y) >>> 31;
+    }
+
+    /**
+     * Returns the number of rounds in this block.
+     * @return the number of rounds
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the largest number of rounds this block holds.
+     * @return the capacity of this block
+     */
+    public int capacity() {
+        return this.first.length;
+    }
+
+    /**
+     * Returns the number of slips in each round.
+     * @return the number of slips
+     */
+    public int numberOfSlips() {
+        return this.deal.length;
+    }
+
+    /**
+     * Returns the values of every round, if this block keeps them.
+     * @return the values of each round one after another, numberOfSlips
+     * each, or null if this block keeps only the columns; only the first
+     * size rounds are valid
+     */
+    public int[] deals() {
+        return this.deals;
+    }
+
+    /**
+     * Returns the column of first slips.
+     * @return the rank of the first slip of each round; only the first size
+     * are valid
+     */
+    public int[] first() {
+        return this.first;
+    }
+
+    /**
+     * Returns the column of second slips.
+     * @return the rank of the second slip of each round; only the first
+     * size are valid
+     */
+    public int[] second() {
+        return this.second;
+    }
+
+    /**
+     * Returns the column of third slips.
+     * @return the rank of the third slip of each round; only the first size
+     * are valid
+     */
+    public int[] third() {
+        return this.third;
+    }
+
+    /**
+     * Returns the column of the largest remaining slips.
+     * @return the rank of the largest slip after the third in each round,
+     * or -1 if there are only three; only the first size are valid
+     */
+    public int[] rest() {
+        return this.rest;
+    }
+}
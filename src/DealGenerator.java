@@ -0,0 +1,235 @@
+import java.util.Arrays;
+
+/**
+ * Generates rounds of the three-slip game as primitive slip values. Each
+ * deal is written into a buffer owned by the caller, so a worker that reuses
+ * one buffer generates rounds without allocating.
+ *
+ * <p>Every deal takes bounded time whatever the range. A range of at most
+ * a few times the number of slips is dealt by a partial Fisher-Yates shuffle
+ * of a pool holding every value of the range. Wider ranges are dealt by
+ * drawing values and rejecting repeats, which rarely happen there; repeats
+ * are found by a scan of the deal so far when the deal is short, and by a
+ * primitive open-addressing set when it is long.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class DealGenerator implements DealSource {
+
+    /** The largest range dealt from a pool, whatever the number of slips. */
+    private static final int MAX_POOL = 1 << 10;
+    /** The ratio of range to slips below which deals come from a pool. */
+    private static final int POOL_RATIO = 4;
+    /** The longest deal whose repeats are found by scanning. */
+    private static final int MAX_SCAN = 16;
+
+    /** The number of slips in each deal. */
+    private final int numslips;
+    /** The smallest value of the range for slips, if specified. */
+    private final int minimum;
+    /** The number of values in the range for slips. */
+    private final long range;
+    /** The random number generator owned by this generator's worker. */
+    private final RandomSource random;
+    /** Whether or not deals come from a pool of every value. */
+    private final boolean pooled;
+    /** Every value of the range in some order, once the first deal is made. */
+    private int[] pool;
+    /** The values of the open-addressing set, if one is used. */
+    private final int[] keys;
+    /** The generation in which each slot of the set was last written. */
+    private final int[] stamps;
+    /** The shift taking a hashed value to a slot of the set. */
+    private final int shift;
+    /** The generation of the current deal; older slots are empty. */
+    private int generation;
+    /** The number of values drawn and rejected as repeats. */
+    private long retries;
+
+    /**
+     * Create a deal generator. If hasBounds is false, slip values are drawn
+     * from the range 0..Integer.MAX_VALUE as by the empty constructor for
+     * Slip; otherwise they are drawn from the given range.
+     *
+     * @param numberOfSlips the number of slips in each deal
+     * @param hasBounds     whether or not bounds are specified for the slip
+     *                      values
+     * @param minimum       the smallest value of the range for slips, if
+     *                      specified
+     * @param maximum       the largest value of the range for slips, if
+     *                      specified
+     * @param random        the random number generator to draw values from;
+     *                      it must not be shared with another thread
+     * @throws IllegalArgumentException if the range holds fewer distinct
+     *                                  values than there are slips
+     */
+    public DealGenerator(final int numberOfSlips, final boolean hasBounds,
+                         final int minimum, final int maximum,
+                         final RandomSource random) {
+        this.numslips = numberOfSlips;
+        this.minimum = hasBounds ? minimum : 0;
+        this.range = hasBounds ? (long) maximum - minimum + 1
+                : Integer.MAX_VALUE;
+        this.random = random;
+        if (this.range < numberOfSlips) {
+            throw new IllegalArgumentException("The range " + minimum + ".."
+                    + maximum + " has fewer than " + numberOfSlips
+                    + " distinct values");
+        }
+        if (this.range <= MAX_POOL
+                || this.range < (long) POOL_RATIO * numberOfSlips) {
+            this.pooled = true;
+            this.keys = null;
+            this.stamps = null;
+            this.shift = 0;
+        } else if (numberOfSlips > MAX_SCAN) {
+            int capacity = Integer.highestOneBit(numberOfSlips) << 2;
+            this.pooled = false;
+            this.keys = new int[capacity];
+            this.stamps = new int[capacity];
+            this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        } else {
+            this.pooled = false;
+            this.keys = null;
+            this.stamps = null;
+            this.shift = 0;
+        }
+    }
+
+    /**
+     * Fill the given buffer with a new deal of distinct slip values.
+     *
+     * @param deal the buffer to fill, whose length is at least the number of
+     *             slips in a deal
+     */
+    public void fill(final int[] deal) {
+        if (this.pooled) {
+            shuffle(deal);
+        } else if (this.keys != null) {
+            fillHashed(deal);
+        } else {
+            fillScanned(deal);
+        }
+    }
+
+    /**
+     * Deal by a partial Fisher-Yates shuffle of the pool. The pool is left
+     * in its shuffled order, which is as good a start for the next deal as
+     * any other. The pool is filled on the first deal, so that generators
+     * waiting to run hold no pool.
+     *
+     * @param deal the buffer to fill
+     */
+    private void shuffle(final int[] deal) {
+        if (this.pool == null) {
+            this.pool = new int[(int) this.range];
+            for (int i = 0; i < this.pool.length; i++) {
+                this.pool[i] = this.minimum + i;
+            }
+        }
+        int[] values = this.pool;
+        int length = values.length;
+        for (int i = 0; i < this.numslips; i++) {
+            int j = i + this.random.nextInt(length - i);
+            int value = values[j];
+            values[j] = values[i];
+            values[i] = value;
+            deal[i] = value;
+        }
+    }
+
+    /**
+     * Deal by rejecting repeats found by scanning the deal so far.
+     *
+     * @param deal the buffer to fill
+     */
+    private void fillScanned(final int[] deal) {
+        int i = 0;
+        while (i < this.numslips) {
+            int value = draw();
+            if (!contains(deal, i, value)) {
+                deal[i] = value;
+                i++;
+            } else {
+                this.retries++;
+            }
+        }
+    }
+
+    /**
+     * Deal by rejecting repeats found in the open-addressing set, which is
+     * emptied by starting a new generation.
+     *
+     * @param deal the buffer to fill
+     */
+    private void fillHashed(final int[] deal) {
+        this.generation++;
+        if (this.generation == 0) {
+            Arrays.fill(this.stamps, 0);
+            this.generation = 1;
+        }
+        int mask = this.keys.length - 1;
+        int i = 0;
+        while (i < this.numslips) {
+            int value = draw();
+            int slot = (value * 0x9E3779B9) >>> this.shift;
+            while (this.stamps[slot] == this.generation
+                    && this.keys[slot] != value) {
+                slot = (slot + 1) & mask;
+            }
+            if (this.stamps[slot] != this.generation) {
+                this.stamps[slot] = this.generation;
+                this.keys[slot] = value;
+                deal[i] = value;
+                i++;
+            } else {
+                this.retries++;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values drawn and rejected as repeats of values
+     * already dealt in the same round. Deals from a pool never repeat.
+     *
+     * @return the number of retries so far
+     */
+    public long getRetryCount() {
+        return this.retries;
+    }
+
+    /**
+     * Draw a single slip value.
+     *
+     * @return a random value in the range for slips
+     */
+    private int draw() {
+        if (this.range <= Integer.MAX_VALUE) {
+            return this.random.nextInt((int) this.range) + this.minimum;
+        }
+        long offset;
+        do {
+            offset = this.random.nextLong() >>> 32;
+        } while (offset >= this.range);
+        return (int) (this.minimum + offset);
+    }
+
+    /**
+     * Predicate to check if a value has already been dealt this round.
+     *
+     * @param deal  the buffer holding the values dealt so far
+     * @param count the number of values dealt so far
+     * @param value the value to look for
+     * @return true if one of the first count values equals value
+     */
+    private static boolean contains(final int[] deal, final int count,
+                                    final int value) {
+        for (int i = 0; i < count; i++) {
+            if (deal[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * A source of rounds of the three-slip game as primitive slip values, such
+ * as a DealGenerator or DistributionDealGenerator dealing new rounds or a
+ * DealTraceReader replaying recorded ones.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public interface DealSource {
+
+    /**
+     * Fill the given buffer with the next deal of distinct slip values.
+     *
+     * @param deal the buffer to fill, whose length is at least the number of
+     *             slips in a deal
+     */
+    void fill(int[] deal);
+
+    /**
+     * Returns the number of values drawn and rejected as repeats of values
+     * already dealt in the same round, for EngineMetrics. Sources that do
+     * not draw values never retry.
+     *
+     * @return the number of retries so far
+     */
+    default long getRetryCount() {
+        return 0;
+    }
+}
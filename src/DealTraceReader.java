@@ -0,0 +1,136 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replays the deals of a trace file written by a DealTraceWriter, in the
+ * order they were recorded. The file is mapped read-only one region at a
+ * time and deals are read straight from the mapping, so a trace is scanned
+ * at the speed of the page cache without allocating per round.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class DealTraceReader implements DealSource, Closeable {
+
+    /** The channel of the trace file. */
+    private final FileChannel channel;
+    /** The number of slips in each deal. */
+    private final int numslips;
+    /** The number of rounds in the trace. */
+    private final long numberOfRounds;
+    /** The number of bytes in each mapped region, a multiple of a deal. */
+    private final long regionBytes;
+    /** The position in the file just past the last deal. */
+    private final long end;
+    /** The position in the file of the next region to map. */
+    private long nextRegion = DealTraceWriter.HEADER_BYTES;
+    /** The region being read, as ints. */
+    private IntBuffer ints = IntBuffer.allocate(0);
+
+    /**
+     * Open a trace file.
+     *
+     * @param file the trace file
+     * @throws IOException if the file cannot be read or is not a complete
+     *                     trace
+     */
+    public DealTraceReader(final Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer
+                    .allocate(DealTraceWriter.HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            this.channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < DealTraceWriter.HEADER_BYTES
+                    || header.getInt() != DealTraceWriter.MAGIC) {
+                throw new IOException(file + " is not a deal trace");
+            }
+            int version = header.getInt();
+            if (version != DealTraceWriter.VERSION) {
+                throw new IOException(file + " has unknown version "
+                        + version);
+            }
+            this.numslips = header.getInt();
+            header.getInt();
+            this.numberOfRounds = header.getLong();
+            long dealBytes = (long) this.numslips * Integer.BYTES;
+            this.end = DealTraceWriter.HEADER_BYTES
+                    + this.numberOfRounds * dealBytes;
+            if (this.numslips <= 0 || this.channel.size() < this.end) {
+                throw new IOException(file + " is truncated");
+            }
+            this.regionBytes = DealTraceWriter.REGION_BYTES / dealBytes
+                    * dealBytes;
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of slips in each deal of the trace.
+     * @return the number of slips
+     */
+    public int getNumberOfSlips() {
+        return this.numslips;
+    }
+
+    /**
+     * Returns the number of rounds in the trace.
+     * @return the number of rounds
+     */
+    public long getNumberOfRounds() {
+        return this.numberOfRounds;
+    }
+
+    /**
+     * Fill the given buffer with the next recorded deal.
+     *
+     * @param deal the buffer to fill, whose length is at least the number of
+     *             slips in a deal
+     * @throws IllegalStateException if every round has been replayed
+     * @throws UncheckedIOException if the file cannot be mapped
+     */
+    public void fill(final int[] deal) {
+        if (!this.ints.hasRemaining()) {
+            nextRegion();
+        }
+        this.ints.get(deal, 0, this.numslips);
+    }
+
+    /**
+     * Map the next region of the file.
+     */
+    private void nextRegion() {
+        long size = Math.min(this.regionBytes, this.end - this.nextRegion);
+        if (size <= 0) {
+            throw new IllegalStateException("All " + this.numberOfRounds
+                    + " rounds of the trace have been replayed");
+        }
+        try {
+            this.ints = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                    this.nextRegion, size).order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.nextRegion += size;
+    }
+
+    /**
+     * Close the trace file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
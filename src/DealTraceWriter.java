@@ -0,0 +1,143 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records deals to a trace file so that they can be replayed by a
+ * DealTraceReader. Deals are written as fixed-width little-endian ints
+ * straight into a memory-mapped region of the file, one region at a time,
+ * so recording a round neither allocates nor copies through a buffer of its
+ * own. The file starts with a header of TRACE_HEADER_BYTES bytes holding
+ * the magic number "TSTR", the format version, the number of slips and the
+ * number of rounds, which is filled in when the writer is closed.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class DealTraceWriter implements Closeable {
+
+    /** The magic number at the start of a trace file, "TSTR". */
+    static final int MAGIC = 0x54535452;
+    /** The version of the format. */
+    static final int VERSION = 1;
+    /** The number of bytes before the first deal. */
+    static final int HEADER_BYTES = 32;
+    /** The largest number of bytes mapped at once. */
+    static final long REGION_BYTES = 1L << 28;
+
+    /** The channel of the trace file. */
+    private final FileChannel channel;
+    /** The number of slips in each deal. */
+    private final int numslips;
+    /** The number of bytes in each mapped region, a multiple of a deal. */
+    private final long regionBytes;
+    /** The position in the file of the next region to map. */
+    private long nextRegion = HEADER_BYTES;
+    /** The region being written. */
+    private MappedByteBuffer region;
+    /** The region being written, as ints. */
+    private IntBuffer ints = IntBuffer.allocate(0);
+    /** The number of rounds recorded. */
+    private long rounds;
+
+    /**
+     * Create a trace file, replacing any file already there.
+     *
+     * @param file          the trace file
+     * @param numberOfSlips the number of slips in each deal
+     * @throws IOException if the file cannot be created
+     */
+    public DealTraceWriter(final Path file, final int numberOfSlips)
+            throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.numslips = numberOfSlips;
+        long dealBytes = (long) numberOfSlips * Integer.BYTES;
+        this.regionBytes = REGION_BYTES / dealBytes * dealBytes;
+    }
+
+    /**
+     * Returns the number of rounds recorded so far.
+     * @return the number of rounds
+     */
+    public long getNumberOfRounds() {
+        return this.rounds;
+    }
+
+    /**
+     * Record a deal.
+     *
+     * @param deal the deal, whose first numslips values are recorded
+     * @throws UncheckedIOException if the file cannot be extended
+     */
+    public void record(final int[] deal) {
+        if (!this.ints.hasRemaining()) {
+            nextRegion();
+        }
+        this.ints.put(deal, 0, this.numslips);
+        this.rounds++;
+    }
+
+    /**
+     * Returns a source that deals from the given source and records every
+     * deal it makes.
+     *
+     * @param source the source to deal from
+     * @return the recording source
+     */
+    public DealSource tracing(final DealSource source) {
+        return deal -> {
+            source.fill(deal);
+            record(deal);
+        };
+    }
+
+    /**
+     * Map the next region of the file, extending the file to hold it.
+     */
+    private void nextRegion() {
+        try {
+            if (this.region != null) {
+                this.region.force();
+            }
+            this.region = this.channel.map(FileChannel.MapMode.READ_WRITE,
+                    this.nextRegion, this.regionBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.nextRegion += this.regionBytes;
+        this.ints = this.region.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /**
+     * Write the header, cut the file to the rounds recorded and close it.
+     *
+     * @throws IOException if the file cannot be finished
+     */
+    public void close() throws IOException {
+        if (this.region != null) {
+            this.region.force();
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(this.numslips).putInt(0)
+                .putLong(this.rounds).flip();
+        header.limit(HEADER_BYTES);
+        try (FileChannel file = this.channel) {
+            file.truncate(HEADER_BYTES
+                    + this.rounds * this.numslips * Integer.BYTES);
+            while (header.hasRemaining()) {
+                file.write(header, header.position());
+            }
+            file.force(true);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+import java.util.Arrays;
+
+/**
+ * A distribution given by a histogram: each bin is chosen with probability
+ * proportional to its weight, and the value is uniform within the bin. The
+ * bin is chosen in constant time by Walker's alias method, with the table
+ * built by Vose's algorithm, so a draw costs one random long whatever the
+ * number of bins. Keys are those of the double value.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class EmpiricalDistribution implements ValueDistribution {
+
+    /** The edges of the bins, in increasing order. */
+    private final double[] edges;
+    /**
+     * The probability of keeping each column rather than its alias, scaled
+     * by 2 to the 32.
+     */
+    private final long[] keep;
+    /** The bin each column gives to when not kept. */
+    private final int[] alias;
+    /** An upper bound on the number of distinct values drawn. */
+    private final long support;
+
+    /**
+     * Create the distribution of a histogram.
+     *
+     * @param edges   the edges of the bins, one more than there are bins, in
+     *                increasing order
+     * @param weights the weight of each bin, which need not sum to 1
+     * @throws IllegalArgumentException if there are no bins, the edges do
+     *                                  not match the weights or increase, or
+     *                                  the weights are negative or all 0
+     */
+    public EmpiricalDistribution(final double[] edges,
+                                 final double[] weights) {
+        int bins = weights.length;
+        if (bins == 0 || edges.length != bins + 1) {
+            throw new IllegalArgumentException(edges.length
+                    + " edges do not bound " + bins + " bins");
+        }
+        double total = 0;
+        for (int i = 0; i < bins; i++) {
+            if (!(edges[i] < edges[i + 1])) {
+                throw new IllegalArgumentException("Edges must increase");
+            }
+            if (!(weights[i] >= 0)) {
+                throw new IllegalArgumentException("Weight " + weights[i]
+                        + " is negative");
+            }
+            total += weights[i];
+        }
+        if (!(total > 0) || Double.isInfinite(total)) {
+            throw new IllegalArgumentException("Weights sum to " + total);
+        }
+        this.edges = edges.clone();
+        long values = 0;
+        for (int i = 0; i < bins; i++) {
+            if (weights[i] > 0) {
+                // 32 bits place a value within its bin.
+                long within = ValueDistribution.keyOf(edges[i + 1])
+                        - ValueDistribution.keyOf(edges[i]) + 1;
+                values += within > 0 && within < 1L << 32 ? within : 1L << 32;
+            }
+        }
+        this.support = values < 0 ? Long.MAX_VALUE : values;
+        this.keep = new long[bins];
+        this.alias = new int[bins];
+        double[] scaled = new double[bins];
+        int[] small = new int[bins];
+        int[] large = new int[bins];
+        int smalls = 0;
+        int larges = 0;
+        for (int i = 0; i < bins; i++) {
+            scaled[i] = weights[i] * bins / total;
+            if (scaled[i] < 1) {
+                small[smalls++] = i;
+            } else {
+                large[larges++] = i;
+            }
+        }
+        while (smalls > 0 && larges > 0) {
+            int less = small[--smalls];
+            int more = large[--larges];
+            this.keep[less] = (long) (scaled[less] * 0x1.0p32);
+            this.alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smalls++] = more;
+            } else {
+                large[larges++] = more;
+            }
+        }
+        // What is left holds probability 1 up to rounding.
+        while (larges > 0) {
+            int bin = large[--larges];
+            this.keep[bin] = 1L << 32;
+            this.alias[bin] = bin;
+        }
+        while (smalls > 0) {
+            int bin = small[--smalls];
+            this.keep[bin] = 1L << 32;
+            this.alias[bin] = bin;
+        }
+    }
+
+    /**
+     * Create the distribution of a sample, as a histogram with equal-width
+     * bins spanning it.
+     *
+     * @param sample the sample, holding at least two distinct values
+     * @param bins   the number of bins
+     * @return the distribution
+     * @throws IllegalArgumentException if the sample has one distinct value
+     *                                  or there are no bins
+     */
+    public static EmpiricalDistribution ofSample(final double[] sample,
+                                                 final int bins) {
+        double min = Arrays.stream(sample).min().orElse(0);
+        double max = Arrays.stream(sample).max().orElse(0);
+        if (bins <= 0 || !(min < max)) {
+            throw new IllegalArgumentException("Cannot bin the sample into "
+                    + bins + " bins");
+        }
+        double[] edges = new double[bins + 1];
+        for (int i = 0; i <= bins; i++) {
+            edges[i] = min + (max - min) * i / bins;
+        }
+        edges[bins] = max;
+        double[] weights = new double[bins];
+        for (double value : sample) {
+            int bin = (int) ((value - min) / (max - min) * bins);
+            weights[Math.min(bin, bins - 1)]++;
+        }
+        return new EmpiricalDistribution(edges, weights);
+    }
+
+    /**
+     * Draw a value as its key from a single random long. The high half,
+     * scaled by the number of columns, gives the column as its integer part
+     * and the coin deciding between the column and its alias as its
+     * fractional part; the low half places the value within the bin. The
+     * coin is tossed without a branch, since its outcome is as unpredictable
+     * as the draw.
+     *
+     * @param random the random number generator to draw from
+     * @return the key of the value drawn
+     */
+    public long nextKey(final RandomSource random) {
+        long bits = random.nextLong();
+        long scaled = (bits >>> 32) * this.keep.length;
+        int column = (int) (scaled >>> 32);
+        int other = this.alias[column];
+        long kept = ((scaled & 0xFFFFFFFFL) - this.keep[column]) >> 63;
+        int bin = other ^ ((column ^ other) & (int) kept);
+        double low = this.edges[bin];
+        double value = low + (this.edges[bin + 1] - low)
+                * ((bits & 0xFFFFFFFFL) * 0x1.0p-32);
+        return ValueDistribution.keyOf(value);
+    }
+
+    /**
+     * Returns an upper bound on the number of distinct values drawn: the
+     * doubles within each bin of positive weight, and at most 2 to the 32 of
+     * them.
+     *
+     * @return the upper bound
+     */
+    public long getSupportSize() {
+        return this.support;
+    }
+
+    /**
+     * Returns the value a key stands for.
+     *
+     * @param key a key drawn by nextKey
+     * @return the value
+     */
+    public double toValue(final long key) {
+        return ValueDistribution.valueOf(key);
+    }
+}
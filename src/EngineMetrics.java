@@ -0,0 +1,382 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and histograms of where the simulation engine spends its time,
+ * recorded by workers once per batch of rounds. Metrics are off unless the
+ * system property threeslip.metrics is true or threeslip.metrics.file is
+ * set; while they are off ENABLED is false, so the JIT removes the timing
+ * from the workers' loops and the only cost left is a test per batch.
+ *
+ * <p>When enabled the metrics are registered as the MBean
+ * threeslip:type=EngineMetrics, and if threeslip.metrics.file names a file
+ * they are written there in the Prometheus text format every
+ * threeslip.metrics.interval milliseconds (10 seconds by default) and when
+ * the JVM exits. Each file is written beside its destination and renamed
+ * over it, so a scraper never reads half a file.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class EngineMetrics implements EngineMetricsMBean {
+
+    /** The file the metrics are written to, or null. */
+    private static final String FILE =
+            System.getProperty("threeslip.metrics.file");
+    /** Whether or not metrics are recorded. */
+    public static final boolean ENABLED =
+            Boolean.getBoolean("threeslip.metrics") || FILE != null;
+    /** The name of the MBean. */
+    private static final String OBJECT_NAME = "threeslip:type=EngineMetrics";
+    /** The milliseconds between writes of the file by default. */
+    private static final long DEFAULT_INTERVAL = 10_000;
+    /** The seconds the exit write waits for a periodic write to finish. */
+    private static final long EXIT_WAIT_SECONDS = 5;
+    /** The metrics of this JVM. */
+    private static final EngineMetrics INSTANCE = new EngineMetrics();
+
+    static {
+        if (ENABLED) {
+            INSTANCE.register();
+            if (FILE != null) {
+                INSTANCE.writePeriodically(Paths.get(FILE),
+                        Long.getLong("threeslip.metrics.interval",
+                                DEFAULT_INTERVAL));
+            }
+        }
+    }
+
+    /** The number of rounds simulated. */
+    private final LongAdder rounds = new LongAdder();
+    /** The number of values rejected as repeats while dealing. */
+    private final LongAdder retries = new LongAdder();
+    /** The time spent dealing, in nanoseconds. */
+    private final LongAdder generationNanos = new LongAdder();
+    /** The time spent scoring, in nanoseconds. */
+    private final LongAdder scoringNanos = new LongAdder();
+    /** The bytes allocated by workers while simulating. */
+    private final LongAdder allocated = new LongAdder();
+    /** The rate of one worker over each batch, in rounds per second. */
+    private final MetricHistogram workerRate = new MetricHistogram();
+    /** The number of values rejected as repeats in each batch. */
+    private final MetricHistogram batchRetries = new MetricHistogram();
+    /** The time taken by each batch, in microseconds. */
+    private final MetricHistogram batchMicros = new MetricHistogram();
+
+    /**
+     * Create the metrics of this JVM.
+     */
+    private EngineMetrics() {
+    }
+
+    /**
+     * Returns the metrics of this JVM, which record nothing unless ENABLED.
+     *
+     * @return the metrics
+     */
+    public static EngineMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the number of bytes the current thread has allocated, if the
+     * JVM measures it.
+     *
+     * @return the number of bytes, or 0 if allocation is not measured
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (Threads.BEAN instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) Threads.BEAN)
+                    .getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * Record a batch of rounds simulated by one worker.
+     *
+     * @param batchRounds     the number of rounds in the batch
+     * @param elapsedNanos    the time the batch took
+     * @param generation      the time spent dealing
+     * @param scoring         the time spent scoring
+     * @param dealRetries     the number of values rejected as repeats
+     * @param allocatedBytes  the number of bytes the worker allocated
+     */
+    public void recordBatch(final long batchRounds, final long elapsedNanos,
+                            final long generation, final long scoring,
+                            final long dealRetries,
+                            final long allocatedBytes) {
+        this.rounds.add(batchRounds);
+        this.generationNanos.add(generation);
+        this.scoringNanos.add(scoring);
+        this.retries.add(dealRetries);
+        this.allocated.add(allocatedBytes);
+        this.batchRetries.record(dealRetries);
+        this.batchMicros.record(elapsedNanos / 1_000);
+        if (elapsedNanos > 0) {
+            this.workerRate.record(batchRounds * 1_000_000_000L
+                    / elapsedNanos);
+        }
+    }
+
+    /**
+     * Returns the number of rounds simulated.
+     * @return the number of rounds
+     */
+    public long getRounds() {
+        return this.rounds.sum();
+    }
+
+    /**
+     * Returns the number of batches of rounds recorded.
+     * @return the number of batches
+     */
+    public long getBatches() {
+        return this.batchMicros.getCount();
+    }
+
+    /**
+     * Returns the number of values drawn and rejected as repeats while
+     * dealing.
+     * @return the number of retries
+     */
+    public long getDealRetries() {
+        return this.retries.sum();
+    }
+
+    /**
+     * Returns the mean number of values rejected as repeats per deal.
+     * @return the retries per deal
+     */
+    public double getRetriesPerDeal() {
+        long deals = getRounds();
+        return deals == 0 ? 0 : (double) getDealRetries() / deals;
+    }
+
+    /**
+     * Returns the total time spent dealing rounds, over all workers.
+     * @return the time in nanoseconds
+     */
+    public long getGenerationNanos() {
+        return this.generationNanos.sum();
+    }
+
+    /**
+     * Returns the total time spent choosing slips and scoring rounds, over
+     * all workers.
+     * @return the time in nanoseconds
+     */
+    public long getScoringNanos() {
+        return this.scoringNanos.sum();
+    }
+
+    /**
+     * Returns the fraction of simulating time spent dealing rounds.
+     * @return the fraction, between 0 and 1
+     */
+    public double getGenerationFraction() {
+        long generation = getGenerationNanos();
+        long total = generation + getScoringNanos();
+        return total == 0 ? 0 : (double) generation / total;
+    }
+
+    /**
+     * Returns the number of bytes allocated by workers while simulating.
+     * @return the number of bytes
+     */
+    public long getAllocatedBytes() {
+        return this.allocated.sum();
+    }
+
+    /**
+     * Returns the number of bytes allocated by workers per round simulated.
+     * @return the bytes per round
+     */
+    public double getAllocatedBytesPerRound() {
+        long n = getRounds();
+        return n == 0 ? 0 : (double) getAllocatedBytes() / n;
+    }
+
+    /**
+     * Returns the mean rate of one worker over the batches recorded.
+     * @return the rounds per second
+     */
+    public double getMeanWorkerRoundsPerSecond() {
+        return this.workerRate.getMean();
+    }
+
+    /**
+     * Returns an upper bound on the median rate of one worker.
+     * @return the rounds per second
+     */
+    public long getMedianWorkerRoundsPerSecond() {
+        return this.workerRate.getQuantileBound(0.5);
+    }
+
+    /**
+     * Returns an upper bound on the tenth percentile of the rate of one
+     * worker, which shows workers held back by the rest of the machine.
+     * @return the rounds per second
+     */
+    public long getSlowWorkerRoundsPerSecond() {
+        return this.workerRate.getQuantileBound(0.1);
+    }
+
+    /**
+     * Discard every count and histogram recorded.
+     */
+    public void reset() {
+        this.rounds.reset();
+        this.retries.reset();
+        this.generationNanos.reset();
+        this.scoringNanos.reset();
+        this.allocated.reset();
+        this.workerRate.reset();
+        this.batchRetries.reset();
+        this.batchMicros.reset();
+    }
+
+    /**
+     * Returns the metrics in the Prometheus text format.
+     * @return the text
+     */
+    public String getPrometheusText() {
+        StringBuilder out = new StringBuilder();
+        counter(out, "threeslip_rounds_total", "Rounds simulated.",
+                getRounds());
+        counter(out, "threeslip_deal_retries_total",
+                "Values rejected as repeats while dealing.",
+                getDealRetries());
+        counter(out, "threeslip_generation_nanoseconds_total",
+                "Time spent dealing rounds.", getGenerationNanos());
+        counter(out, "threeslip_scoring_nanoseconds_total",
+                "Time spent choosing slips and scoring rounds.",
+                getScoringNanos());
+        counter(out, "threeslip_allocated_bytes_total",
+                "Bytes allocated by workers while simulating.",
+                getAllocatedBytes());
+        this.workerRate.writePrometheus(out,
+                "threeslip_worker_rounds_per_second",
+                "Rate of one worker over a batch.");
+        this.batchRetries.writePrometheus(out, "threeslip_batch_deal_retries",
+                "Values rejected as repeats in a batch.");
+        this.batchMicros.writePrometheus(out, "threeslip_batch_microseconds",
+                "Time taken by a batch.");
+        return out.toString();
+    }
+
+    /**
+     * Write the metrics to a file in the Prometheus text format, replacing
+     * it atomically.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writePrometheus(final Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary,
+                getPrometheusText().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Append a counter in the Prometheus text format.
+     *
+     * @param out   the text to append to
+     * @param name  the name of the counter
+     * @param help  the description of the counter
+     * @param value the value of the counter
+     */
+    private static void counter(final StringBuilder out, final String name,
+                                final String help, final long value) {
+        out.append("# HELP ").append(name).append(' ').append(help)
+                .append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Register these metrics with the platform MBean server. A failure
+     * leaves the metrics recording, only unreachable over JMX.
+     */
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Could not register " + OBJECT_NAME + ": "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the metrics to a file on a daemon thread every interval, and
+     * once more when the JVM exits. The exit write waits for the timer to
+     * stop first, so the two never write the temporary file at once.
+     *
+     * @param file     the file to write
+     * @param interval the milliseconds between writes
+     */
+    private void writePeriodically(final Path file, final long interval) {
+        ScheduledExecutorService timer =
+                Executors.newSingleThreadScheduledExecutor(task -> {
+                    Thread thread = new Thread(task, "threeslip-metrics");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Runnable write = () -> {
+            try {
+                writePrometheus(file);
+            } catch (IOException e) {
+                System.err.println("Could not write metrics to " + file
+                        + ": " + e.getMessage());
+            }
+        };
+        timer.scheduleAtFixedRate(write, interval, interval,
+                TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            timer.shutdown();
+            try {
+                if (!timer.awaitTermination(EXIT_WAIT_SECONDS,
+                        TimeUnit.SECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            write.run();
+        }, "threeslip-metrics-exit"));
+    }
+
+    /**
+     * The threads, through which allocation is measured if supported. They
+     * are looked up on first use rather than when ENABLED is first read,
+     * since the platform MBeans take longer to start than a short
+     * simulation.
+     */
+    private static final class Threads {
+
+        /** The thread MBean of this JVM. */
+        static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+
+        /**
+         * Not instantiable.
+         */
+        private Threads() {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * The management interface of EngineMetrics, through which its counters
+ * and histograms are read over JMX as the attributes of the MBean
+ * threeslip:type=EngineMetrics.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public interface EngineMetricsMBean {
+
+    /**
+     * Returns the number of rounds simulated.
+     * @return the number of rounds
+     */
+    long getRounds();
+
+    /**
+     * Returns the number of batches of rounds recorded.
+     * @return the number of batches
+     */
+    long getBatches();
+
+    /**
+     * Returns the number of values drawn and rejected as repeats while
+     * dealing.
+     * @return the number of retries
+     */
+    long getDealRetries();
+
+    /**
+     * Returns the mean number of values rejected as repeats per deal.
+     * @return the retries per deal
+     */
+    double getRetriesPerDeal();
+
+    /**
+     * Returns the total time spent dealing rounds, over all workers.
+     * @return the time in nanoseconds
+     */
+    long getGenerationNanos();
+
+    /**
+     * Returns the total time spent choosing slips and scoring rounds, over
+     * all workers.
+     * @return the time in nanoseconds
+     */
+    long getScoringNanos();
+
+    /**
+     * Returns the fraction of simulating time spent dealing rounds.
+     * @return the fraction, between 0 and 1
+     */
+    double getGenerationFraction();
+
+    /**
+     * Returns the number of bytes allocated by workers while simulating.
+     * @return the number of bytes
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Returns the number of bytes allocated by workers per round simulated.
+     * @return the bytes per round
+     */
+    double getAllocatedBytesPerRound();
+
+    /**
+     * Returns the mean rate of one worker over the batches recorded.
+     * @return the rounds per second
+     */
+    double getMeanWorkerRoundsPerSecond();
+
+    /**
+     * Returns an upper bound on the median rate of one worker.
+     * @return the rounds per second
+     */
+    long getMedianWorkerRoundsPerSecond();
+
+    /**
+     * Returns an upper bound on the tenth percentile of the rate of one
+     * worker, which shows workers held back by the rest of the machine.
+     * @return the rounds per second
+     */
+    long getSlowWorkerRoundsPerSecond();
+
+    /**
+     * Returns the metrics in the Prometheus text format.
+     * @return the text
+     */
+    String getPrometheusText();
+
+    /**
+     * Discard every count and histogram recorded.
+     */
+    void reset();
+}
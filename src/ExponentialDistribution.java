@@ -0,0 +1,140 @@
+/**
+ * The exponential distribution, drawn by the ziggurat method of Marsaglia
+ * and Tsang over 256 layers. A draw takes one random long, a table lookup
+ * and a comparison nearly 99% of the time. Keys are those of the value
+ * with unit rate, whose order is that of the value for any positive rate.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class ExponentialDistribution implements ValueDistribution {
+
+    /** The number of layers, a power of two. */
+    private static final int LAYERS = 256;
+    /** The start of the tail. */
+    private static final double R = 7.69711747013104972;
+    /** The area of each layer. */
+    private static final double V = 3.949659822581572e-3;
+    /** The right edge of each layer, with that of the base first. */
+    private static final double[] X = new double[LAYERS + 1];
+    /** The density at each right edge. */
+    private static final double[] F = new double[LAYERS + 1];
+    /** The scaled point within each layer below which it lies in the next. */
+    private static final long[] K = new long[LAYERS];
+    /** The scale from an unsigned 53-bit integer to a point in each layer. */
+    private static final double[] W = new double[LAYERS];
+
+    static {
+        X[0] = V / Math.exp(-R);
+        X[1] = R;
+        for (int i = 1; i < LAYERS - 1; i++) {
+            X[i + 1] = -Math.log(V / X[i] + Math.exp(-X[i]));
+        }
+        X[LAYERS] = 0;
+        for (int i = 0; i <= LAYERS; i++) {
+            F[i] = Math.exp(-X[i]);
+        }
+        for (int i = 0; i < LAYERS; i++) {
+            K[i] = (long) (X[i + 1] / X[i] * 0x1.0p53);
+            W[i] = X[i] * 0x1.0p-53;
+        }
+    }
+
+    /** The rate. */
+    private final double rate;
+
+    /**
+     * Create the exponential distribution with unit rate.
+     */
+    public ExponentialDistribution() {
+        this(1);
+    }
+
+    /**
+     * Create an exponential distribution.
+     *
+     * @param rate the rate, the reciprocal of the mean
+     * @throws IllegalArgumentException if the rate is not positive
+     */
+    public ExponentialDistribution(final double rate) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("Rate " + rate
+                    + " is not positive");
+        }
+        this.rate = rate;
+    }
+
+    /**
+     * Draw a value as the key of its value with unit rate.
+     *
+     * @param random the random number generator to draw from
+     * @return the key of the value drawn
+     */
+    public long nextKey(final RandomSource random) {
+        return ValueDistribution.keyOf(nextStandard(random));
+    }
+
+    /**
+     * Returns the value a key stands for.
+     *
+     * @param key a key drawn by nextKey
+     * @return the value
+     */
+    public double toValue(final long key) {
+        return ValueDistribution.valueOf(key) / this.rate;
+    }
+
+    /**
+     * Draw an exponential value with unit rate. The low bits of a random
+     * long choose the layer and the high bits the point within it, so the
+     * common case is decided by an integer comparison and the rare ones are
+     * left to a method of their own to keep this one small enough to inline.
+     *
+     * @param random the random number generator to draw from
+     * @return an exponential value with unit rate
+     */
+    static double nextStandard(final RandomSource random) {
+        long bits = random.nextLong();
+        int i = (int) bits & (LAYERS - 1);
+        long j = bits >>> 11;
+        if (j < K[i]) {
+            return j * W[i];
+        }
+        return nextOutside(random, i, j);
+    }
+
+    /**
+     * Finish a draw whose point fell outside the rectangle of its layer,
+     * drawing again until a point is accepted.
+     *
+     * @param random the random number generator to draw from
+     * @param layer  the layer of the point
+     * @param point  the point as an unsigned 53-bit integer
+     * @return an exponential value with unit rate
+     */
+    private static double nextOutside(final RandomSource random,
+                                      final int layer, final long point) {
+        double offset = 0;
+        int i = layer;
+        long j = point;
+        while (true) {
+            double x = j * W[i];
+            if (i == 0) {
+                // The tail beyond R is R plus another exponential.
+                offset += R;
+            } else {
+                double y = F[i] + (F[i + 1] - F[i])
+                        * ValueDistribution.nextDouble(random);
+                if (y < Math.exp(-x)) {
+                    return offset + x;
+                }
+            }
+            long bits = random.nextLong();
+            i = (int) bits & (LAYERS - 1);
+            j = bits >>> 11;
+            if (j < K[i]) {
+                return offset + j * W[i];
+            }
+        }
+    }
+}
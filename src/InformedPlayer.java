@@ -110,4 +110,46 @@ public class InformedPlayer extends Player {
             this.choice = slips[2];
         }
     }
+
+    /**
+     * Choose a slip based on the informed strategy from the values of a deal.
+     * @param values the values of the slips from which to choose
+     * @return 1 if the second slip is larger than the first, otherwise 2
+     */
+    public int chooseIndexFrom(final int[] values) {
+        if (values[1] > values[0]) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Whether tallyBlock needs the values of every slip of a block.
+     * @return false, since this player counts from the columns
+     */
+    public boolean needsDeals() {
+        return false;
+    }
+
+    /**
+     * Score the informed strategy against a whole block of rounds. The
+     * second slip wins when it beats the first and is the largest; the third
+     * wins when the second does not beat the first and the third is the
+     * largest.
+     * @param block  the rounds to score against
+     * @param kernel the kernel counting wins over the block
+     */
+    public void tallyBlock(final DealBlock block, final BlockKernel kernel) {
+        int[] first = block.first();
+        int[] second = block.second();
+        int[] third = block.third();
+        int[] rest = block.rest();
+        int size = block.size();
+        long keep = kernel.countWins(second, first, third, rest, size);
+        long discard = kernel.countWinsWhere(third, first, second, rest,
+                first, second, size);
+        this.keepSecondCount += keep;
+        this.discardSecondCount += discard;
+        this.winCount += keep + discard;
+    }
 }
@@ -0,0 +1,49 @@
+import java.util.Random;
+
+/**
+ * A RandomSource backed by java.util.Random.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class JdkRandomSource implements RandomSource {
+
+    /** The generator backing this source. */
+    private final Random random;
+
+    /**
+     * Create a source with the given seed.
+     * @param seed the seed of this source
+     */
+    public JdkRandomSource(final long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Returns a random integer in the range 0 (inclusive) to bound
+     * (exclusive).
+     * @param bound the upper bound (exclusive), which must be positive
+     * @return a random integer in the range 0..bound - 1
+     */
+    public int nextInt(final int bound) {
+        return this.random.nextInt(bound);
+    }
+
+    /**
+     * Returns a random long.
+     * @return a random long
+     */
+    public long nextLong() {
+        return this.random.nextLong();
+    }
+
+    /**
+     * Returns a new source seeded with the next long from this source.
+     * java.util.Random has no means of splitting, so the new stream is only
+     * as independent as two seeds drawn from this one.
+     * @return a new source
+     */
+    public RandomSource split() {
+        return new JdkRandomSource(this.random.nextLong());
+    }
+}
@@ -0,0 +1,285 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the simulation server: a parser of objects holding
+ * strings, numbers, booleans, nulls, arrays and objects, and the quoting of
+ * strings. Integers parse to Long and other numbers to Double.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class Json {
+
+    /** The text being parsed. */
+    private final String text;
+    /** The position of the next character to parse. */
+    private int position;
+
+    /**
+     * Create a parser of the given text.
+     * @param json the text to parse
+     */
+    private Json(final String json) {
+        this.text = json;
+    }
+
+    /**
+     * Parse a JSON object.
+     *
+     * @param json the text of the object
+     * @return the members of the object, in order
+     * @throws IllegalArgumentException if the text is not a JSON object
+     */
+    public static Map<String, Object> parseObject(final String json) {
+        Json parser = new Json(json);
+        parser.skipSpace();
+        Map<String, Object> object = parser.object();
+        parser.skipSpace();
+        if (parser.position != json.length()) {
+            throw parser.error("Text after the object");
+        }
+        return object;
+    }
+
+    /**
+     * Quote a string as a JSON string literal.
+     *
+     * @param value the string to quote
+     * @return the literal, with its quotes
+     */
+    public static String quote(final String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2);
+        quoted.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Parse any value.
+     * @return the value
+     */
+    private Object value() {
+        skipSpace();
+        if (this.position >= this.text.length()) {
+            throw error("Value expected");
+        }
+        char c = this.text.charAt(this.position);
+        switch (c) {
+            case '{':
+                return object();
+            case '[':
+                return array();
+            case '"':
+                return string();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                return number();
+        }
+    }
+
+    /**
+     * Parse an object.
+     * @return the members of the object, in order
+     */
+    private Map<String, Object> object() {
+        expect('{');
+        Map<String, Object> members = new LinkedHashMap<>();
+        skipSpace();
+        if (peek() == '}') {
+            this.position++;
+            return members;
+        }
+        do {
+            skipSpace();
+            String name = string();
+            skipSpace();
+            expect(':');
+            members.put(name, value());
+            skipSpace();
+        } while (accept(','));
+        expect('}');
+        return members;
+    }
+
+    /**
+     * Parse an array.
+     * @return the elements of the array
+     */
+    private List<Object> array() {
+        expect('[');
+        List<Object> elements = new ArrayList<>();
+        skipSpace();
+        if (peek() == ']') {
+            this.position++;
+            return elements;
+        }
+        do {
+            elements.add(value());
+            skipSpace();
+        } while (accept(','));
+        expect(']');
+        return elements;
+    }
+
+    /**
+     * Parse a string.
+     * @return the string, unescaped
+     */
+    private String string() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            if (this.position >= this.text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = this.text.charAt(this.position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (this.position >= this.text.length()) {
+                throw error("Unterminated escape");
+            }
+            char escaped = this.text.charAt(this.position++);
+            switch (escaped) {
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (this.position + 4 > this.text.length()) {
+                        throw error("Bad unicode escape");
+                    }
+                    value.append((char) Integer.parseInt(this.text.substring(
+                            this.position, this.position + 4), 16));
+                    this.position += 4;
+                    break;
+                default:
+                    value.append(escaped);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Parse a number.
+     * @return a Long if the number is an integer, otherwise a Double
+     */
+    private Object number() {
+        int start = this.position;
+        while (this.position < this.text.length()
+                && "+-0123456789.eE".indexOf(this.text.charAt(this.position))
+                >= 0) {
+            this.position++;
+        }
+        String digits = this.text.substring(start, this.position);
+        try {
+            if (digits.matches("-?\\d+")) {
+                return Long.parseLong(digits);
+            }
+            return Double.parseDouble(digits);
+        } catch (NumberFormatException e) {
+            this.position = start;
+            throw error("Bad number");
+        }
+    }
+
+    /**
+     * Parse a literal word.
+     * @param word  the word expected
+     * @param value the value of the word
+     * @return value
+     */
+    private Object literal(final String word, final Object value) {
+        if (!this.text.startsWith(word, this.position)) {
+            throw error("Bad literal");
+        }
+        this.position += word.length();
+        return value;
+    }
+
+    /**
+     * Skip whitespace.
+     */
+    private void skipSpace() {
+        while (this.position < this.text.length()
+                && Character.isWhitespace(this.text.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    /**
+     * Returns the next character without consuming it.
+     * @return the next character, or 0 at the end of the text
+     */
+    private char peek() {
+        if (this.position < this.text.length()) {
+            return this.text.charAt(this.position);
+        }
+        return 0;
+    }
+
+    /**
+     * Consume the next character if it is the given one.
+     * @param c the character to accept
+     * @return true if it was consumed
+     */
+    private boolean accept(final char c) {
+        if (peek() == c) {
+            this.position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consume the next character, which must be the given one.
+     * @param c the character expected
+     */
+    private void expect(final char c) {
+        if (!accept(c)) {
+            throw error("'" + c + "' expected");
+        }
+    }
+
+    /**
+     * Create an exception describing a parse error at the current position.
+     * @param message what went wrong
+     * @return the exception
+     */
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at position "
+                + this.position);
+    }
+}
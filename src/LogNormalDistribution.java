@@ -0,0 +1,52 @@
+/**
+ * The log-normal distribution, the exponential of a normal value. The
+ * exponential preserves order, so keys are those of the normal value and a
+ * draw costs no more than a normal draw.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class LogNormalDistribution implements ValueDistribution {
+
+    /** The mean of the logarithm of the value. */
+    private final double location;
+    /** The standard deviation of the logarithm of the value. */
+    private final double scale;
+
+    /**
+     * Create a log-normal distribution.
+     *
+     * @param location the mean of the logarithm of the value
+     * @param scale    the standard deviation of the logarithm of the value
+     * @throws IllegalArgumentException if the scale is not positive
+     */
+    public LogNormalDistribution(final double location, final double scale) {
+        if (!(scale > 0)) {
+            throw new IllegalArgumentException("Scale " + scale
+                    + " is not positive");
+        }
+        this.location = location;
+        this.scale = scale;
+    }
+
+    /**
+     * Draw a value as the key of the standard normal value it is made from.
+     *
+     * @param random the random number generator to draw from
+     * @return the key of the value drawn
+     */
+    public long nextKey(final RandomSource random) {
+        return ValueDistribution.keyOf(NormalDistribution.nextStandard(random));
+    }
+
+    /**
+     * Returns the value a key stands for.
+     *
+     * @param key a key drawn by nextKey
+     * @return the value
+     */
+    public double toValue(final long key) {
+        return Math.exp(this.location
+                + this.scale * ValueDistribution.valueOf(key));
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values in power-of-two buckets, safe to
+ * record into from many threads. Bucket i counts the values needing i bits,
+ * so the bucket of a value is found with one instruction and the whole
+ * histogram is a fixed array of 64 counters.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class MetricHistogram {
+
+    /** The number of buckets, one per bit length of a non-negative long. */
+    private static final int BUCKETS = Long.SIZE;
+
+    /** The number of values recorded in each bucket. */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    /** The number of values recorded. */
+    private final LongAdder count = new LongAdder();
+    /** The sum of the values recorded. */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Record a value. Negative values are recorded as 0.
+     *
+     * @param value the value to record
+     */
+    public void record(final long value) {
+        long clamped = Math.max(0, value);
+        this.buckets.incrementAndGet(
+                Long.SIZE - Long.numberOfLeadingZeros(clamped));
+        this.count.increment();
+        this.sum.add(clamped);
+    }
+
+    /**
+     * Returns the number of values recorded.
+     * @return the count
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns the sum of the values recorded.
+     * @return the sum
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     * @return the mean, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getSum() / n;
+    }
+
+    /**
+     * Returns an upper bound on the given quantile of the values recorded:
+     * the largest value of the bucket in which it falls.
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the upper bound, or 0 if nothing was recorded
+     */
+    public long getQuantileBound(final double quantile) {
+        long total = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            total += counts[i];
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Discard every value recorded. Values recorded meanwhile may be lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.count.reset();
+        this.sum.reset();
+    }
+
+    /**
+     * Append this histogram in the Prometheus text format, with cumulative
+     * buckets up to the highest one holding a value.
+     *
+     * @param out  the text to append to
+     * @param name the name of the metric
+     * @param help the description of the metric
+     */
+    public void writePrometheus(final StringBuilder out, final String name,
+                                final String help) {
+        out.append("# HELP ").append(name).append(' ').append(help)
+                .append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+        int highest = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            if (counts[i] != 0) {
+                highest = i;
+            }
+        }
+        long cumulative = 0;
+        for (int i = 0; i <= highest; i++) {
+            cumulative += counts[i];
+            out.append(name).append("_bucket{le=\"").append(upperBound(i))
+                    .append("\"} ").append(cumulative).append('\n');
+        }
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative)
+                .append('\n');
+        out.append(name).append("_sum ").append(getSum()).append('\n');
+        out.append(name).append("_count ").append(cumulative).append('\n');
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     *
+     * @param bucket the bucket
+     * @return the largest value needing that many bits, which for the last
+     * bucket is Long.MAX_VALUE
+     */
+    private static long upperBound(final int bucket) {
+        return (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * The Pareto distribution. A Pareto value is its scale times the
+ * exponential of an exponential value divided by its shape, which preserves
+ * order, so keys are those of the exponential value and a draw costs no
+ * more than an exponential draw.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class ParetoDistribution implements ValueDistribution {
+
+    /** The smallest value. */
+    private final double scale;
+    /** The tail index. */
+    private final double shape;
+
+    /**
+     * Create a Pareto distribution.
+     *
+     * @param scale the smallest value
+     * @param shape the tail index
+     * @throws IllegalArgumentException if the scale or shape is not positive
+     */
+    public ParetoDistribution(final double scale, final double shape) {
+        if (!(scale > 0) || !(shape > 0)) {
+            throw new IllegalArgumentException("Scale " + scale + " and shape "
+                    + shape + " must be positive");
+        }
+        this.scale = scale;
+        this.shape = shape;
+    }
+
+    /**
+     * Draw a value as the key of the exponential value it is made from.
+     *
+     * @param random the random number generator to draw from
+     * @return the key of the value drawn
+     */
+    public long nextKey(final RandomSource random) {
+        return ValueDistribution.keyOf(
+                ExponentialDistribution.nextStandard(random));
+    }
+
+    /**
+     * Returns the value a key stands for.
+     *
+     * @param key a key drawn by nextKey
+     * @return the value
+     */
+    public double toValue(final long key) {
+        return this.scale
+                * Math.exp(ValueDistribution.valueOf(key) / this.shape);
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.concurrent.Callable;
+
+/**
+ * Simulates a chunk of rounds of the three-slip game by dealing only the
+ * relative order of the slips that decide a round. Every player chooses
+ * among the first three slips, looking only at their order, so a round is
+ * decided by the ordering of the first three slips and by whether the
+ * largest slip of the round is among them. Every ordering of the slips is
+ * equally likely, so each of the six orderings has probability
+ * 1/(2 numslips), and no player wins the remaining 1 - 3/numslips of
+ * rounds.
+ *
+ * <p>A round is dealt as a uniform slot among 2 numslips, the first six
+ * standing for the orderings and the rest for rounds nobody wins, and is
+ * tallied in a count for its state. Each 64-bit random number deals two
+ * rounds, one from each half. A half that would make the slots uneven is
+ * redrawn with nextInt, which happens with probability below
+ * 2 numslips / 2^32, so the slots are exactly uniform. The wins of each
+ * strategy are then the counts of the states times its wins in each
+ * ordering, scored once by AnalyticSolver.scoreOrderings.
+ *
+ * <p>The rounds are drawn differently from the value-based workers, so the
+ * counts for a seed differ from theirs, though they have the same
+ * distribution.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class PermutationWorker implements Callable<long[]> {
+
+    /** The number of bits of a random number used for each round. */
+    private static final int ROUND_BITS = 32;
+    /** The mask of the low half of a random number. */
+    private static final long ROUND_MASK = (1L << ROUND_BITS) - 1;
+    /** The offset of the counts of rounds dealt from low halves. */
+    private static final int LOW_COUNTS = 8;
+    /** The most slips, whose slots still number no more than an int. */
+    public static final int MAX_SLIPS = (1 << 30) - 1;
+
+    /** The number of rounds to simulate. */
+    private final long numberOfRounds;
+    /** The stream from which rounds are dealt. */
+    private final RandomSource random;
+    /** The wins of each ordering, indexed by strategy ordinal. */
+    private final long[][] outcomes;
+    /** The number of equally likely slots a round is dealt into. */
+    private final int slots;
+    /** The index of the state of rounds nobody wins. */
+    private final int lost;
+    /** The low halves below which a slot would be dealt too often. */
+    private final long threshold;
+
+    /**
+     * Create a worker for a chunk of rounds.
+     *
+     * @param rounds        the number of rounds to simulate
+     * @param numberOfSlips the number of slips in each round, at most
+     *                      MAX_SLIPS
+     * @param stream        the stream from which rounds are dealt, which
+     *                      must not be shared with another worker
+     * @param orderingWins  the wins of each ordering of the first three
+     *                      slips, as returned by AnalyticSolver.scoreOrderings,
+     *                      which may be shared between workers
+     * @throws IllegalArgumentException if there are more than MAX_SLIPS
+     *                                  slips
+     */
+    public PermutationWorker(final long rounds, final int numberOfSlips,
+                             final RandomSource stream,
+                             final long[][] orderingWins) {
+        if (numberOfSlips > MAX_SLIPS) {
+            throw new IllegalArgumentException("Orderings of more than "
+                    + MAX_SLIPS + " slips cannot be dealt: " + numberOfSlips);
+        }
+        this.numberOfRounds = rounds;
+        this.random = stream;
+        this.outcomes = orderingWins;
+        this.slots = 2 * numberOfSlips;
+        this.lost = orderingWins.length;
+        this.threshold = (1L << ROUND_BITS) % this.slots;
+    }
+
+    /**
+     * Simulate this worker's rounds.
+     *
+     * @return number of wins indexed by the ordinal of the ThreeSlipStrategy
+     * they are associated with
+     */
+    public long[] call() {
+        long[] states = new long[2 * LOW_COUNTS];
+        long pairs = this.numberOfRounds / 2;
+        for (long i = 0; i < pairs; i++) {
+            long bits = this.random.nextLong();
+            states[deal(bits >>> ROUND_BITS)]++;
+            states[LOW_COUNTS + deal(bits & ROUND_MASK)]++;
+        }
+        if (this.numberOfRounds % 2 != 0) {
+            states[deal(this.random.nextLong() >>> ROUND_BITS)]++;
+        }
+        long[] counts = new long[ThreeSlipStrategy.values().length];
+        for (int o = 0; o < this.outcomes.length; o++) {
+            long rounds = states[o] + states[LOW_COUNTS + o];
+            for (int s = 0; s < counts.length; s++) {
+                counts[s] += rounds * this.outcomes[o][s];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Deal the state of a round from 32 random bits.
+     *
+     * @param bits the random bits, in the low half of a long
+     * @return the ordering of the first three slips, or the index after the
+     * last ordering if nobody wins the round
+     */
+    private int deal(final long bits) {
+        long product = bits * this.slots;
+        int slot;
+        if ((product & ROUND_MASK) >= this.threshold) {
+            slot = (int) (product >>> ROUND_BITS);
+        } else {
+            slot = this.random.nextInt(this.slots);
+        }
+        return Math.min(slot, this.lost);
+    }
+}
@@ -64,4 +64,70 @@ public abstract class Player {
      * @param slips the slips from which to choose
      */
     public abstract void chooseSlipFrom(Slip[] slips);
+
+    /**
+     * Choose a slip based on the player's strategy from the values of a deal.
+     * The built-in players choose without recording the choice; by default
+     * the values are wrapped in Slips and passed to chooseSlipFrom, which
+     * records it, so players written before this method keep working.
+     * @param values the values of the slips from which to choose
+     * @return the index of the chosen slip, or -1 if the strategy makes no
+     * choice
+     */
+    public int chooseIndexFrom(final int[] values) {
+        Slip[] slips = new Slip[values.length];
+        for (int i = 0; i < values.length; i++) {
+            slips[i] = new Slip(values[i]);
+        }
+        chooseSlipFrom(slips);
+        Slip choice = getChoice();
+        for (int i = 0; i < slips.length; i++) {
+            if (slips[i] == choice) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether tallyBlock needs the values of every slip of a block, rather
+     * than only its columns. The default tallyBlock passes whole deals to
+     * chooseIndexFrom, so it does; a player that counts from the columns
+     * returns false, so its blocks need not keep the deals.
+     * @return true if the blocks this player is scored against must keep
+     * their deals
+     */
+    public boolean needsDeals() {
+        return true;
+    }
+
+    /**
+     * Score this player's strategy against a whole block of rounds, adding
+     * its wins to this player's counts as chooseIndexFrom and tally would.
+     * By default each deal of the block is passed to chooseIndexFrom in
+     * turn, exactly as a round of simulatePlay would be; the built-in
+     * players count a whole column at a time with the kernel instead.
+     * @param block  the rounds to score against, which must keep their
+     *               deals unless this player overrides needsDeals
+     * @param kernel the kernel counting wins over the block
+     * @throws IllegalArgumentException if the block does not keep its deals
+     */
+    public void tallyBlock(final DealBlock block, final BlockKernel kernel) {
+        int[] deals = block.deals();
+        if (deals == null) {
+            throw new IllegalArgumentException(
+                    "The block does not keep its deals");
+        }
+        int[] deal = new int[block.numberOfSlips()];
+        for (int r = 0; r < block.size(); r++) {
+            System.arraycopy(deals, r * deal.length, deal, 0, deal.length);
+            int winner = 0;
+            for (int i = 1; i < deal.length; i++) {
+                if (deal[i] > deal[winner]) {
+                    winner = i;
+                }
+            }
+            SimulationWorker.tally(this, chooseIndexFrom(deal), winner);
+        }
+    }
 }
@@ -0,0 +1,34 @@
+/**
+ * The enumerated random number generators that can be used as a
+ * RandomSource.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public enum RandomAlgorithm {
+    /** The linear congruential generator of java.util.Random. */
+    JDK_RANDOM {
+        public RandomSource create(final long seed) {
+            return new JdkRandomSource(seed);
+        }
+    },
+    /** The SplitMix generator of java.util.SplittableRandom. */
+    SPLITTABLE_RANDOM {
+        public RandomSource create(final long seed) {
+            return new SplittableRandomSource(seed);
+        }
+    },
+    /** The xoroshiro128++ generator. */
+    XOROSHIRO_128_PLUS_PLUS {
+        public RandomSource create(final long seed) {
+            return new XoroshiroRandomSource(seed);
+        }
+    };
+
+    /**
+     * Create a source using this algorithm.
+     * @param seed the seed of the new source
+     * @return a new source seeded with the given seed
+     */
+    public abstract RandomSource create(long seed);
+}
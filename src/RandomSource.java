@@ -0,0 +1,32 @@
+/**
+ * A source of random numbers from which slip values are drawn. A source is
+ * not safe for use by more than one thread; independent streams for other
+ * threads are obtained with split.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public interface RandomSource {
+
+    /**
+     * Returns a random integer in the range 0 (inclusive) to bound
+     * (exclusive).
+     * @param bound the upper bound (exclusive), which must be positive
+     * @return a random integer in the range 0..bound - 1
+     */
+    int nextInt(int bound);
+
+    /**
+     * Returns a random long.
+     * @return a random long
+     */
+    long nextLong();
+
+    /**
+     * Returns a new source whose stream is independent of this source's.
+     * Splitting a source changes the state of this source, so splitting
+     * sources seeded alike in the same order gives the same streams.
+     * @return a new source
+     */
+    RandomSource split();
+}
@@ -0,0 +1,111 @@
+import java.math.BigInteger;
+
+/**
+ * An exact, non-negative rational number such as a win probability.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class Rational {
+
+    /** The numerator in lowest terms. */
+    private final long numerator;
+    /** The denominator in lowest terms, always positive. */
+    private final long denominator;
+
+    /**
+     * Create a rational number in lowest terms.
+     * @param num the numerator
+     * @param den the denominator
+     */
+    private Rational(final long num, final long den) {
+        long divisor = BigInteger.valueOf(num).gcd(BigInteger.valueOf(den))
+                .longValue();
+        this.numerator = num / divisor;
+        this.denominator = den / divisor;
+    }
+
+    /**
+     * Returns the rational number num/den.
+     * @param num the numerator, which must not be negative
+     * @param den the denominator, which must be positive
+     * @return num/den in lowest terms
+     */
+    public static Rational of(final long num, final long den) {
+        if (num < 0 || den <= 0) {
+            throw new IllegalArgumentException(
+                    "Not a non-negative fraction: " + num + "/" + den);
+        }
+        return new Rational(num, den);
+    }
+
+    /**
+     * Access the numerator of this number in lowest terms.
+     * @return the numerator
+     */
+    public long numerator() {
+        return this.numerator;
+    }
+
+    /**
+     * Access the denominator of this number in lowest terms.
+     * @return the denominator
+     */
+    public long denominator() {
+        return this.denominator;
+    }
+
+    /**
+     * Returns the product of this number and a count, rounded to the nearest
+     * whole number, without overflowing in between.
+     * @param count the count to multiply by
+     * @return the rounded product
+     */
+    public long timesRounded(final long count) {
+        BigInteger den = BigInteger.valueOf(this.denominator);
+        return BigInteger.valueOf(count)
+                .multiply(BigInteger.valueOf(this.numerator))
+                .add(den.shiftRight(1))
+                .divide(den)
+                .longValue();
+    }
+
+    /**
+     * Returns the value of this number as a double.
+     * @return the nearest double to this number
+     */
+    public double doubleValue() {
+        return (double) this.numerator / this.denominator;
+    }
+
+    /**
+     * Compares this number to another object for equality.
+     * @param other the object to compare to
+     * @return true if other is a Rational with the same value
+     */
+    public boolean equals(final Object other) {
+        if (!(other instanceof Rational)) {
+            return false;
+        }
+        Rational that = (Rational) other;
+        return this.numerator == that.numerator
+                && this.denominator == that.denominator;
+    }
+
+    /**
+     * Returns a hash code consistent with equals.
+     * @return the hash code of this number
+     */
+    public int hashCode() {
+        return Long.hashCode(this.numerator) * 31
+                + Long.hashCode(this.denominator);
+    }
+
+    /**
+     * Returns this number in the form numerator/denominator.
+     * @return the string form of this number
+     */
+    public String toString() {
+        return this.numerator + "/" + this.denominator;
+    }
+}
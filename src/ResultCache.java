@@ -0,0 +1,538 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A cache of simulation results in front of the chunked simulation, keyed
+ * by everything but the number of rounds: the number of slips, random
+ * number generator, seed and range of values. Each entry holds the running
+ * total of the win counts after every chunk simulated so far, so any number
+ * of rounds in whole chunks up to the longest simulated is answered
+ * without simulating, and a request for more rounds simulates only the
+ * chunks not yet cached. A number of rounds ending part way through a
+ * chunk costs one partial chunk the first time it is asked for. Results
+ * are the same as those of SlipHypoTester.simulatePlayInParallel.
+ *
+ * <p>The cache holds at most a given number of rows of counts, evicting
+ * the least recently used entries beyond it. Given a directory, it also
+ * writes each entry to a file there whenever the entry grows, and reads
+ * entries it does not hold from there, so results survive restarts. Each
+ * file ends with a CRC-32 of its contents, and a file that fails it is
+ * simulated again. The first file that cannot be read or written is
+ * reported on standard error; later failures are not, and none affects
+ * the results.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class ResultCache {
+
+    /** The magic number at the start of an entry file, "TSRC". */
+    private static final int MAGIC = 0x54535243;
+    /** The version of the format of entry files. */
+    private static final short VERSION = 2;
+    /** The most partial-chunk results kept for each entry. */
+    private static final int MAX_TAILS = 8;
+
+    /** The most rows of counts held at once. */
+    private final long capacity;
+    /** The number of threads to simulate on. */
+    private final int parallelism;
+    /** The directory entries persist in, or null. */
+    private final Path directory;
+    /** The entries, least recently used first. */
+    private final LinkedHashMap<Key, Entry> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+    /** The rows of counts held by the entries. */
+    private long size;
+    /** The number of requests answered without simulating. */
+    private long hits;
+    /** The number of requests that simulated some rounds. */
+    private long misses;
+    /** Whether a file failure has been reported. */
+    private final AtomicBoolean reported = new AtomicBoolean();
+
+    /**
+     * Create a cache held only in memory.
+     *
+     * @param maximumRows the most rows of counts to hold, one per chunk
+     *                    simulated
+     * @param threads     the number of threads to simulate on
+     */
+    public ResultCache(final long maximumRows, final int threads) {
+        this(maximumRows, threads, null);
+    }
+
+    /**
+     * Create a cache persisting its entries in a directory.
+     *
+     * @param maximumRows the most rows of counts to hold in memory, one per
+     *                    chunk simulated
+     * @param threads     the number of threads to simulate on
+     * @param persistence the directory to persist entries in, or null
+     */
+    public ResultCache(final long maximumRows, final int threads,
+                       final Path persistence) {
+        this.capacity = maximumRows;
+        this.parallelism = threads;
+        this.directory = persistence;
+    }
+
+    /**
+     * Returns the result of simulating a specified number of rounds with a
+     * tester, simulating only what is not cached.
+     *
+     * @param tester         the tester whose slips, generator and seed to
+     *                       simulate with
+     * @param numberOfRounds the number of rounds
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> simulatePlay(
+            final SlipHypoTester tester, final long numberOfRounds) {
+        return simulatePlay(tester, numberOfRounds, ValueRange.unbounded());
+    }
+
+    /**
+     * Returns the result of simulating a specified number of rounds and
+     * specified range of values with a tester, simulating only what is not
+     * cached.
+     *
+     * @param tester         the tester whose slips, generator and seed to
+     *                       simulate with
+     * @param numberOfRounds the number of rounds
+     * @param minimum        the smallest of the range of slip values
+     * @param maximum        the largest of the range of slip values
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> simulatePlay(
+            final SlipHypoTester tester, final long numberOfRounds,
+            final int minimum, final int maximum) {
+        return simulatePlay(tester, numberOfRounds,
+                ValueRange.of(minimum, maximum));
+    }
+
+    /**
+     * Returns the number of requests answered without simulating.
+     * @return the number of hits
+     */
+    public synchronized long getHitCount() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of requests that simulated some rounds.
+     * @return the number of misses
+     */
+    public synchronized long getMissCount() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the result of a simulation, from the cache where possible.
+     * Requests for different keys simulate at the same time; requests for
+     * the same key wait for each other.
+     *
+     * @param tester         the tester to simulate with
+     * @param numberOfRounds the number of rounds
+     * @param range          the range of slip values
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     * @throws IllegalArgumentException if the number of rounds is not
+     *                                  positive or the tester has a
+     *                                  distribution of slip values
+     */
+    private Map<ThreeSlipStrategy, Long> simulatePlay(
+            final SlipHypoTester tester, final long numberOfRounds,
+            final ValueRange range) {
+        if (numberOfRounds <= 0) {
+            throw new IllegalArgumentException(
+                    "The number of rounds must be positive: " + numberOfRounds);
+        }
+        if (numberOfRounds / SlipHypoTester.CHUNK_ROUNDS
+                >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Too many rounds: " + numberOfRounds);
+        }
+        if (tester.getDistribution() != null) {
+            throw new IllegalArgumentException("Results of a distribution"
+                    + " of slip values are not cached");
+        }
+        Key key = new Key(tester.getNumberOfSlips(),
+                tester.getRandomAlgorithm(), tester.getSeed(), range);
+        Entry entry;
+        synchronized (this) {
+            entry = this.entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                this.entries.put(key, entry);
+                this.size += entry.rows();
+            }
+        }
+        long[] counts;
+        int grown;
+        synchronized (entry) {
+            int before = entry.rows();
+            if (!entry.loaded) {
+                // Read outside the lock of the cache, so other keys go on.
+                entry.loaded = true;
+                long[][] prefix = load(key);
+                if (prefix != null) {
+                    entry.prefix = prefix;
+                }
+            }
+            counts = entry.lookup(numberOfRounds);
+            boolean hit = counts != null;
+            if (!hit) {
+                boolean extended = entry.simulate(tester, range, numberOfRounds,
+                        this.parallelism);
+                counts = entry.lookup(numberOfRounds);
+                if (extended) {
+                    store(key, entry);
+                }
+            }
+            grown = entry.rows() - before;
+            synchronized (this) {
+                if (hit) {
+                    this.hits++;
+                } else {
+                    this.misses++;
+                }
+            }
+        }
+        synchronized (this) {
+            if (this.entries.get(key) == entry) {
+                this.size += grown;
+            }
+            evict();
+        }
+        return SimulationWorker.toWinMap(counts);
+    }
+
+    /**
+     * Evict the least recently used entries until the rows held fit.
+     */
+    private void evict() {
+        Iterator<Entry> lru = this.entries.values().iterator();
+        while (this.size > this.capacity && this.entries.size() > 1
+                && lru.hasNext()) {
+            this.size -= lru.next().rows();
+            lru.remove();
+        }
+    }
+
+    /**
+     * Read the running totals of an entry from the directory. The counts
+     * are checked against the size of the file before they are allocated,
+     * and the whole file against its CRC-32 before it is used.
+     *
+     * @param key the key of the entry
+     * @return the running totals, or null if there are none to read
+     */
+    private long[][] load(final Key key) {
+        if (this.directory == null) {
+            return null;
+        }
+        Path file = this.directory.resolve(key.fileName());
+        if (!Files.exists(file)) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            long length = Files.size(file);
+            if (in.readInt() != MAGIC || in.readShort() != VERSION
+                    || in.readLong() != SlipHypoTester.CHUNK_ROUNDS
+                    || !key.equals(Key.read(in))) {
+                return null;
+            }
+            int strategies = in.readByte();
+            if (strategies < 1
+                    || strategies > ThreeSlipStrategy.values().length) {
+                throw new IOException("Bad number of strategies "
+                        + strategies);
+            }
+            ThreeSlipStrategy[] order = new ThreeSlipStrategy[strategies];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = ThreeSlipStrategy.valueOf(in.readUTF());
+            }
+            int rows = in.readInt();
+            if (rows < 1 || rows > length / ((long) Long.BYTES * strategies)) {
+                throw new IOException("Bad number of rows " + rows);
+            }
+            long[][] prefix = new long[rows][];
+            for (int k = 0; k < prefix.length; k++) {
+                prefix[k] = new long[ThreeSlipStrategy.values().length];
+                for (ThreeSlipStrategy strategy : order) {
+                    prefix[k][strategy.ordinal()] = in.readLong();
+                }
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected || in.read() != -1) {
+                throw new IOException("Checksum mismatch");
+            }
+            return prefix;
+        } catch (IOException | IllegalArgumentException e) {
+            // An unreadable file is simulated again and overwritten.
+            report("Could not read " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Write an entry to the directory, if any, atomically replacing the file
+     * of its key. The new file is forced to the device before it is renamed,
+     * so a crash leaves either the old file or the whole new one. A failure
+     * leaves the cache in memory unaffected.
+     *
+     * @param key   the key of the entry
+     * @param entry the entry
+     */
+    private void store(final Key key, final Entry entry) {
+        if (this.directory == null) {
+            return;
+        }
+        Path file = this.directory.resolve(key.fileName());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(this.directory);
+            try (FileChannel channel = FileChannel.open(temporary,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32 crc = new CRC32();
+                DataOutputStream out = new DataOutputStream(
+                        new CheckedOutputStream(new BufferedOutputStream(
+                                Channels.newOutputStream(channel)), crc));
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeLong(SlipHypoTester.CHUNK_ROUNDS);
+                key.write(out);
+                ThreeSlipStrategy[] order = ThreeSlipStrategy.values();
+                out.writeByte(order.length);
+                for (ThreeSlipStrategy strategy : order) {
+                    out.writeUTF(strategy.name());
+                }
+                out.writeInt(entry.prefix.length);
+                for (long[] row : entry.prefix) {
+                    for (long count : row) {
+                        out.writeLong(count);
+                    }
+                }
+                out.writeLong(crc.getValue());
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // The entry is written again the next time it grows.
+            report("Could not write " + file, e);
+        }
+    }
+
+    /**
+     * Report the first failure to read or write a file on standard error.
+     *
+     * @param message what failed
+     * @param error   the failure
+     */
+    private void report(final String message, final Exception error) {
+        if (this.reported.compareAndSet(false, true)) {
+            System.err.println(message + ": " + error
+                    + " (further cache file failures are not reported)");
+        }
+    }
+
+    /**
+     * The parameters of a simulation other than its number of rounds.
+     */
+    private static final class Key {
+
+        /** The number of slips in each round. */
+        private final int numslips;
+        /** The random number generator with which rounds are dealt. */
+        private final RandomAlgorithm algorithm;
+        /** The seed of the master source. */
+        private final long seed;
+        /** The range of slip values. */
+        private final ValueRange range;
+
+        /**
+         * Create a key.
+         * @param numberOfSlips the number of slips in each round
+         * @param rng           the random number generator
+         * @param masterSeed    the seed of the master source
+         * @param values        the range of slip values
+         */
+        private Key(final int numberOfSlips, final RandomAlgorithm rng,
+                    final long masterSeed, final ValueRange values) {
+            this.numslips = numberOfSlips;
+            this.algorithm = rng;
+            this.seed = masterSeed;
+            this.range = values;
+        }
+
+        /**
+         * Read a key written by write.
+         * @param in the stream to read from
+         * @return the key
+         * @throws IOException if the key cannot be read
+         */
+        private static Key read(final DataInputStream in) throws IOException {
+            int numberOfSlips = in.readInt();
+            RandomAlgorithm rng = RandomAlgorithm.valueOf(in.readUTF());
+            long masterSeed = in.readLong();
+            boolean bounded = in.readBoolean();
+            int min = in.readInt();
+            int max = in.readInt();
+            return new Key(numberOfSlips, rng, masterSeed,
+                    bounded ? ValueRange.of(min, max) : ValueRange.unbounded());
+        }
+
+        /**
+         * Write this key.
+         * @param out the stream to write to
+         * @throws IOException if the key cannot be written
+         */
+        private void write(final DataOutputStream out) throws IOException {
+            out.writeInt(this.numslips);
+            out.writeUTF(this.algorithm.name());
+            out.writeLong(this.seed);
+            out.writeBoolean(this.range.hasBounds());
+            out.writeInt(this.range.getMinimum());
+            out.writeInt(this.range.getMaximum());
+        }
+
+        /**
+         * Returns the name of the file persisting the entry of this key.
+         * @return the file name
+         */
+        private String fileName() {
+            String values = this.range.hasBounds() ? this.range.getMinimum()
+                    + "_" + this.range.getMaximum() : "unbounded";
+            return this.numslips + "-" + this.algorithm.name() + "-"
+                    + this.seed + "-" + values + ".cache";
+        }
+
+        /**
+         * Compares this key to another object for equality.
+         * @param other the object to compare to
+         * @return true if other is a key with the same parameters
+         */
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) other;
+            return this.numslips == that.numslips
+                    && this.algorithm == that.algorithm
+                    && this.seed == that.seed && this.range.equals(that.range);
+        }
+
+        /**
+         * Returns a hash code consistent with equals.
+         * @return the hash code of this key
+         */
+        public int hashCode() {
+            return ((this.numslips * 31 + this.algorithm.hashCode()) * 31
+                    + Long.hashCode(this.seed)) * 31 + this.range.hashCode();
+        }
+    }
+
+    /**
+     * The cached results of one key.
+     */
+    private static final class Entry {
+
+        /** The total counts after each number of whole chunks, from 0. */
+        private long[][] prefix = {
+            new long[ThreeSlipStrategy.values().length]
+        };
+        /** Whether the directory has been read for this entry. */
+        private boolean loaded;
+        /** The counts of numbers of rounds ending part way into a chunk. */
+        private final Map<Long, long[]> tails =
+                new LinkedHashMap<Long, long[]>(16, 0.75f, true) {
+                    protected boolean removeEldestEntry(
+                            final Map.Entry<Long, long[]> eldest) {
+                        return size() > MAX_TAILS;
+                    }
+                };
+
+        /**
+         * Returns the number of rows of counts held.
+         * @return the number of rows
+         */
+        private int rows() {
+            return this.prefix.length + this.tails.size();
+        }
+
+        /**
+         * Look up the counts of a number of rounds.
+         * @param numberOfRounds the number of rounds
+         * @return the counts, or null if not cached
+         */
+        private long[] lookup(final long numberOfRounds) {
+            long chunk = numberOfRounds / SlipHypoTester.CHUNK_ROUNDS;
+            if (numberOfRounds % SlipHypoTester.CHUNK_ROUNDS == 0) {
+                return chunk < this.prefix.length
+                        ? this.prefix[(int) chunk].clone() : null;
+            }
+            long[] tail = this.tails.get(numberOfRounds);
+            return tail == null ? null : tail.clone();
+        }
+
+        /**
+         * Simulate the chunks needed to answer a number of rounds, adding
+         * whole chunks to the running totals and a partial one to the tails.
+         * @param tester         the tester to simulate with
+         * @param range          the range of slip values
+         * @param numberOfRounds the number of rounds
+         * @param threads        the number of threads to simulate on
+         * @return true if whole chunks were added
+         */
+        private boolean simulate(final SlipHypoTester tester,
+                                 final ValueRange range,
+                                 final long numberOfRounds,
+                                 final int threads) {
+            int whole = (int) (numberOfRounds / SlipHypoTester.CHUNK_ROUNDS);
+            boolean partial = numberOfRounds % SlipHypoTester.CHUNK_ROUNDS != 0;
+            int first = Math.min(whole, this.prefix.length - 1);
+            long[][] chunks = tester.simulateChunks(numberOfRounds, range,
+                    first, threads);
+            int added = whole - first;
+            if (added > 0) {
+                long[][] grown = new long[this.prefix.length + added][];
+                System.arraycopy(this.prefix, 0, grown, 0, this.prefix.length);
+                for (int i = 0; i < added; i++) {
+                    long[] total = grown[first + i].clone();
+                    SimulationWorker.addTo(total, chunks[i]);
+                    grown[first + i + 1] = total;
+                }
+                this.prefix = grown;
+            }
+            if (partial) {
+                long[] total = this.prefix[whole].clone();
+                SimulationWorker.addTo(total, chunks[chunks.length - 1]);
+                this.tails.put(numberOfRounds, total);
+            }
+            return added > 0;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A fixed set of threads shared fairly between several streams of work.
+ * Each stream submits its tasks to a lane of its own, and the threads take
+ * the next task from each lane with work in turn. A simulation that has
+ * queued thousands of chunks therefore holds up a simulation queued after
+ * it by no more than one chunk per thread, rather than by all of them.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class RoundRobinExecutor {
+
+    /** The lanes with tasks waiting, in the order they are served. */
+    private final Queue<Lane> ready = new ArrayDeque<>();
+    /** The threads running tasks. */
+    private final Thread[] threads;
+    /** Whether the executor has been shut down. */
+    private boolean shutdown;
+
+    /**
+     * Create an executor and start its threads.
+     *
+     * @param parallelism the number of threads
+     * @param name        the prefix of the names of the threads
+     */
+    public RoundRobinExecutor(final int parallelism, final String name) {
+        this.threads = new Thread[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            this.threads[i] = new Thread(this::work, name + "-" + i);
+            this.threads[i].setDaemon(true);
+            this.threads[i].start();
+        }
+    }
+
+    /**
+     * Create a lane through which a stream of work submits its tasks. Tasks
+     * of one lane run in the order they were submitted, but may run at the
+     * same time on different threads.
+     *
+     * @return a new lane
+     */
+    public Executor newLane() {
+        return new Lane();
+    }
+
+    /**
+     * Stop accepting tasks and let the threads finish once every lane is
+     * empty.
+     */
+    public synchronized void shutdown() {
+        this.shutdown = true;
+        notifyAll();
+    }
+
+    /**
+     * Take tasks from the lanes in turn until shut down with no tasks left.
+     */
+    private void work() {
+        while (true) {
+            Runnable task;
+            synchronized (this) {
+                while (this.ready.isEmpty() && !this.shutdown) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                Lane lane = this.ready.poll();
+                if (lane == null) {
+                    return;
+                }
+                task = lane.tasks.poll();
+                if (lane.tasks.isEmpty()) {
+                    lane.waiting = false;
+                } else {
+                    this.ready.add(lane);
+                }
+            }
+            task.run();
+        }
+    }
+
+    /**
+     * A queue of the tasks of one stream of work.
+     */
+    private final class Lane implements Executor {
+
+        /** The tasks waiting to run. */
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        /** Whether this lane is among the lanes waiting to be served. */
+        private boolean waiting;
+
+        /**
+         * Queue a task in this lane.
+         *
+         * @param task the task to run
+         * @throws RejectedExecutionException if the executor has been shut
+         *                                    down
+         */
+        public void execute(final Runnable task) {
+            synchronized (RoundRobinExecutor.this) {
+                if (RoundRobinExecutor.this.shutdown) {
+                    throw new RejectedExecutionException("Executor shut down");
+                }
+                this.tasks.add(task);
+                if (!this.waiting) {
+                    this.waiting = true;
+                    RoundRobinExecutor.this.ready.add(this);
+                }
+                RoundRobinExecutor.this.notify();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * The template from which StrategyRule compiles each rule. The bytes of this
+ * class are defined again as a hidden class for every rule, with the rule's
+ * condition and fallback as its class data, so they are constants the JIT
+ * folds into choose and tallyDeals. This class itself is never initialized,
+ * as it has no class data.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+final class RuleTemplate extends CompiledPlayer {
+
+    /** The condition of the rule, as compiled by StrategyRule. */
+    private static final MethodHandle CONDITION;
+    /** The fallback of the rule, as encoded by StrategyRule. */
+    private static final int FALLBACK;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            CONDITION = MethodHandles.classDataAt(lookup,
+                    ConstantDescs.DEFAULT_NAME, MethodHandle.class, 0);
+            FALLBACK = MethodHandles.classDataAt(lookup,
+                    ConstantDescs.DEFAULT_NAME, Integer.class, 1);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Create a player following the rule compiled into this class.
+     * @param rule the rule compiled into this class
+     */
+    RuleTemplate(final StrategyRule rule) {
+        super(rule);
+    }
+
+    /**
+     * Choose a slip based on the rule compiled into this class.
+     * @param deals         the array holding the deal
+     * @param offset        the index of the first slip of the deal
+     * @param numberOfSlips the number of slips in the deal
+     * @return the index of the chosen slip within the deal, or -1 if the rule
+     * makes no choice
+     */
+    public int choose(final int[] deals, final int offset,
+                      final int numberOfSlips) {
+        int max = Integer.MIN_VALUE;
+        try {
+            for (int i = 0; i < numberOfSlips; i++) {
+                int value = deals[offset + i];
+                if ((boolean) CONDITION.invokeExact(deals, offset,
+                        numberOfSlips, i, value, max)) {
+                    return i;
+                }
+                max = Math.max(max, value);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+        return StrategyRule.fallbackIndex(FALLBACK, numberOfSlips);
+    }
+
+    /**
+     * Score the rule compiled into this class against a block of deals.
+     * @param deals         the deals, numberOfSlips values each
+     * @param winners       the index of the largest slip of each deal
+     * @param rounds        the number of deals in the block
+     * @param numberOfSlips the number of slips in each deal
+     */
+    public void tallyDeals(final int[] deals, final int[] winners,
+                           final int rounds, final int numberOfSlips) {
+        long wins = 0;
+        for (int r = 0; r < rounds; r++) {
+            if (choose(deals, r * numberOfSlips, numberOfSlips)
+                    == winners[r]) {
+                wins++;
+            }
+        }
+        addWins(wins);
+    }
+}
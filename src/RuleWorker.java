@@ -0,0 +1,84 @@
+import java.util.concurrent.Callable;
+
+/**
+ * Simulates a chunk of rounds of the N-slip game in a single pass, scoring a
+ * set of players following compiled StrategyRules against the same deals.
+ * Rounds are dealt a block at a time, one deal after another in one array,
+ * with the index of the largest slip of each, and every player scores the
+ * whole block in its own class. A worker owns its deal source, block and
+ * players, so chunks can run on different threads without sharing any
+ * state.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class RuleWorker implements Callable<long[]> {
+
+    /** The number of slip values in a block, unless a deal is larger. */
+    private static final int BLOCK_VALUES = 1 << 14;
+
+    /** The number of rounds to simulate. */
+    private final long numberOfRounds;
+    /** The players scored against each deal. */
+    private final CompiledPlayer[] players;
+    /** The source from which rounds are dealt. */
+    private final DealSource source;
+    /** The number of slips in each deal. */
+    private final int numslips;
+
+    /**
+     * Create a worker for a chunk of rounds.
+     *
+     * @param rounds        the number of rounds to simulate
+     * @param rulePlayers   the players to score, which must not be shared
+     *                      with another worker
+     * @param dealSource    the source from which rounds are dealt, which must
+     *                      not be shared with another worker
+     * @param numberOfSlips the number of slips in each deal
+     */
+    public RuleWorker(final long rounds, final CompiledPlayer[] rulePlayers,
+                      final DealSource dealSource, final int numberOfSlips) {
+        this.numberOfRounds = rounds;
+        this.players = rulePlayers;
+        this.source = dealSource;
+        this.numslips = numberOfSlips;
+    }
+
+    /**
+     * Simulate this worker's rounds.
+     *
+     * @return number of wins indexed by the position of the player they are
+     * associated with
+     */
+    public long[] call() {
+        int blockRounds = Math.max(1, BLOCK_VALUES / this.numslips);
+        int[] deal = new int[this.numslips];
+        int[] deals = new int[blockRounds * this.numslips];
+        int[] winners = new int[blockRounds];
+        long done = 0;
+        while (done < this.numberOfRounds) {
+            int size = (int) Math.min(blockRounds, this.numberOfRounds - done);
+            for (int r = 0; r < size; r++) {
+                this.source.fill(deal);
+                int winner = 0;
+                for (int i = 1; i < this.numslips; i++) {
+                    if (deal[i] > deal[winner]) {
+                        winner = i;
+                    }
+                }
+                System.arraycopy(deal, 0, deals, r * this.numslips,
+                        this.numslips);
+                winners[r] = winner;
+            }
+            for (CompiledPlayer player : this.players) {
+                player.tallyDeals(deals, winners, size, this.numslips);
+            }
+            done += size;
+        }
+        long[] wins = new long[this.players.length];
+        for (int p = 0; p < wins.length; p++) {
+            wins[p] = this.players[p].getWinCount();
+        }
+        return wins;
+    }
+}
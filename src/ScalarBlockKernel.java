@@ -0,0 +1,56 @@
+/**
+ * A BlockKernel of plain loops with no branches in their bodies, which the
+ * JIT compiles to SIMD instructions. A slip beats the others when all of
+ * their differences from it are negative, which is when the sign bit of
+ * the differences ANDed together is set.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class ScalarBlockKernel implements BlockKernel {
+
+    /**
+     * Count the rounds in which x is larger than y, z and w.
+     *
+     * @param x    the column of the chosen slips
+     * @param y    a column of other slips
+     * @param z    a column of other slips
+     * @param w    a column of other slips
+     * @param size the number of rounds to count over
+     * @return the number of rounds won by x
+     */
+    public int countWins(final int[] x, final int[] y, final int[] z,
+                         final int[] w, final int size) {
+        int wins = 0;
+        for (int i = 0; i < size; i++) {
+            int v = x[i];
+            wins += ((y[i] - v) & (z[i] - v) & (w[i] - v)) >>> 31;
+        }
+        return wins;
+    }
+
+    /**
+     * Count the rounds in which x is larger than y, z and w, and u is
+     * larger than v.
+     *
+     * @param x    the column of the chosen slips
+     * @param y    a column of other slips
+     * @param z    a column of other slips
+     * @param w    a column of other slips
+     * @param u    the column whose value must be the larger
+     * @param v    the column whose value must be the smaller
+     * @param size the number of rounds to count over
+     * @return the number of rounds won by x in which u beats v
+     */
+    public int countWinsWhere(final int[] x, final int[] y, final int[] z,
+                              final int[] w, final int[] u, final int[] v,
+                              final int size) {
+        int wins = 0;
+        for (int i = 0; i < size; i++) {
+            int c = x[i];
+            wins += ((y[i] - c) & (z[i] - c) & (w[i] - c) & (v[i] - u[i]))
+                    >>> 31;
+        }
+        return wins;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * The number of wins of every threshold strategy of the N-slip game over a
+ * simulation.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SecretaryResult {
+
+    /** The number of rounds simulated. */
+    private final long numberOfRounds;
+    /** The number of wins of the threshold strategy k at index k. */
+    private final long[] wins;
+
+    /**
+     * Create a result.
+     *
+     * @param rounds     the number of rounds simulated
+     * @param thresholds number of wins of the threshold strategy k at index
+     *                   k, for k from 0 to the number of slips
+     */
+    public SecretaryResult(final long rounds, final long[] thresholds) {
+        this.numberOfRounds = rounds;
+        this.wins = thresholds.clone();
+    }
+
+    /**
+     * Returns the number of slips in each round.
+     * @return the number of slips
+     */
+    public int getNumberOfSlips() {
+        return this.wins.length - 1;
+    }
+
+    /**
+     * Returns the number of rounds simulated.
+     * @return the number of rounds
+     */
+    public long getNumberOfRounds() {
+        return this.numberOfRounds;
+    }
+
+    /**
+     * Returns the number of wins of a threshold strategy.
+     * @param threshold the number of slips the strategy looks at first
+     * @return the number of rounds the strategy won
+     */
+    public long getWins(final int threshold) {
+        return this.wins[threshold];
+    }
+
+    /**
+     * Returns the win rate of a threshold strategy.
+     * @param threshold the number of slips the strategy looks at first
+     * @return the fraction of rounds the strategy won
+     */
+    public double getRate(final int threshold) {
+        return (double) this.wins[threshold] / this.numberOfRounds;
+    }
+
+    /**
+     * Returns the threshold with the most wins, the smallest if tied.
+     * @return the number of slips the best strategy looks at first
+     */
+    public int getBestThreshold() {
+        int best = 0;
+        for (int k = 1; k < this.wins.length; k++) {
+            if (this.wins[k] > this.wins[best]) {
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the exact win probability of a threshold strategy, which is
+     * 1/N for k = 0 and k = N and (k/N) times the sum of 1/i for i from k to
+     * N - 1 otherwise, where N is the number of slips.
+     * @param threshold the number of slips the strategy looks at first
+     * @return the probability the strategy wins a round
+     */
+    public double getExactRate(final int threshold) {
+        int slips = getNumberOfSlips();
+        if (threshold == 0 || threshold == slips) {
+            return 1.0 / slips;
+        }
+        double sum = 0;
+        for (int i = slips - 1; i >= threshold; i--) {
+            sum += 1.0 / i;
+        }
+        return (double) threshold / slips * sum;
+    }
+}
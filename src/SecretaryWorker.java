@@ -0,0 +1,74 @@
+import java.util.concurrent.Callable;
+
+/**
+ * Simulates a chunk of rounds of the N-slip game for every threshold
+ * strategy at once. The threshold strategy k looks at the first k slips,
+ * then keeps the first slip larger than all before it, or the last slip if
+ * there is none. It wins exactly when the largest slip is the only slip at
+ * position k or later that is larger than all before it.
+ *
+ * <p>Only the positions of the last two such record slips matter, so rounds
+ * are dealt as those positions rather than as values. Every ordering of the
+ * slips is equally likely, so the largest slip is at a uniform position L,
+ * and the largest of the slips before it is at a uniform position P below
+ * L. Strategy k then wins if P &lt; k &lt;= L, or if k is the number of
+ * slips and the largest slip is last. A round costs two random numbers and
+ * two counter updates whatever the number of slips.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SecretaryWorker implements Callable<long[]> {
+
+    /** The number of rounds to simulate. */
+    private final long numberOfRounds;
+    /** The number of slips in each round. */
+    private final int numslips;
+    /** The stream from which rounds are dealt. */
+    private final RandomSource random;
+
+    /**
+     * Create a worker for a chunk of rounds.
+     *
+     * @param rounds        the number of rounds to simulate
+     * @param numberOfSlips the number of slips in each round
+     * @param stream        the stream from which rounds are dealt, which
+     *                      must not be shared with another worker
+     */
+    public SecretaryWorker(final long rounds, final int numberOfSlips,
+                           final RandomSource stream) {
+        this.numberOfRounds = rounds;
+        this.numslips = numberOfSlips;
+        this.random = stream;
+    }
+
+    /**
+     * Simulate this worker's rounds.
+     *
+     * @return number of wins of the threshold strategy k at index k, for k
+     * from 0 to the number of slips
+     */
+    public long[] call() {
+        long[] changes = new long[this.numslips + 2];
+        for (long i = 0; i < this.numberOfRounds; i++) {
+            int largest = this.random.nextInt(this.numslips);
+            int previous = -1;
+            if (largest > 0) {
+                previous = this.random.nextInt(largest);
+            }
+            int end = largest + 1;
+            if (largest == this.numslips - 1) {
+                end++;
+            }
+            changes[previous + 1]++;
+            changes[end]--;
+        }
+        long[] wins = new long[this.numslips + 1];
+        long running = 0;
+        for (int k = 0; k < wins.length; k++) {
+            running += changes[k];
+            wins[k] = running;
+        }
+        return wins;
+    }
+}
@@ -0,0 +1,151 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * The messages between a SimulationCoordinator and its SimulationNodes over
+ * TCP. Each message is a type byte followed by its fields in the big-endian
+ * order of DataOutputStream; counts are unsigned LEB128 varints, so the
+ * counts of a chunk take a few bytes each.
+ *
+ * <pre>
+ * node to coordinator, once  HELLO   magic int, version short,
+ *                                    threads int
+ * coordinator to node        SHARD   slips int, algorithm byte, seed long,
+ *                                    bounded boolean, minimum int,
+ *                                    maximum int, rounds long,
+ *                                    first chunk int, chunk count int,
+ *                                    heartbeat millis int
+ * node to coordinator        BEAT    every heartbeat millis while a shard
+ *                                    is simulated
+ * node to coordinator        CHUNK   chunk int, count byte, counts varint...
+ * node to coordinator        DONE    after the last CHUNK of a shard
+ * node to coordinator        FAILED  message UTF, in place of DONE
+ * coordinator to node        CLOSE
+ * </pre>
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class ShardProtocol {
+
+    /** The magic number opening a connection, "TSDW". */
+    static final int MAGIC = 0x54534457;
+    /** The version of the protocol. */
+    static final short VERSION = 3;
+    /** The greeting of a node. */
+    static final byte HELLO = 1;
+    /** A shard for a node to simulate. */
+    static final byte SHARD = 2;
+    /** The win counts of one chunk of a shard. */
+    static final byte CHUNK = 3;
+    /** The end of a shard. */
+    static final byte DONE = 4;
+    /** The failure of a shard. */
+    static final byte FAILED = 5;
+    /** The end of a connection. */
+    static final byte CLOSE = 6;
+    /** A sign of life from a node simulating a shard. */
+    static final byte BEAT = 7;
+
+    /** The number of payload bits in each byte of a varint. */
+    private static final int VARINT_BITS = 7;
+    /** The payload bits of a byte of a varint. */
+    private static final int VARINT_MASK = 0x7F;
+    /** The bit marking a byte of a varint that is not the last. */
+    private static final int VARINT_MORE = 0x80;
+
+    /**
+     * Not instantiable.
+     */
+    private ShardProtocol() {
+    }
+
+    /**
+     * Write the counts of a chunk as a CHUNK message.
+     *
+     * @param out    the stream to write to
+     * @param chunk  the index of the chunk in its simulation
+     * @param counts the win counts of the chunk
+     * @throws IOException if the message cannot be written
+     */
+    static void writeChunk(final DataOutputStream out, final int chunk,
+                           final long[] counts) throws IOException {
+        out.writeByte(CHUNK);
+        out.writeInt(chunk);
+        out.writeByte(counts.length);
+        for (long count : counts) {
+            writeVarint(out, count);
+        }
+    }
+
+    /**
+     * Read the counts of a CHUNK message whose type has been read.
+     *
+     * @param in the stream to read from
+     * @return the win counts of the chunk
+     * @throws IOException if the message cannot be read
+     */
+    static long[] readCounts(final DataInputStream in) throws IOException {
+        long[] counts = new long[in.readUnsignedByte()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = readVarint(in);
+        }
+        return counts;
+    }
+
+    /**
+     * Write a non-negative number as an unsigned LEB128 varint.
+     *
+     * @param out   the stream to write to
+     * @param value the number
+     * @throws IOException if the number cannot be written
+     */
+    static void writeVarint(final DataOutputStream out, final long value)
+            throws IOException {
+        long rest = value;
+        while ((rest & ~(long) VARINT_MASK) != 0) {
+            out.writeByte((int) (rest & VARINT_MASK) | VARINT_MORE);
+            rest >>>= VARINT_BITS;
+        }
+        out.writeByte((int) rest);
+    }
+
+    /**
+     * Read an unsigned LEB128 varint.
+     *
+     * @param in the stream to read from
+     * @return the number
+     * @throws IOException if the number cannot be read or is too long
+     */
+    static long readVarint(final DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += VARINT_BITS) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & VARINT_MASK) << shift;
+            if ((b & VARINT_MORE) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint longer than a long");
+    }
+
+    /**
+     * Read the type of the next message.
+     *
+     * @param in the stream to read from
+     * @return the type
+     * @throws IOException if the stream ends or the type is unknown
+     */
+    static byte readType(final DataInputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            throw new EOFException("Connection closed");
+        }
+        if (type < HELLO || type > BEAT) {
+            throw new IOException("Unknown message type " + type);
+        }
+        return (byte) type;
+    }
+}
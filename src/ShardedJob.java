@@ -0,0 +1,212 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A simulation split into shards for a SimulationCoordinator. The rounds are
+ * split into the chunks of SlipHypoTester.simulatePlayInParallel, and a
+ * shard is a run of consecutive chunks. Each chunk is dealt from its own
+ * stream split from the master source, whichever node simulates it, so the
+ * merged counts are those of simulatePlayInParallel for the same seed. A
+ * chunk may be simulated twice when its shard is reassigned or re-issued to
+ * an idle node, and only its first counts are kept.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class ShardedJob {
+
+    /** The number of slips in each round. */
+    private final int numslips;
+    /** The random number generator with which rounds are dealt. */
+    private final RandomAlgorithm algorithm;
+    /** The seed from which rounds are dealt. */
+    private final long seed;
+    /** The range of slip values. */
+    private final ValueRange range;
+    /** The number of rounds to simulate. */
+    private final long numberOfRounds;
+    /** The win counts of each chunk, or null until it is simulated. */
+    private final long[][] chunks;
+    /** The number of chunks not yet simulated. */
+    private int remaining;
+    /** The merged win counts, once every chunk is simulated. */
+    private final CompletableFuture<Map<ThreeSlipStrategy, Long>> result =
+            new CompletableFuture<>();
+
+    /**
+     * Create the job of a simulation.
+     *
+     * @param tester the tester whose slips, generator and seed to simulate
+     *               with, which must have no distribution
+     * @param rounds the number of rounds to simulate
+     * @param values the range of slip values
+     * @throws IllegalArgumentException if the tester has a distribution
+     */
+    public ShardedJob(final SlipHypoTester tester, final long rounds,
+                      final ValueRange values) {
+        if (tester.getDistribution() != null) {
+            throw new IllegalArgumentException(
+                    "Distributions cannot be sent to nodes");
+        }
+        this.numslips = tester.getNumberOfSlips();
+        this.algorithm = tester.getRandomAlgorithm();
+        this.seed = tester.getSeed();
+        this.range = values;
+        this.numberOfRounds = rounds;
+        long count = (rounds + SlipHypoTester.CHUNK_ROUNDS - 1)
+                / SlipHypoTester.CHUNK_ROUNDS;
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many rounds: " + rounds);
+        }
+        this.chunks = new long[(int) count][];
+        this.remaining = this.chunks.length;
+        if (this.remaining == 0) {
+            this.result.complete(SimulationWorker.toWinMap(
+                    new long[ThreeSlipStrategy.values().length]));
+        }
+    }
+
+    /**
+     * Returns the number of chunks of this job.
+     *
+     * @return the number of chunks
+     */
+    public int getChunkCount() {
+        return this.chunks.length;
+    }
+
+    /**
+     * Returns the merged win counts of this job, completed once every chunk
+     * is simulated, or exceptionally if the job fails.
+     *
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public CompletableFuture<Map<ThreeSlipStrategy, Long>> getResult() {
+        return this.result;
+    }
+
+    /**
+     * Whether this job has finished, successfully or not.
+     *
+     * @return true if the job has finished
+     */
+    public boolean isDone() {
+        return this.result.isDone();
+    }
+
+    /**
+     * Record the win counts of a chunk, unless it already has counts, and
+     * merge the counts of every chunk once the last is recorded.
+     *
+     * @param chunk  the index of the chunk
+     * @param counts the win counts of the chunk
+     * @throws IllegalArgumentException if there is no such chunk
+     */
+    public synchronized void complete(final int chunk, final long[] counts) {
+        if (chunk < 0 || chunk >= this.chunks.length
+                || counts.length != ThreeSlipStrategy.values().length) {
+            throw new IllegalArgumentException("No chunk " + chunk + " with "
+                    + counts.length + " counts");
+        }
+        if (this.chunks[chunk] != null) {
+            return;
+        }
+        this.chunks[chunk] = counts;
+        if (--this.remaining == 0) {
+            long[] total = new long[ThreeSlipStrategy.values().length];
+            for (long[] c : this.chunks) {
+                SimulationWorker.addTo(total, c);
+            }
+            this.result.complete(SimulationWorker.toWinMap(total));
+        }
+    }
+
+    /**
+     * Whether every chunk of a shard has been recorded.
+     *
+     * @param first the index of the first chunk of the shard
+     * @param count the number of chunks in the shard
+     * @return true if every chunk has counts
+     */
+    public synchronized boolean isComplete(final int first, final int count) {
+        for (int c = first; c < first + count; c++) {
+            if (this.chunks[c] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the first chunk of a shard not yet recorded.
+     *
+     * @param first the index of the first chunk of the shard
+     * @param count the number of chunks in the shard
+     * @return the index of the chunk, or -1 if every chunk has counts
+     */
+    public synchronized int firstIncomplete(final int first,
+                                            final int count) {
+        for (int c = first; c < first + count; c++) {
+            if (this.chunks[c] == null) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last chunk of a shard not yet recorded.
+     *
+     * @param first the index of the first chunk of the shard
+     * @param count the number of chunks in the shard
+     * @return the index of the chunk, or -1 if every chunk has counts
+     */
+    public synchronized int lastIncomplete(final int first,
+                                           final int count) {
+        for (int c = first + count - 1; c >= first; c--) {
+            if (this.chunks[c] == null) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fail this job.
+     *
+     * @param cause why the job failed
+     */
+    public void fail(final Throwable cause) {
+        this.result.completeExceptionally(cause);
+    }
+
+    /**
+     * Write a SHARD message asking a node to simulate a run of the chunks of
+     * this job.
+     *
+     * @param out       the stream to write to
+     * @param first     the index of the first chunk of the shard
+     * @param count     the number of chunks in the shard
+     * @param heartbeat the milliseconds between the node's heartbeats while
+     *                  it simulates the shard
+     * @throws IOException if the message cannot be written
+     */
+    public void writeShard(final DataOutputStream out, final int first,
+                           final int count, final int heartbeat)
+            throws IOException {
+        out.writeByte(ShardProtocol.SHARD);
+        out.writeInt(this.numslips);
+        out.writeByte(this.algorithm.ordinal());
+        out.writeLong(this.seed);
+        out.writeBoolean(this.range.hasBounds());
+        out.writeInt(this.range.getMinimum());
+        out.writeInt(this.range.getMaximum());
+        out.writeLong(this.numberOfRounds);
+        out.writeInt(first);
+        out.writeInt(count);
+        out.writeInt(heartbeat);
+    }
+}
@@ -0,0 +1,48 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event committed by a simulation worker for each batch
+ * of rounds it simulates. The event is disabled unless a recording enables
+ * threeslip.SimulationBatch, and a worker only times its batches while the
+ * event or EngineMetrics is enabled.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@Name("threeslip.SimulationBatch")
+@Label("Simulation Batch")
+@Category("ThreeSlip")
+@Description("A batch of rounds simulated by one worker")
+@StackTrace(false)
+public class SimulationBatchEvent extends Event {
+
+    /** The number of rounds in the batch. */
+    @Label("Rounds")
+    long rounds;
+
+    /** The time spent dealing the rounds. */
+    @Label("Generation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long generationTime;
+
+    /** The time spent scoring the rounds. */
+    @Label("Scoring Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long scoringTime;
+
+    /** The number of values rejected as repeats while dealing. */
+    @Label("Deal Retries")
+    long dealRetries;
+
+    /** The number of bytes the worker allocated during the batch. */
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,492 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The command-line front end of the simulation engine. A run is described
+ * entirely by its options, so scripts can vary it without recompiling, and
+ * its result is printed as text, CSV or JSON. The seed is always printed, so
+ * any run can be repeated exactly.
+ *
+ * <p>A short run spends most of its time starting the JVM, so the command
+ * does only what the run needs: one thread simulates on the calling thread
+ * without a pool, and nothing else of the engine is touched. Startup is
+ * shortened further by an AppCDS archive of the classes a run loads, built
+ * by the cds profile of the engine module and used with
+ * <pre>
+ * java -XX:SharedArchiveFile=engine/target/threeslip.jsa -Xshare:on \
+ *     -XX:TieredStopAtLevel=1 \
+ *     -jar engine/target/threeslip-1.0-SNAPSHOT.jar --rounds 100000
+ * </pre>
+ * The archive only applies to the jar it was built from. Repackaging the
+ * jar, even by a plain mvn package, invalidates it, and the JVM then only
+ * logs a warning among the output and loads every class from the jar
+ * again; -Xshare:on makes it fail to start instead. Rebuild the archive
+ * with -Pcds whenever the jar is repackaged.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class SimulationCommand {
+
+    /** The exit status of a run with invalid options. */
+    static final int USAGE_ERROR = 2;
+    /** The number of rounds simulated by default. */
+    private static final long DEFAULT_ROUNDS = 10_000_000;
+    /** The width of the column of strategy names in text. */
+    private static final int NAME_WIDTH = 19;
+    /** The width of the column of wins in text. */
+    private static final int WINS_WIDTH = 12;
+    /** The win rate in text is a percentage with four decimal places. */
+    private static final double PERCENT_SCALE = 1e6;
+    /** The scale of the decimal places of a win rate in text. */
+    private static final long RATE_DIGITS_SCALE = 10_000;
+
+    /** The number of rounds to simulate. */
+    private long numberOfRounds = DEFAULT_ROUNDS;
+    /** The number of slips in each round. */
+    private int numslips = SlipHypoTester.STANDARD_NUMBER_OF_SLIPS;
+    /** The smallest slip value, or null if unbounded. */
+    private Integer minimum;
+    /** The largest slip value, or null if unbounded. */
+    private Integer maximum;
+    /** The master seed, or null for a random one. */
+    private Long seed;
+    /** The random number generator with which rounds are dealt. */
+    private RandomAlgorithm algorithm = RandomAlgorithm.SPLITTABLE_RANDOM;
+    /** The strategies to report, in order. */
+    private final List<ThreeSlipStrategy> strategies = new ArrayList<>();
+    /** The number of threads to simulate on. */
+    private int parallelism = 1;
+    /** The format of the result: text, csv or json. */
+    private String format = "text";
+    /** Whether only the help was asked for. */
+    private boolean help;
+
+    /**
+     * Create a command from its options.
+     *
+     * @param args the options
+     * @throws IllegalArgumentException if an option is unknown, lacks its
+     *                                  value or has an invalid value
+     */
+    private SimulationCommand(final String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            String value = null;
+            int equals = option.indexOf('=');
+            if (option.startsWith("--") && equals > 0) {
+                value = option.substring(equals + 1);
+                option = option.substring(0, equals);
+            }
+            if ("-h".equals(option) || "--help".equals(option)) {
+                this.help = true;
+                continue;
+            }
+            if (value == null) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value of "
+                            + option);
+                }
+                value = args[++i];
+            }
+            set(option, value);
+        }
+        if ((this.minimum == null) != (this.maximum == null)) {
+            throw new IllegalArgumentException(
+                    "--min and --max must be given together");
+        }
+        if (this.strategies.isEmpty()) {
+            this.strategies.addAll(List.of(ThreeSlipStrategy.values()));
+        }
+    }
+
+    /**
+     * Set an option.
+     *
+     * @param option the name of the option
+     * @param value  its value
+     * @throws IllegalArgumentException if the option is unknown or the
+     *                                  value is invalid
+     */
+    private void set(final String option, final String value) {
+        switch (option) {
+            case "-n":
+            case "--rounds":
+                this.numberOfRounds = parsePositive(option, value);
+                break;
+            case "-s":
+            case "--slips":
+                this.numslips = (int) Math.min(Integer.MAX_VALUE,
+                        parsePositive(option, value));
+                if (this.numslips < SlipHypoTester.STANDARD_NUMBER_OF_SLIPS) {
+                    throw new IllegalArgumentException("The three-slip game"
+                            + " needs at least 3 slips, not "
+                            + this.numslips);
+                }
+                break;
+            case "--min":
+                this.minimum = parseInt(option, value);
+                break;
+            case "--max":
+                this.maximum = parseInt(option, value);
+                break;
+            case "--seed":
+                try {
+                    this.seed = Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid " + option
+                            + ": " + value);
+                }
+                break;
+            case "--rng":
+                this.algorithm = constant(RandomAlgorithm.class, option,
+                        value);
+                break;
+            case "--strategies":
+                for (String name : value.split(",")) {
+                    ThreeSlipStrategy strategy = constant(
+                            ThreeSlipStrategy.class, option, name.trim());
+                    if (!this.strategies.contains(strategy)) {
+                        this.strategies.add(strategy);
+                    }
+                }
+                break;
+            case "-t":
+            case "--threads":
+                this.parallelism = (int) Math.min(Integer.MAX_VALUE,
+                        parsePositive(option, value));
+                break;
+            case "-f":
+            case "--format":
+                this.format = value.toLowerCase(Locale.ROOT);
+                if (!"text".equals(this.format) && !"csv".equals(this.format)
+                        && !"json".equals(this.format)) {
+                    throw new IllegalArgumentException("Unknown format "
+                            + value);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option "
+                        + option);
+        }
+    }
+
+    /**
+     * Run a simulation described by the given options and print its result.
+     *
+     * @param args the options
+     * @param out  where to print the result
+     * @param err  where to print errors
+     * @return the exit status, 0 on success
+     */
+    public static int run(final String[] args, final PrintStream out,
+                          final PrintStream err) {
+        SimulationCommand command;
+        try {
+            command = new SimulationCommand(args);
+        } catch (IllegalArgumentException e) {
+            err.println("threeslip: " + e.getMessage());
+            err.print(usage());
+            return USAGE_ERROR;
+        }
+        if (command.help) {
+            out.print(usage());
+            return 0;
+        }
+        try {
+            out.print(command.simulate());
+        } catch (IllegalArgumentException e) {
+            err.println("threeslip: " + e.getMessage());
+            return USAGE_ERROR;
+        }
+        out.flush();
+        return 0;
+    }
+
+    /**
+     * Run the simulation and format its result.
+     *
+     * @return the result in this command's format
+     * @throws IllegalArgumentException if the range of values is invalid
+     */
+    private String simulate() {
+        long masterSeed = this.seed != null ? this.seed
+                : new SplittableRandom().nextLong();
+        SlipHypoTester tester = new SlipHypoTester(this.numslips,
+                this.algorithm, masterSeed);
+        boolean bounded = this.minimum != null;
+        if (bounded) {
+            ValueRange.of(this.minimum, this.maximum);
+            if ((long) this.maximum - this.minimum + 1 < this.numslips) {
+                throw new IllegalArgumentException("The range "
+                        + this.minimum + ".." + this.maximum
+                        + " has fewer than " + this.numslips
+                        + " distinct values");
+            }
+        }
+        Map<ThreeSlipStrategy, Long> winMap;
+        if (this.parallelism == 1) {
+            winMap = bounded
+                    ? tester.simulateSharedPlay(this.numberOfRounds,
+                            this.minimum, this.maximum)
+                    : tester.simulateSharedPlay(this.numberOfRounds);
+        } else {
+            winMap = bounded
+                    ? tester.simulatePlayInParallel(this.numberOfRounds,
+                            this.minimum, this.maximum, this.parallelism)
+                    : tester.simulatePlayInParallel(this.numberOfRounds,
+                            this.parallelism);
+        }
+        switch (this.format) {
+            case "csv":
+                return csv(masterSeed, winMap);
+            case "json":
+                return json(masterSeed, winMap);
+            default:
+                return text(masterSeed, winMap);
+        }
+    }
+
+    /**
+     * Format a result as text, one line per reported strategy.
+     *
+     * @param masterSeed the seed of the run
+     * @param winMap     map from ThreeSlipStrategy object to number of wins
+     * @return the text
+     */
+    private String text(final long masterSeed,
+                        final Map<ThreeSlipStrategy, Long> winMap) {
+        StringBuilder text = new StringBuilder();
+        text.append("Simulation Results for ").append(this.numberOfRounds)
+                .append(" Rounds of ").append(this.numslips).append(" Slips");
+        if (this.minimum != null) {
+            text.append(" in ").append(this.minimum).append("..")
+                    .append(this.maximum);
+        }
+        text.append(" (").append(this.algorithm.name()).append(" seed ")
+                .append(masterSeed).append(")\n");
+        for (ThreeSlipStrategy strategy : this.strategies) {
+            long wins = winMap.get(strategy);
+            long rate = Math.round(PERCENT_SCALE * wins / this.numberOfRounds);
+            pad(text.append(strategy.name()), NAME_WIDTH + 1);
+            pad(text, Long.toString(wins), WINS_WIDTH).append(' ');
+            pad(text, Long.toString(rate / RATE_DIGITS_SCALE), 3).append('.');
+            String digits = Long.toString(rate % RATE_DIGITS_SCALE
+                    + RATE_DIGITS_SCALE);
+            text.append(digits, 1, digits.length()).append("%\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Format a result as CSV, a header row and one row with a column per
+     * reported strategy, in the columns of CsvSweepWriter.
+     *
+     * @param masterSeed the seed of the run
+     * @param winMap     map from ThreeSlipStrategy object to number of wins
+     * @return the CSV
+     */
+    private String csv(final long masterSeed,
+                       final Map<ThreeSlipStrategy, Long> winMap) {
+        StringBuilder header = new StringBuilder(
+                "slips,bounded,minimum,maximum,rounds,algorithm,seed");
+        StringBuilder row = new StringBuilder();
+        row.append(this.numslips).append(',')
+                .append(this.minimum != null).append(',')
+                .append(this.minimum != null ? this.minimum : 0).append(',')
+                .append(this.maximum != null ? this.maximum : 0).append(',')
+                .append(this.numberOfRounds).append(',')
+                .append(this.algorithm.name()).append(',')
+                .append(masterSeed);
+        for (ThreeSlipStrategy strategy : this.strategies) {
+            header.append(',').append(strategy.name());
+            row.append(',').append(winMap.get(strategy));
+        }
+        return header.append('\n').append(row).append('\n').toString();
+    }
+
+    /**
+     * Format a result as a JSON object, in the fields of SimulationJob.
+     *
+     * @param masterSeed the seed of the run
+     * @param winMap     map from ThreeSlipStrategy object to number of wins
+     * @return the JSON
+     */
+    private String json(final long masterSeed,
+                        final Map<ThreeSlipStrategy, Long> winMap) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"rounds\":").append(this.numberOfRounds)
+                .append(",\"slips\":").append(this.numslips);
+        if (this.minimum != null) {
+            json.append(",\"minimum\":").append(this.minimum)
+                    .append(",\"maximum\":").append(this.maximum);
+        }
+        json.append(",\"algorithm\":").append(Json.quote(this.algorithm.name()))
+                .append(",\"seed\":").append(masterSeed)
+                .append(",\"wins\":{");
+        for (int i = 0; i < this.strategies.size(); i++) {
+            ThreeSlipStrategy strategy = this.strategies.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(Json.quote(strategy.name())).append(':')
+                    .append(winMap.get(strategy));
+        }
+        return json.append("}}\n").toString();
+    }
+
+    /**
+     * Pad text with spaces on the right to a width.
+     *
+     * @param text  the text to pad
+     * @param width the width to pad it to
+     * @return the text
+     */
+    private static StringBuilder pad(final StringBuilder text,
+                                     final int width) {
+        int start = text.lastIndexOf("\n") + 1;
+        while (text.length() - start < width) {
+            text.append(' ');
+        }
+        return text;
+    }
+
+    /**
+     * Append a value padded with spaces on the left to a width.
+     *
+     * @param text  the text to append to
+     * @param value the value
+     * @param width the width to pad it to
+     * @return the text
+     */
+    private static StringBuilder pad(final StringBuilder text,
+                                     final String value, final int width) {
+        for (int i = value.length(); i < width; i++) {
+            text.append(' ');
+        }
+        return text.append(value);
+    }
+
+    /**
+     * Parse a positive number.
+     *
+     * @param option the option the number is the value of
+     * @param value  the text of the number
+     * @return the number
+     * @throws IllegalArgumentException if the text is not a positive number
+     */
+    private static long parsePositive(final String option,
+                                      final String value) {
+        long number;
+        try {
+            number = Long.parseLong(value.replace("_", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + option + ": "
+                    + value);
+        }
+        if (number <= 0) {
+            throw new IllegalArgumentException(option + " must be positive: "
+                    + value);
+        }
+        return number;
+    }
+
+    /**
+     * Parse an int.
+     *
+     * @param option the option the number is the value of
+     * @param value  the text of the number
+     * @return the number
+     * @throws IllegalArgumentException if the text is not an int
+     */
+    private static int parseInt(final String option, final String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + option + ": "
+                    + value);
+        }
+    }
+
+    /**
+     * Look up an enum constant by its name, ignoring case.
+     *
+     * @param type   the enum
+     * @param option the option the name is the value of
+     * @param name   the name
+     * @param <E>    the type of the enum
+     * @return the constant
+     * @throws IllegalArgumentException if there is no such constant
+     */
+    private static <E extends Enum<E>> E constant(final Class<E> type,
+                                                  final String option,
+                                                  final String name) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(name)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown value of " + option
+                + ": " + name);
+    }
+
+    /**
+     * Describe the options. The description is built only when printed, so
+     * a run does not pay for it.
+     *
+     * @return the usage message
+     */
+    private static String usage() {
+        return String.join("\n",
+                "Usage: threeslip [options]",
+                "  -n, --rounds N        rounds to simulate (default "
+                        + DEFAULT_ROUNDS + ")",
+                "  -s, --slips N         slips in each round (default "
+                        + SlipHypoTester.STANDARD_NUMBER_OF_SLIPS + ")",
+                "      --min N --max N   bound slip values to min..max"
+                        + " (default unbounded)",
+                "      --seed N          master seed (default random)",
+                "      --rng NAME        generator, one of "
+                        + names(RandomAlgorithm.values())
+                        + " (default SPLITTABLE_RANDOM)",
+                "      --strategies A,B  strategies to report, of "
+                        + names(ThreeSlipStrategy.values()) + " (default all)",
+                "  -t, --threads N       threads to simulate on (default 1)",
+                "  -f, --format FORMAT   text, csv or json (default text)",
+                "  -h, --help            print this help",
+                "");
+    }
+
+    /**
+     * List the names of enum constants.
+     * @param constants the constants
+     * @return their names, separated by commas
+     */
+    private static String names(final Enum<?>[] constants) {
+        StringBuilder names = new StringBuilder();
+        for (Enum<?> constant : constants) {
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            names.append(constant.name());
+        }
+        return names.toString();
+    }
+
+    /**
+     * Run a simulation described by the given options, exiting with a
+     * non-zero status if they are invalid.
+     *
+     * @param args the options; --help lists them
+     */
+    public static void main(final String[] args) {
+        int status = run(args, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
@@ -0,0 +1,514 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits simulations into shards and hands them to SimulationNodes in other
+ * JVMs over TCP, so that a sweep can run on more machines than one. Nodes
+ * connect to the coordinator, and each connection is served by its own
+ * thread, which takes the next shard from a shared queue, sends it, and
+ * merges the counts the node sends back chunk by chunk until the shard is
+ * done. The messages are described by ShardProtocol.
+ *
+ * <p>A job is queued as a single shard of all its chunks, and each node
+ * takes from the front of the queue as many chunks as it has threads,
+ * which it gives in its greeting, leaving the rest queued. Once the queue
+ * is empty, an idle node is sent the unfinished chunks of the shard that
+ * has been running longest, once per shard, so a slow node does not hold
+ * up the end of a job; whichever node sends a chunk's counts first wins.
+ *
+ * <p>A node sends a heartbeat three times a timeout while it simulates, so
+ * however long its chunks take, one that disconnects or sends nothing for
+ * the timeout is lost. It is dropped and its shard goes back to the front
+ * of the queue for another node; the chunks it already sent are kept. A
+ * shard lost with MAX_LOSSES nodes fails its job rather than being queued
+ * again forever. Every chunk is dealt from its own stream split from the
+ * master source, whichever node simulates it, so the result is that of
+ * SlipHypoTester.simulatePlayInParallel for the same seed.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SimulationCoordinator implements Closeable {
+
+    /** The default port. */
+    public static final int DEFAULT_PORT = 7070;
+    /** The default time to wait for a message from a node, in ms. */
+    private static final int DEFAULT_TIMEOUT = 30000;
+    /** How often an idle connection checks for shutdown, in ms. */
+    private static final long POLL_MILLIS = 1000;
+    /** The number of heartbeats a node sends in each timeout. */
+    private static final int BEATS_PER_TIMEOUT = 3;
+    /** The number of nodes a shard may be lost with before its job fails. */
+    public static final int MAX_LOSSES = 3;
+
+    /** The socket nodes connect to. */
+    private final ServerSocket server;
+    /** The time to wait for a message from a node, in ms. */
+    private final int timeout;
+    /** The shards waiting for a node. */
+    private final BlockingDeque<Shard> pending = new LinkedBlockingDeque<>();
+    /** The shards being simulated by a node. */
+    private final Set<Shard> running = ConcurrentHashMap.newKeySet();
+    /** The jobs not yet finished. */
+    private final Set<ShardedJob> jobs = ConcurrentHashMap.newKeySet();
+    /** The connections of the nodes. */
+    private final Set<Socket> nodes = ConcurrentHashMap.newKeySet();
+    /** Whether the coordinator has been closed. */
+    private volatile boolean closed;
+
+    /**
+     * Create a coordinator. It does not accept nodes until started.
+     *
+     * @param address       the address to listen on
+     * @param timeoutMillis the time to wait for a message from a node before
+     *                      reassigning its shard, in milliseconds
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalArgumentException if the timeout is too short to fit
+     *                                  heartbeats
+     */
+    public SimulationCoordinator(final InetSocketAddress address,
+                                 final int timeoutMillis) throws IOException {
+        if (timeoutMillis < BEATS_PER_TIMEOUT) {
+            throw new IllegalArgumentException(
+                    "Timeout too short: " + timeoutMillis);
+        }
+        this.server = new ServerSocket();
+        this.server.bind(address);
+        this.timeout = timeoutMillis;
+    }
+
+    /**
+     * Start accepting nodes on a daemon thread.
+     */
+    public void start() {
+        Thread acceptor = new Thread(this::accept, "coordinator-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Returns the address the coordinator listens on.
+     *
+     * @return the bound address
+     */
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) this.server.getLocalSocketAddress();
+    }
+
+    /**
+     * Returns the number of nodes connected.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return this.nodes.size();
+    }
+
+    /**
+     * Queue the shards of a simulation for the nodes.
+     *
+     * @param tester         the tester whose slips, generator and seed to
+     *                       simulate with, which must have no distribution
+     * @param numberOfRounds the number of rounds to simulate
+     * @param range          the range of slip values
+     * @return the job, whose result completes once every shard is done
+     * @throws IllegalStateException if the coordinator is closed
+     */
+    public ShardedJob submit(final SlipHypoTester tester,
+                             final long numberOfRounds,
+                             final ValueRange range) {
+        if (this.closed) {
+            throw new IllegalStateException("Coordinator closed");
+        }
+        ShardedJob job = new ShardedJob(tester, numberOfRounds, range);
+        this.jobs.add(job);
+        job.getResult().whenComplete((winMap, failure) ->
+                this.jobs.remove(job));
+        if (job.getChunkCount() > 0) {
+            this.pending.add(new Shard(job, 0, job.getChunkCount(), 0));
+        }
+        return job;
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds on the nodes,
+     * waiting for the result.
+     *
+     * @param tester         the tester whose slips, generator and seed to
+     *                       simulate with, which must have no distribution
+     * @param numberOfRounds the number of rounds to simulate
+     * @param range          the range of slip values
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> simulatePlay(
+            final SlipHypoTester tester, final long numberOfRounds,
+            final ValueRange range) {
+        return SimulationWorker.await(submit(tester, numberOfRounds, range)
+                .getResult());
+    }
+
+    /**
+     * Run every cell of a sweep on the nodes, writing each cell's row to
+     * every writer as the cell finishes. The shards of every cell are queued
+     * at once. The writers are not closed.
+     *
+     * @param spec    the grid of the sweep
+     * @param writers where to write the rows
+     * @return map from each cell to its map from ThreeSlipStrategy object to
+     * number of wins associated with that strategy, in grid order
+     */
+    public Map<SweepCell, Map<ThreeSlipStrategy, Long>> runSweep(
+            final SweepSpec spec, final SweepWriter... writers) {
+        Map<SweepCell, CompletableFuture<Map<ThreeSlipStrategy, Long>>>
+                futures = new LinkedHashMap<>();
+        for (SweepCell cell : spec.getCells()) {
+            futures.put(cell, submit(spec.newTester(cell),
+                    spec.getNumberOfRounds(), cell.getRange()).getResult()
+                    .thenApply(winMap -> write(writers, cell,
+                            spec.getNumberOfRounds(), winMap)));
+        }
+        Map<SweepCell, Map<ThreeSlipStrategy, Long>> results =
+                new LinkedHashMap<>();
+        for (Map.Entry<SweepCell,
+                CompletableFuture<Map<ThreeSlipStrategy, Long>>> entry
+                : futures.entrySet()) {
+            results.put(entry.getKey(),
+                    SimulationWorker.await(entry.getValue()));
+        }
+        return results;
+    }
+
+    /**
+     * Stop accepting nodes and fail the jobs not yet finished. Each connected
+     * node is told to close once it is idle.
+     */
+    public void close() {
+        this.closed = true;
+        try {
+            this.server.close();
+        } catch (IOException e) {
+            // Nothing more can be done with the socket.
+        }
+        this.pending.clear();
+        for (ShardedJob job : this.jobs) {
+            job.fail(new IllegalStateException("Coordinator closed"));
+        }
+    }
+
+    /**
+     * Accept nodes until closed, serving each on its own daemon thread.
+     */
+    private void accept() {
+        while (!this.closed) {
+            try {
+                Socket socket = this.server.accept();
+                Thread thread = new Thread(() -> serve(socket),
+                        "coordinator-node");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!this.closed) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Serve a node until it disconnects or the coordinator is closed,
+     * handing it one shard at a time of as many chunks as it has threads. A
+     * shard the node does not finish goes back to the front of the queue,
+     * or fails its job if it has been lost too often.
+     *
+     * @param socket the connection to the node
+     */
+    private void serve(final Socket socket) {
+        try (socket) {
+            socket.setSoTimeout(this.timeout);
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+            if (ShardProtocol.readType(in) != ShardProtocol.HELLO
+                    || in.readInt() != ShardProtocol.MAGIC
+                    || in.readShort() != ShardProtocol.VERSION) {
+                return;
+            }
+            int threads = Math.max(1, in.readInt());
+            this.nodes.add(socket);
+            while (!this.closed) {
+                Shard shard = nextShard(threads);
+                if (shard == null) {
+                    continue;
+                }
+                shard.started = System.nanoTime();
+                this.running.add(shard);
+                try {
+                    run(shard, in, out, this.timeout / BEATS_PER_TIMEOUT);
+                } catch (IOException | RuntimeException e) {
+                    lost(shard, e);
+                    throw e;
+                } finally {
+                    this.running.remove(shard);
+                }
+            }
+            out.writeByte(ShardProtocol.CLOSE);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            // The node is lost; its shard has been queued again or failed.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.nodes.remove(socket);
+        }
+    }
+
+    /**
+     * Take the next shard for a node, splitting off as many chunks as it has
+     * threads and queueing the rest again. If no shard is queued, the node
+     * speculatively takes the unfinished chunks of the shard that has been
+     * running longest, unless it has been taken already; otherwise it waits
+     * a while for a shard to be queued.
+     *
+     * @param threads the number of threads of the node
+     * @return the shard, or null if there is none yet
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private Shard nextShard(final int threads) throws InterruptedException {
+        Shard shard = this.pending.pollFirst();
+        if (shard == null) {
+            shard = straggler();
+        }
+        if (shard == null) {
+            shard = this.pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        if (shard == null || shard.isFinished()) {
+            return null;
+        }
+        if (shard.count > threads) {
+            this.pending.addFirst(new Shard(shard.job, shard.first + threads,
+                    shard.count - threads, shard.losses));
+            shard = new Shard(shard.job, shard.first, threads, shard.losses);
+        }
+        return shard;
+    }
+
+    /**
+     * Queue a shard lost with its node again, or fail its job if it has
+     * been lost MAX_LOSSES times.
+     *
+     * @param shard the shard
+     * @param cause why the node was lost
+     */
+    private void lost(final Shard shard, final Exception cause) {
+        if (shard.losses + 1 >= MAX_LOSSES) {
+            shard.job.fail(new IllegalStateException("Chunks " + shard.first
+                    + " to " + (shard.first + shard.count - 1) + " lost with "
+                    + MAX_LOSSES + " nodes", cause));
+        } else {
+            this.pending.addFirst(new Shard(shard.job, shard.first,
+                    shard.count, shard.losses + 1));
+        }
+    }
+
+    /**
+     * Claim the unfinished chunks of the running shard that started first
+     * and has not yet been claimed, to simulate again on an idle node.
+     *
+     * @return a shard of the unfinished chunks, or null if there is none
+     */
+    private Shard straggler() {
+        Shard oldest = null;
+        for (Shard shard : this.running) {
+            if (!shard.speculated && !shard.isFinished()
+                    && (oldest == null || shard.started < oldest.started)) {
+                oldest = shard;
+            }
+        }
+        if (oldest == null) {
+            return null;
+        }
+        synchronized (oldest) {
+            if (oldest.speculated) {
+                return null;
+            }
+            oldest.speculated = true;
+        }
+        int first = oldest.job.firstIncomplete(oldest.first, oldest.count);
+        int end = oldest.job.lastIncomplete(oldest.first, oldest.count) + 1;
+        if (first < 0 || end <= first) {
+            return null;
+        }
+        Shard copy = new Shard(oldest.job, first, end - first,
+                oldest.losses);
+        copy.speculated = true;
+        return copy;
+    }
+
+    /**
+     * Send a shard to a node and merge the counts it sends back.
+     *
+     * @param shard     the shard
+     * @param in        the stream from the node
+     * @param out       the stream to the node
+     * @param heartbeat the milliseconds between the node's heartbeats
+     * @throws IOException if the node disconnects, times out or breaks the
+     *                     protocol
+     */
+    private static void run(final Shard shard, final DataInputStream in,
+                            final DataOutputStream out, final int heartbeat)
+            throws IOException {
+        shard.job.writeShard(out, shard.first, shard.count, heartbeat);
+        out.flush();
+        while (true) {
+            byte type = ShardProtocol.readType(in);
+            if (type == ShardProtocol.BEAT) {
+                continue;
+            }
+            if (type == ShardProtocol.DONE) {
+                return;
+            }
+            if (type == ShardProtocol.FAILED) {
+                shard.job.fail(new IllegalStateException(
+                        "Node failed: " + in.readUTF()));
+                return;
+            }
+            if (type != ShardProtocol.CHUNK) {
+                throw new IOException("Unexpected message type " + type);
+            }
+            int chunk = in.readInt();
+            long[] counts = ShardProtocol.readCounts(in);
+            if (chunk < shard.first || chunk >= shard.first + shard.count) {
+                throw new IOException("Chunk " + chunk + " is not in shard");
+            }
+            shard.job.complete(chunk, counts);
+        }
+    }
+
+    /**
+     * Write the row of a finished cell to every writer.
+     *
+     * @param writers        where to write the row
+     * @param cell           the cell
+     * @param numberOfRounds the number of rounds simulated in the cell
+     * @param winMap         map from ThreeSlipStrategy object to number of
+     *                       wins associated with that strategy
+     * @return winMap
+     */
+    private static Map<ThreeSlipStrategy, Long> write(
+            final SweepWriter[] writers, final SweepCell cell,
+            final long numberOfRounds,
+            final Map<ThreeSlipStrategy, Long> winMap) {
+        try {
+            for (SweepWriter writer : writers) {
+                writer.write(cell, numberOfRounds, winMap);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return winMap;
+    }
+
+    /**
+     * Listen for nodes on the loopback address, wait for the given number to
+     * connect, then simulate on them and print the wins of each strategy.
+     *
+     * @param args the port, the number of nodes to wait for, the number of
+     *             slips, the number of rounds and the seed
+     * @throws IOException          if the port cannot be bound
+     * @throws InterruptedException if interrupted while waiting for nodes
+     */
+    public static void main(final String[] args)
+            throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int wanted = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int slips = args.length > 2 ? Integer.parseInt(args[2])
+                : SlipHypoTester.STANDARD_NUMBER_OF_SLIPS;
+        long rounds = args.length > 3 ? Long.parseLong(args[3]) : 1L << 26;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+        try (SimulationCoordinator coordinator = new SimulationCoordinator(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                DEFAULT_TIMEOUT)) {
+            coordinator.start();
+            System.out.println("Listening on " + coordinator.getAddress());
+            while (coordinator.getNodeCount() < wanted) {
+                Thread.sleep(POLL_MILLIS / 10);
+            }
+            long start = System.nanoTime();
+            Map<ThreeSlipStrategy, Long> winMap = coordinator.simulatePlay(
+                    new SlipHypoTester(slips, seed), rounds,
+                    ValueRange.unbounded());
+            long elapsed = System.nanoTime() - start;
+            for (ThreeSlipStrategy strategy : ThreeSlipStrategy.values()) {
+                System.out.println(strategy + " " + winMap.get(strategy));
+            }
+            System.out.println(rounds + " rounds in "
+                    + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+        }
+    }
+
+    /**
+     * A run of consecutive chunks of a job, simulated by one node.
+     */
+    private static final class Shard {
+
+        /** The job the shard belongs to. */
+        private final ShardedJob job;
+        /** The index of the first chunk of the shard. */
+        private final int first;
+        /** The number of chunks in the shard. */
+        private final int count;
+        /** The number of nodes the shard has been lost with. */
+        private final int losses;
+        /** When the shard was sent to a node, by System.nanoTime. */
+        private volatile long started;
+        /** Whether the shard is, or has been sent again as, a speculation. */
+        private volatile boolean speculated;
+
+        /**
+         * Create a shard.
+         *
+         * @param owner      the job the shard belongs to
+         * @param firstChunk the index of the first chunk of the shard
+         * @param chunks     the number of chunks in the shard
+         * @param lost       the number of nodes the shard has been lost with
+         */
+        private Shard(final ShardedJob owner, final int firstChunk,
+                      final int chunks, final int lost) {
+            this.job = owner;
+            this.first = firstChunk;
+            this.count = chunks;
+            this.losses = lost;
+        }
+
+        /**
+         * Whether the shard no longer needs simulating, because its job has
+         * finished or every chunk has counts.
+         *
+         * @return true if the shard is finished
+         */
+        private boolean isFinished() {
+            return this.job.isDone()
+                    || this.job.isComplete(this.first, this.count);
+        }
+    }
+}
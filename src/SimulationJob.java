@@ -0,0 +1,371 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A simulation submitted to the SimulationServer: its parameters, its run
+ * and its outcome, each described as JSON. The run, with a worker for every
+ * chunk of the job, is only created when the job starts, so a job waiting
+ * for others to finish holds no more than its parameters.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SimulationJob {
+
+    /** The default number of slips in each round. */
+    private static final int DEFAULT_SLIPS = 3;
+    /**
+     * The largest number of rounds in a job. Once started, the run holds a
+     * worker of a few hundred bytes for every chunk of
+     * SlipHypoTester.CHUNK_ROUNDS rounds until it finishes, so this bounds a
+     * job to 65536 workers.
+     */
+    private static final long MAX_ROUNDS = 1L << 36;
+    /** The largest number of slips in each round. */
+    private static final long MAX_SLIPS = 1 << 16;
+    /** The milliseconds between progress snapshots. */
+    private static final long SNAPSHOT_MILLIS = 250;
+
+    /** The number of the job. */
+    private final long id;
+    /** The number of rounds to simulate. */
+    private final long numberOfRounds;
+    /** The number of slips in each round. */
+    private final int numslips;
+    /** The range of slip values. */
+    private final ValueRange range;
+    /** The random number generator with which rounds are dealt. */
+    private final RandomAlgorithm algorithm;
+    /** The seed from which rounds are dealt. */
+    private final long seed;
+    /** The strategies to report. */
+    private final List<ThreeSlipStrategy> strategies;
+    /** The number of chunks the job may run at once. */
+    private final int parallelism;
+    /** The simulation, once started. */
+    private SimulationRun run;
+    /** The map from strategy to wins, once started. */
+    private CompletableFuture<Map<ThreeSlipStrategy, Long>> result;
+    /** Whether the job was cancelled before it started. */
+    private boolean cancelledWaiting;
+
+    /**
+     * Create a job from its JSON description. Every member is optional:
+     * rounds (default 10000000, at most 2^36), slips (default 3, at most
+     * 65536), minimum and maximum (default unbounded; both or neither), seed
+     * (default random), algorithm (a RandomAlgorithm name, default
+     * SPLITTABLE_RANDOM) and strategies (an array of ThreeSlipStrategy
+     * names, default all).
+     *
+     * @param number      the number of the job
+     * @param request     the members of the JSON description
+     * @param parallelism the number of chunks the job may run at once
+     * @throws IllegalArgumentException if the description is invalid
+     */
+    public SimulationJob(final long number, final Map<String, Object> request,
+                         final int parallelism) {
+        this.id = number;
+        this.numberOfRounds = longMember(request, "rounds", 10000000L);
+        long slips = longMember(request, "slips", DEFAULT_SLIPS);
+        if (this.numberOfRounds <= 0 || this.numberOfRounds > MAX_ROUNDS) {
+            throw new IllegalArgumentException(
+                    "rounds must be from 1 to " + MAX_ROUNDS);
+        }
+        if (slips < DEFAULT_SLIPS || slips > MAX_SLIPS) {
+            throw new IllegalArgumentException(
+                    "slips must be from 3 to " + MAX_SLIPS);
+        }
+        this.numslips = (int) slips;
+        if (request.containsKey("minimum") != request.containsKey("maximum")) {
+            throw new IllegalArgumentException(
+                    "minimum and maximum must be given together");
+        }
+        if (request.containsKey("minimum")) {
+            this.range = ValueRange.of(intMember(request, "minimum"),
+                    intMember(request, "maximum"));
+            if ((long) this.range.getMaximum() - this.range.getMinimum() + 1
+                    < this.numslips) {
+                throw new IllegalArgumentException("The range "
+                        + this.range.getMinimum() + ".."
+                        + this.range.getMaximum() + " has fewer than "
+                        + this.numslips + " distinct values");
+            }
+        } else {
+            this.range = ValueRange.unbounded();
+        }
+        this.seed = request.containsKey("seed")
+                ? longMember(request, "seed", 0)
+                : new SplittableRandom().nextLong();
+        this.algorithm = RandomAlgorithm.valueOf(String.valueOf(
+                request.getOrDefault("algorithm", "SPLITTABLE_RANDOM")));
+        this.strategies = new ArrayList<>();
+        Object names = request.get("strategies");
+        if (names == null) {
+            this.strategies.addAll(Arrays.asList(ThreeSlipStrategy.values()));
+        } else if (names instanceof List) {
+            for (Object name : (List<?>) names) {
+                this.strategies.add(
+                        ThreeSlipStrategy.valueOf(String.valueOf(name)));
+            }
+        } else {
+            throw new IllegalArgumentException(
+                    "strategies must be an array of names");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Read an integral member of a request.
+     *
+     * @param request      the members of the request
+     * @param name         the name of the member
+     * @param defaultValue the value if the member is missing
+     * @return the value of the member
+     */
+    private static long longMember(final Map<String, Object> request,
+                                   final String name,
+                                   final long defaultValue) {
+        Object value = request.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Long)) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+        return (Long) value;
+    }
+
+    /**
+     * Read a member of a request that must be an int.
+     *
+     * @param request the members of the request
+     * @param name    the name of the member
+     * @return the value of the member
+     */
+    private static int intMember(final Map<String, Object> request,
+                                 final String name) {
+        long value = longMember(request, name, 0);
+        if (value != (int) value) {
+            throw new IllegalArgumentException(name + " is out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Returns the number of the job.
+     * @return the number of the job
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the number of chunks of SlipHypoTester.CHUNK_ROUNDS rounds
+     * the job is split into, each of which has a worker once it starts.
+     * @return the number of chunks
+     */
+    public long getChunkCount() {
+        return (this.numberOfRounds + SlipHypoTester.CHUNK_ROUNDS - 1)
+                / SlipHypoTester.CHUNK_ROUNDS;
+    }
+
+    /**
+     * Wait for the job to start.
+     * @return the simulation of the job, or null if the job was cancelled
+     * before it started
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized SimulationRun awaitRun() throws InterruptedException {
+        while (this.run == null && !this.cancelledWaiting) {
+            wait();
+        }
+        return this.run;
+    }
+
+    /**
+     * Start the job: create its simulation and queue its chunks in the
+     * given lane. A job cancelled before it started is not started.
+     * @param lane the executor on which to simulate
+     * @return a future completed when the job finishes, however it finishes
+     */
+    public synchronized CompletableFuture<?> start(final Executor lane) {
+        if (this.cancelledWaiting) {
+            return CompletableFuture.completedFuture(null);
+        }
+        SlipHypoTester tester = new SlipHypoTester(this.numslips,
+                this.algorithm, this.seed);
+        if (this.range.hasBounds()) {
+            this.run = tester.newSimulationRun(this.numberOfRounds,
+                    this.range.getMinimum(), this.range.getMaximum(),
+                    this.parallelism);
+        } else {
+            this.run = tester.newSimulationRun(this.numberOfRounds,
+                    this.parallelism);
+        }
+        this.run.setSnapshotPeriod(SNAPSHOT_MILLIS);
+        this.result = this.run.start(lane);
+        notifyAll();
+        return this.result;
+    }
+
+    /**
+     * Cancel the job if it has not finished.
+     * @return true if the job was cancelled by this call
+     */
+    public boolean cancel() {
+        SimulationRun started;
+        synchronized (this) {
+            if (this.run == null) {
+                if (this.cancelledWaiting) {
+                    return false;
+                }
+                this.cancelledWaiting = true;
+                notifyAll();
+                return true;
+            }
+            started = this.run;
+        }
+        return started.cancel();
+    }
+
+    /**
+     * Wait for the job to finish, whether it succeeds, fails or is
+     * cancelled.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitDone() throws InterruptedException {
+        if (awaitRun() == null) {
+            return;
+        }
+        CompletableFuture<Map<ThreeSlipStrategy, Long>> future;
+        synchronized (this) {
+            future = this.result;
+        }
+        try {
+            future.get();
+        } catch (ExecutionException | CancellationException e) {
+            return;
+        }
+    }
+
+    /**
+     * Predicate to check if the job has finished, cancelled or not.
+     * @return true if the job has finished
+     */
+    public synchronized boolean isDone() {
+        return this.cancelledWaiting
+                || this.result != null && this.result.isDone();
+    }
+
+    /**
+     * Returns the state of the job: queued, running, done, failed or
+     * cancelled.
+     * @return the state of the job
+     */
+    public synchronized String getState() {
+        if (this.cancelledWaiting
+                || this.run != null && this.run.isCancelled()) {
+            return "cancelled";
+        }
+        if (this.result != null && this.result.isDone()) {
+            return this.result.isCompletedExceptionally() ? "failed" : "done";
+        }
+        if (this.run == null || this.run.snapshot().getRoundsCompleted() == 0) {
+            return "queued";
+        }
+        return "running";
+    }
+
+    /**
+     * Describe the job as JSON: its parameters, its state, its progress and
+     * the wins of the reported strategies so far.
+     * @return a JSON object
+     */
+    public String toJson() {
+        String state = getState();
+        SimulationRun started;
+        synchronized (this) {
+            started = this.run;
+        }
+        Map<ThreeSlipStrategy, Long> wins = Collections.emptyMap();
+        long completed = 0;
+        long elapsedNanos = 0;
+        if (started != null) {
+            SimulationSnapshot snapshot = started.snapshot();
+            wins = snapshot.getWinMap();
+            completed = snapshot.getRoundsCompleted();
+            elapsedNanos = snapshot.getElapsedNanos();
+        }
+        String error = null;
+        if ("done".equals(state)) {
+            wins = this.result.join();
+            completed = this.numberOfRounds;
+        } else if ("failed".equals(state)) {
+            try {
+                this.result.join();
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                error = String.valueOf(cause.getMessage());
+            }
+        }
+        StringBuilder json = new StringBuilder();
+        json.append("{\"id\":").append(this.id)
+                .append(",\"state\":").append(Json.quote(state))
+                .append(",\"rounds\":").append(this.numberOfRounds)
+                .append(",\"slips\":").append(this.numslips);
+        if (this.range.hasBounds()) {
+            json.append(",\"minimum\":").append(this.range.getMinimum())
+                    .append(",\"maximum\":").append(this.range.getMaximum());
+        }
+        json.append(",\"algorithm\":").append(Json.quote(this.algorithm.name()))
+                .append(",\"seed\":").append(this.seed)
+                .append(",\"roundsCompleted\":").append(completed)
+                .append(",\"elapsedMillis\":")
+                .append(elapsedNanos / 1000000)
+                .append(",\"wins\":").append(winsJson(wins));
+        if (error != null) {
+            json.append(",\"error\":").append(Json.quote(error));
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Describe a snapshot of the job's progress as JSON.
+     * @param snapshot the snapshot
+     * @return a JSON object
+     */
+    public String toJson(final SimulationSnapshot snapshot) {
+        return "{\"id\":" + this.id
+                + ",\"roundsCompleted\":" + snapshot.getRoundsCompleted()
+                + ",\"rounds\":" + snapshot.getNumberOfRounds()
+                + ",\"roundsPerSecond\":"
+                + Math.round(snapshot.getRoundsPerSecond())
+                + ",\"wins\":" + winsJson(snapshot.getWinMap()) + "}";
+    }
+
+    /**
+     * Describe the wins of the reported strategies as JSON.
+     * @param wins map from ThreeSlipStrategy object to number of wins
+     * @return a JSON object from strategy name to wins
+     */
+    private String winsJson(final Map<ThreeSlipStrategy, Long> wins) {
+        StringBuilder json = new StringBuilder("{");
+        for (ThreeSlipStrategy strategy : this.strategies) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(Json.quote(strategy.name())).append(':')
+                    .append(wins.getOrDefault(strategy, 0L));
+        }
+        return json.append('}').toString();
+    }
+}
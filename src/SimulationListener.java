@@ -0,0 +1,16 @@
+/**
+ * Receives snapshots of the progress of a simulation.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public interface SimulationListener {
+
+    /**
+     * Called with each snapshot of the simulation, in order, on a thread
+     * other than the simulation's workers.
+     *
+     * @param snapshot the progress of the simulation
+     */
+    void onSnapshot(SimulationSnapshot snapshot);
+}
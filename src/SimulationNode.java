@@ -0,0 +1,189 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A worker JVM of a SimulationCoordinator. A node connects to the
+ * coordinator and simulates the shards it is sent, one at a time, with the
+ * chunks of a shard spread over its threads; it greets the coordinator with
+ * its number of threads, so each shard has a chunk for every thread. The
+ * counts of each chunk are sent back as soon as it finishes, so the
+ * coordinator keeps them if the node is lost before the shard is done.
+ * While a shard is simulated the node also sends a heartbeat as often as
+ * the shard asks, so the coordinator does not take a long chunk for a lost
+ * node. The messages are described by ShardProtocol.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SimulationNode {
+
+    /** The address of the coordinator. */
+    private final InetSocketAddress coordinator;
+    /** The number of threads to simulate on. */
+    private final int parallelism;
+
+    /**
+     * Create a node.
+     *
+     * @param address the address of the coordinator
+     * @param threads the number of threads to simulate on
+     */
+    public SimulationNode(final InetSocketAddress address, final int threads) {
+        this.coordinator = address;
+        this.parallelism = threads;
+    }
+
+    /**
+     * Connect to the coordinator and simulate the shards it sends until it
+     * closes the connection.
+     *
+     * @throws IOException if the connection fails
+     */
+    public void run() throws IOException {
+        ScheduledExecutorService timer =
+                Executors.newSingleThreadScheduledExecutor(task -> {
+                    Thread thread = new Thread(task, "node-heartbeat");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try (Socket socket = new Socket()) {
+            socket.connect(this.coordinator);
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+            out.writeByte(ShardProtocol.HELLO);
+            out.writeInt(ShardProtocol.MAGIC);
+            out.writeShort(ShardProtocol.VERSION);
+            out.writeInt(this.parallelism);
+            out.flush();
+            while (true) {
+                byte type;
+                try {
+                    type = ShardProtocol.readType(in);
+                } catch (EOFException e) {
+                    return;
+                }
+                if (type == ShardProtocol.CLOSE) {
+                    return;
+                }
+                if (type != ShardProtocol.SHARD) {
+                    throw new IOException("Unexpected message type " + type);
+                }
+                simulateShard(in, out, this.parallelism, timer);
+            }
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Read a SHARD message whose type has been read, simulate its chunks and
+     * send their counts, followed by DONE, or FAILED if the simulation
+     * fails, with heartbeats in between.
+     *
+     * @param in      the stream from the coordinator
+     * @param out     the stream to the coordinator
+     * @param threads the number of threads to simulate on
+     * @param timer   the timer to send heartbeats on
+     * @throws IOException if the connection fails
+     */
+    private static void simulateShard(final DataInputStream in,
+                                      final DataOutputStream out,
+                                      final int threads,
+                                      final ScheduledExecutorService timer)
+            throws IOException {
+        int slips = in.readInt();
+        int algorithm = in.readUnsignedByte();
+        long seed = in.readLong();
+        boolean hasBounds = in.readBoolean();
+        int minimum = in.readInt();
+        int maximum = in.readInt();
+        long rounds = in.readLong();
+        int first = in.readInt();
+        int count = in.readInt();
+        long heartbeat = Math.max(1, in.readInt());
+        ScheduledFuture<?> beats = timer.scheduleAtFixedRate(() -> {
+            try {
+                synchronized (out) {
+                    out.writeByte(ShardProtocol.BEAT);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // The next chunk fails to send as well, and reports it.
+            }
+        }, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        try {
+            SlipHypoTester tester = new SlipHypoTester(slips,
+                    RandomAlgorithm.values()[algorithm], seed);
+            ValueRange range = hasBounds ? ValueRange.of(minimum, maximum)
+                    : ValueRange.unbounded();
+            List<SimulationWorker> workers = tester.newChunkWorkers(rounds,
+                    range, first, count);
+            List<Callable<long[]>> chunks = new ArrayList<>();
+            for (int c = 0; c < workers.size(); c++) {
+                int chunk = first + c;
+                SimulationWorker worker = workers.get(c);
+                chunks.add(() -> {
+                    long[] counts = worker.call();
+                    synchronized (out) {
+                        ShardProtocol.writeChunk(out, chunk, counts);
+                        out.flush();
+                    }
+                    return counts;
+                });
+            }
+            SimulationWorker.runEach(chunks, threads);
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof InterruptedException) {
+                throw new IOException("Node interrupted", cause);
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            synchronized (out) {
+                out.writeByte(ShardProtocol.FAILED);
+                out.writeUTF(String.valueOf(cause));
+                out.flush();
+            }
+            return;
+        } finally {
+            beats.cancel(false);
+        }
+        synchronized (out) {
+            out.writeByte(ShardProtocol.DONE);
+            out.flush();
+        }
+    }
+
+    /**
+     * Connect to a coordinator and simulate its shards until it closes.
+     *
+     * @param args the host and port of the coordinator, and the number of
+     *             threads to simulate on
+     * @throws IOException if the connection fails
+     */
+    public static void main(final String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1])
+                : SimulationCoordinator.DEFAULT_PORT;
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        new SimulationNode(new InetSocketAddress(host, port), threads).run();
+    }
+}
@@ -0,0 +1,424 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A simulation running its chunks on several threads that publishes
+ * snapshots of its progress. Workers publish their counts to their own
+ * progress cells, which snapshots read without locking, so subscribers do
+ * not slow the workers down. Snapshots are published every given number of
+ * milliseconds or rounds, and once more with the final counts when the
+ * simulation completes. A simulation with a Checkpoint records each chunk
+ * in it as the chunk completes, can write it to a file periodically from
+ * the snapshot thread, and skips the chunks it already holds, so a
+ * simulation resumed from a checkpoint file finishes with the same counts
+ * as one that was never interrupted.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SimulationRun implements Flow.Publisher<SimulationSnapshot> {
+
+    /** The number of rounds to simulate. */
+    private final long numberOfRounds;
+    /** The number of threads to simulate on. */
+    private final int parallelism;
+    /** The workers simulating each chunk. */
+    private final List<SimulationWorker> workers;
+    /** The progress cell of each worker. */
+    private final List<WorkerProgress> progress = new ArrayList<>();
+    /** The publisher of snapshots to subscribers. */
+    private final SubmissionPublisher<SimulationSnapshot> publisher;
+    /** The thread that takes and publishes snapshots. */
+    private final ScheduledExecutorService scheduler;
+    /** The rounds completed, counted only when publishing by rounds. */
+    private final AtomicLong roundsCompleted = new AtomicLong();
+    /** The milliseconds between snapshots, or 0 for none. */
+    private long snapshotMillis;
+    /** The rounds between snapshots, or 0 for none. */
+    private long snapshotRounds;
+    /** The value of System.nanoTime() when the simulation started. */
+    private long startNanos;
+    /** The chunks completed so far, or null if not checkpointed. */
+    private final Checkpoint checkpoint;
+    /** The lock serializing writes of the checkpoint file. */
+    private final Object checkpointLock = new Object();
+    /** The file to write the checkpoint to, if any. */
+    private Path checkpointFile;
+    /** The milliseconds between checkpoints, or 0 for none until the end. */
+    private long checkpointMillis;
+    /** Whether the simulation has been cancelled. */
+    private volatile boolean cancelled;
+    /** The summed win counts, once every worker has finished. */
+    private CompletableFuture<long[]> result;
+
+    /**
+     * Create a simulation of the given workers.
+     *
+     * @param rounds  the number of rounds the workers simulate in total
+     * @param threads the number of threads to simulate on
+     * @param chunks  the workers simulating each chunk, which must not have
+     *                started
+     */
+    public SimulationRun(final long rounds, final int threads,
+                         final List<SimulationWorker> chunks) {
+        this(rounds, threads, chunks, null);
+    }
+
+    /**
+     * Create a checkpointed simulation of the given workers. Chunks already
+     * completed in the checkpoint are not simulated again.
+     *
+     * @param rounds  the number of rounds the workers simulate in total
+     * @param threads the number of threads to simulate on
+     * @param chunks  the workers simulating each chunk in order, which must
+     *                not have started
+     * @param done    the checkpoint to record completed chunks in, or null
+     */
+    public SimulationRun(final long rounds, final int threads,
+                         final List<SimulationWorker> chunks,
+                         final Checkpoint done) {
+        this.numberOfRounds = rounds;
+        this.parallelism = threads;
+        this.workers = chunks;
+        this.checkpoint = done;
+        for (SimulationWorker worker : chunks) {
+            WorkerProgress cell = new WorkerProgress(this);
+            worker.setProgress(cell);
+            this.progress.add(cell);
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "simulation-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publisher = new SubmissionPublisher<>();
+    }
+
+    /**
+     * Publish a snapshot every given number of milliseconds. Must be called
+     * before the simulation starts.
+     *
+     * @param millis the milliseconds between snapshots, or 0 for none
+     * @return this simulation
+     */
+    public SimulationRun setSnapshotPeriod(final long millis) {
+        this.snapshotMillis = millis;
+        return this;
+    }
+
+    /**
+     * Publish a snapshot whenever the rounds completed pass a multiple of the
+     * given number of rounds. Progress is counted in steps of several
+     * thousand rounds, so snapshots may lag slightly. Must be called before
+     * the simulation starts.
+     *
+     * @param rounds the rounds between snapshots, or 0 for none
+     * @return this simulation
+     */
+    public SimulationRun setSnapshotRounds(final long rounds) {
+        this.snapshotRounds = rounds;
+        return this;
+    }
+
+    /**
+     * Write the checkpoint of this simulation to a file every given number of
+     * milliseconds, and once more when the simulation completes. Periodic
+     * checkpoints are written on the snapshot thread; a failed one is
+     * retried at the next period, but if the final one fails, so does the
+     * simulation. Must be called before the simulation starts.
+     *
+     * @param file   the file to write the checkpoint to
+     * @param millis the milliseconds between checkpoints, or 0 to write one
+     *               only when the simulation completes
+     * @return this simulation
+     */
+    public SimulationRun setCheckpointFile(final Path file,
+                                           final long millis) {
+        if (this.checkpoint == null) {
+            throw new IllegalStateException("Simulation not checkpointed");
+        }
+        this.checkpointFile = file;
+        this.checkpointMillis = millis;
+        return this;
+    }
+
+    /**
+     * Subscribe to the snapshots of this simulation. Snapshots are dropped
+     * rather than held for subscribers that fall behind, except the final
+     * one.
+     *
+     * @param subscriber the subscriber to receive snapshots
+     */
+    public void subscribe(
+            final Flow.Subscriber<? super SimulationSnapshot> subscriber) {
+        this.publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Deliver the snapshots of this simulation to a listener.
+     *
+     * @param listener the listener to receive snapshots
+     * @return this simulation
+     */
+    public SimulationRun addListener(final SimulationListener listener) {
+        this.publisher.consume(listener::onSnapshot);
+        return this;
+    }
+
+    /**
+     * Start simulating on a new pool of threads.
+     *
+     * @return this simulation
+     */
+    public SimulationRun start() {
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        start(pool).whenComplete((winMap, error) -> pool.shutdown());
+        return this;
+    }
+
+    /**
+     * Start simulating on threads shared with other work. The chunks of the
+     * simulation are all submitted to the executor at once; on a
+     * ForkJoinPool, threads steal them as they become idle.
+     *
+     * @param pool the executor on which to simulate, which is not shut down
+     * @return a future completed with the map from ThreeSlipStrategy object
+     * to number of wins associated with that strategy
+     */
+    public synchronized CompletableFuture<Map<ThreeSlipStrategy, Long>> start(
+            final Executor pool) {
+        if (this.result != null) {
+            throw new IllegalStateException("Simulation already started");
+        }
+        this.startNanos = System.nanoTime();
+        long[] resumed = resume();
+        List<CompletableFuture<long[]>> chunks = new ArrayList<>();
+        for (int i = 0; i < this.workers.size(); i++) {
+            if (this.checkpoint == null) {
+                chunks.add(CompletableFuture.supplyAsync(
+                        this.workers.get(i)::call, pool));
+            } else if (!this.checkpoint.isCompleted(i)) {
+                int chunk = i;
+                chunks.add(CompletableFuture
+                        .supplyAsync(this.workers.get(i)::call, pool)
+                        .thenApply(counts -> {
+                            this.checkpoint.record(chunk, counts);
+                            return counts;
+                        }));
+            }
+        }
+        if (this.snapshotMillis > 0) {
+            this.scheduler.scheduleAtFixedRate(this::publishSnapshot,
+                    this.snapshotMillis, this.snapshotMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        if (this.checkpointFile != null && this.checkpointMillis > 0) {
+            this.scheduler.scheduleWithFixedDelay(this::writeCheckpoint,
+                    this.checkpointMillis, this.checkpointMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        this.result = CompletableFuture
+                .allOf(chunks.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    long[] counts = sum(chunks);
+                    SimulationWorker.addTo(counts, resumed);
+                    if (this.checkpointFile != null) {
+                        writeCheckpointFile();
+                    }
+                    return counts;
+                })
+                .whenComplete(this::finish);
+        return this.result.thenApply(SimulationWorker::toWinMap);
+    }
+
+    /**
+     * Cancel the simulation. Workers stop at their next publication of
+     * progress, chunks not yet begun stop at once, and waiting for the
+     * simulation throws CancellationException. Subscribers receive the
+     * cancellation as an error. Cancelling a simulation that has completed
+     * has no effect.
+     *
+     * @return true if the simulation was cancelled by this call
+     */
+    public synchronized boolean cancel() {
+        if (this.result == null || this.result.isDone()) {
+            return false;
+        }
+        this.cancelled = true;
+        return this.result.cancel(false);
+    }
+
+    /**
+     * Predicate to check if the simulation has been cancelled.
+     *
+     * @return true if cancel has been called before the simulation completed
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Wait for the simulation to complete.
+     *
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     * @throws CancellationException if the simulation was cancelled
+     */
+    public Map<ThreeSlipStrategy, Long> await() {
+        if (this.result == null) {
+            throw new IllegalStateException("Simulation not started");
+        }
+        return SimulationWorker.toWinMap(SimulationWorker.await(this.result));
+    }
+
+    /**
+     * Take a snapshot of the progress of the simulation so far, reading each
+     * worker's progress cell without locking.
+     *
+     * @return the progress of the simulation
+     */
+    public SimulationSnapshot snapshot() {
+        long[] counts = new long[ThreeSlipStrategy.values().length];
+        long rounds = 0;
+        for (WorkerProgress cell : this.progress) {
+            rounds += cell.addTo(counts);
+        }
+        return new SimulationSnapshot(rounds, this.numberOfRounds, counts,
+                elapsedNanos());
+    }
+
+    /**
+     * Count rounds completed by a worker, publishing a snapshot on the
+     * snapshot thread if they pass a multiple of the snapshot rounds.
+     *
+     * @param rounds the rounds completed since the worker last published
+     */
+    void recordRounds(final long rounds) {
+        if (this.snapshotRounds <= 0) {
+            return;
+        }
+        long after = this.roundsCompleted.addAndGet(rounds);
+        if (after / this.snapshotRounds
+                != (after - rounds) / this.snapshotRounds) {
+            this.scheduler.execute(this::publishSnapshot);
+        }
+    }
+
+    /**
+     * Count the chunks already completed in the checkpoint as progress of
+     * this simulation.
+     *
+     * @return the win counts of the chunks already completed
+     */
+    private long[] resume() {
+        long[] counts = new long[ThreeSlipStrategy.values().length];
+        if (this.checkpoint == null) {
+            return counts;
+        }
+        counts = this.checkpoint.getCounts();
+        for (int i = 0; i < this.workers.size(); i++) {
+            if (this.checkpoint.isCompleted(i)) {
+                this.progress.get(i).publish(
+                        this.checkpoint.getRoundsCompleted(), counts);
+                break;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Write the checkpoint, leaving a failure to be retried next period.
+     */
+    private void writeCheckpoint() {
+        try {
+            writeCheckpointFile();
+        } catch (UncheckedIOException e) {
+            // The previous checkpoint file is intact; try again next period.
+        }
+    }
+
+    /**
+     * Write the checkpoint. Writes are serialized so that the periodic and
+     * the final checkpoint never share the temporary file, under a lock of
+     * their own so that chunks completing meanwhile are not held up.
+     */
+    private void writeCheckpointFile() {
+        synchronized (this.checkpointLock) {
+            try {
+                this.checkpoint.write(this.checkpointFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Publish a snapshot if subscribers have room for it.
+     */
+    private void publishSnapshot() {
+        this.publisher.offer(snapshot(), null);
+    }
+
+    /**
+     * Sum the win counts of finished chunks.
+     *
+     * @param chunks the finished chunks
+     * @return the total win counts
+     */
+    private static long[] sum(final List<CompletableFuture<long[]>> chunks) {
+        long[] counts = new long[ThreeSlipStrategy.values().length];
+        for (CompletableFuture<long[]> chunk : chunks) {
+            SimulationWorker.addTo(counts, chunk.join());
+        }
+        return counts;
+    }
+
+    /**
+     * Publish the final snapshot to any subscribers, then close the publisher
+     * and stop taking snapshots.
+     *
+     * @param counts the total win counts, if the simulation succeeded
+     * @param error  the failure, if the simulation failed
+     */
+    private void finish(final long[] counts, final Throwable error) {
+        if (!this.publisher.hasSubscribers()) {
+            this.publisher.close();
+            this.scheduler.shutdown();
+            return;
+        }
+        this.scheduler.execute(() -> {
+            if (error == null) {
+                this.publisher.submit(new SimulationSnapshot(
+                        this.numberOfRounds, this.numberOfRounds, counts,
+                        elapsedNanos()));
+                this.publisher.close();
+            } else {
+                this.publisher.closeExceptionally(error);
+            }
+            this.scheduler.shutdown();
+        });
+    }
+
+    /**
+     * Returns the nanoseconds since the simulation started.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    private long elapsedNanos() {
+        return System.nanoTime() - this.startNanos;
+    }
+}
@@ -0,0 +1,452 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An embedded HTTP server running simulations as jobs, with a JSON API:
+ *
+ * <pre>
+ * POST   /jobs             submit a job described by a JSON object, as
+ *                          accepted by SimulationJob; returns the job
+ * GET    /jobs             list every job
+ * GET    /jobs/{id}        the job's state, progress and wins so far
+ * GET    /jobs/{id}/events stream progress snapshots as JSON lines until
+ *                          the job finishes, then the job itself
+ * DELETE /jobs/{id}        cancel the job if running, otherwise forget it
+ * </pre>
+ *
+ * <p>Jobs simulate on a fixed number of threads shared round robin between
+ * them, so small jobs are not starved by large ones started earlier. A
+ * started job holds a worker for each of its chunks, so jobs start only
+ * while the chunks of the running jobs number at most 2^17, about 90 MB of
+ * workers; the rest wait in order of submission, and once 64 jobs are
+ * waiting, further submissions are refused with 503 until some start. Once
+ * more than 100 jobs have finished, the oldest are forgotten as new jobs
+ * are submitted.
+ * Requests are handled on their own threads: virtual threads where the JVM
+ * has them, otherwise a cached pool, so slow clients streaming progress
+ * never hold up the simulation threads or each other.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SimulationServer {
+
+    /** The largest request body accepted, in bytes. */
+    private static final int MAX_BODY = 1 << 16;
+    /** The default port. */
+    private static final int DEFAULT_PORT = 8080;
+    /** The largest number of finished jobs kept for clients to read. */
+    private static final int MAX_FINISHED_JOBS = 100;
+    /** The largest number of chunks of the running jobs, at least any job's. */
+    private static final long MAX_RUNNING_CHUNKS = 1L << 17;
+    /** The largest number of jobs waiting to start. */
+    private static final int MAX_WAITING_JOBS = 64;
+
+    /** The HTTP server. */
+    private final HttpServer server;
+    /** The threads handling requests. */
+    private final ExecutorService requests;
+    /** The threads simulating jobs. */
+    private final RoundRobinExecutor simulations;
+    /** The number of simulation threads. */
+    private final int parallelism;
+    /** The jobs by number. */
+    private final Map<Long, SimulationJob> jobs = new ConcurrentHashMap<>();
+    /** The number of the last job submitted. */
+    private final AtomicLong lastId = new AtomicLong();
+    /** The jobs waiting to start, oldest first. */
+    private final Deque<SimulationJob> waiting = new ArrayDeque<>();
+    /** The number of chunks of the running jobs, guarded by waiting. */
+    private long runningChunks;
+
+    /**
+     * Create a server. It does not accept requests until started.
+     *
+     * @param address the address to listen on
+     * @param threads the number of threads to simulate on
+     * @throws IOException if the address cannot be bound
+     */
+    public SimulationServer(final InetSocketAddress address, final int threads)
+            throws IOException {
+        this.parallelism = threads;
+        this.simulations = new RoundRobinExecutor(threads, "simulation");
+        this.requests = newRequestExecutor();
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(this.requests);
+        this.server.createContext("/jobs", this::handle);
+    }
+
+    /**
+     * Create the executor for requests: one virtual thread per request if
+     * the JVM supports them, otherwise a cached pool of daemon threads.
+     *
+     * @return the executor
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "simulation-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Start accepting requests.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stop accepting requests, cancel every job and stop all threads.
+     *
+     * @param delay the seconds to wait for exchanges in progress to finish
+     */
+    public void stop(final int delay) {
+        this.server.stop(delay);
+        for (SimulationJob job : this.jobs.values()) {
+            job.cancel();
+        }
+        this.simulations.shutdown();
+        this.requests.shutdownNow();
+    }
+
+    /**
+     * Returns the address the server is listening on.
+     * @return the bound address
+     */
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+
+    /**
+     * Route a request.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the response cannot be sent
+     */
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath()
+                    .replaceAll("/+$", "").split("/");
+            String method = exchange.getRequestMethod();
+            if (path.length == 2 && "POST".equals(method)) {
+                submit(exchange);
+            } else if (path.length == 2 && "GET".equals(method)) {
+                list(exchange);
+            } else if (path.length == 3 || path.length == 4) {
+                SimulationJob job = findJob(path[2]);
+                if (job == null) {
+                    send(exchange, 404, error("No such job"));
+                } else if (path.length == 4 && "events".equals(path[3])
+                        && "GET".equals(method)) {
+                    stream(exchange, job);
+                } else if (path.length == 3 && "GET".equals(method)) {
+                    send(exchange, 200, job.toJson());
+                } else if (path.length == 3 && "DELETE".equals(method)) {
+                    synchronized (this.waiting) {
+                        this.waiting.remove(job);
+                    }
+                    if (!job.cancel()) {
+                        this.jobs.remove(job.getId());
+                    }
+                    send(exchange, 200, job.toJson());
+                } else {
+                    send(exchange, 405, error("Method not allowed"));
+                }
+            } else {
+                send(exchange, 404, error("Not found"));
+            }
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Submit a new job, starting it in a lane of its own if there is room
+     * for its chunks and no job is waiting, otherwise queueing it, or
+     * refusing it if the queue is full.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the request cannot be read or the response sent
+     */
+    private void submit(final HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY + 1);
+        }
+        if (body.length > MAX_BODY) {
+            send(exchange, 413, error("Request too large"));
+            return;
+        }
+        Map<String, Object> request = Json.parseObject(
+                new String(body, StandardCharsets.UTF_8));
+        SimulationJob job = new SimulationJob(this.lastId.incrementAndGet(),
+                request, this.parallelism);
+        boolean startNow;
+        synchronized (this.waiting) {
+            startNow = this.waiting.isEmpty() && this.runningChunks
+                    + job.getChunkCount() <= MAX_RUNNING_CHUNKS;
+            if (startNow) {
+                this.runningChunks += job.getChunkCount();
+            } else if (this.waiting.size() < MAX_WAITING_JOBS) {
+                this.waiting.add(job);
+            } else {
+                exchange.getResponseHeaders().set("Retry-After", "10");
+                send(exchange, 503, error("Too many jobs waiting"));
+                return;
+            }
+        }
+        pruneFinishedJobs();
+        this.jobs.put(job.getId(), job);
+        if (startNow) {
+            start(job);
+        }
+        exchange.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+        send(exchange, 201, job.toJson());
+    }
+
+    /**
+     * Start a job whose chunks have been counted as running, in a lane of
+     * its own, and start waiting jobs once it finishes.
+     *
+     * @param job the job
+     */
+    private void start(final SimulationJob job) {
+        job.start(this.simulations.newLane())
+                .whenComplete((result, error) -> finished(job));
+    }
+
+    /**
+     * Release the chunks of a finished job and start the waiting jobs, in
+     * order, for as long as their chunks fit. Jobs cancelled while waiting
+     * are dropped from the queue.
+     *
+     * @param job the finished job
+     */
+    private void finished(final SimulationJob job) {
+        List<SimulationJob> ready = new ArrayList<>();
+        synchronized (this.waiting) {
+            this.runningChunks -= job.getChunkCount();
+            while (!this.waiting.isEmpty()) {
+                SimulationJob next = this.waiting.peek();
+                if (next.isDone()) {
+                    this.waiting.remove();
+                } else if (this.runningChunks + next.getChunkCount()
+                        <= MAX_RUNNING_CHUNKS) {
+                    this.waiting.remove();
+                    this.runningChunks += next.getChunkCount();
+                    ready.add(next);
+                } else {
+                    break;
+                }
+            }
+        }
+        for (SimulationJob next : ready) {
+            start(next);
+        }
+    }
+
+    /**
+     * Forget the oldest finished jobs, keeping at most MAX_FINISHED_JOBS.
+     */
+    private void pruneFinishedJobs() {
+        List<Long> finished = new ArrayList<>();
+        for (SimulationJob job : this.jobs.values()) {
+            if (job.isDone()) {
+                finished.add(job.getId());
+            }
+        }
+        Collections.sort(finished);
+        for (int i = 0; i < finished.size() - MAX_FINISHED_JOBS; i++) {
+            this.jobs.remove(finished.get(i));
+        }
+    }
+
+    /**
+     * List every job.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the response cannot be sent
+     */
+    private void list(final HttpExchange exchange) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (SimulationJob job : this.jobs.values()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(job.toJson());
+        }
+        send(exchange, 200, json.append(']').toString());
+    }
+
+    /**
+     * Stream the progress of a job as JSON lines, one per snapshot, ending
+     * with the job itself once it finishes. Only the latest snapshot is kept
+     * for a client that reads slower than snapshots are taken, so a slow
+     * client skips snapshots rather than holding them in memory, and the
+     * subscription is cancelled however the stream ends. The stream of a
+     * job waiting to start stays empty until it starts.
+     *
+     * @param exchange the request and its response
+     * @param job      the job
+     * @throws IOException if the response cannot be sent
+     */
+    private void stream(final HttpExchange exchange, final SimulationJob job)
+            throws IOException {
+        BlockingQueue<Object> events = new ArrayBlockingQueue<>(1);
+        Object end = new Object();
+        AtomicReference<Flow.Subscription> subscribed =
+                new AtomicReference<>();
+        Flow.Subscriber<SimulationSnapshot> subscriber =
+                new Flow.Subscriber<SimulationSnapshot>() {
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscribed.set(subscription);
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            public void onNext(final SimulationSnapshot snapshot) {
+                replace(snapshot);
+            }
+
+            public void onError(final Throwable error) {
+                replace(end);
+            }
+
+            public void onComplete() {
+                replace(end);
+            }
+
+            /**
+             * Replace the event not yet streamed, if any. Events arrive one
+             * at a time, and the streaming thread only takes them, so the
+             * queue is always empty when the event is offered.
+             *
+             * @param event the new event
+             */
+            private void replace(final Object event) {
+                events.clear();
+                events.offer(event);
+            }
+        };
+        try {
+            exchange.getResponseHeaders().set("Content-Type",
+                    "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            SimulationRun run = job.awaitRun();
+            if (run == null) {
+                events.offer(end);
+            } else {
+                run.subscribe(subscriber);
+            }
+            while (true) {
+                Object event = events.take();
+                if (event == end) {
+                    job.awaitDone();
+                }
+                String line = event == end ? job.toJson()
+                        : job.toJson((SimulationSnapshot) event);
+                out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                if (event == end) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Flow.Subscription subscription = subscribed.get();
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    /**
+     * Find a job by the number in its path.
+     *
+     * @param id the number of the job, as text
+     * @return the job, or null if there is none
+     */
+    private SimulationJob findJob(final String id) {
+        try {
+            return this.jobs.get(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Describe an error as JSON.
+     *
+     * @param message the error message
+     * @return a JSON object
+     */
+    private static String error(final String message) {
+        return "{\"error\":" + Json.quote(String.valueOf(message)) + "}";
+    }
+
+    /**
+     * Send a JSON response.
+     *
+     * @param exchange the request and its response
+     * @param status   the HTTP status code
+     * @param json     the body of the response
+     * @throws IOException if the response cannot be sent
+     */
+    private static void send(final HttpExchange exchange, final int status,
+                             final String json) throws IOException {
+        byte[] body = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Run a server on the loopback interface until the JVM exits.
+     *
+     * @param args the port (default 8080) and the number of simulation
+     *             threads (default the number of processors)
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(final String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        SimulationServer server = new SimulationServer(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), port), threads);
+        server.start();
+        System.out.println("Listening on " + server.getAddress());
+    }
+}
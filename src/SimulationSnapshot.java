@@ -0,0 +1,106 @@
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the progress of a simulation.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class SimulationSnapshot {
+
+    /** The number of nanoseconds in a second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /** The number of rounds completed. */
+    private final long roundsCompleted;
+    /** The number of rounds the simulation will run. */
+    private final long numberOfRounds;
+    /** The number of wins of each strategy so far. */
+    private final Map<ThreeSlipStrategy, Long> winMap;
+    /** The nanoseconds since the simulation started. */
+    private final long elapsedNanos;
+
+    /**
+     * Create a snapshot.
+     *
+     * @param completed the number of rounds completed
+     * @param total     the number of rounds the simulation will run
+     * @param counts    number of wins indexed by the ordinal of the
+     *                  ThreeSlipStrategy they are associated with
+     * @param elapsed   the nanoseconds since the simulation started
+     */
+    public SimulationSnapshot(final long completed, final long total,
+                              final long[] counts, final long elapsed) {
+        this.roundsCompleted = completed;
+        this.numberOfRounds = total;
+        this.winMap = Collections.unmodifiableMap(
+                SimulationWorker.toWinMap(counts));
+        this.elapsedNanos = elapsed;
+    }
+
+    /**
+     * Returns the number of rounds completed.
+     * @return the number of rounds completed
+     */
+    public long getRoundsCompleted() {
+        return this.roundsCompleted;
+    }
+
+    /**
+     * Returns the number of rounds the simulation will run.
+     * @return the total number of rounds
+     */
+    public long getNumberOfRounds() {
+        return this.numberOfRounds;
+    }
+
+    /**
+     * Predicate to check if this is the final snapshot of the simulation.
+     * @return true if every round has completed
+     */
+    public boolean isComplete() {
+        return this.roundsCompleted == this.numberOfRounds;
+    }
+
+    /**
+     * Returns the number of wins of each strategy so far.
+     * @return unmodifiable map from ThreeSlipStrategy object to number of
+     * wins associated with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> getWinMap() {
+        return this.winMap;
+    }
+
+    /**
+     * Returns the win rate of a strategy so far.
+     * @param strategy the strategy
+     * @return the fraction of completed rounds the strategy won, or 0 if no
+     * rounds have completed
+     */
+    public double getRate(final ThreeSlipStrategy strategy) {
+        if (this.roundsCompleted == 0) {
+            return 0;
+        }
+        return (double) this.winMap.get(strategy) / this.roundsCompleted;
+    }
+
+    /**
+     * Returns the nanoseconds since the simulation started.
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Returns the average number of rounds completed per second so far.
+     * @return the rounds per second
+     */
+    public double getRoundsPerSecond() {
+        if (this.elapsedNanos == 0) {
+            return 0;
+        }
+        return this.roundsCompleted * NANOS_PER_SECOND / this.elapsedNanos;
+    }
+}
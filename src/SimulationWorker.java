@@ -0,0 +1,339 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Simulates a chunk of rounds of the three-slip game in a single pass,
+ * scoring a set of players against the same deals. Rounds are dealt a block
+ * at a time, and every player is scored against the whole block: by a
+ * BlockKernel for the built-in players, or a deal at a time through
+ * chooseIndexFrom for players that need whole deals, in which case the
+ * block keeps the deals and holds fewer rounds. A worker owns its deal
+ * source, deal block and players, so chunks can run on different threads
+ * without sharing any state.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SimulationWorker implements Callable<long[]> {
+
+    /** The number of rounds between publications of progress. */
+    private static final long PUBLISH_ROUNDS = 1L << 14;
+    /** The number of rounds in each block, dividing PUBLISH_ROUNDS. */
+    private static final int BLOCK_ROUNDS = 1 << 10;
+    /** The greatest number of slip values a block keeps for its deals. */
+    private static final int BLOCK_DEAL_VALUES = 1 << 20;
+    /** The kernel with which blocks are scored. */
+    private static final BlockKernel KERNEL = BlockKernel.getDefault();
+
+    /** The number of rounds to simulate. */
+    private final long numberOfRounds;
+    /** The players scored against each deal. */
+    private final Player[] players;
+    /** The source from which rounds are dealt. */
+    private final DealSource source;
+    /** The number of slips in each deal. */
+    private final int numslips;
+    /** The block into which rounds are dealt, once the worker runs. */
+    private DealBlock block;
+    /** Where this worker publishes its progress, if anywhere. */
+    private WorkerProgress progress;
+    /** The time spent dealing in the current batch, if timed. */
+    private long generationNanos;
+    /** The time spent scoring in the current batch, if timed. */
+    private long scoringNanos;
+
+    /**
+     * Create a worker for a chunk of rounds.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param players        the players to score, which must not be shared
+     *                       with another worker unless they are
+     *                       ConcurrentPlayers
+     * @param source         the source from which rounds are dealt, which
+     *                       must not be shared with another worker
+     * @param numberOfSlips  the number of slips in each deal
+     */
+    public SimulationWorker(final long numberOfRounds, final Player[] players,
+                            final DealSource source,
+                            final int numberOfSlips) {
+        this.numberOfRounds = numberOfRounds;
+        this.players = players;
+        this.source = source;
+        this.numslips = numberOfSlips;
+    }
+
+    /**
+     * Publish this worker's progress to the given cell every PUBLISH_ROUNDS
+     * rounds. Must be called before the worker runs.
+     *
+     * @param cell the cell to publish progress to
+     */
+    public void setProgress(final WorkerProgress cell) {
+        this.progress = cell;
+    }
+
+    /**
+     * Simulate this worker's rounds.
+     *
+     * @return number of wins indexed by the ordinal of the ThreeSlipStrategy
+     * they are associated with
+     * @throws CancellationException if the simulation publishing this
+     *                               worker's progress is cancelled
+     */
+    public long[] call() {
+        this.block = newBlock();
+        long done = 0;
+        while (done < this.numberOfRounds) {
+            if (this.progress != null && this.progress.isCancelled()) {
+                throw new CancellationException("Simulation cancelled");
+            }
+            long rounds = Math.min(PUBLISH_ROUNDS, this.numberOfRounds - done);
+            playBatch(rounds);
+            done += rounds;
+            if (this.progress != null) {
+                this.progress.publish(done, getWinCounts(this.players));
+            }
+        }
+        this.block = null;
+        return getWinCounts(this.players);
+    }
+
+    /**
+     * Create the block into which this worker deals. If any player needs
+     * whole deals, the block keeps them, and holds as many rounds as fit in
+     * BLOCK_DEAL_VALUES values, so blocks of many slips stay small.
+     *
+     * @return a new block
+     */
+    private DealBlock newBlock() {
+        boolean keepDeals = false;
+        for (Player player : this.players) {
+            keepDeals |= player.needsDeals();
+        }
+        if (!keepDeals) {
+            return new DealBlock(BLOCK_ROUNDS, this.numslips);
+        }
+        int rounds = Math.max(1,
+                Math.min(BLOCK_ROUNDS, BLOCK_DEAL_VALUES / this.numslips));
+        return new DealBlock(rounds, this.numslips, true);
+    }
+
+    /**
+     * Simulate a batch of rounds, timing it for EngineMetrics and a
+     * SimulationBatchEvent only while either is enabled. No event is created
+     * until Flight Recorder has started, since loading the first event class
+     * initializes Flight Recorder, which costs more than a short simulation.
+     *
+     * @param rounds the number of rounds to simulate
+     */
+    private void playBatch(final long rounds) {
+        if (!EngineMetrics.ENABLED && !FlightRecorder.isInitialized()) {
+            play(rounds, false);
+            return;
+        }
+        SimulationBatchEvent event = new SimulationBatchEvent();
+        if (!EngineMetrics.ENABLED && !event.isEnabled()) {
+            play(rounds, false);
+            return;
+        }
+        long retries = this.source.getRetryCount();
+        long allocated = EngineMetrics.currentThreadAllocatedBytes();
+        this.generationNanos = 0;
+        this.scoringNanos = 0;
+        event.begin();
+        long start = System.nanoTime();
+        play(rounds, true);
+        long elapsed = System.nanoTime() - start;
+        event.end();
+        retries = this.source.getRetryCount() - retries;
+        allocated = EngineMetrics.currentThreadAllocatedBytes() - allocated;
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.getInstance().recordBatch(rounds, elapsed,
+                    this.generationNanos, this.scoringNanos, retries,
+                    allocated);
+        }
+        if (event.shouldCommit()) {
+            event.rounds = rounds;
+            event.generationTime = this.generationNanos;
+            event.scoringTime = this.scoringNanos;
+            event.dealRetries = retries;
+            event.allocated = allocated;
+            event.commit();
+        }
+    }
+
+    /**
+     * Simulate a number of rounds, tallying the wins in the players.
+     *
+     * @param rounds the number of rounds to simulate
+     * @param timed  whether or not to time dealing and scoring each block
+     */
+    private void play(final long rounds, final boolean timed) {
+        long done = 0;
+        while (done < rounds) {
+            int size = (int) Math.min(this.block.capacity(), rounds - done);
+            long start = timed ? System.nanoTime() : 0;
+            this.block.fill(this.source, size);
+            long dealt = timed ? System.nanoTime() : 0;
+            for (Player player : this.players) {
+                player.tallyBlock(this.block, KERNEL);
+            }
+            if (timed) {
+                long scored = System.nanoTime();
+                this.generationNanos += dealt - start;
+                this.scoringNanos += scored - dealt;
+            }
+            done += size;
+        }
+    }
+
+    /**
+     * Credit the given player with a win if the index it chose is the index
+     * of the winning slip, recording whether the win came from keeping or
+     * discarding the second slip.
+     *
+     * @param player the player who has chosen a slip this round
+     * @param choice the index of the slip the player chose
+     * @param winner the index of the slip with the largest value this round
+     */
+    public static void tally(final Player player, final int choice,
+                             final int winner) {
+        if (choice == winner) {
+            player.incrementWinCount();
+            if (choice == 1) {
+                player.incrementKeepSecondCount();
+            }
+            if (choice == 2) {
+                player.incrementDiscardSecondCount();
+            }
+        }
+    }
+
+    /**
+     * Collect the win counts of the given players, including the two cases of
+     * the informed strategy.
+     *
+     * @param players the players whose win counts to collect
+     * @return number of wins indexed by the ordinal of the ThreeSlipStrategy
+     * they are associated with
+     */
+    public static long[] getWinCounts(final Player[] players) {
+        long[] counts = new long[ThreeSlipStrategy.values().length];
+        for (Player player : players) {
+            counts[player.getStrategy().ordinal()] = player.getWinCount();
+            if (player.isInformed()) {
+                counts[ThreeSlipStrategy.STOP_IF_BETTER.ordinal()] =
+                        player.getKeepSecondCount();
+                counts[ThreeSlipStrategy.CONTINUE_IF_WORSE.ordinal()] =
+                        player.getDiscardSecondCount();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Add the given win counts to a running total.
+     *
+     * @param total  the running total of win counts
+     * @param counts the win counts to add
+     */
+    public static void addTo(final long[] total, final long[] counts) {
+        for (int i = 0; i < total.length; i++) {
+            total[i] += counts[i];
+        }
+    }
+
+    /**
+     * Map each ThreeSlipStrategy to its number of wins.
+     *
+     * @param counts number of wins indexed by the ordinal of the
+     *               ThreeSlipStrategy they are associated with
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public static Map<ThreeSlipStrategy, Long> toWinMap(final long[] counts) {
+        HashMap<ThreeSlipStrategy, Long> winMap = new HashMap<>();
+        for (ThreeSlipStrategy strategy : ThreeSlipStrategy.values()) {
+            winMap.put(strategy, counts[strategy.ordinal()]);
+        }
+        return winMap;
+    }
+
+    /**
+     * Run tasks on a new pool of threads, which is shut down once they have
+     * finished or one has failed.
+     *
+     * @param tasks       the tasks to run
+     * @param parallelism the number of threads to run on
+     * @return the result of each task, in the order of the tasks
+     * @throws IllegalStateException if the thread is interrupted or a task
+     *                               fails, with the failure as its cause
+     */
+    public static List<long[]> runEach(
+            final List<? extends Callable<long[]>> tasks,
+            final int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>(tasks.size());
+            for (Callable<long[]> task : tasks) {
+                futures.add(pool.submit(task));
+            }
+            List<long[]> results = new ArrayList<>(tasks.size());
+            for (Future<long[]> result : futures) {
+                results.add(await(result));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Run tasks on a new pool of threads and add up their results.
+     *
+     * @param tasks       the tasks to run
+     * @param parallelism the number of threads to run on
+     * @param length      the length of each task's result
+     * @return the sum of the results
+     * @throws IllegalStateException if the thread is interrupted or a task
+     *                               fails, with the failure as its cause
+     */
+    public static long[] runAll(final List<? extends Callable<long[]>> tasks,
+                                final int parallelism, final int length) {
+        long[] total = new long[length];
+        for (long[] counts : runEach(tasks, parallelism)) {
+            addTo(total, counts);
+        }
+        return total;
+    }
+
+    /**
+     * Wait for the result of a simulation.
+     *
+     * @param result the result to wait for
+     * @param <T>    the type of the result
+     * @return the result
+     * @throws IllegalStateException if the thread is interrupted or the
+     *                               simulation fails, with the failure as
+     *                               its cause
+     */
+    public static <T> T await(final Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed",
+                    e.getCause());
+        }
+    }
+}
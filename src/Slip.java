@@ -1,4 +1,4 @@
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents slip of paper for 3-slip game.
@@ -16,8 +16,7 @@ public class Slip {
      * 0..Integer.MAX_VALUE.
      */
     public Slip() {
-        Random rng = new Random();
-        this.value = rng.nextInt(Integer.MAX_VALUE);
+        this.value = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
     }
 
     /**
@@ -26,8 +25,38 @@ public class Slip {
      * @param maximum the largest value of the range
      */
     public Slip(final int minimum, final int maximum) {
-        Random rng = new Random();
-        this.value = rng.nextInt(maximum - minimum + 1) + minimum;
+        this.value = ThreadLocalRandom.current()
+                .nextInt(maximum - minimum + 1) + minimum;
+    }
+
+    /**
+     * Constructor that sets value to a random integer in the range
+     * 0..Integer.MAX_VALUE drawn from the given source.
+     * @param random the source from which to draw the value
+     */
+    public Slip(final RandomSource random) {
+        this.value = random.nextInt(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor that sets value to a random integer in the specified range
+     * drawn from the given source.
+     * @param random  the source from which to draw the value
+     * @param minimum the smallest value of the range
+     * @param maximum the largest value of the range
+     */
+    public Slip(final RandomSource random, final int minimum,
+                final int maximum) {
+        this.value = random.nextInt(maximum - minimum + 1) + minimum;
+    }
+
+    /**
+     * Constructor that wraps a value that has already been drawn, such as one
+     * value of a deal from a DealGenerator.
+     * @param slipValue the value written on this slip
+     */
+    public Slip(final int slipValue) {
+        this.value = slipValue;
     }
 
     /**
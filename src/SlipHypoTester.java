@@ -1,6 +1,11 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 /**
  * Three slip problem simulation to test hypotheses.
@@ -31,12 +36,41 @@ public class SlipHypoTester {
      * Default int value used for bounds when bounds are not needed.
      */
     private static final int DEFAULT = 0;
+    /**
+     * The number of rounds in each chunk of a single-pass simulation. The
+     * ResultCache caches results chunk by chunk.
+     */
+    static final long CHUNK_ROUNDS = 1L << 20;
+    /**
+     * The number of rounds in each batch recorded in EngineMetrics by a
+     * timed per-strategy simulation.
+     */
+    private static final long METRICS_ROUNDS = 1L << 14;
+    /** The number of rounds dealt at once when simulate is timed. */
+    private static final int TIMED_BLOCK_ROUNDS = 1 << 8;
+    /**
+     * The number of rounds between checks of an adaptive simulation.
+     */
+    private static final long BATCH_ROUNDS = 1L << 14;
+    /**
+     * The seed from which the rounds of a simulation are dealt.
+     */
+    private long seed;
+    /**
+     * The random number generator with which the rounds of a simulation are
+     * dealt.
+     */
+    private RandomAlgorithm algorithm;
+    /**
+     * The distribution of slip values, or null for uniform integers.
+     */
+    private ValueDistribution distribution;
 
     /**
      * Initialize with the standard number of slips.
      */
     public SlipHypoTester() {
-        this.numslips = STANDARD_NUMBER_OF_SLIPS;
+        this(STANDARD_NUMBER_OF_SLIPS);
     }
 
     /**
@@ -46,37 +80,166 @@ public class SlipHypoTester {
      * @param numberOfSlips the number of slips to use for this simulation
      */
     public SlipHypoTester(final int numberOfSlips) {
+        this(numberOfSlips, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Initialize with a given number of slips and a seed from which the
+     * rounds of simulations are dealt, so that they can be reproduced.
+     *
+     * @param numberOfSlips the number of slips to use for this simulation
+     * @param masterSeed    the seed from which rounds are dealt
+     */
+    public SlipHypoTester(final int numberOfSlips, final long masterSeed) {
+        this(numberOfSlips, RandomAlgorithm.SPLITTABLE_RANDOM, masterSeed);
+    }
+
+    /**
+     * Initialize with a given number of slips, the random number generator
+     * with which rounds are dealt, and a seed from which the rounds of
+     * simulations are dealt, so that they can be reproduced.
+     *
+     * @param numberOfSlips the number of slips to use for this simulation
+     * @param rng           the random number generator with which rounds
+     *                      are dealt
+     * @param masterSeed    the seed from which rounds are dealt
+     */
+    public SlipHypoTester(final int numberOfSlips, final RandomAlgorithm rng,
+                          final long masterSeed) {
         this.numslips = numberOfSlips;
+        this.algorithm = rng;
+        this.seed = masterSeed;
     }
 
     /**
-     * Generate a new array of slips whose length is the number of slips
-     * specified for this SlipHypoTester. Uses the empty constructor for Slip
-     * if hasBounds is false; otherwise uses the bounded constructor for Slip
-     * with given bounds.
+     * Initialize with a given number of slips, the random number generator
+     * and seed from which rounds are dealt, and the distribution from which
+     * slip values are drawn in place of uniform integers. Rounds are dealt
+     * as ints in the order of the values rather than as the values, which is
+     * all the built-in strategies compare. Since the values of a round are
+     * drawn independently, every order is equally likely whatever the
+     * distribution, so the win counts of the built-in strategies have the
+     * same distribution as with uniform integers; only the rounds dealt for
+     * a seed differ. Rules, which may compare values with constants, cannot
+     * be scored against such rounds and are rejected, and traces record the
+     * ints rather than the values. Ranges of values do not apply, and
+     * simulations of this tester cannot be checkpointed or cached, since
+     * neither records a distribution.
      *
+     * @param numberOfSlips the number of slips to use for this simulation
+     * @param rng           the random number generator with which rounds
+     *                      are dealt
+     * @param masterSeed    the seed from which rounds are dealt
+     * @param values        the distribution of slip values
+     * @throws IllegalArgumentException if the distribution has fewer
+     *                                  distinct values than there are slips
+     */
+    public SlipHypoTester(final int numberOfSlips, final RandomAlgorithm rng,
+                          final long masterSeed,
+                          final ValueDistribution values) {
+        this(numberOfSlips, rng, masterSeed);
+        if (values.getSupportSize() < numberOfSlips) {
+            throw new IllegalArgumentException("The distribution has fewer"
+                    + " than " + numberOfSlips + " distinct values");
+        }
+        this.distribution = values;
+    }
+
+    /**
+     * Access the number of slips in each round.
+     *
+     * @return the number of slips of this tester
+     */
+    public int getNumberOfSlips() {
+        return this.numslips;
+    }
+
+    /**
+     * Access the seed from which the rounds of simulations are dealt.
+     *
+     * @return the seed of this tester
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Access the random number generator with which the rounds of
+     * simulations are dealt.
+     *
+     * @return the random number generator of this tester
+     */
+    public RandomAlgorithm getRandomAlgorithm() {
+        return this.algorithm;
+    }
+
+    /**
+     * Access the distribution from which slip values are drawn.
+     *
+     * @return the distribution of this tester, or null if values are
+     * uniform integers
+     */
+    public ValueDistribution getDistribution() {
+        return this.distribution;
+    }
+
+    /**
+     * Create the source from which every stream of a simulation is split.
+     * A new source is created for each simulation, so simulations with the
+     * same parameters deal the same rounds.
+     *
+     * @return a source seeded with this tester's seed
+     */
+    private RandomSource newMasterSource() {
+        return this.algorithm.create(this.seed);
+    }
+
+    /**
+     * Create a new deal generator for this SlipHypoTester's number of slips
+     * drawing from the given stream. Values are drawn from this tester's
+     * distribution if it has one; otherwise as by the empty constructor for
+     * Slip if hasBounds is false, or from the range defined by the given
+     * bounds.
+     *
+     * @param random    the stream from which values are drawn, which must
+     *                  not be shared with another worker
      * @param hasBounds whether or not bounds are specified for the slip values
      * @param minimum   the smallest value of the range for slips, if specified
      * @param maximum   the largest value of the range for slips, if specified
-     * @return an array of slips with length numslips
+     * @return a deal generator for a single worker
+     * @throws IllegalArgumentException if bounds are specified for a tester
+     *                                  with a distribution
      */
-    private Slip[] generateSlips(final boolean hasBounds,
-                                 final int minimum, final int maximum) {
-        Slip[] slips = new Slip[this.numslips];
-        ArrayList<Integer> values = new ArrayList<>();
-        int i = 0;
-        while (i < this.numslips) {
-            Slip slip;
+    private DealSource newDealGenerator(final RandomSource random,
+                                        final boolean hasBounds,
+                                        final int minimum,
+                                        final int maximum) {
+        if (this.distribution != null) {
             if (hasBounds) {
-                slip = new Slip(minimum, maximum);
-            } else {
-                slip = new Slip();
-            }
-            if (!values.contains(slip.value())) {
-                slips[i] = slip;
-                values.add(slip.value());
-                i++;
+                throw new IllegalArgumentException("Ranges of slip values do"
+                        + " not apply to a distribution");
             }
+            return new DistributionDealGenerator(this.numslips,
+                    this.distribution, random);
+        }
+        return new DealGenerator(this.numslips, hasBounds, minimum, maximum,
+                random);
+    }
+
+    /**
+     * Generate a new array of slips whose length is the number of slips
+     * specified for this SlipHypoTester. The slips are views over a deal
+     * written into the given buffer by the given source.
+     *
+     * @param source the source from which to deal the slip values
+     * @param deal   the buffer into which the slip values are dealt
+     * @return an array of slips with length numslips
+     */
+    private Slip[] generateSlips(final DealSource source, final int[] deal) {
+        source.fill(deal);
+        Slip[] slips = new Slip[this.numslips];
+        for (int i = 0; i < this.numslips; i++) {
+            slips[i] = new Slip(deal[i]);
         }
         return slips;
     }
@@ -147,9 +310,11 @@ public class SlipHypoTester {
                                                       final int minimum,
                                                       final int maximum) {
         HashMap<ThreeSlipStrategy, Long> winMap = new HashMap<>();
+        RandomSource master = newMasterSource();
         for (ThreeSlipStrategy strategy : STRATEGIES) {
             Player player = getNewPlayerWith(strategy);
-            simulate(numberOfRounds, player, hasBounds, minimum, maximum);
+            simulate(numberOfRounds, player, newDealGenerator(master.split(),
+                    hasBounds, minimum, maximum));
             winMap.put(player.getStrategy(), player.getWinCount());
             if (player.isInformed()) {
                 mapInformedContributions(winMap, player);
@@ -158,6 +323,920 @@ public class SlipHypoTester {
         return winMap;
     }
 
+    /**
+     * Simulates the game for a specified number of rounds and specified range
+     * of values, scoring every strategy against the same generated rounds.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param minimum        the smallest of the range of slip values
+     * @param maximum        the largest of the range of slip values
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> simulateSharedPlay(
+            final long numberOfRounds, final int minimum, final int maximum) {
+        return simulateSharedPlay(numberOfRounds, true, minimum, maximum);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds, scoring every
+     * strategy against the same generated rounds.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> simulateSharedPlay(
+            final long numberOfRounds) {
+        return simulateSharedPlay(numberOfRounds, false, DEFAULT, DEFAULT);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds in a single pass.
+     * Each round is generated once and every strategy chooses from the same
+     * slips, so the win counts of the strategies are paired by round. Rounds
+     * are dealt as primitive values into one reusable buffer per chunk, so no
+     * objects are allocated per round.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param hasBounds      whether or not bounds are specified for the slip
+     *                       values
+     * @param minimum        the smallest value of the range for slips, if
+     *                       specified
+     * @param maximum        the largest value of the range for slips, if
+     *                       specified
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    private Map<ThreeSlipStrategy, Long> simulateSharedPlay(
+            final long numberOfRounds, final boolean hasBounds,
+            final int minimum, final int maximum) {
+        long[] counts = new long[ThreeSlipStrategy.values().length];
+        for (SimulationWorker worker : splitIntoChunks(numberOfRounds,
+                hasBounds, minimum, maximum)) {
+            SimulationWorker.addTo(counts, worker.call());
+        }
+        return SimulationWorker.toWinMap(counts);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds and specified range
+     * of values as by simulateSharedPlay, recording every deal to a trace
+     * file that replaySharedPlay can replay.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param minimum        the smallest of the range of slip values
+     * @param maximum        the largest of the range of slip values
+     * @param trace          the trace file to write
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     * @throws IOException if the trace cannot be written
+     */
+    public Map<ThreeSlipStrategy, Long> recordSharedPlay(
+            final long numberOfRounds, final int minimum, final int maximum,
+            final Path trace) throws IOException {
+        return recordSharedPlay(numberOfRounds, true, minimum, maximum, trace);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds as by
+     * simulateSharedPlay, recording every deal to a trace file that
+     * replaySharedPlay can replay.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param trace          the trace file to write
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     * @throws IOException if the trace cannot be written
+     */
+    public Map<ThreeSlipStrategy, Long> recordSharedPlay(
+            final long numberOfRounds, final Path trace) throws IOException {
+        return recordSharedPlay(numberOfRounds, false, DEFAULT, DEFAULT,
+                trace);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds in a single pass,
+     * recording every deal. The rounds are dealt in the same chunks as by
+     * simulateSharedPlay, so the result is the same for the same seed.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param hasBounds      whether or not bounds are specified for the slip
+     *                       values
+     * @param minimum        the smallest value of the range for slips, if
+     *                       specified
+     * @param maximum        the largest value of the range for slips, if
+     *                       specified
+     * @param trace          the trace file to write
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     * @throws IOException if the trace cannot be written
+     */
+    private Map<ThreeSlipStrategy, Long> recordSharedPlay(
+            final long numberOfRounds, final boolean hasBounds,
+            final int minimum, final int maximum, final Path trace)
+            throws IOException {
+        long[] counts = new long[ThreeSlipStrategy.values().length];
+        RandomSource master = newMasterSource();
+        try (DealTraceWriter writer = new DealTraceWriter(trace,
+                this.numslips)) {
+            for (long start = 0; start < numberOfRounds;
+                 start += CHUNK_ROUNDS) {
+                long rounds = Math.min(CHUNK_ROUNDS, numberOfRounds - start);
+                SimulationWorker worker = new SimulationWorker(rounds,
+                        getNewPlayers(), writer.tracing(newDealGenerator(
+                                master.split(), hasBounds, minimum, maximum)),
+                        this.numslips);
+                SimulationWorker.addTo(counts, worker.call());
+            }
+        }
+        return SimulationWorker.toWinMap(counts);
+    }
+
+    /**
+     * Replays every round of a trace file, scoring every strategy against
+     * the recorded deals.
+     *
+     * @param trace the trace file to replay, recorded with this tester's
+     *              number of slips
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     * @throws IOException if the trace cannot be read
+     */
+    public Map<ThreeSlipStrategy, Long> replaySharedPlay(final Path trace)
+            throws IOException {
+        try (DealTraceReader reader = openTrace(trace)) {
+            Player[] players = getNewPlayers();
+            new SimulationWorker(reader.getNumberOfRounds(), players, reader,
+                    this.numslips).call();
+            return SimulationWorker.toWinMap(
+                    SimulationWorker.getWinCounts(players));
+        }
+    }
+
+    /**
+     * Replays every round of a trace file with the given player, which
+     * chooses from Slip objects as in simulatePlay. A new Player
+     * implementation can so be evaluated on the same deals as the old ones.
+     *
+     * @param trace  the trace file to replay, recorded with this tester's
+     *               number of slips
+     * @param player the player with which to replay the game
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     * @throws IOException if the trace cannot be read
+     */
+    public Map<ThreeSlipStrategy, Long> replayPlay(final Path trace,
+                                                   final Player player)
+            throws IOException {
+        Map<ThreeSlipStrategy, Long> winMap = new HashMap<>();
+        try (DealTraceReader reader = openTrace(trace)) {
+            simulate(reader.getNumberOfRounds(), player, reader);
+        }
+        winMap.put(player.getStrategy(), player.getWinCount());
+        if (player.isInformed()) {
+            mapInformedContributions(winMap, player);
+        }
+        return winMap;
+    }
+
+    /**
+     * Open a trace file recorded with this tester's number of slips.
+     *
+     * @param trace the trace file
+     * @return a reader of the trace
+     * @throws IOException if the trace cannot be read or has a different
+     *                     number of slips
+     */
+    private DealTraceReader openTrace(final Path trace) throws IOException {
+        DealTraceReader reader = new DealTraceReader(trace);
+        if (reader.getNumberOfSlips() != this.numslips) {
+            reader.close();
+            throw new IOException(trace + " has " + reader.getNumberOfSlips()
+                    + " slips per deal, not " + this.numslips);
+        }
+        return reader;
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds and specified range
+     * of values on several threads, scoring every strategy against the same
+     * generated rounds.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param minimum        the smallest of the range of slip values
+     * @param maximum        the largest of the range of slip values
+     * @param parallelism    the number of threads to simulate on
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> simulatePlayInParallel(
+            final long numberOfRounds, final int minimum, final int maximum,
+            final int parallelism) {
+        return simulatePlayInParallel(numberOfRounds, true, minimum, maximum,
+                parallelism);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds on several threads,
+     * scoring every strategy against the same generated rounds.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param parallelism    the number of threads to simulate on
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> simulatePlayInParallel(
+            final long numberOfRounds, final int parallelism) {
+        return simulatePlayInParallel(numberOfRounds, false, DEFAULT, DEFAULT,
+                parallelism);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds on several threads.
+     * The rounds are split into chunks of a fixed size, each dealt from its
+     * own stream split from this tester's master source, and the win
+     * counts of the chunks are summed. The chunks do not depend on the number
+     * of threads, so the result is the same as that of simulateSharedPlay for
+     * the same seed.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param hasBounds      whether or not bounds are specified for the slip
+     *                       values
+     * @param minimum        the smallest value of the range for slips, if
+     *                       specified
+     * @param maximum        the largest value of the range for slips, if
+     *                       specified
+     * @param parallelism    the number of threads to simulate on
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    private Map<ThreeSlipStrategy, Long> simulatePlayInParallel(
+            final long numberOfRounds, final boolean hasBounds,
+            final int minimum, final int maximum, final int parallelism) {
+        return newSimulationRun(numberOfRounds, hasBounds, minimum, maximum,
+                parallelism).start().await();
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds and specified range
+     * of values on several threads, all scoring one shared player for each
+     * strategy.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param minimum        the smallest of the range of slip values
+     * @param maximum        the largest of the range of slip values
+     * @param parallelism    the number of threads to simulate on
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> simulateConcurrentPlay(
+            final long numberOfRounds, final int minimum, final int maximum,
+            final int parallelism) {
+        return simulateConcurrentPlay(numberOfRounds, true, minimum, maximum,
+                parallelism);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds on several threads,
+     * all scoring one shared player for each strategy.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param parallelism    the number of threads to simulate on
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> simulateConcurrentPlay(
+            final long numberOfRounds, final int parallelism) {
+        return simulateConcurrentPlay(numberOfRounds, false, DEFAULT, DEFAULT,
+                parallelism);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds on several threads.
+     * The rounds are split into the same chunks as by simulatePlayInParallel,
+     * but every chunk scores the same ConcurrentPlayers, whose counts are
+     * read once all chunks have finished. The result is the same as that of
+     * simulatePlayInParallel for the same seed.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param hasBounds      whether or not bounds are specified for the slip
+     *                       values
+     * @param minimum        the smallest value of the range for slips, if
+     *                       specified
+     * @param maximum        the largest value of the range for slips, if
+     *                       specified
+     * @param parallelism    the number of threads to simulate on
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     */
+    private Map<ThreeSlipStrategy, Long> simulateConcurrentPlay(
+            final long numberOfRounds, final boolean hasBounds,
+            final int minimum, final int maximum, final int parallelism) {
+        Player[] players = new Player[STRATEGIES.length];
+        for (int i = 0; i < STRATEGIES.length; i++) {
+            players[i] = new ConcurrentPlayer(STRATEGIES[i]);
+        }
+        List<SimulationWorker> workers = new ArrayList<>();
+        RandomSource master = newMasterSource();
+        for (long start = 0; start < numberOfRounds; start += CHUNK_ROUNDS) {
+            long rounds = Math.min(CHUNK_ROUNDS, numberOfRounds - start);
+            workers.add(new SimulationWorker(rounds, players,
+                    newDealGenerator(master.split(), hasBounds, minimum,
+                            maximum), this.numslips));
+        }
+        SimulationWorker.runEach(workers, parallelism);
+        return SimulationWorker.toWinMap(
+                SimulationWorker.getWinCounts(players));
+    }
+
+    /**
+     * Simulates the game with this tester's number of slips for a specified
+     * number of rounds on several threads, scoring every threshold strategy
+     * against the same rounds. The threshold strategy k looks at the first k
+     * slips, then keeps the first slip larger than all before it. Rounds are
+     * dealt as relative ranks rather than values, so a round costs the same
+     * whatever the number of slips.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param parallelism    the number of threads to simulate on
+     * @return the number of wins of every threshold strategy
+     */
+    public SecretaryResult simulateThresholdPlay(final long numberOfRounds,
+                                                 final int parallelism) {
+        List<SecretaryWorker> workers = new ArrayList<>();
+        RandomSource master = newMasterSource();
+        for (long start = 0; start < numberOfRounds; start += CHUNK_ROUNDS) {
+            long rounds = Math.min(CHUNK_ROUNDS, numberOfRounds - start);
+            workers.add(new SecretaryWorker(rounds, this.numslips,
+                    master.split()));
+        }
+        long[] wins = SimulationWorker.runAll(workers, parallelism,
+                this.numslips + 1);
+        return new SecretaryResult(numberOfRounds, wins);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds and specified range
+     * of values on several threads, scoring every given rule against the same
+     * rounds.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param minimum        the smallest of the range of slip values
+     * @param maximum        the largest of the range of slip values
+     * @param rules          the rules to score, with distinct names
+     * @param parallelism    the number of threads to simulate on
+     * @return map from the name of each rule to its number of wins, in the
+     * order of the rules
+     */
+    public Map<String, Long> simulateRulePlay(final long numberOfRounds,
+                                              final int minimum,
+                                              final int maximum,
+                                              final List<StrategyRule> rules,
+                                              final int parallelism) {
+        return simulateRulePlay(numberOfRounds, true, minimum, maximum, rules,
+                parallelism);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds on several threads,
+     * scoring every given rule against the same rounds.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param rules          the rules to score, with distinct names
+     * @param parallelism    the number of threads to simulate on
+     * @return map from the name of each rule to its number of wins, in the
+     * order of the rules
+     */
+    public Map<String, Long> simulateRulePlay(final long numberOfRounds,
+                                              final List<StrategyRule> rules,
+                                              final int parallelism) {
+        return simulateRulePlay(numberOfRounds, false, DEFAULT, DEFAULT,
+                rules, parallelism);
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds on several threads,
+     * scoring every given rule against the same rounds. The rounds are split
+     * into chunks of a fixed size, each dealt from its own stream split from
+     * this tester's master source, so the rounds are those that
+     * simulatePlayInParallel deals for the same seed.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param hasBounds      whether or not bounds are specified for the slip
+     *                       values
+     * @param minimum        the smallest value of the range for slips, if
+     *                       specified
+     * @param maximum        the largest value of the range for slips, if
+     *                       specified
+     * @param rules          the rules to score, with distinct names
+     * @param parallelism    the number of threads to simulate on
+     * @return map from the name of each rule to its number of wins, in the
+     * order of the rules
+     * @throws IllegalArgumentException if two rules share a name, or the
+     *                                  tester has a distribution
+     */
+    private Map<String, Long> simulateRulePlay(final long numberOfRounds,
+                                               final boolean hasBounds,
+                                               final int minimum,
+                                               final int maximum,
+                                               final List<StrategyRule> rules,
+                                               final int parallelism) {
+        if (this.distribution != null) {
+            throw new IllegalArgumentException("Rules compare slip values,"
+                    + " which are not dealt for a distribution");
+        }
+        Map<String, Long> winMap = new LinkedHashMap<>();
+        for (StrategyRule rule : rules) {
+            if (winMap.put(rule.getName(), 0L) != null) {
+                throw new IllegalArgumentException("Two rules are named "
+                        + rule.getName());
+            }
+        }
+        List<RuleWorker> workers = new ArrayList<>();
+        RandomSource master = newMasterSource();
+        for (long start = 0; start < numberOfRounds; start += CHUNK_ROUNDS) {
+            long rounds = Math.min(CHUNK_ROUNDS, numberOfRounds - start);
+            CompiledPlayer[] players = new CompiledPlayer[rules.size()];
+            for (int i = 0; i < players.length; i++) {
+                players[i] = rules.get(i).newPlayer();
+            }
+            workers.add(new RuleWorker(rounds, players,
+                    newDealGenerator(master.split(), hasBounds, minimum,
+                            maximum), this.numslips));
+        }
+        long[] wins = SimulationWorker.runAll(workers, parallelism,
+                rules.size());
+        for (int i = 0; i < wins.length; i++) {
+            winMap.put(rules.get(i).getName(), wins[i]);
+        }
+        return winMap;
+    }
+
+    /**
+     * Simulates the game for a specified number of rounds on several threads,
+     * dealing each round as the relative order of the slips that decide it
+     * rather than as values. Slip values in a round are distinct and dealt
+     * independently of their position, so every ordering is equally likely
+     * whatever the range or distribution of values, and the win counts have
+     * the same distribution as those of simulatePlayInParallel. They are not
+     * the same counts for the same seed, and no values are dealt, so a run
+     * that needs the values, such as a trace, must use the value-based
+     * methods.
+     *
+     * <p>The rounds are split into chunks of a fixed size, each dealt from its
+     * own stream split from this tester's master source, so the result does
+     * not depend on the number of threads.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param parallelism    the number of threads to simulate on
+     * @return map from ThreeSlipStrategy object to number of wins associated
+     * with that strategy
+     * @throws IllegalArgumentException if there are more than
+     *                                  PermutationWorker.MAX_SLIPS slips
+     */
+    public Map<ThreeSlipStrategy, Long> simulatePermutationPlay(
+            final long numberOfRounds, final int parallelism) {
+        long[][] orderingWins = AnalyticSolver.scoreOrderings(this.numslips,
+                getNewPlayers());
+        List<PermutationWorker> workers = new ArrayList<>();
+        RandomSource master = newMasterSource();
+        for (long start = 0; start < numberOfRounds; start += CHUNK_ROUNDS) {
+            long rounds = Math.min(CHUNK_ROUNDS, numberOfRounds - start);
+            workers.add(new PermutationWorker(rounds, this.numslips,
+                    master.split(), orderingWins));
+        }
+        long[] counts = SimulationWorker.runAll(workers, parallelism,
+                ThreeSlipStrategy.values().length);
+        return SimulationWorker.toWinMap(counts);
+    }
+
+    /**
+     * Searches for the value-threshold policy with the most wins for a
+     * specified range of values, on several threads. The policy keeps the
+     * first slip if its value exceeds one threshold, else the second if it
+     * is larger and exceeds another, else the third. Thousands of candidate
+     * thresholds for each slip are scored against the same rounds in each
+     * stage of a ThresholdOptimizer, and the best is checked against as many
+     * fresh rounds again, alongside the informed strategy, so the search
+     * costs about twice a single simulation of the same number of rounds.
+     * The policies only look at the first three slips, so the search is
+     * only made for the three-slip game.
+     *
+     * @param numberOfRounds the number of rounds to search over, and to
+     *                       check the best policy against
+     * @param minimum        the smallest of the range of slip values
+     * @param maximum        the largest of the range of slip values
+     * @param parallelism    the number of threads to simulate on
+     * @return the best policy found, with its wins and those of the informed
+     * strategy over the same fresh rounds
+     * @throws IllegalArgumentException if the range has fewer distinct
+     *                                  values than there are slips, the
+     *                                  tester has a distribution, or it has
+     *                                  more than three slips
+     */
+    public ThresholdResult optimizeThresholdPolicy(final long numberOfRounds,
+                                                   final int minimum,
+                                                   final int maximum,
+                                                   final int parallelism) {
+        checkRange(minimum, maximum);
+        if (this.distribution != null) {
+            throw new IllegalArgumentException("Ranges of slip values do not"
+                    + " apply to a distribution");
+        }
+        return new ThresholdOptimizer(this.numslips, minimum, maximum,
+                random -> newDealGenerator(random, true, minimum, maximum),
+                parallelism).optimize(newMasterSource(), numberOfRounds);
+    }
+
+    /**
+     * Prepares a simulation of a specified number of rounds and specified
+     * range of values on several threads, which publishes snapshots of its
+     * progress once started.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param minimum        the smallest of the range of slip values
+     * @param maximum        the largest of the range of slip values
+     * @param parallelism    the number of threads to simulate on
+     * @return the simulation, not yet started
+     */
+    public SimulationRun newSimulationRun(final long numberOfRounds,
+                                          final int minimum,
+                                          final int maximum,
+                                          final int parallelism) {
+        return newSimulationRun(numberOfRounds, true, minimum, maximum,
+                parallelism);
+    }
+
+    /**
+     * Prepares a simulation of a specified number of rounds on several
+     * threads, which publishes snapshots of its progress once started.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param parallelism    the number of threads to simulate on
+     * @return the simulation, not yet started
+     */
+    public SimulationRun newSimulationRun(final long numberOfRounds,
+                                          final int parallelism) {
+        return newSimulationRun(numberOfRounds, false, DEFAULT, DEFAULT,
+                parallelism);
+    }
+
+    /**
+     * Prepares a simulation of a specified number of rounds on several
+     * threads, split into chunks as by simulatePlayInParallel.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param hasBounds      whether or not bounds are specified for the slip
+     *                       values
+     * @param minimum        the smallest value of the range for slips, if
+     *                       specified
+     * @param maximum        the largest value of the range for slips, if
+     *                       specified
+     * @param parallelism    the number of threads to simulate on
+     * @return the simulation, not yet started
+     */
+    private SimulationRun newSimulationRun(final long numberOfRounds,
+                                           final boolean hasBounds,
+                                           final int minimum,
+                                           final int maximum,
+                                           final int parallelism) {
+        Checkpoint checkpoint = this.distribution != null ? null
+                : new Checkpoint(this.numslips, this.algorithm, this.seed,
+                        hasBounds, minimum, maximum, numberOfRounds,
+                        CHUNK_ROUNDS);
+        return new SimulationRun(numberOfRounds, parallelism,
+                splitIntoChunks(numberOfRounds, hasBounds, minimum, maximum),
+                checkpoint);
+    }
+
+    /**
+     * Simulates some of the chunks into which simulatePlayInParallel splits
+     * a specified number of rounds, returning the win counts of each. The
+     * chunks before the first are not simulated, but their streams are
+     * still split from the master source, so each chunk's counts are the
+     * same as in a simulation of every chunk.
+     *
+     * @param numberOfRounds the number of rounds of the whole simulation
+     * @param range          the range of slip values
+     * @param firstChunk     the index of the first chunk to simulate
+     * @param parallelism    the number of threads to simulate on
+     * @return the win counts of each chunk from the first to the last, each
+     * indexed by the ordinal of the ThreeSlipStrategy they are associated
+     * with
+     */
+    public long[][] simulateChunks(final long numberOfRounds,
+                                   final ValueRange range,
+                                   final int firstChunk,
+                                   final int parallelism) {
+        return simulateChunks(numberOfRounds, range, firstChunk,
+                Integer.MAX_VALUE, parallelism);
+    }
+
+    /**
+     * Simulates a run of the chunks into which simulatePlayInParallel splits
+     * a specified number of rounds, returning the win counts of each. The
+     * chunks outside the run are not simulated, but the streams of those
+     * before it are still split from the master source, so each chunk's
+     * counts are the same as in a simulation of every chunk.
+     *
+     * @param numberOfRounds the number of rounds of the whole simulation
+     * @param range          the range of slip values
+     * @param firstChunk     the index of the first chunk to simulate
+     * @param chunkCount     the largest number of chunks to simulate
+     * @param parallelism    the number of threads to simulate on
+     * @return the win counts of each chunk of the run, each indexed by the
+     * ordinal of the ThreeSlipStrategy they are associated with
+     */
+    public long[][] simulateChunks(final long numberOfRounds,
+                                   final ValueRange range,
+                                   final int firstChunk, final int chunkCount,
+                                   final int parallelism) {
+        return SimulationWorker.runEach(newChunkWorkers(numberOfRounds, range,
+                firstChunk, chunkCount), parallelism).toArray(new long[0][]);
+    }
+
+    /**
+     * Create the workers of a run of the chunks into which
+     * simulatePlayInParallel splits a specified number of rounds. The
+     * streams of the chunks before the run are split from the master source
+     * and dropped, without creating their workers, so each worker deals the
+     * same rounds as in a simulation of every chunk.
+     *
+     * @param numberOfRounds the number of rounds of the whole simulation
+     * @param range          the range of slip values
+     * @param firstChunk     the index of the first chunk of the run
+     * @param chunkCount     the largest number of chunks in the run
+     * @return the workers of the chunks of the run, in order
+     */
+    public List<SimulationWorker> newChunkWorkers(final long numberOfRounds,
+                                                  final ValueRange range,
+                                                  final int firstChunk,
+                                                  final int chunkCount) {
+        long chunks = (numberOfRounds + CHUNK_ROUNDS - 1) / CHUNK_ROUNDS;
+        long first = Math.min(firstChunk, chunks);
+        long end = Math.min(first + chunkCount, chunks);
+        RandomSource master = newMasterSource();
+        for (long c = 0; c < first; c++) {
+            master.split();
+        }
+        List<SimulationWorker> workers = new ArrayList<>();
+        for (long c = first; c < end; c++) {
+            long rounds = Math.min(CHUNK_ROUNDS,
+                    numberOfRounds - c * CHUNK_ROUNDS);
+            workers.add(newWorker(master.split(), rounds, range.hasBounds(),
+                    range.getMinimum(), range.getMaximum()));
+        }
+        return workers;
+    }
+
+    /**
+     * Prepares to resume a simulation from a checkpoint file written by
+     * SimulationRun.setCheckpointFile. The simulation is rebuilt from the
+     * parameters in the checkpoint, and only the chunks it does not hold are
+     * simulated, so the result is the same as that of the simulation had it
+     * never been interrupted. The simulation is not started, and does not
+     * write further checkpoints unless asked to.
+     *
+     * @param file        the checkpoint file
+     * @param parallelism the number of threads to simulate on
+     * @return the simulation of the remaining chunks
+     * @throws IOException if the checkpoint cannot be read, or was written
+     *                     with a different chunk size
+     */
+    public static SimulationRun resumeSimulationRun(final Path file,
+                                                    final int parallelism)
+            throws IOException {
+        Checkpoint checkpoint = Checkpoint.read(file);
+        if (checkpoint.getChunkRounds() != CHUNK_ROUNDS) {
+            throw new IOException(file + " was written with chunks of "
+                    + checkpoint.getChunkRounds() + " rounds, not "
+                    + CHUNK_ROUNDS);
+        }
+        SlipHypoTester tester = new SlipHypoTester(
+                checkpoint.getNumberOfSlips(), checkpoint.getRandomAlgorithm(),
+                checkpoint.getSeed());
+        return new SimulationRun(checkpoint.getNumberOfRounds(), parallelism,
+                tester.splitIntoChunks(checkpoint.getNumberOfRounds(),
+                        checkpoint.hasBounds(), checkpoint.getMinimum(),
+                        checkpoint.getMaximum()), checkpoint);
+    }
+
+    /**
+     * Split a specified number of rounds into chunks of at most CHUNK_ROUNDS
+     * rounds. Each chunk has its own players and a deal generator whose stream
+     * is split in order from this tester's master source, so a chunk is dealt
+     * the same rounds whichever thread runs it.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param hasBounds      whether or not bounds are specified for the slip
+     *                       values
+     * @param minimum        the smallest value of the range for slips, if
+     *                       specified
+     * @param maximum        the largest value of the range for slips, if
+     *                       specified
+     * @return the workers that simulate each chunk
+     */
+    private List<SimulationWorker> splitIntoChunks(final long numberOfRounds,
+                                                   final boolean hasBounds,
+                                                   final int minimum,
+                                                   final int maximum) {
+        List<SimulationWorker> workers = new ArrayList<>();
+        RandomSource master = newMasterSource();
+        for (long start = 0; start < numberOfRounds; start += CHUNK_ROUNDS) {
+            long rounds = Math.min(CHUNK_ROUNDS, numberOfRounds - start);
+            workers.add(newWorker(master.split(), rounds, hasBounds, minimum,
+                    maximum));
+        }
+        return workers;
+    }
+
+    /**
+     * Create a worker with its own players that deals its rounds from the
+     * given stream.
+     *
+     * @param random         the stream from which values are drawn, which
+     *                       must not be shared with another worker
+     * @param numberOfRounds the number of rounds for the worker to simulate
+     * @param hasBounds      whether or not bounds are specified for the slip
+     *                       values
+     * @param minimum        the smallest value of the range for slips, if
+     *                       specified
+     * @param maximum        the largest value of the range for slips, if
+     *                       specified
+     * @return a new worker
+     */
+    private SimulationWorker newWorker(final RandomSource random,
+                                       final long numberOfRounds,
+                                       final boolean hasBounds,
+                                       final int minimum, final int maximum) {
+        return new SimulationWorker(numberOfRounds, getNewPlayers(),
+                newDealGenerator(random, hasBounds, minimum, maximum),
+                this.numslips);
+    }
+
+    /**
+     * Create a new player for each of the strategies used in the three-slip
+     * game.
+     *
+     * @return an array holding a player for each strategy
+     */
+    private Player[] getNewPlayers() {
+        Player[] players = new Player[STRATEGIES.length];
+        for (int i = 0; i < STRATEGIES.length; i++) {
+            players[i] = getNewPlayerWith(STRATEGIES[i]);
+        }
+        return players;
+    }
+
+    /**
+     * Simulates the game with a specified range of values in batches until
+     * the given stopping rule is satisfied or a specified number of rounds
+     * has been simulated.
+     *
+     * @param maximumRounds the largest number of rounds to simulate
+     * @param minimum       the smallest of the range of slip values
+     * @param maximum       the largest of the range of slip values
+     * @param rule          the rule deciding when enough rounds have run
+     * @return the win counts and intervals of the rounds actually simulated
+     */
+    public AdaptiveResult simulateAdaptivePlay(final long maximumRounds,
+                                               final int minimum,
+                                               final int maximum,
+                                               final StoppingRule rule) {
+        return simulateAdaptivePlay(maximumRounds, true, minimum, maximum,
+                rule);
+    }
+
+    /**
+     * Simulates the game in batches until the given stopping rule is
+     * satisfied or a specified number of rounds has been simulated.
+     *
+     * @param maximumRounds the largest number of rounds to simulate
+     * @param rule          the rule deciding when enough rounds have run
+     * @return the win counts and intervals of the rounds actually simulated
+     */
+    public AdaptiveResult simulateAdaptivePlay(final long maximumRounds,
+                                               final StoppingRule rule) {
+        return simulateAdaptivePlay(maximumRounds, false, DEFAULT, DEFAULT,
+                rule);
+    }
+
+    /**
+     * Simulates the game in batches of BATCH_ROUNDS rounds, scoring every
+     * strategy against the same rounds, and evaluates the stopping rule
+     * after each batch. Each batch is dealt from its own stream split in
+     * order from this tester's master source, so a run can be replayed.
+     *
+     * @param maximumRounds the largest number of rounds to simulate
+     * @param hasBounds     whether or not bounds are specified for the slip
+     *                      values
+     * @param minimum       the smallest value of the range for slips, if
+     *                      specified
+     * @param maximum       the largest value of the range for slips, if
+     *                      specified
+     * @param rule          the rule deciding when enough rounds have run
+     * @return the win counts and intervals of the rounds actually simulated
+     */
+    private AdaptiveResult simulateAdaptivePlay(final long maximumRounds,
+                                                final boolean hasBounds,
+                                                final int minimum,
+                                                final int maximum,
+                                                final StoppingRule rule) {
+        if (maximumRounds <= 0) {
+            throw new IllegalArgumentException(
+                    "An adaptive simulation needs at least one round");
+        }
+        RandomSource master = newMasterSource();
+        long[] counts = new long[ThreeSlipStrategy.values().length];
+        long rounds = 0;
+        AdaptiveResult result;
+        do {
+            long batch = Math.min(BATCH_ROUNDS, maximumRounds - rounds);
+            SimulationWorker.addTo(counts, newWorker(master.split(), batch,
+                    hasBounds, minimum, maximum).call());
+            rounds += batch;
+            Map<ThreeSlipStrategy, Long> winMap =
+                    SimulationWorker.toWinMap(counts);
+            result = rule.evaluate(winMap, rounds,
+                    getBestUninformedStrategy(winMap));
+        } while (!result.isSettled() && rounds < maximumRounds);
+        return result;
+    }
+
+    /**
+     * Computes the expected number of wins of each strategy over a specified
+     * number of rounds with a specified range of values, without simulating.
+     *
+     * @param numberOfRounds the number of rounds played
+     * @param minimum        the smallest of the range of slip values
+     * @param maximum        the largest of the range of slip values
+     * @return map from ThreeSlipStrategy object to expected number of wins
+     * associated with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> solvePlay(final long numberOfRounds,
+                                                  final int minimum,
+                                                  final int maximum) {
+        checkRange(minimum, maximum);
+        return solvePlay(numberOfRounds);
+    }
+
+    /**
+     * Computes the expected number of wins of each strategy over a specified
+     * number of rounds, without simulating.
+     *
+     * @param numberOfRounds the number of rounds played
+     * @return map from ThreeSlipStrategy object to expected number of wins
+     * associated with that strategy
+     */
+    public Map<ThreeSlipStrategy, Long> solvePlay(final long numberOfRounds) {
+        return new AnalyticSolver(this.numslips, getNewPlayers())
+                .expectedWins(numberOfRounds);
+    }
+
+    /**
+     * Computes the exact win probability of each strategy with a specified
+     * range of values. Slip values are distinct, so every ordering of the
+     * slips is as likely as with unbounded values and the probabilities are
+     * the same.
+     *
+     * @param minimum the smallest of the range of slip values
+     * @param maximum the largest of the range of slip values
+     * @return map from ThreeSlipStrategy object to the probability of a win
+     * associated with that strategy
+     */
+    public Map<ThreeSlipStrategy, Rational> winProbabilities(
+            final int minimum, final int maximum) {
+        checkRange(minimum, maximum);
+        return winProbabilities();
+    }
+
+    /**
+     * Computes the exact win probability of each strategy.
+     *
+     * @return map from ThreeSlipStrategy object to the probability of a win
+     * associated with that strategy
+     */
+    public Map<ThreeSlipStrategy, Rational> winProbabilities() {
+        return new AnalyticSolver(this.numslips, getNewPlayers())
+                .probabilities();
+    }
+
+    /**
+     * Check that a range of slip values holds enough distinct values for the
+     * slips of a round.
+     *
+     * @param minimum the smallest of the range of slip values
+     * @param maximum the largest of the range of slip values
+     */
+    private void checkRange(final int minimum, final int maximum) {
+        if ((long) maximum - minimum + 1 < this.numslips) {
+            throw new IllegalArgumentException("The range " + minimum + ".."
+                    + maximum + " has fewer than " + this.numslips
+                    + " distinct values");
+        }
+    }
+
     /**
      * Create a new player that utilizes the given strategy with which to run
      * simulations.
@@ -176,35 +1255,94 @@ public class SlipHypoTester {
     }
 
     /**
-     * Simulates the game for a given number of rounds with a given player.
-     * If hasBounds is true, the slips used will have values within the range
-     * defined by the given minimum and maximum values. Otherwise, slips will
-     * be made using the default constructor.
+     * Simulates the game for a given number of rounds with a given player,
+     * dealing the slips from the given source.
      *
      * @param numberOfRounds the number of rounds to simulate
      * @param player         the player with which to simulate the game
-     * @param hasBounds      whether or not bounds are specified for the slip
-     *                       values
-     * @param minimum        the smallest value of the range for slips, if
-     *                       specified
-     * @param maximum        the largest value of the range for slips, if
-     *                       specified
+     * @param source         the source from which to deal the slips
      */
     private void simulate(final long numberOfRounds, final Player player,
-                          final boolean hasBounds,
-                          final int minimum, final int maximum) {
+                          final DealSource source) {
+        if (EngineMetrics.ENABLED) {
+            simulateTimed(numberOfRounds, player, source);
+            return;
+        }
+        int[] deal = new int[this.numslips];
         for (long i = 0; i < numberOfRounds; i++) {
-            Slip[] slips = generateSlips(hasBounds, minimum, maximum);
+            Slip[] slips = generateSlips(source, deal);
             Slip winningSlip = findWinningSlip(slips);
             player.chooseSlipFrom(slips);
-            if (player.getChoice() == winningSlip) {
-                player.incrementWinCount();
-                if (player.getChoice() == slips[1]) {
-                    player.incrementKeepSecondCount();
+            tally(player, slips, winningSlip);
+        }
+    }
+
+    /**
+     * Simulates the game as simulate does, timing generateSlips apart from
+     * chooseSlipFrom and recording the times in EngineMetrics once every
+     * batch of rounds. As in SimulationWorker, the rounds are dealt a block
+     * at a time and then scored, so the clock is read three times a block
+     * rather than three times a round. Scoring does not draw from the
+     * source, so the rounds and wins are the same as those of simulate.
+     *
+     * @param numberOfRounds the number of rounds to simulate
+     * @param player         the player with which to simulate the game
+     * @param source         the source from which to deal the slips
+     */
+    private void simulateTimed(final long numberOfRounds, final Player player,
+                               final DealSource source) {
+        int[] deal = new int[this.numslips];
+        Slip[][] block = new Slip[TIMED_BLOCK_ROUNDS][];
+        long done = 0;
+        while (done < numberOfRounds) {
+            long rounds = Math.min(METRICS_ROUNDS, numberOfRounds - done);
+            long retries = source.getRetryCount();
+            long allocated = EngineMetrics.currentThreadAllocatedBytes();
+            long generation = 0;
+            long scoring = 0;
+            long start = System.nanoTime();
+            for (long i = 0; i < rounds; i += TIMED_BLOCK_ROUNDS) {
+                int size = (int) Math.min(TIMED_BLOCK_ROUNDS, rounds - i);
+                long before = System.nanoTime();
+                for (int r = 0; r < size; r++) {
+                    block[r] = generateSlips(source, deal);
                 }
-                if (player.getChoice() == slips[2]) {
-                    player.incrementDiscardSecondCount();
+                long dealt = System.nanoTime();
+                for (int r = 0; r < size; r++) {
+                    Slip[] slips = block[r];
+                    player.chooseSlipFrom(slips);
+                    tally(player, slips, findWinningSlip(slips));
                 }
+                generation += dealt - before;
+                scoring += System.nanoTime() - dealt;
+            }
+            long elapsed = System.nanoTime() - start;
+            retries = source.getRetryCount() - retries;
+            EngineMetrics.getInstance().recordBatch(rounds, elapsed,
+                    generation, scoring, retries,
+                    EngineMetrics.currentThreadAllocatedBytes() - allocated);
+            done += rounds;
+        }
+    }
+
+    /**
+     * Credit the given player with a win if the slip it chose is the winning
+     * slip, recording whether the win came from keeping or discarding the
+     * second slip.
+     *
+     * @param player      the player who has chosen a slip this round
+     * @param slips       the slips from which the player chose
+     * @param winningSlip the slip with the largest value this round
+     */
+    private void tally(final Player player, final Slip[] slips,
+                       final Slip winningSlip) {
+        if (player.getChoice() == winningSlip) {
+            player.incrementWinCount();
+            if (player.getChoice() == slips[1]) {
+                player.incrementKeepSecondCount();
+            }
+            if (player.getChoice() == slips[2]) {
+                player.incrementDiscardSecondCount();
             }
         }
     }
@@ -327,11 +1465,16 @@ public class SlipHypoTester {
     }
 
     /**
-     * Run simulation and display results.
+     * Run simulation and display results. With options, the simulation they
+     * describe is run by SimulationCommand instead.
      *
-     * @param args ignored
+     * @param args the options of SimulationCommand, or none
      */
     public static void main(final String[] args) {
+        if (args.length > 0) {
+            SimulationCommand.main(args);
+            return;
+        }
         SlipHypoTester hypoTester = new SlipHypoTester();
         final long numberOfRounds = 10000000;
         Map<ThreeSlipStrategy, Long> winMap;
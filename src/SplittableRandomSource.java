@@ -0,0 +1,55 @@
+import java.util.SplittableRandom;
+
+/**
+ * A RandomSource backed by java.util.SplittableRandom.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SplittableRandomSource implements RandomSource {
+
+    /** The generator backing this source. */
+    private final SplittableRandom random;
+
+    /**
+     * Create a source with the given seed.
+     * @param seed the seed of this source
+     */
+    public SplittableRandomSource(final long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Create a source backed by the given generator.
+     * @param generator the generator backing this source
+     */
+    private SplittableRandomSource(final SplittableRandom generator) {
+        this.random = generator;
+    }
+
+    /**
+     * Returns a random integer in the range 0 (inclusive) to bound
+     * (exclusive).
+     * @param bound the upper bound (exclusive), which must be positive
+     * @return a random integer in the range 0..bound - 1
+     */
+    public int nextInt(final int bound) {
+        return this.random.nextInt(bound);
+    }
+
+    /**
+     * Returns a random long.
+     * @return a random long
+     */
+    public long nextLong() {
+        return this.random.nextLong();
+    }
+
+    /**
+     * Returns a new source backed by a generator split from this source's.
+     * @return a new source
+     */
+    public RandomSource split() {
+        return new SplittableRandomSource(this.random.split());
+    }
+}
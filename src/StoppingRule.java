@@ -0,0 +1,113 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides when an adaptive simulation has run enough rounds. A simulation is
+ * settled once every strategy's win rate is known to within a target
+ * precision or, if requested, once the informed strategy is significantly
+ * better or worse than the best uninformed strategy.
+ *
+ * <p>The rule is checked after every batch, so the stated confidence is that
+ * of each check rather than of the whole sequence of checks.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class StoppingRule {
+
+    /** The uninformed strategies compared against the informed strategy. */
+    private static final ThreeSlipStrategy[] UNINFORMED = {
+            ThreeSlipStrategy.KEEP_ORIGINAL,
+            ThreeSlipStrategy.SWITCH_TO_REVEALED,
+            ThreeSlipStrategy.SWITCH_TO_UNKNOWN
+    };
+
+    /** The number of standard errors each interval spans on each side. */
+    private final double z;
+    /** The largest acceptable half-width of a win rate interval. */
+    private final double precision;
+    /** Whether a significant comparison settles the simulation. */
+    private final boolean stopWhenSignificant;
+
+    /**
+     * Create a stopping rule.
+     *
+     * @param confidence          the confidence level of every interval,
+     *                            strictly between 0 and 1
+     * @param targetPrecision     the largest acceptable half-width of a win
+     *                            rate interval
+     * @param stopOnSignificance  whether to stop as soon as the informed
+     *                            strategy differs significantly from the best
+     *                            uninformed strategy
+     */
+    public StoppingRule(final double confidence, final double targetPrecision,
+                        final boolean stopOnSignificance) {
+        this.z = ConfidenceInterval.zScore(confidence);
+        this.precision = targetPrecision;
+        this.stopWhenSignificant = stopOnSignificance;
+    }
+
+    /**
+     * Evaluate the win counts of a simulation so far.
+     *
+     * @param winMap                 map from ThreeSlipStrategy object to
+     *                               number of wins associated with that
+     *                               strategy
+     * @param numberOfRounds         the number of rounds simulated so far
+     * @param bestUninformedStrategy the uninformed strategy with the most
+     *                               wins so far
+     * @return the intervals and verdict for the simulation so far
+     */
+    public AdaptiveResult evaluate(final Map<ThreeSlipStrategy, Long> winMap,
+                                   final long numberOfRounds,
+                                   final ThreeSlipStrategy
+                                           bestUninformedStrategy) {
+        HashMap<ThreeSlipStrategy, ConfidenceInterval> winRates =
+                new HashMap<>();
+        boolean precise = true;
+        for (Map.Entry<ThreeSlipStrategy, Long> entry : winMap.entrySet()) {
+            ConfidenceInterval interval = ConfidenceInterval.wilson(
+                    entry.getValue(), numberOfRounds, this.z);
+            winRates.put(entry.getKey(), interval);
+            precise &= interval.halfWidth() <= this.precision;
+        }
+        HashMap<ThreeSlipStrategy, ConfidenceInterval> advantages =
+                new HashMap<>();
+        for (ThreeSlipStrategy strategy : UNINFORMED) {
+            long both = getSharedWins(winMap, strategy);
+            advantages.put(strategy, ConfidenceInterval.pairedDifference(
+                    winMap.get(ThreeSlipStrategy.INFORMED_STRATEGY) - both,
+                    winMap.get(strategy) - both, numberOfRounds, this.z));
+        }
+        boolean significant =
+                advantages.get(bestUninformedStrategy).excludes(0);
+        boolean settled = precise || (this.stopWhenSignificant && significant);
+        return new AdaptiveResult(numberOfRounds, winMap, winRates,
+                bestUninformedStrategy, advantages, precise, significant,
+                settled);
+    }
+
+    /**
+     * Returns the number of rounds won by both the informed strategy and the
+     * given uninformed strategy. Exactly one slip wins each round and each
+     * uninformed strategy always chooses the same slip, so both win only
+     * when the informed strategy chose that slip and won.
+     *
+     * @param winMap   map from ThreeSlipStrategy object to number of wins
+     *                 associated with that strategy
+     * @param strategy the uninformed strategy
+     * @return the number of rounds both strategies won
+     */
+    private static long getSharedWins(
+            final Map<ThreeSlipStrategy, Long> winMap,
+            final ThreeSlipStrategy strategy) {
+        switch (strategy) {
+            case SWITCH_TO_REVEALED:
+                return winMap.get(ThreeSlipStrategy.STOP_IF_BETTER);
+            case SWITCH_TO_UNKNOWN:
+                return winMap.get(ThreeSlipStrategy.CONTINUE_IF_WORSE);
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,709 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A strategy for the N-slip game written as a rule and compiled at runtime,
+ * such as
+ * <pre>
+ * take slip i if value &gt; max(seen) and i &gt;= k, else last
+ * </pre>
+ * A player following the rule looks at the slips in order and takes the
+ * first slip i for which the condition holds. If it holds for none, the
+ * player takes the last slip, the first slip, slip j for "slip j", or
+ * nothing for "none".
+ *
+ * <p>The condition may use i, the index of the slip; value, its value;
+ * max or max(seen), the largest value before it, which is the smallest int
+ * for the first slip; first, the value of the first slip; n, the number of
+ * slips; integer literals; and parameters, whose values are given when the
+ * rule is compiled. These combine with +, - and *, in long arithmetic, the
+ * comparisons &lt;, &lt;=, &gt;, &gt;=, == and !=, and not, and and or, which
+ * short-circuit, with parentheses as needed.
+ *
+ * <p>The condition compiles to a tree of MethodHandles taking the deal and
+ * the state of the scan, in which constant parts are folded. Each rule is
+ * then defined as its own hidden class from RuleTemplate, holding the tree
+ * as class data, so the JIT compiles the rule into its scan loop much as it
+ * would hand-written code, and players of different rules never share a
+ * call site within a block of deals.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class StrategyRule {
+
+    /** The fallback taking no slip. */
+    static final int FALLBACK_NONE = -1;
+    /** The fallback taking the last slip. */
+    static final int FALLBACK_LAST = -2;
+    /** The parameters of a compiled condition. */
+    private static final Class<?>[] ARGUMENTS = {
+            int[].class, int.class, int.class, int.class, int.class, int.class
+    };
+    /** The argument index of the number of slips. */
+    private static final int ARG_SLIPS = 2;
+    /** The argument index of the index of the slip. */
+    private static final int ARG_INDEX = 3;
+    /** The argument index of the value of the slip. */
+    private static final int ARG_VALUE = 4;
+    /** The argument index of the largest value before the slip. */
+    private static final int ARG_MAX = 5;
+    /** The lookup defining the hidden class of each rule. */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    /** The bytes of RuleTemplate, read when the first rule is compiled. */
+    private static byte[] template;
+
+    /** The name of the rule. */
+    private final String name;
+    /** The text of the rule. */
+    private final String text;
+    /** The values of the parameters of the rule. */
+    private final Map<String, Long> parameters;
+    /** The position of the next character to parse. */
+    private int position;
+    /** The constructor of the hidden class of the rule. */
+    private MethodHandle constructor;
+
+    /**
+     * Create a parser of the given rule.
+     * @param ruleName   the name of the rule
+     * @param rule       the text of the rule
+     * @param parameters the values of the parameters of the rule
+     */
+    private StrategyRule(final String ruleName, final String rule,
+                         final Map<String, Long> parameters) {
+        this.name = ruleName;
+        this.text = rule;
+        this.parameters = Map.copyOf(parameters);
+    }
+
+    /**
+     * Compile a rule without parameters.
+     *
+     * @param name the name of the rule, by which its wins are reported
+     * @param rule the text of the rule
+     * @return the compiled rule
+     * @throws IllegalArgumentException if the rule cannot be parsed
+     */
+    public static StrategyRule compile(final String name, final String rule) {
+        return compile(name, rule, Map.of());
+    }
+
+    /**
+     * Compile a rule, folding the given values of its parameters into it.
+     *
+     * @param name       the name of the rule, by which its wins are reported
+     * @param rule       the text of the rule
+     * @param parameters the values of the parameters of the rule
+     * @return the compiled rule
+     * @throws IllegalArgumentException if the rule cannot be parsed or uses a
+     *                                  parameter without a value
+     */
+    public static StrategyRule compile(final String name, final String rule,
+                                       final Map<String, Long> parameters) {
+        StrategyRule compiled = new StrategyRule(name, rule, parameters);
+        compiled.expect("take");
+        compiled.expect("slip");
+        compiled.expect("i");
+        compiled.expect("if");
+        MethodHandle condition = toHandle(compiled.disjunction());
+        if (condition.type().returnType() != boolean.class) {
+            throw compiled.error("Condition expected");
+        }
+        compiled.skipSpace();
+        if (compiled.peek() == ',') {
+            compiled.position++;
+        }
+        compiled.expect("else");
+        int fallback = compiled.fallback();
+        compiled.skipSpace();
+        if (compiled.position != rule.length()) {
+            throw compiled.error("Text after the rule");
+        }
+        compiled.constructor = defineClass(condition, fallback);
+        return compiled;
+    }
+
+    /**
+     * Returns the name of this rule.
+     * @return the name of this rule
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the text of this rule.
+     * @return the text of this rule
+     */
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * Create a new player following this rule.
+     * @return a new player with no wins
+     */
+    public CompiledPlayer newPlayer() {
+        try {
+            return (CompiledPlayer) this.constructor.invokeExact(this);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the index of the slip a fallback takes.
+     * @param fallback      the fallback, as encoded by compile
+     * @param numberOfSlips the number of slips in the deal
+     * @return the index of the slip taken, or -1 if none is
+     */
+    static int fallbackIndex(final int fallback, final int numberOfSlips) {
+        if (fallback == FALLBACK_LAST) {
+            return numberOfSlips - 1;
+        }
+        return fallback < numberOfSlips ? fallback : FALLBACK_NONE;
+    }
+
+    /**
+     * Define the hidden class of a rule from RuleTemplate.
+     * @param condition the compiled condition of the rule
+     * @param fallback  the encoded fallback of the rule
+     * @return the constructor of the class, taking the rule
+     */
+    private static MethodHandle defineClass(final MethodHandle condition,
+                                            final int fallback) {
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(
+                    templateBytes(), List.of(condition, fallback), true);
+            return hidden.findConstructor(hidden.lookupClass(),
+                    MethodType.methodType(void.class, StrategyRule.class))
+                    .asType(MethodType.methodType(CompiledPlayer.class,
+                            StrategyRule.class));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException("Cannot define rule class", e);
+        }
+    }
+
+    /**
+     * Returns the bytes of RuleTemplate, reading them on the first call.
+     * @return the bytes of the class file of RuleTemplate
+     */
+    private static synchronized byte[] templateBytes() {
+        if (template == null) {
+            try (InputStream in = StrategyRule.class.getResourceAsStream(
+                    "RuleTemplate.class")) {
+                if (in == null) {
+                    throw new IllegalStateException(
+                            "RuleTemplate.class not found");
+                }
+                template = in.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalStateException(
+                        "Cannot read RuleTemplate.class", e);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Parse the fallback of the rule.
+     * @return the encoded fallback
+     */
+    private int fallback() {
+        String word = word();
+        switch (word) {
+            case "last":
+                return FALLBACK_LAST;
+            case "first":
+                return 0;
+            case "none":
+                return FALLBACK_NONE;
+            case "slip":
+                skipSpace();
+                int start = this.position;
+                while (Character.isDigit(peek())) {
+                    this.position++;
+                }
+                if (start == this.position) {
+                    throw error("Slip index expected");
+                }
+                try {
+                    return Integer.parseInt(
+                            this.text.substring(start, this.position));
+                } catch (NumberFormatException e) {
+                    throw error("Slip index too large");
+                }
+            default:
+                throw error("Fallback expected, not " + word);
+        }
+    }
+
+    /**
+     * Parse conditions joined by or.
+     * @return the compiled conditions, a Boolean if constant
+     */
+    private Object disjunction() {
+        Object left = conjunction();
+        while (accept("or")) {
+            Object right = conjunction();
+            checkCondition(left);
+            checkCondition(right);
+            if (left instanceof Boolean) {
+                left = (Boolean) left ? left : right;
+            } else if (Boolean.FALSE.equals(right)) {
+                continue;
+            } else {
+                left = MethodHandles.guardWithTest((MethodHandle) left,
+                        toHandle(true), toHandle(right));
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Parse conditions joined by and.
+     * @return the compiled conditions, a Boolean if constant
+     */
+    private Object conjunction() {
+        Object left = negation();
+        while (accept("and")) {
+            Object right = negation();
+            checkCondition(left);
+            checkCondition(right);
+            if (left instanceof Boolean) {
+                left = (Boolean) left ? right : left;
+            } else if (Boolean.TRUE.equals(right)) {
+                continue;
+            } else {
+                left = MethodHandles.guardWithTest((MethodHandle) left,
+                        toHandle(right), toHandle(false));
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Parse a condition, possibly negated.
+     * @return the compiled condition, a Boolean if constant
+     */
+    private Object negation() {
+        if (accept("not")) {
+            Object operand = negation();
+            checkCondition(operand);
+            return apply("not", operand);
+        }
+        return comparison();
+    }
+
+    /**
+     * Parse a comparison of two sums, or a single operand.
+     * @return the compiled comparison, a Boolean if constant, or the operand
+     */
+    private Object comparison() {
+        Object left = sum();
+        skipSpace();
+        String operator = null;
+        for (String candidate : new String[] {"<=", ">=", "==", "!=", "<",
+                ">"}) {
+            if (this.text.startsWith(candidate, this.position)) {
+                operator = candidate;
+                break;
+            }
+        }
+        if (operator == null) {
+            return left;
+        }
+        this.position += operator.length();
+        Object right = sum();
+        checkNumber(left);
+        checkNumber(right);
+        switch (operator) {
+            case "<":
+                return apply("lt", left, right);
+            case "<=":
+                return apply("le", left, right);
+            case ">":
+                return apply("lt", right, left);
+            case ">=":
+                return apply("le", right, left);
+            case "==":
+                return apply("eq", left, right);
+            default:
+                return apply("not", apply("eq", left, right));
+        }
+    }
+
+    /**
+     * Parse products joined by + or -.
+     * @return the compiled sum, a Long if constant
+     */
+    private Object sum() {
+        Object left = product();
+        while (true) {
+            skipSpace();
+            char c = peek();
+            if (c != '+' && c != '-') {
+                return left;
+            }
+            this.position++;
+            Object right = product();
+            checkNumber(left);
+            checkNumber(right);
+            left = apply(c == '+' ? "add" : "subtract", left, right);
+        }
+    }
+
+    /**
+     * Parse operands joined by *.
+     * @return the compiled product, a Long if constant
+     */
+    private Object product() {
+        Object left = operand();
+        while (true) {
+            skipSpace();
+            if (peek() != '*') {
+                return left;
+            }
+            this.position++;
+            Object right = operand();
+            checkNumber(left);
+            checkNumber(right);
+            left = apply("multiply", left, right);
+        }
+    }
+
+    /**
+     * Parse a literal, variable, parameter, negated operand or parenthesized
+     * condition.
+     * @return the compiled operand, a Long or Boolean if constant
+     */
+    private Object operand() {
+        skipSpace();
+        char c = peek();
+        if (c == '-') {
+            this.position++;
+            Object operand = operand();
+            checkNumber(operand);
+            return apply("subtract", 0L, operand);
+        }
+        if (c == '(') {
+            this.position++;
+            Object inner = disjunction();
+            skipSpace();
+            if (peek() != ')') {
+                throw error("')' expected");
+            }
+            this.position++;
+            return inner;
+        }
+        if (Character.isDigit(c)) {
+            int start = this.position;
+            while (Character.isDigit(peek())) {
+                this.position++;
+            }
+            try {
+                return Long.parseLong(
+                        this.text.substring(start, this.position));
+            } catch (NumberFormatException e) {
+                throw error("Number too large");
+            }
+        }
+        String word = word();
+        switch (word) {
+            case "i":
+                return argument(ARG_INDEX);
+            case "n":
+                return argument(ARG_SLIPS);
+            case "value":
+                return argument(ARG_VALUE);
+            case "max":
+                if (accept("(")) {
+                    expect("seen");
+                    expect(")");
+                }
+                return argument(ARG_MAX);
+            case "first":
+                return firstValue();
+            default:
+                Long value = this.parameters.get(word);
+                if (value == null) {
+                    throw error("Unknown variable or parameter " + word);
+                }
+                return value;
+        }
+    }
+
+    /**
+     * Returns a handle to one of the arguments of a compiled condition as a
+     * long.
+     * @param index the index of the argument
+     * @return the handle
+     */
+    private static MethodHandle argument(final int index) {
+        MethodHandle identity = MethodHandles.identity(int.class)
+                .asType(MethodType.methodType(long.class, int.class));
+        return MethodHandles.permuteArguments(identity,
+                MethodType.methodType(long.class, ARGUMENTS), index);
+    }
+
+    /**
+     * Returns a handle to the value of the first slip of the deal as a long.
+     * @return the handle
+     */
+    private static MethodHandle firstValue() {
+        MethodHandle element = MethodHandles.arrayElementGetter(int[].class)
+                .asType(MethodType.methodType(long.class, int[].class,
+                        int.class));
+        return MethodHandles.dropArguments(element, 2, ARGUMENTS[2],
+                ARGUMENTS[3], ARGUMENTS[4], ARGUMENTS[5]);
+    }
+
+    /**
+     * Apply one of the operators of this class to compiled operands, folding
+     * it if they are all constant.
+     * @param operator the name of the static method implementing the operator
+     * @param operands the compiled operands, a Long or Boolean if constant
+     * @return the compiled result, a Long or Boolean if constant
+     */
+    private static Object apply(final String operator,
+                                final Object... operands) {
+        MethodHandle op = operator(operator);
+        boolean constant = true;
+        for (Object operand : operands) {
+            constant &= !(operand instanceof MethodHandle);
+        }
+        try {
+            if (constant) {
+                return op.invokeWithArguments(operands);
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+        MethodHandle combined = op;
+        int[] reorder = new int[operands.length * ARGUMENTS.length];
+        for (int k = operands.length - 1; k >= 0; k--) {
+            combined = MethodHandles.collectArguments(combined, k,
+                    toHandle(operands[k]));
+            for (int a = 0; a < ARGUMENTS.length; a++) {
+                reorder[k * ARGUMENTS.length + a] = a;
+            }
+        }
+        return MethodHandles.permuteArguments(combined,
+                MethodType.methodType(op.type().returnType(), ARGUMENTS),
+                reorder);
+    }
+
+    /**
+     * Returns a handle to one of the operators of this class.
+     * @param operator the name of the static method implementing it
+     * @return the handle
+     */
+    private static MethodHandle operator(final String operator) {
+        MethodType type;
+        if (operator.equals("not")) {
+            type = MethodType.methodType(boolean.class, boolean.class);
+        } else if (operator.equals("lt") || operator.equals("le")
+                || operator.equals("eq")) {
+            type = MethodType.methodType(boolean.class, long.class,
+                    long.class);
+        } else {
+            type = MethodType.methodType(long.class, long.class, long.class);
+        }
+        try {
+            return LOOKUP.findStatic(StrategyRule.class, operator, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns a compiled operand as a handle taking the arguments of a
+     * compiled condition.
+     * @param operand the compiled operand, a Long or Boolean if constant
+     * @return the handle
+     */
+    private static MethodHandle toHandle(final Object operand) {
+        if (operand instanceof MethodHandle) {
+            return (MethodHandle) operand;
+        }
+        MethodHandle constant = operand instanceof Boolean
+                ? MethodHandles.constant(boolean.class, operand)
+                : MethodHandles.constant(long.class, operand);
+        return MethodHandles.dropArguments(constant, 0, ARGUMENTS);
+    }
+
+    /**
+     * Check that a compiled operand is a condition.
+     * @param operand the compiled operand
+     */
+    private void checkCondition(final Object operand) {
+        if (!(operand instanceof Boolean) && (!(operand instanceof MethodHandle)
+                || ((MethodHandle) operand).type().returnType()
+                != boolean.class)) {
+            throw error("Condition expected");
+        }
+    }
+
+    /**
+     * Check that a compiled operand is a number.
+     * @param operand the compiled operand
+     */
+    private void checkNumber(final Object operand) {
+        if (!(operand instanceof Long) && (!(operand instanceof MethodHandle)
+                || ((MethodHandle) operand).type().returnType()
+                != long.class)) {
+            throw error("Number expected");
+        }
+    }
+
+    /**
+     * Parse the given word or symbol, failing if it is not next.
+     * @param expected the word or symbol
+     */
+    private void expect(final String expected) {
+        if (!accept(expected)) {
+            throw error("'" + expected + "' expected");
+        }
+    }
+
+    /**
+     * Parse the given word or symbol if it is next.
+     * @param expected the word or symbol
+     * @return whether or not it was next
+     */
+    private boolean accept(final String expected) {
+        skipSpace();
+        if (!this.text.startsWith(expected, this.position)) {
+            return false;
+        }
+        int end = this.position + expected.length();
+        if (Character.isLetter(expected.charAt(0)) && end < this.text.length()
+                && Character.isLetterOrDigit(this.text.charAt(end))) {
+            return false;
+        }
+        this.position = end;
+        return true;
+    }
+
+    /**
+     * Parse a word of letters, digits and underscores.
+     * @return the word
+     */
+    private String word() {
+        skipSpace();
+        int start = this.position;
+        while (Character.isLetterOrDigit(peek()) || peek() == '_') {
+            this.position++;
+        }
+        if (start == this.position) {
+            throw error("Word expected");
+        }
+        return this.text.substring(start, this.position);
+    }
+
+    /**
+     * Returns the next character, or 0 at the end of the rule.
+     * @return the next character
+     */
+    private char peek() {
+        return this.position < this.text.length()
+                ? this.text.charAt(this.position) : 0;
+    }
+
+    /**
+     * Skip any whitespace.
+     */
+    private void skipSpace() {
+        while (this.position < this.text.length()
+                && Character.isWhitespace(this.text.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    /**
+     * Create an exception for a parse error at the current position.
+     * @param message what went wrong
+     * @return the exception
+     */
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at position "
+                + this.position + " of rule " + this.name + ": " + this.text);
+    }
+
+    /**
+     * Whether one operand is less than another.
+     * @param a the first operand
+     * @param b the second operand
+     * @return a &lt; b
+     */
+    private static boolean lt(final long a, final long b) {
+        return a < b;
+    }
+
+    /**
+     * Whether one operand is at most another.
+     * @param a the first operand
+     * @param b the second operand
+     * @return a &lt;= b
+     */
+    private static boolean le(final long a, final long b) {
+        return a <= b;
+    }
+
+    /**
+     * Whether two operands are equal.
+     * @param a the first operand
+     * @param b the second operand
+     * @return a == b
+     */
+    private static boolean eq(final long a, final long b) {
+        return a == b;
+    }
+
+    /**
+     * The negation of a condition.
+     * @param a the condition
+     * @return !a
+     */
+    private static boolean not(final boolean a) {
+        return !a;
+    }
+
+    /**
+     * The sum of two operands.
+     * @param a the first operand
+     * @param b the second operand
+     * @return a + b
+     */
+    private static long add(final long a, final long b) {
+        return a + b;
+    }
+
+    /**
+     * The difference of two operands.
+     * @param a the first operand
+     * @param b the second operand
+     * @return a - b
+     */
+    private static long subtract(final long a, final long b) {
+        return a - b;
+    }
+
+    /**
+     * The product of two operands.
+     * @param a the first operand
+     * @param b the second operand
+     * @return a * b
+     */
+    private static long multiply(final long a, final long b) {
+        return a * b;
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * One cell of a parameter sweep: a number of slips and a range of values,
+ * which together fix the distribution of the deals.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class SweepCell {
+
+    /** The number of slips in each round. */
+    private final int numslips;
+    /** The range from which slip values are drawn. */
+    private final ValueRange range;
+
+    /**
+     * Create a cell.
+     * @param numberOfSlips the number of slips in each round
+     * @param values        the range from which slip values are drawn
+     */
+    public SweepCell(final int numberOfSlips, final ValueRange values) {
+        this.numslips = numberOfSlips;
+        this.range = values;
+    }
+
+    /**
+     * Access the number of slips in each round.
+     * @return the number of slips
+     */
+    public int getNumberOfSlips() {
+        return this.numslips;
+    }
+
+    /**
+     * Access the range from which slip values are drawn.
+     * @return the range of values
+     */
+    public ValueRange getRange() {
+        return this.range;
+    }
+
+    /**
+     * Compares this cell to another object for equality.
+     * @param other the object to compare to
+     * @return true if other is a cell with the same parameters
+     */
+    public boolean equals(final Object other) {
+        if (!(other instanceof SweepCell)) {
+            return false;
+        }
+        SweepCell that = (SweepCell) other;
+        return this.numslips == that.numslips && this.range.equals(that.range);
+    }
+
+    /**
+     * Returns a hash code consistent with equals.
+     * @return the hash code of this cell
+     */
+    public int hashCode() {
+        return this.numslips * 31 + this.range.hashCode();
+    }
+
+    /**
+     * Returns this cell in the form slips@range.
+     * @return the string form of this cell
+     */
+    public String toString() {
+        return this.numslips + "@" + this.range;
+    }
+}
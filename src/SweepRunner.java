@@ -0,0 +1,107 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs every cell of a parameter sweep on one shared pool of threads. Each
+ * cell is split into chunks as by SlipHypoTester.simulatePlayInParallel, and
+ * the chunks of all cells are queued on a work-stealing pool at once, so
+ * threads that finish a small cell move on to the chunks of larger ones.
+ * Rows are written as their cells finish.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SweepRunner {
+
+    /** The number of threads to simulate on. */
+    private final int parallelism;
+
+    /**
+     * Create a runner.
+     *
+     * @param threads the number of threads to simulate on
+     */
+    public SweepRunner(final int threads) {
+        this.parallelism = threads;
+    }
+
+    /**
+     * Run every cell of a sweep, writing each cell's row to every writer as
+     * the cell finishes. The writers are not closed.
+     *
+     * @param spec    the grid of the sweep
+     * @param writers where to write the rows
+     * @return map from each cell to its map from ThreeSlipStrategy object to
+     * number of wins associated with that strategy, in grid order
+     */
+    public Map<SweepCell, Map<ThreeSlipStrategy, Long>> run(
+            final SweepSpec spec, final SweepWriter... writers) {
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        Map<SweepCell, CompletableFuture<Map<ThreeSlipStrategy, Long>>>
+                futures = new LinkedHashMap<>();
+        try {
+            for (SweepCell cell : spec.getCells()) {
+                futures.put(cell, newRun(spec, cell).start(pool)
+                        .thenApply(winMap -> write(writers, cell,
+                                spec.getNumberOfRounds(), winMap)));
+            }
+            Map<SweepCell, Map<ThreeSlipStrategy, Long>> results =
+                    new LinkedHashMap<>();
+            for (Map.Entry<SweepCell,
+                    CompletableFuture<Map<ThreeSlipStrategy, Long>>> entry
+                    : futures.entrySet()) {
+                results.put(entry.getKey(),
+                        SimulationWorker.await(entry.getValue()));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Prepare the simulation of a cell.
+     *
+     * @param spec the grid of the sweep
+     * @param cell the cell
+     * @return the simulation, not yet started
+     */
+    private SimulationRun newRun(final SweepSpec spec, final SweepCell cell) {
+        SlipHypoTester tester = spec.newTester(cell);
+        ValueRange range = cell.getRange();
+        if (range.hasBounds()) {
+            return tester.newSimulationRun(spec.getNumberOfRounds(),
+                    range.getMinimum(), range.getMaximum(), this.parallelism);
+        }
+        return tester.newSimulationRun(spec.getNumberOfRounds(),
+                this.parallelism);
+    }
+
+    /**
+     * Write the row of a finished cell to every writer.
+     *
+     * @param writers        where to write the row
+     * @param cell           the cell
+     * @param numberOfRounds the number of rounds simulated in the cell
+     * @param winMap         map from ThreeSlipStrategy object to number of
+     *                       wins associated with that strategy
+     * @return winMap
+     */
+    private static Map<ThreeSlipStrategy, Long> write(
+            final SweepWriter[] writers, final SweepCell cell,
+            final long numberOfRounds,
+            final Map<ThreeSlipStrategy, Long> winMap) {
+        try {
+            for (SweepWriter writer : writers) {
+                writer.write(cell, numberOfRounds, winMap);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return winMap;
+    }
+}
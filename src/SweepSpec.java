@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The grid of a parameter sweep: every combination of the given slip counts
+ * and value ranges, each simulated for the same number of rounds from the
+ * same seed, reporting the given strategies.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class SweepSpec {
+
+    /** The number of rounds to simulate in each cell. */
+    private final long numberOfRounds;
+    /** The distinct cells of the grid, in order. */
+    private final List<SweepCell> cells;
+    /** The strategies to report. */
+    private final List<ThreeSlipStrategy> strategies;
+    /** The random number generator with which rounds are dealt. */
+    private final RandomAlgorithm algorithm;
+    /** The seed from which every cell's rounds are dealt. */
+    private final long seed;
+
+    /**
+     * Create the grid of a sweep. Every cell is dealt from the same seed, so
+     * the result of any cell can be replayed by a SlipHypoTester with that
+     * seed. Cells that differ only in strategy are the same cell, and every
+     * strategy is scored against its deals in one pass; cells with different
+     * slip counts or ranges are dealt their own rounds.
+     *
+     * @param rounds        the number of rounds to simulate in each cell
+     * @param slipCounts    the numbers of slips, each at least three
+     * @param ranges        the ranges of slip values
+     * @param reported      the strategies to report
+     * @param rng           the random number generator with which rounds
+     *                      are dealt
+     * @param masterSeed    the seed from which rounds are dealt
+     */
+    public SweepSpec(final long rounds, final int[] slipCounts,
+                     final ValueRange[] ranges,
+                     final ThreeSlipStrategy[] reported,
+                     final RandomAlgorithm rng, final long masterSeed) {
+        Set<SweepCell> grid = new LinkedHashSet<>();
+        for (int numberOfSlips : slipCounts) {
+            if (numberOfSlips < 3) {
+                throw new IllegalArgumentException("The three-slip game"
+                        + " needs at least 3 slips, not " + numberOfSlips);
+            }
+            for (ValueRange range : ranges) {
+                if (range.size() < numberOfSlips) {
+                    throw new IllegalArgumentException("The range " + range
+                            + " has fewer than " + numberOfSlips
+                            + " distinct values");
+                }
+                grid.add(new SweepCell(numberOfSlips, range));
+            }
+        }
+        this.numberOfRounds = rounds;
+        this.cells = new ArrayList<>(grid);
+        this.strategies = Arrays.asList(reported.clone());
+        this.algorithm = rng;
+        this.seed = masterSeed;
+    }
+
+    /**
+     * Returns the number of rounds to simulate in each cell.
+     * @return the number of rounds
+     */
+    public long getNumberOfRounds() {
+        return this.numberOfRounds;
+    }
+
+    /**
+     * Returns the distinct cells of the grid, in order.
+     * @return the cells
+     */
+    public List<SweepCell> getCells() {
+        return new ArrayList<>(this.cells);
+    }
+
+    /**
+     * Returns the strategies to report.
+     * @return the strategies, in order
+     */
+    public List<ThreeSlipStrategy> getStrategies() {
+        return new ArrayList<>(this.strategies);
+    }
+
+    /**
+     * Create a tester for a cell of this grid.
+     * @param cell the cell
+     * @return a tester with the cell's number of slips and this grid's seed
+     */
+    public SlipHypoTester newTester(final SweepCell cell) {
+        return new SlipHypoTester(cell.getNumberOfSlips(), this.algorithm,
+                this.seed);
+    }
+}
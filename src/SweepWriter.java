@@ -0,0 +1,25 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes the results of a parameter sweep, one row per cell, as cells
+ * finish. Rows may be written from several threads.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public interface SweepWriter extends Closeable {
+
+    /**
+     * Write the row of a finished cell.
+     *
+     * @param cell           the cell
+     * @param numberOfRounds the number of rounds simulated in the cell
+     * @param winMap         map from ThreeSlipStrategy object to number of
+     *                       wins associated with that strategy
+     * @throws IOException if the row cannot be written
+     */
+    void write(SweepCell cell, long numberOfRounds,
+               Map<ThreeSlipStrategy, Long> winMap) throws IOException;
+}
@@ -0,0 +1,88 @@
+/**
+ * The candidate values of one threshold of a ThresholdPolicy searched by a
+ * ThresholdOptimizer, evenly spaced from a smallest value. The number of
+ * candidates below a slip value is computed rather than searched for, so a
+ * round is placed on the axis in constant time.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+final class ThresholdAxis {
+
+    /** The smallest candidate. */
+    private final long lowest;
+    /** The distance between neighbouring candidates, at least one. */
+    private final long step;
+    /** The number of candidates. */
+    private final int count;
+
+    /**
+     * Create an axis covering a range of thresholds with at most a given
+     * number of candidates. The candidates start at the lower end and are as
+     * close together as the number allows, so the last may fall short of
+     * the upper end by less than a step.
+     *
+     * @param lower   the smallest threshold
+     * @param upper   the largest threshold
+     * @param maximum the greatest number of candidates
+     */
+    ThresholdAxis(final long lower, final long upper, final int maximum) {
+        long span = upper - lower;
+        this.lowest = lower;
+        this.step = Math.max(1, (span + maximum - 2) / (maximum - 1));
+        this.count = (int) Math.min(maximum, span / this.step + 1);
+    }
+
+    /**
+     * Returns the number of candidates.
+     * @return the number of candidates
+     */
+    int size() {
+        return this.count;
+    }
+
+    /**
+     * Returns the distance between neighbouring candidates.
+     * @return the step, at least one
+     */
+    long getStep() {
+        return this.step;
+    }
+
+    /**
+     * Returns a candidate.
+     * @param index the index of the candidate
+     * @return its threshold
+     */
+    long valueAt(final int index) {
+        return this.lowest + index * this.step;
+    }
+
+    /**
+     * Returns the number of candidates a slip value exceeds, which are those
+     * with the smallest indices.
+     *
+     * @param value the slip value
+     * @return the number of candidates below the value
+     */
+    int countBelow(final int value) {
+        if (value <= this.lowest) {
+            return 0;
+        }
+        return (int) Math.min(this.count,
+                (value - this.lowest + this.step - 1) / this.step);
+    }
+
+    /**
+     * Returns an axis spanning the neighbours of a candidate with the same
+     * greatest number of candidates, so its step is finer.
+     *
+     * @param index   the index of the candidate to zoom in on
+     * @param maximum the greatest number of candidates
+     * @return the finer axis
+     */
+    ThresholdAxis zoom(final int index, final int maximum) {
+        return new ThresholdAxis(valueAt(Math.max(0, index - 1)),
+                valueAt(Math.min(this.count - 1, index + 1)), maximum);
+    }
+}
@@ -0,0 +1,174 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Searches for the ThresholdPolicy with the most wins in a game with a
+ * bounded range of values. Each stage scores a grid of candidate thresholds
+ * for both slip positions against the same rounds, which costs about as
+ * much as simulating one strategy since a ThresholdWorker places each round
+ * on the grid in constant time, then narrows the grid to the neighbours of
+ * its best candidate for the next stage. Every candidate of a stage plays
+ * the same rounds, so the noise common to all of them cancels when they are
+ * compared. The best policy of the last stage is checked against fresh
+ * rounds alongside the informed strategy, so its reported win rate is not
+ * biased upwards by having been picked as the best.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class ThresholdOptimizer {
+
+    /** The greatest number of candidates of each threshold in a stage. */
+    static final int GRID_SIZE = 256;
+    /** The number of stages of the search. */
+    static final int STAGES = 4;
+
+    /** The number of slips in each round. */
+    private final int numslips;
+    /** The smallest of the range of slip values. */
+    private final int minimum;
+    /** The largest of the range of slip values. */
+    private final int maximum;
+    /** Creates the deal source of a chunk from its stream. */
+    private final Function<RandomSource, DealSource> dealer;
+    /** The number of threads to simulate on. */
+    private final int parallelism;
+
+    /**
+     * Create an optimizer.
+     *
+     * @param numberOfSlips the number of slips in each round, which must be
+     *                      three, since a policy only looks at the first
+     *                      three slips and would lose every round won by a
+     *                      later one
+     * @param lower         the smallest of the range of slip values
+     * @param upper         the largest of the range of slip values
+     * @param deals         creates the deal source of a chunk of rounds
+     *                      from its stream
+     * @param threads       the number of threads to simulate on
+     * @throws IllegalArgumentException if there are not three slips
+     */
+    public ThresholdOptimizer(final int numberOfSlips, final int lower,
+                              final int upper,
+                              final Function<RandomSource, DealSource> deals,
+                              final int threads) {
+        if (numberOfSlips != SlipHypoTester.STANDARD_NUMBER_OF_SLIPS) {
+            throw new IllegalArgumentException("Threshold policies choose"
+                    + " among three slips, not " + numberOfSlips);
+        }
+        this.numslips = numberOfSlips;
+        this.minimum = lower;
+        this.maximum = upper;
+        this.dealer = deals;
+        this.parallelism = threads;
+    }
+
+    /**
+     * Search for the best policy, spending the given number of rounds over
+     * the stages of the search and as many again checking the result. The
+     * rounds of each stage and of the check are split into chunks of a fixed
+     * size, each dealt from its own stream split from the master source, so
+     * the result does not depend on the number of threads.
+     *
+     * @param master         the source from which every stream is split
+     * @param numberOfRounds the number of rounds to search over, and to
+     *                       check the best policy against
+     * @return the best policy found
+     */
+    public ThresholdResult optimize(final RandomSource master,
+                                    final long numberOfRounds) {
+        ThresholdAxis first = new ThresholdAxis((long) this.minimum - 1,
+                this.maximum, GRID_SIZE);
+        ThresholdAxis second = new ThresholdAxis((long) this.minimum - 1,
+                this.maximum, GRID_SIZE);
+        long stageRounds = numberOfRounds / STAGES;
+        long candidates = 0;
+        ThresholdPolicy best = null;
+        for (int stage = 0; stage < STAGES; stage++) {
+            List<ThresholdWorker> workers = new ArrayList<>();
+            for (long start = 0; start < stageRounds;
+                 start += SlipHypoTester.CHUNK_ROUNDS) {
+                long rounds = Math.min(SlipHypoTester.CHUNK_ROUNDS,
+                        stageRounds - start);
+                workers.add(new ThresholdWorker(rounds, first, second,
+                        this.dealer.apply(master.split()), this.numslips));
+            }
+            long[] grid = SimulationWorker.runAll(workers, this.parallelism,
+                    ThresholdWorker.gridLength(first, second));
+            ThresholdWorker.accumulate(grid, first, second);
+            int stride = second.size() + 1;
+            int bestFirst = 0;
+            int bestSecond = 0;
+            for (int a = 0; a < first.size(); a++) {
+                for (int b = 0; b < second.size(); b++) {
+                    if (grid[a * stride + b]
+                            > grid[bestFirst * stride + bestSecond]) {
+                        bestFirst = a;
+                        bestSecond = b;
+                    }
+                }
+            }
+            candidates += (long) first.size() * second.size();
+            best = new ThresholdPolicy(first.valueAt(bestFirst),
+                    second.valueAt(bestSecond));
+            first = first.zoom(bestFirst, GRID_SIZE);
+            second = second.zoom(bestSecond, GRID_SIZE);
+        }
+        ThresholdPolicy policy = best;
+        ThresholdPolicy informed = ThresholdPolicy.informed(this.minimum,
+                this.maximum);
+        List<Callable<long[]>> checks = new ArrayList<>();
+        for (long start = 0; start < numberOfRounds;
+             start += SlipHypoTester.CHUNK_ROUNDS) {
+            long rounds = Math.min(SlipHypoTester.CHUNK_ROUNDS,
+                    numberOfRounds - start);
+            DealSource source = this.dealer.apply(master.split());
+            checks.add(() -> compare(rounds, source, policy, informed));
+        }
+        return new ThresholdResult(policy, stageRounds * STAGES, candidates,
+                numberOfRounds,
+                SimulationWorker.runAll(checks, this.parallelism, 4));
+    }
+
+    /**
+     * Play two policies against the same rounds.
+     *
+     * @param rounds the number of rounds to play
+     * @param source the source from which rounds are dealt
+     * @param policy the first policy
+     * @param other  the second policy
+     * @return the number of rounds the first policy won, the second won,
+     * only the first won and only the second won, in that order
+     */
+    private long[] compare(final long rounds, final DealSource source,
+                           final ThresholdPolicy policy,
+                           final ThresholdPolicy other) {
+        long[] counts = new long[4];
+        int[] deal = new int[this.numslips];
+        for (long r = 0; r < rounds; r++) {
+            source.fill(deal);
+            int winner = 0;
+            for (int i = 1; i < this.numslips; i++) {
+                if (deal[i] > deal[winner]) {
+                    winner = i;
+                }
+            }
+            boolean won = policy.chooseIndexFrom(deal) == winner;
+            boolean otherWon = other.chooseIndexFrom(deal) == winner;
+            if (won) {
+                counts[0]++;
+            }
+            if (otherWon) {
+                counts[1]++;
+            }
+            if (won && !otherWon) {
+                counts[2]++;
+            } else if (otherWon && !won) {
+                counts[3]++;
+            }
+        }
+        return counts;
+    }
+}
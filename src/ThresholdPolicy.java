@@ -0,0 +1,89 @@
+/**
+ * A value-threshold policy for the first three slips of a game with a
+ * bounded range of values: keep the first slip if its value exceeds the
+ * first threshold; otherwise keep the second slip if it is larger than the
+ * first and its value exceeds the second threshold; otherwise keep the
+ * third. The informed strategy is the policy whose first threshold is the
+ * largest value of the range and whose second is below the smallest, and
+ * keeping the original slip is any policy whose first threshold is below
+ * the smallest value.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class ThresholdPolicy {
+
+    /** The value the first slip must exceed to be kept. */
+    private final long firstThreshold;
+    /** The value the second slip must exceed to be kept. */
+    private final long secondThreshold;
+
+    /**
+     * Create a policy.
+     *
+     * @param first  the value the first slip must exceed to be kept
+     * @param second the value the second slip must exceed to be kept, if it
+     *               is larger than the first
+     */
+    public ThresholdPolicy(final long first, final long second) {
+        this.firstThreshold = first;
+        this.secondThreshold = second;
+    }
+
+    /**
+     * Returns the policy equivalent to the informed strategy over a range of
+     * values, which never keeps the first slip and keeps the second whenever
+     * it is larger.
+     *
+     * @param minimum the smallest of the range of slip values
+     * @param maximum the largest of the range of slip values
+     * @return the informed policy
+     */
+    public static ThresholdPolicy informed(final int minimum,
+                                           final int maximum) {
+        return new ThresholdPolicy(maximum, (long) minimum - 1);
+    }
+
+    /**
+     * Returns the value the first slip must exceed to be kept.
+     * @return the first threshold
+     */
+    public long getFirstThreshold() {
+        return this.firstThreshold;
+    }
+
+    /**
+     * Returns the value the second slip must exceed to be kept.
+     * @return the second threshold
+     */
+    public long getSecondThreshold() {
+        return this.secondThreshold;
+    }
+
+    /**
+     * Choose a slip of a deal.
+     *
+     * @param deal the slip values of a round, of which the first three are
+     *             looked at
+     * @return the index of the slip kept
+     */
+    public int chooseIndexFrom(final int[] deal) {
+        if (deal[0] > this.firstThreshold) {
+            return 0;
+        }
+        if (deal[1] > deal[0] && deal[1] > this.secondThreshold) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Returns a description of this policy.
+     * @return the policy as text
+     */
+    public String toString() {
+        return "keep slip 1 above " + this.firstThreshold
+                + ", else slip 2 if larger and above " + this.secondThreshold
+                + ", else slip 3";
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * The best ThresholdPolicy found by a ThresholdOptimizer, with its number of
+ * wins over fresh rounds and those of the informed strategy over the same
+ * rounds, from which its win rate and advantage are bounded.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class ThresholdResult {
+
+    /** The best policy found. */
+    private final ThresholdPolicy policy;
+    /** The number of rounds spent searching. */
+    private final long searchRounds;
+    /** The number of policies scored while searching. */
+    private final long candidates;
+    /** The number of rounds the policy was checked against. */
+    private final long numberOfRounds;
+    /** The number of those rounds the policy won. */
+    private final long wins;
+    /** The number of those rounds the informed strategy won. */
+    private final long informedWins;
+    /** The number of rounds only the policy won. */
+    private final long onlyPolicy;
+    /** The number of rounds only the informed strategy won. */
+    private final long onlyInformed;
+
+    /**
+     * Create a result.
+     *
+     * @param best        the best policy found
+     * @param searched    the number of rounds spent searching
+     * @param scored      the number of policies scored while searching
+     * @param rounds      the number of rounds the policy was checked against
+     * @param counts      the number of rounds the policy won, the informed
+     *                    strategy won, only the policy won and only the
+     *                    informed strategy won, in that order
+     */
+    public ThresholdResult(final ThresholdPolicy best, final long searched,
+                           final long scored, final long rounds,
+                           final long[] counts) {
+        this.policy = best;
+        this.searchRounds = searched;
+        this.candidates = scored;
+        this.numberOfRounds = rounds;
+        this.wins = counts[0];
+        this.informedWins = counts[1];
+        this.onlyPolicy = counts[2];
+        this.onlyInformed = counts[3];
+    }
+
+    /**
+     * Returns the best policy found.
+     * @return the policy
+     */
+    public ThresholdPolicy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * Returns the number of rounds spent searching, not counting those the
+     * policy was checked against.
+     * @return the number of rounds
+     */
+    public long getSearchRounds() {
+        return this.searchRounds;
+    }
+
+    /**
+     * Returns the number of policies scored while searching.
+     * @return the number of candidates
+     */
+    public long getCandidateCount() {
+        return this.candidates;
+    }
+
+    /**
+     * Returns the number of fresh rounds the policy was checked against.
+     * @return the number of rounds
+     */
+    public long getNumberOfRounds() {
+        return this.numberOfRounds;
+    }
+
+    /**
+     * Returns the number of checked rounds the policy won.
+     * @return the number of wins
+     */
+    public long getWins() {
+        return this.wins;
+    }
+
+    /**
+     * Returns the number of checked rounds the informed strategy won.
+     * @return the number of wins
+     */
+    public long getInformedWins() {
+        return this.informedWins;
+    }
+
+    /**
+     * Returns the win rate of the policy over the checked rounds.
+     * @return the fraction of rounds the policy won
+     */
+    public double getRate() {
+        return (double) this.wins / this.numberOfRounds;
+    }
+
+    /**
+     * Returns the Wilson score interval around the win rate of the policy.
+     *
+     * @param z the z-score of the confidence level
+     * @return the interval
+     */
+    public ConfidenceInterval getInterval(final double z) {
+        return ConfidenceInterval.wilson(this.wins, this.numberOfRounds, z);
+    }
+
+    /**
+     * Returns the interval around the win rate of the policy minus that of
+     * the informed strategy, which played the same rounds.
+     *
+     * @param z the z-score of the confidence level
+     * @return the interval
+     */
+    public ConfidenceInterval getAdvantage(final double z) {
+        return ConfidenceInterval.pairedDifference(this.onlyPolicy,
+                this.onlyInformed, this.numberOfRounds, z);
+    }
+}
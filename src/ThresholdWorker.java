@@ -0,0 +1,132 @@
+import java.util.concurrent.Callable;
+
+/**
+ * Scores every ThresholdPolicy on a grid of candidate thresholds against the
+ * same chunk of rounds, in one pass over the rounds. A round decides each
+ * policy by which side of the slip values its thresholds fall on, so it adds
+ * one win to a few rectangles of the grid; the worker adds at most two
+ * corners of a difference grid per round, and the wins of every policy are
+ * the prefix sums of the merged grids. A worker owns its deal source, so
+ * chunks can run on different threads without sharing any state.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class ThresholdWorker implements Callable<long[]> {
+
+    /** The number of rounds to simulate. */
+    private final long numberOfRounds;
+    /** The candidates of the first threshold, the rows of the grid. */
+    private final ThresholdAxis first;
+    /** The candidates of the second threshold, the columns of the grid. */
+    private final ThresholdAxis second;
+    /** The source from which rounds are dealt. */
+    private final DealSource source;
+    /** The number of slips in each deal. */
+    private final int numslips;
+
+    /**
+     * Create a worker for a chunk of rounds.
+     *
+     * @param rounds        the number of rounds to simulate
+     * @param firstAxis     the candidates of the first threshold
+     * @param secondAxis    the candidates of the second threshold
+     * @param dealSource    the source from which rounds are dealt, which must
+     *                      not be shared with another worker
+     * @param numberOfSlips the number of slips in each deal, three
+     */
+    ThresholdWorker(final long rounds, final ThresholdAxis firstAxis,
+                    final ThresholdAxis secondAxis,
+                    final DealSource dealSource, final int numberOfSlips) {
+        this.numberOfRounds = rounds;
+        this.first = firstAxis;
+        this.second = secondAxis;
+        this.source = dealSource;
+        this.numslips = numberOfSlips;
+    }
+
+    /**
+     * Returns the length of a difference grid over two axes, with one more
+     * row and column than there are candidates.
+     *
+     * @param firstAxis  the candidates of the first threshold
+     * @param secondAxis the candidates of the second threshold
+     * @return the number of cells
+     */
+    static int gridLength(final ThresholdAxis firstAxis,
+                          final ThresholdAxis secondAxis) {
+        return (firstAxis.size() + 1) * (secondAxis.size() + 1);
+    }
+
+    /**
+     * Turn a merged difference grid into the number of wins of each policy
+     * in place, by prefix sums along the rows and then the columns. The wins
+     * of the policy with first threshold a and second threshold b are left
+     * at a * (second.size() + 1) + b.
+     *
+     * @param grid       the merged difference grid
+     * @param firstAxis  the candidates of the first threshold
+     * @param secondAxis the candidates of the second threshold
+     */
+    static void accumulate(final long[] grid, final ThresholdAxis firstAxis,
+                           final ThresholdAxis secondAxis) {
+        int stride = secondAxis.size() + 1;
+        for (int a = 1; a < firstAxis.size(); a++) {
+            int row = a * stride;
+            for (int b = 0; b < secondAxis.size(); b++) {
+                grid[row + b] += grid[row - stride + b];
+            }
+        }
+        for (int a = 0; a < firstAxis.size(); a++) {
+            int row = a * stride;
+            for (int b = 1; b < secondAxis.size(); b++) {
+                grid[row + b] += grid[row + b - 1];
+            }
+        }
+    }
+
+    /**
+     * Simulate this worker's rounds.
+     *
+     * @return the difference grid of this chunk's wins
+     */
+    public long[] call() {
+        int stride = this.second.size() + 1;
+        int rows = this.first.size();
+        long[] grid = new long[gridLength(this.first, this.second)];
+        int[] deal = new int[this.numslips];
+        for (long r = 0; r < this.numberOfRounds; r++) {
+            this.source.fill(deal);
+            int winner = 0;
+            for (int i = 1; i < this.numslips; i++) {
+                if (deal[i] > deal[winner]) {
+                    winner = i;
+                }
+            }
+            if (winner > 2) {
+                continue;
+            }
+            // Policies in rows below kept the first slip, the rest did not.
+            int kept = this.first.countBelow(deal[0]);
+            int corner = kept * stride;
+            if (winner == 0) {
+                grid[0]++;
+                grid[corner]--;
+            } else if (kept < rows) {
+                if (deal[1] > deal[0]) {
+                    // Columns below switched to the second slip.
+                    int switched = this.second.countBelow(deal[1]);
+                    if (winner == 1) {
+                        grid[corner]++;
+                        grid[corner + switched]--;
+                    } else {
+                        grid[corner + switched]++;
+                    }
+                } else if (winner == 2) {
+                    grid[corner]++;
+                }
+            }
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * The uniform distribution over a range of long values, for ranges that do
+ * not fit the int slip values of DealGenerator. Keys are the values.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class UniformLongDistribution implements ValueDistribution {
+
+    /** The smallest value. */
+    private final long minimum;
+    /** The number of values less one, as an unsigned long. */
+    private final long span;
+
+    /**
+     * Create the uniform distribution over a range.
+     *
+     * @param minimum the smallest value
+     * @param maximum the largest value
+     * @throws IllegalArgumentException if maximum is less than minimum
+     */
+    public UniformLongDistribution(final long minimum, final long maximum) {
+        if (maximum < minimum) {
+            throw new IllegalArgumentException("Empty range " + minimum
+                    + ".." + maximum);
+        }
+        this.minimum = minimum;
+        this.span = maximum - minimum;
+    }
+
+    /**
+     * Draw a value uniformly from the range, rejecting the few draws that
+     * would bias it.
+     *
+     * @param random the random number generator to draw from
+     * @return the value drawn, which is its own key
+     */
+    public long nextKey(final RandomSource random) {
+        if (this.span == -1) {
+            return random.nextLong();
+        }
+        long bound = this.span + 1;
+        long bits = random.nextLong();
+        long high = multiplyHigh(bits, bound);
+        long low = bits * bound;
+        if (Long.compareUnsigned(low, bound) < 0) {
+            long threshold = Long.remainderUnsigned(-bound, bound);
+            while (Long.compareUnsigned(low, threshold) < 0) {
+                bits = random.nextLong();
+                high = multiplyHigh(bits, bound);
+                low = bits * bound;
+            }
+        }
+        return this.minimum + high;
+    }
+
+    /**
+     * Returns the number of values in the range.
+     *
+     * @return the number of values, or Long.MAX_VALUE if there are at least
+     * that many
+     */
+    public long getSupportSize() {
+        return this.span >= 0 && this.span < Long.MAX_VALUE ? this.span + 1
+                : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned product of two longs.
+     *
+     * @param x a long, taken as unsigned
+     * @param y a long, taken as unsigned
+     * @return the high half of x times y
+     */
+    private static long multiplyHigh(final long x, final long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /**
+     * Returns the value a key stands for.
+     *
+     * @param key a key drawn by nextKey
+     * @return the key, as a double
+     */
+    public double toValue(final long key) {
+        return key;
+    }
+}
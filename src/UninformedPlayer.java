@@ -118,4 +118,67 @@ public class UninformedPlayer extends Player {
                 break;
         }
     }
+
+    /**
+     * Choose a slip based on the player's strategy from the values of a deal.
+     * @param values the values of the slips from which to choose
+     * @return the index of the chosen slip, or -1 if the strategy makes no
+     * choice
+     */
+    public int chooseIndexFrom(final int[] values) {
+        switch (strategy) {
+            case KEEP_ORIGINAL:
+                return 0;
+            case SWITCH_TO_REVEALED:
+                return 1;
+            case SWITCH_TO_UNKNOWN:
+                return 2;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Whether tallyBlock needs the values of every slip of a block.
+     * @return false, since this player counts from the columns
+     */
+    public boolean needsDeals() {
+        return false;
+    }
+
+    /**
+     * Score this player's strategy against a whole block of rounds. A
+     * strategy that makes no choice wins nothing. As in tally, a win by
+     * choosing the second slip also counts as keeping it, and a win by
+     * choosing the third as discarding it.
+     * @param block  the rounds to score against
+     * @param kernel the kernel counting wins over the block
+     */
+    public void tallyBlock(final DealBlock block, final BlockKernel kernel) {
+        int[] first = block.first();
+        int[] second = block.second();
+        int[] third = block.third();
+        int[] rest = block.rest();
+        int size = block.size();
+        switch (strategy) {
+            case KEEP_ORIGINAL:
+                this.winCount += kernel.countWins(first, second, third, rest,
+                        size);
+                break;
+            case SWITCH_TO_REVEALED:
+                long keep = kernel.countWins(second, first, third, rest,
+                        size);
+                this.keepSecondCount += keep;
+                this.winCount += keep;
+                break;
+            case SWITCH_TO_UNKNOWN:
+                long discard = kernel.countWins(third, first, second, rest,
+                        size);
+                this.discardSecondCount += discard;
+                this.winCount += discard;
+                break;
+            default:
+                break;
+        }
+    }
 }
@@ -0,0 +1,80 @@
+/**
+ * A distribution of slip values. The game depends only on the order of the
+ * values in a round, so a distribution draws each value as a long key whose
+ * order is the order of the values, and converts a key to its value only
+ * when the value itself is wanted. Keys of long-valued distributions are
+ * the values; keys of double-valued distributions are their bits, reordered
+ * by keyOf so that comparing keys as longs compares the values. A monotone
+ * transform of another distribution, such as the log-normal of the normal,
+ * shares the keys of the distribution it transforms and so costs no more
+ * to draw.
+ *
+ * <p>A distribution holds no state that changes as it is drawn from, so it
+ * may be shared between threads, each drawing from its own RandomSource.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public interface ValueDistribution {
+
+    /**
+     * Draw a value as its key.
+     *
+     * @param random the random number generator to draw from
+     * @return the key of the value drawn
+     */
+    long nextKey(RandomSource random);
+
+    /**
+     * Returns the value a key stands for.
+     *
+     * @param key a key drawn by nextKey
+     * @return the value
+     */
+    double toValue(long key);
+
+    /**
+     * Returns the number of distinct values this distribution can draw, or
+     * an upper bound on it. A round needs as many distinct values as it has
+     * slips, so a distribution with fewer could never complete one.
+     *
+     * @return the number of values that can be drawn, or Long.MAX_VALUE if
+     * there are at least that many
+     */
+    default long getSupportSize() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the key of a double value, whose order as a long is the order
+     * of the values. The mapping is its own inverse.
+     *
+     * @param value the value
+     * @return the key of the value
+     */
+    static long keyOf(final double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the double value of a key made by keyOf.
+     *
+     * @param key the key
+     * @return the value
+     */
+    static double valueOf(final long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+    }
+
+    /**
+     * Draw a double uniformly from 0 (inclusive) to 1 (exclusive) with 53
+     * random bits.
+     *
+     * @param random the random number generator to draw from
+     * @return a random double in [0, 1)
+     */
+    static double nextDouble(final RandomSource random) {
+        return (random.nextLong() >>> 11) * 0x1.0p-53;
+    }
+}
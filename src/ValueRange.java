@@ -0,0 +1,124 @@
+/**
+ * The range from which slip values are drawn: either the values of the
+ * empty constructor for Slip, or a bounded range of integers.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public final class ValueRange {
+
+    /** The range of the empty constructor for Slip. */
+    private static final ValueRange UNBOUNDED = new ValueRange(false, 0, 0);
+
+    /** Whether or not bounds are specified for the slip values. */
+    private final boolean bounded;
+    /** The smallest value of the range, if bounded. */
+    private final int minimum;
+    /** The largest value of the range, if bounded. */
+    private final int maximum;
+
+    /**
+     * Create a range.
+     * @param hasBounds whether or not bounds are specified
+     * @param min       the smallest value of the range, if bounded
+     * @param max       the largest value of the range, if bounded
+     */
+    private ValueRange(final boolean hasBounds, final int min,
+                       final int max) {
+        this.bounded = hasBounds;
+        this.minimum = min;
+        this.maximum = max;
+    }
+
+    /**
+     * Returns the range of the empty constructor for Slip,
+     * 0..Integer.MAX_VALUE - 1.
+     * @return the unbounded range
+     */
+    public static ValueRange unbounded() {
+        return UNBOUNDED;
+    }
+
+    /**
+     * Returns the range of integers from min to max inclusive.
+     * @param min the smallest value of the range
+     * @param max the largest value of the range, at least min
+     * @return the bounded range
+     */
+    public static ValueRange of(final int min, final int max) {
+        if (max < min) {
+            throw new IllegalArgumentException(
+                    "Empty range " + min + ".." + max);
+        }
+        return new ValueRange(true, min, max);
+    }
+
+    /**
+     * Predicate to check if this range is bounded.
+     * @return true if bounds are specified
+     */
+    public boolean hasBounds() {
+        return this.bounded;
+    }
+
+    /**
+     * Access the smallest value of this range, if bounded.
+     * @return the smallest value, or 0 if unbounded
+     */
+    public int getMinimum() {
+        return this.minimum;
+    }
+
+    /**
+     * Access the largest value of this range, if bounded.
+     * @return the largest value, or 0 if unbounded
+     */
+    public int getMaximum() {
+        return this.maximum;
+    }
+
+    /**
+     * Returns the number of distinct values in this range.
+     * @return the number of values
+     */
+    public long size() {
+        if (!this.bounded) {
+            return Integer.MAX_VALUE;
+        }
+        return (long) this.maximum - this.minimum + 1;
+    }
+
+    /**
+     * Compares this range to another object for equality.
+     * @param other the object to compare to
+     * @return true if other is the same range
+     */
+    public boolean equals(final Object other) {
+        if (!(other instanceof ValueRange)) {
+            return false;
+        }
+        ValueRange that = (ValueRange) other;
+        return this.bounded == that.bounded && this.minimum == that.minimum
+                && this.maximum == that.maximum;
+    }
+
+    /**
+     * Returns a hash code consistent with equals.
+     * @return the hash code of this range
+     */
+    public int hashCode() {
+        return (Boolean.hashCode(this.bounded) * 31 + this.minimum) * 31
+                + this.maximum;
+    }
+
+    /**
+     * Returns this range in the form min..max, or "unbounded".
+     * @return the string form of this range
+     */
+    public String toString() {
+        if (!this.bounded) {
+            return "unbounded";
+        }
+        return this.minimum + ".." + this.maximum;
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The progress of one simulation worker, written by the worker and read
+ * without locking by whoever takes snapshots of the simulation. The cell is
+ * padded so that workers publishing at the same time do not share a cache
+ * line.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class WorkerProgress {
+
+    /** The number of longs in a cache line, used as padding. */
+    private static final int PADDING = 8;
+    /** The index of the number of rounds completed. */
+    private static final int ROUNDS = PADDING;
+    /** The index of the first win count. */
+    private static final int COUNTS = ROUNDS + 1;
+
+    /** The rounds completed and win counts, between padding. */
+    private final AtomicLongArray cells;
+    /** The simulation notified of completed rounds. */
+    private final SimulationRun run;
+    /** The rounds completed at the last publication. */
+    private long published;
+
+    /**
+     * Create the progress cell of one worker.
+     *
+     * @param owner the simulation notified of completed rounds
+     */
+    public WorkerProgress(final SimulationRun owner) {
+        this.cells = new AtomicLongArray(
+                COUNTS + ThreeSlipStrategy.values().length + PADDING);
+        this.run = owner;
+    }
+
+    /**
+     * Publish the worker's progress. Only the worker owning this cell may
+     * call this.
+     *
+     * @param roundsCompleted the number of rounds the worker has completed
+     * @param counts          number of wins indexed by the ordinal of the
+     *                        ThreeSlipStrategy they are associated with
+     */
+    public void publish(final long roundsCompleted, final long[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            this.cells.setRelease(COUNTS + i, counts[i]);
+        }
+        this.cells.setRelease(ROUNDS, roundsCompleted);
+        this.run.recordRounds(roundsCompleted - this.published);
+        this.published = roundsCompleted;
+    }
+
+    /**
+     * Predicate to check if the simulation owning this cell has been
+     * cancelled, in which case its worker should stop.
+     *
+     * @return true if the simulation has been cancelled
+     */
+    public boolean isCancelled() {
+        return this.run.isCancelled();
+    }
+
+    /**
+     * Add the published win counts to a running total. The counts may be a
+     * little ahead of the published rounds while the worker is publishing.
+     *
+     * @param total the running total of win counts
+     * @return the number of rounds the worker had completed
+     */
+    public long addTo(final long[] total) {
+        long rounds = this.cells.getAcquire(ROUNDS);
+        for (int i = 0; i < total.length; i++) {
+            total[i] += this.cells.getAcquire(COUNTS + i);
+        }
+        return rounds;
+    }
+}
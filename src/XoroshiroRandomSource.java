@@ -0,0 +1,139 @@
+/**
+ * A RandomSource using the xoroshiro128++ generator of Blackman and Vigna, a
+ * fast non-cryptographic generator with a period of 2^128 - 1.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+public class XoroshiroRandomSource implements RandomSource {
+
+    /** The polynomial that advances the generator by 2^64 steps. */
+    private static final long[] JUMP = {
+            0x2bd7a6a6e99c2ddcL, 0x0992ccaf6a6fca05L
+    };
+    /** The increment of the SplitMix64 generator used for seeding. */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /** The mask of the low 32 bits of a long. */
+    private static final long LOW_BITS = 0xffffffffL;
+    /** The number of values of an unsigned 32-bit integer. */
+    private static final long TWO_TO_THE_32 = 1L << 32;
+
+    /** The first half of the state of this generator. */
+    private long s0;
+    /** The second half of the state of this generator. */
+    private long s1;
+    /** Whether this source was itself split from another source. */
+    private final boolean derived;
+
+    /**
+     * Create a source with the given seed. The state is filled from the seed
+     * with SplitMix64, so similar seeds give unrelated streams.
+     * @param seed the seed of this source
+     */
+    public XoroshiroRandomSource(final long seed) {
+        this(mix64(seed + GOLDEN_GAMMA), mix64(seed + 2 * GOLDEN_GAMMA),
+                false);
+    }
+
+    /**
+     * Create a source with the given state.
+     * @param state0 the first half of the state
+     * @param state1 the second half of the state
+     * @param derived whether the source is split from another source
+     */
+    private XoroshiroRandomSource(final long state0, final long state1,
+            final boolean derived) {
+        this.s0 = state0;
+        this.s1 = state1;
+        this.derived = derived;
+    }
+
+    /**
+     * Returns a random integer in the range 0 (inclusive) to bound
+     * (exclusive), using Lemire's multiply-and-shift method with rejection
+     * so that the result is unbiased.
+     * @param bound the upper bound (exclusive), which must be positive
+     * @return a random integer in the range 0..bound - 1
+     */
+    public int nextInt(final int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long product = (nextLong() >>> Integer.SIZE) * bound;
+        long low = product & LOW_BITS;
+        if (low < bound) {
+            long threshold = (TWO_TO_THE_32 - bound) % bound;
+            while (low < threshold) {
+                product = (nextLong() >>> Integer.SIZE) * bound;
+                low = product & LOW_BITS;
+            }
+        }
+        return (int) (product >>> Integer.SIZE);
+    }
+
+    /**
+     * Returns a random long.
+     * @return a random long
+     */
+    public long nextLong() {
+        final long a = this.s0;
+        long b = this.s1;
+        final long result = Long.rotateLeft(a + b, 17) + a;
+        b ^= a;
+        this.s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+        this.s1 = Long.rotateLeft(b, 28);
+        return result;
+    }
+
+    /**
+     * Returns a new source whose stream is independent of this source's.
+     * A source made from a seed hands out its current stream and jumps 2^64
+     * steps ahead, so the streams it splits in turn never overlap. A source
+     * that was itself split cannot do the same, since jumping it would run
+     * into the next stream its parent hands out; it seeds the new source
+     * from two of its own outputs through SplitMix64 instead, as
+     * SplittableRandom does, which makes an overlap vanishingly unlikely
+     * rather than impossible.
+     * @return a new source
+     */
+    public RandomSource split() {
+        if (this.derived) {
+            return new XoroshiroRandomSource(mix64(nextLong()),
+                    mix64(nextLong()), true);
+        }
+        RandomSource stream = new XoroshiroRandomSource(this.s0, this.s1,
+                true);
+        jump();
+        return stream;
+    }
+
+    /**
+     * Advance this generator by 2^64 steps.
+     */
+    private void jump() {
+        long t0 = 0;
+        long t1 = 0;
+        for (long word : JUMP) {
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                if ((word & (1L << bit)) != 0) {
+                    t0 ^= this.s0;
+                    t1 ^= this.s1;
+                }
+                nextLong();
+            }
+        }
+        this.s0 = t0;
+        this.s1 = t1;
+    }
+
+    /**
+     * The output function of SplitMix64.
+     * @param z the value to mix
+     * @return the mixed value
+     */
+    private static long mix64(final long z) {
+        long x = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+}
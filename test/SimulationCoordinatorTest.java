@@ -0,0 +1,142 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests that a SimulationCoordinator and its SimulationNodes give the
+ * results of SlipHypoTester.simulatePlayInParallel, keep nodes whose chunks
+ * outlast the timeout, and fail a job whose shard keeps losing its nodes.
+ *
+ * @author Bennett Alex Myers
+ * @version 3 October 2016
+ */
+@Timeout(value = 120, unit = TimeUnit.SECONDS)
+class SimulationCoordinatorTest {
+
+    /** The seed of every simulation. */
+    private static final long SEED = 42;
+
+    /**
+     * Simulate on two nodes of different widths, so shards are split and
+     * the last chunk is partial, and compare with the simulation in one JVM.
+     *
+     * @throws IOException if the coordinator cannot listen
+     */
+    @Test
+    void matchesSimulatePlayInParallel() throws IOException {
+        long rounds = 5 * SlipHypoTester.CHUNK_ROUNDS + 12345;
+        SlipHypoTester tester = new SlipHypoTester(10, SEED);
+        try (SimulationCoordinator coordinator = newCoordinator(30000)) {
+            startNode(coordinator, 2);
+            startNode(coordinator, 1);
+            assertEquals(tester.simulatePlayInParallel(rounds, 2),
+                    coordinator.simulatePlay(tester, rounds,
+                            ValueRange.unbounded()));
+            assertEquals(tester.simulatePlayInParallel(rounds, -50, 50, 2),
+                    coordinator.simulatePlay(tester, rounds,
+                            ValueRange.of(-50, 50)));
+        }
+    }
+
+    /**
+     * Simulate a chunk that takes many timeouts on one node, which only its
+     * heartbeats keep from being dropped.
+     *
+     * @throws IOException if the coordinator cannot listen
+     */
+    @Test
+    void keepsNodesWithLongChunks() throws IOException {
+        long rounds = SlipHypoTester.CHUNK_ROUNDS;
+        SlipHypoTester tester = new SlipHypoTester(100, SEED);
+        try (SimulationCoordinator coordinator = newCoordinator(100)) {
+            startNode(coordinator, 1);
+            assertEquals(tester.simulatePlayInParallel(rounds, 1),
+                    coordinator.simulatePlay(tester, rounds,
+                            ValueRange.unbounded()));
+        }
+    }
+
+    /**
+     * Greet the coordinator from nodes that never answer their shard, and
+     * check the job fails once its shard has been lost with MAX_LOSSES of
+     * them.
+     *
+     * @throws IOException if the coordinator cannot listen or a node cannot
+     *                     connect
+     */
+    @Test
+    void failsJobsLostWithTooManyNodes() throws IOException {
+        try (SimulationCoordinator coordinator = newCoordinator(100)) {
+            ShardedJob job = coordinator.submit(new SlipHypoTester(3, SEED),
+                    SlipHypoTester.CHUNK_ROUNDS, ValueRange.unbounded());
+            for (int i = 0; i < SimulationCoordinator.MAX_LOSSES; i++) {
+                try (Socket socket = new Socket()) {
+                    socket.connect(coordinator.getAddress());
+                    DataOutputStream out = new DataOutputStream(
+                            socket.getOutputStream());
+                    out.writeByte(ShardProtocol.HELLO);
+                    out.writeInt(ShardProtocol.MAGIC);
+                    out.writeShort(ShardProtocol.VERSION);
+                    out.writeInt(1);
+                    out.flush();
+                    DataInputStream in = new DataInputStream(
+                            socket.getInputStream());
+                    while (in.read() >= 0) {
+                        // Read the shard until the coordinator gives up.
+                    }
+                }
+            }
+            assertThrows(ExecutionException.class,
+                    () -> job.getResult().get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Create and start a coordinator on an ephemeral loopback port.
+     *
+     * @param timeoutMillis the time to wait for a message from a node
+     * @return the coordinator
+     * @throws IOException if the coordinator cannot listen
+     */
+    private static SimulationCoordinator newCoordinator(
+            final int timeoutMillis) throws IOException {
+        SimulationCoordinator coordinator = new SimulationCoordinator(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                timeoutMillis);
+        coordinator.start();
+        return coordinator;
+    }
+
+    /**
+     * Run a node of the coordinator on a daemon thread.
+     *
+     * @param coordinator the coordinator to connect to
+     * @param threads     the number of threads of the node
+     */
+    private static void startNode(final SimulationCoordinator coordinator,
+                                  final int threads) {
+        SimulationNode node = new SimulationNode(coordinator.getAddress(),
+                threads);
+        Thread thread = new Thread(() -> {
+            try {
+                node.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "test-node");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}